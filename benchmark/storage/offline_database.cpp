@@ -0,0 +1,66 @@
+#include <benchmark/benchmark.h>
+
+#include <mbgl/storage/offline_database.hpp>
+#include <mbgl/storage/resource.hpp>
+#include <mbgl/storage/response.hpp>
+#include <mbgl/util/io.hpp>
+
+#include <random>
+
+using namespace mbgl;
+
+static const std::string path = "offline_database_benchmark.db";
+
+static void deleteDatabase() {
+    for (const char* suffix : { "", "-wal", "-shm" }) {
+        try {
+            util::deleteFile(path + suffix);
+        } catch (util::IOException&) {
+            // Not created yet.
+        }
+    }
+}
+
+static std::shared_ptr<std::string> tileData(size_t size) {
+    // Random bytes don't compress, like the protobuf tiles they stand in for.
+    auto result = std::make_shared<std::string>(size, 0);
+    std::mt19937 random;
+
+    for (size_t i = 0; i < size; i++) {
+        (*result)[i] = random();
+    }
+
+    return result;
+}
+
+// Stores tiles the way a region download does, committing a transaction every range_x() tiles.
+// Items per second is the number of tiles inserted per second.
+static void OfflineDatabase_PutRegionTiles(benchmark::State& state) {
+    deleteDatabase();
+
+    Response response;
+    response.data = tileData(16 * 1024);
+
+    {
+        OfflineDatabase db(path);
+        db.setBatchSize(state.range_x());
+
+        OfflineRegionDefinition definition { "http://example.com/style", LatLngBounds::world(), 0, 14, 1.0 };
+        OfflineRegion region = db.createRegion(definition, {});
+
+        int32_t i = 0;
+        while (state.KeepRunning()) {
+            db.putRegionResource(region.getID(),
+                Resource::tile("http://example.com/{z}/{x}/{y}.pbf", 1.0, i % 4096, i / 4096, 12),
+                response);
+            i++;
+        }
+
+        db.commitBatch();
+    }
+
+    state.SetItemsProcessed(state.iterations());
+    deleteDatabase();
+}
+
+BENCHMARK(OfflineDatabase_PutRegionTiles)->Arg(1)->Arg(util::DEFAULT_OFFLINE_BATCH_SIZE);
@@ -8,9 +8,11 @@
 #include <mbgl/util/geo.hpp>
 #include <mbgl/util/feature.hpp>
 #include <mbgl/util/noncopyable.hpp>
+#include <mbgl/util/range.hpp>
 #include <mbgl/annotation/annotation.hpp>
 #include <mbgl/style/transition_options.hpp>
 
+#include <array>
 #include <cstdint>
 #include <string>
 #include <functional>
@@ -137,6 +139,9 @@ public:
     LatLng latLngForProjectedMeters(const ProjectedMeters&) const;
     ScreenCoordinate pixelForLatLng(const LatLng&) const;
     LatLng latLngForPixel(const ScreenCoordinate&) const;
+    // Column-major matrix that transforms world coordinates in pixels at the current zoom level,
+    // with the origin at the top left corner of the world, into clip space.
+    std::array<double, 16> getProjectionMatrix() const;
 
     // Annotations
     void addAnnotationIcon(const std::string&, std::shared_ptr<const SpriteImage>);
@@ -157,10 +162,42 @@ public:
     std::vector<Feature> queryRenderedFeatures(const ScreenCoordinate&, const optional<std::vector<std::string>>& layerIDs = {});
     std::vector<Feature> queryRenderedFeatures(const ScreenBox&,        const optional<std::vector<std::string>>& layerIDs = {});
 
+    // Prefetching
+    // Fetch the tiles and glyphs needed by the given camera positions, or by the viewport following
+    // a line across a range of zoom levels, into the ambient cache of the file source without
+    // rendering them. Fetching stops once `byteBudget` bytes were downloaded, 0 for unlimited.
+    // Sources of the current style that have not loaded their TileJSON yet are skipped.
+    void prefetch(const std::vector<CameraOptions>&, uint64_t byteBudget = 0);
+    void prefetchAlong(const std::vector<LatLng>&, const Range<uint8_t>& zoomRange, uint64_t byteBudget = 0);
+    void cancelPrefetch();
+
     // Memory
+    struct TileCacheStatistics {
+        uint64_t hits = 0;
+        uint64_t misses = 0;
+    };
+
     void setSourceTileCacheSize(size_t);
+    size_t getSourceTileCacheSize() const;
+    // Cumulative lookups of tiles in the source caches of the current style.
+    TileCacheStatistics getSourceTileCacheStatistics() const;
     void onLowMemory();
 
+    // Statistics
+    struct FrameStatistics {
+        // Time spent rendering the frame, and the parts of it spent uploading buffers and
+        // textures and drawing symbol layers. GL commands may complete later on the GPU.
+        Duration renderTime = Duration::zero();
+        Duration uploadTime = Duration::zero();
+        Duration symbolTime = Duration::zero();
+        // Tiles drawn, and tiles of the sources still waiting for data.
+        uint32_t renderedTiles = 0;
+        uint32_t pendingTiles = 0;
+    };
+
+    // Statistics of the last frame rendered.
+    FrameStatistics getFrameStatistics() const;
+
     // Debug
     void setDebug(MapDebugOptions);
     void cycleDebugOptions();
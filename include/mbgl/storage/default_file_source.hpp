@@ -61,6 +61,19 @@ public:
                              std::function<void (std::exception_ptr,
                                                  optional<OfflineRegion>)>);
 
+    /*
+     * Estimate the number of tiles and the size of a region before creating it, for
+     * instance to warn about the Mapbox tile count limit. The estimate is computed from
+     * the database without network requests; see `OfflineRegionEstimate` for its accuracy.
+     *
+     * The result will be passed to the given callback, which will be executed on the
+     * database thread; it is the responsibility of the SDK bindings to re-execute a
+     * user-provided callback on the main thread.
+     */
+    void estimateOfflineRegion(const OfflineRegionDefinition& definition,
+                               std::function<void (std::exception_ptr,
+                                                   optional<OfflineRegionEstimate>)>);
+
     /*
      * Register an observer to be notified when the state of the region changes.
      */
@@ -71,6 +84,15 @@ public:
      */
     void setOfflineRegionDownloadState(OfflineRegion&, OfflineRegionDownloadState);
 
+    /*
+     * Revalidate the stored resources of a region with the server and download the ones
+     * that changed, along with any that are missing. Resources are requested conditionally
+     * with their stored ETag or Last-Modified date, so unchanged resources are not
+     * downloaded again. The download becomes active; if it is interrupted, the next
+     * activation resumes the refresh with the resources that were not revalidated yet.
+     */
+    void refreshOfflineRegion(OfflineRegion&);
+
     /*
      * Retrieve the current status of the region. The query will be executed
      * asynchronously and the results passed to the given callback, which will be
@@ -97,6 +119,65 @@ public:
      */
     void deleteOfflineRegion(OfflineRegion&&, std::function<void (std::exception_ptr)>);
 
+    /*
+     * Write an offline region and its resources to a standalone file at the given path,
+     * replacing any existing file. The file can be copied to another device and added to its
+     * database with `importOfflineRegions`, without downloading the resources again.
+     *
+     * When the operation is complete or encounters an error, the given callback will be
+     * executed on the database thread; it is the responsibility of the SDK bindings
+     * to re-execute a user-provided callback on the main thread.
+     */
+    void exportOfflineRegion(OfflineRegion&, const std::string& path,
+                             std::function<void (std::exception_ptr)>);
+
+    /*
+     * Add the regions of a file written by `exportOfflineRegion` to the database. All regions
+     * are imported in a single transaction, so either all or none of them are added. Imports
+     * that would exceed the Mapbox tile count limit fail, like downloads that reach it.
+     *
+     * The imported regions are passed to the given callback, which will be executed on the
+     * database thread; it is the responsibility of the SDK bindings to re-execute a
+     * user-provided callback on the main thread. Like newly created regions, they are in an
+     * inactive download state.
+     */
+    void importOfflineRegions(const std::string& path,
+                              std::function<void (std::exception_ptr,
+                                                  optional<std::vector<OfflineRegion>>)>);
+
+    /*
+     * Limit the concurrency and bandwidth of the downloads of all offline regions. The
+     * policy applies to requests started after the call.
+     */
+    void setOfflineDownloadPolicy(const OfflineDownloadPolicy&);
+
+    /*
+     * Pause or resume the network requests of all active offline regions without changing
+     * their download state, for instance while the device is on a metered connection.
+     * Requests that are already in flight are completed.
+     */
+    void setOfflineDownloadsPaused(bool);
+
+    /*
+     * Set the maximum size of the database in bytes. Resources and tiles cached while
+     * rendering are evicted to stay below it, resources of offline regions are not. Lowering
+     * the size evicts right away, on the database thread.
+     */
+    void setMaximumAmbientCacheSize(uint64_t);
+
+    /*
+     * Choose which ambient cache entries are evicted first when the cache is full.
+     */
+    void setAmbientCacheEvictionPolicy(OfflineCacheEvictionPolicy);
+
+    /*
+     * Retrieve the sizes, entry counts and hit/miss counts of the ambient cache. The
+     * callback will be executed on the database thread; it is the responsibility of the
+     * SDK bindings to re-execute a user-provided callback on the main thread.
+     */
+    void getAmbientCacheStatistics(std::function<void (std::exception_ptr,
+                                                       optional<AmbientCacheStatistics>)>) const;
+
     /*
      * Changing or bypassing this limit without permission from Mapbox is prohibited
      * by the Mapbox Terms of Service.
@@ -13,6 +13,29 @@
 namespace mbgl {
 
 class TileID;
+class UnwrappedTileID;
+
+/*
+ * The shape of an offline region that is not a plain bounding box: either a polygon,
+ * given as its outer ring, or a corridor, a line buffered by `radius` meters on both
+ * sides. Only the tiles intersecting the shape are part of the region.
+ *
+ * A polygon needs at least three coordinates, a corridor at least one and a radius ≥ 0.
+ */
+class OfflineRegionShape {
+public:
+    enum class Type : uint8_t {
+        Polygon,
+        Corridor
+    };
+
+    Type type;
+    std::vector<LatLng> coordinates;
+    double radius = 0;
+
+    // The smallest bounds enclosing the shape, inclusive of the corridor buffer.
+    LatLngBounds bounds() const;
+};
 
 /*
  * An offline region defined by a style URL, geographic bounding box, zoom range, and
@@ -28,20 +51,30 @@ class TileID;
 class OfflineTilePyramidRegionDefinition {
 public:
     OfflineTilePyramidRegionDefinition(std::string, LatLngBounds, double, double, float);
+    OfflineTilePyramidRegionDefinition(std::string, OfflineRegionShape, double, double, float);
 
     /* Private */
     std::vector<CanonicalTileID> tileCover(SourceType, uint16_t tileSize, const Range<uint8_t>& zoomRange) const;
+    std::vector<uint64_t> tileCounts(SourceType, uint16_t tileSize, const Range<uint8_t>& zoomRange) const;
 
     const std::string styleURL;
     const LatLngBounds bounds;
     const double minZoom;
     const double maxZoom;
     const float pixelRatio;
+
+    // When set, `bounds` is the bounds of the shape and the tile cover is restricted to it.
+    const optional<OfflineRegionShape> shape;
+
+private:
+    std::vector<UnwrappedTileID> tileCover(int32_t z) const;
+    uint64_t tileCount(int32_t z) const;
 };
 
 /*
- * For the present, a tile pyramid is the only type of offline region. In the future,
- * other definition types will be available and this will be a variant type.
+ * For the present, a tile pyramid, optionally restricted to a shape, is the only type of
+ * offline region. In the future, other definition types will be available and this will
+ * be a variant type.
  */
 using OfflineRegionDefinition = OfflineTilePyramidRegionDefinition;
 
@@ -128,11 +161,175 @@ public:
      */
     bool requiredResourceCountIsPrecise = false;
 
+    /**
+     * The number of bytes received from the network since the download was last
+     * activated. Resources that were already in the database are not counted.
+     */
+    uint64_t downloadedSize = 0;
+
+    /**
+     * The average download rate, in bytes per second, since the download was last
+     * activated.
+     */
+    double downloadRate = 0;
+
+    /**
+     * The number of requests for this region that are currently in flight.
+     */
+    uint32_t activeRequestCount = 0;
+
+    /**
+     * The number of stored resources the server reported as unchanged while the
+     * region was being refreshed.
+     */
+    uint64_t unchangedResourceCount = 0;
+
+    /**
+     * The stored size, in bytes, of the resources counted by `unchangedResourceCount`,
+     * i.e. the data that did not need to be downloaded again.
+     */
+    uint64_t unchangedResourceSize = 0;
+
     bool complete() const {
         return completedResourceCount == requiredResourceCount;
     }
 };
 
+/*
+ * An estimate of the resources a region requires, computed from the database without
+ * any network request, before the region is created or downloaded.
+ *
+ * Tile counts are exact for the tile sources of the style when the style and the
+ * TileJSON of its sources are stored in the database, for instance because the style
+ * was displayed before or another region uses it. Otherwise the counts are those of a
+ * single source of 512 pixel tiles covering the zoom range of the region.
+ */
+class OfflineRegionEstimate {
+public:
+    /**
+     * The number of tiles, summed across the tile sources of the style, indexed by the
+     * zoom level of the tiles.
+     */
+    std::vector<uint64_t> tileCounts;
+
+    /**
+     * The total number of tiles, the sum of `tileCounts`.
+     */
+    uint64_t tileCount = 0;
+
+    /**
+     * The number of tiles that count towards the Mapbox tile count limit.
+     */
+    uint64_t mapboxTileCount = 0;
+
+    /**
+     * The number of resources, inclusive of tiles, the equivalent of
+     * `OfflineRegionStatus::requiredResourceCount`.
+     */
+    uint64_t resourceCount = 0;
+
+    /**
+     * True when the style and the TileJSON of all its sources were stored, so the counts
+     * match the ones the download will report.
+     */
+    bool precise = false;
+
+    /**
+     * The expected size in bytes, extrapolated from the average size of the stored
+     * resources of the same tile sources and kinds. Not available when no tiles of a
+     * source are stored yet.
+     */
+    optional<uint64_t> size;
+};
+
+/*
+ * The order in which ambient cache entries are evicted when the cache is full. Resources
+ * required by offline regions are never evicted.
+ *
+ * LeastRecentlyUsed evicts the entries that were read or written the longest time ago.
+ * LeastFrequentlyUsed evicts the entries with the fewest reads per stored byte first, so
+ * large entries that are rarely read go before small, popular ones; ties are broken by
+ * recency. New entries start with zero reads, so this favours a stable working set over
+ * recently fetched data.
+ */
+enum class OfflineCacheEvictionPolicy : uint8_t {
+    LeastRecentlyUsed,
+    LeastFrequentlyUsed
+};
+
+/*
+ * A snapshot of the ambient cache, the resources and tiles that are stored because they
+ * were requested while rendering rather than by an offline region.
+ */
+class AmbientCacheStatistics {
+public:
+    /**
+     * The maximum size of the database in bytes, inclusive of offline regions, beyond
+     * which ambient entries are evicted.
+     */
+    uint64_t maximumSize = 0;
+
+    /**
+     * The size of the database in bytes, inclusive of offline regions and free pages
+     * not reclaimed yet.
+     */
+    uint64_t databaseSize = 0;
+
+    /**
+     * The stored size in bytes of the ambient resources and tiles.
+     */
+    uint64_t size = 0;
+
+    uint64_t resourceCount = 0;
+    uint64_t tileCount = 0;
+
+    /**
+     * Lookups of the file source that were served from, or missed, the database since it
+     * was opened, inclusive of resources of offline regions.
+     */
+    uint64_t hits = 0;
+    uint64_t misses = 0;
+
+    /**
+     * The number of entries evicted since the database was opened.
+     */
+    uint64_t evictedCount = 0;
+
+    double hitRatio() const {
+        return hits + misses > 0 ? double(hits) / (hits + misses) : 0;
+    }
+};
+
+/*
+ * Limits applied to the network requests of offline region downloads. The limits are
+ * shared by all regions of a file source; a value of zero means no limit.
+ */
+class OfflineDownloadPolicy {
+public:
+    /**
+     * The maximum number of requests in flight at the same time for a single region.
+     */
+    uint32_t maximumRegionRequests = 0;
+
+    /**
+     * The maximum number of requests in flight at the same time across all regions.
+     */
+    uint32_t maximumRequests = 0;
+
+    /**
+     * The maximum rate, in bytes per second, at which resources are downloaded across
+     * all regions.
+     */
+    uint64_t maximumBytesPerSecond = 0;
+
+    /**
+     * When true, tiles are requested by ascending zoom level across all sources of a
+     * region, after the style, sources, sprites and glyphs. A partially downloaded
+     * region is then usable at lower zoom levels first.
+     */
+    bool zoomLevelFirst = false;
+};
+
 /*
  * A region can have a single observer, which gets notified whenever a change
  * to the region's status occurs.
@@ -14,6 +14,10 @@ public:
 
     std::unique_ptr<AsyncRequest> request(const Resource&, Callback) override;
 
+    // Change the priority of a request made by this file source. A request waiting for a free
+    // connection is queued again at its new priority.
+    void setPriority(AsyncRequest&, Resource::Priority);
+
 private:
     friend class OnlineFileRequest;
 
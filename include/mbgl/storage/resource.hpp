@@ -33,6 +33,12 @@ public:
         Required = true,
     };
 
+    // Low priority requests, such as prefetched tiles, wait until no other request is pending.
+    enum Priority : bool {
+        Regular = false,
+        Low = true,
+    };
+
     Resource(Kind kind_, std::string url_, optional<TileData> tileData_ = {}, Necessity necessity_ = Required)
         : kind(kind_),
           necessity(necessity_),
@@ -56,6 +62,7 @@ public:
 
     Kind kind;
     Necessity necessity;
+    Priority priority = Regular;
     std::string url;
 
     // Includes auxiliary data if this is a tile request.
@@ -37,6 +37,18 @@ constexpr double MAX_ZOOM = 25.5;
 
 constexpr uint64_t DEFAULT_MAX_CACHE_SIZE = 50 * 1024 * 1024;
 
+constexpr uint32_t DEFAULT_OFFLINE_BATCH_SIZE = 64;
+constexpr Seconds OFFLINE_BATCH_COMMIT_DELAY { 1 };
+
+// Eviction frees 1/OFFLINE_EVICTION_SLICE of the cache beyond what is needed, ranking at most
+// OFFLINE_EVICTION_CANDIDATES entries per pass.
+constexpr uint64_t OFFLINE_EVICTION_SLICE = 20;
+constexpr uint32_t OFFLINE_EVICTION_CANDIDATES = 1000;
+
+// Prefetching keeps at most PREFETCH_MAXIMUM_REQUESTS requests in flight, so it never fills
+// the request queue of the file source ahead of tiles the map needs.
+constexpr uint32_t PREFETCH_MAXIMUM_REQUESTS = 4;
+
 constexpr Duration DEFAULT_FADE_DURATION = Milliseconds(300);
 constexpr Seconds CLOCK_SKEW_RETRY_TIMEOUT { 30 };
 
@@ -4,6 +4,7 @@ import android.content.Context;
 import android.text.TextUtils;
 import com.mapbox.mapboxsdk.constants.MapboxConstants;
 import com.mapbox.mapboxsdk.exceptions.InvalidAccessTokenException;
+import com.mapbox.mapboxsdk.http.HttpClientConfig;
 import com.mapbox.mapboxsdk.telemetry.MapboxEventManager;
 
 public class MapboxAccountManager {
@@ -12,6 +13,7 @@ public class MapboxAccountManager {
 
     private final String accessToken;
     private final Context applicationContext;
+    private volatile HttpClientConfig httpClientConfig = HttpClientConfig.DEFAULT;
 
     /**
      * MapboxAccountManager should NOT be instantiated directly.
@@ -60,6 +62,27 @@ public class MapboxAccountManager {
         return accessToken;
     }
 
+    /**
+     * Configure the HTTP client used for map and offline requests.
+     * <p>
+     * The client is shared by all MapViews and offline regions of the application. Requests started
+     * after this call use the new configuration.
+     * </p>
+     *
+     * @param httpClientConfig the configuration to use, null restores the default configuration
+     */
+    public void setHttpClientConfig(HttpClientConfig httpClientConfig) {
+        this.httpClientConfig = httpClientConfig != null ? httpClientConfig : HttpClientConfig.DEFAULT;
+    }
+
+    /**
+     * HTTP client configuration for this application
+     * @return the current HttpClientConfig
+     */
+    public HttpClientConfig getHttpClientConfig() {
+        return httpClientConfig;
+    }
+
     /**
      * Runtime validation of Access Token
      *
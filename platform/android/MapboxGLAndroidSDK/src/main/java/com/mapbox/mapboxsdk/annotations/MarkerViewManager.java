@@ -1,7 +1,6 @@
 package com.mapbox.mapboxsdk.annotations;
 
 import android.content.Context;
-import android.graphics.PointF;
 import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
@@ -12,16 +11,20 @@ import android.view.ViewGroup;
 import android.widget.ImageView;
 
 import com.mapbox.mapboxsdk.R;
+import com.mapbox.mapboxsdk.geometry.LatLng;
 import com.mapbox.mapboxsdk.maps.MapView;
 import com.mapbox.mapboxsdk.maps.MapboxMap;
 import com.mapbox.mapboxsdk.maps.Projection;
 import com.mapbox.mapboxsdk.utils.AnimatorUtils;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Interface for interacting with ViewMarkers objects inside of a MapView.
@@ -31,14 +34,22 @@ import java.util.Map;
  */
 public class MarkerViewManager {
 
+    private static final long INVALIDATION_INTERVAL_MS = 16;
+
     private Map<MarkerView, View> markerViewMap;
     private MapboxMap mapboxMap;
     private MapView mapView;
     private List<MapboxMap.MarkerViewAdapter> markerViewAdapters;
+    private Map<Class<? extends MarkerView>, MapboxMap.MarkerViewAdapter> markerViewAdapterMap;
+    private Set<MarkerView> visibleMarkers;
     private long viewMarkerBoundsUpdateTime;
     private MapboxMap.OnMarkerViewClickListener onMarkerViewClickListener;
     private ImageMarkerViewAdapter defaultMarkerViewAdapter;
 
+    // reused across frames, only reallocated when the set of visible markers changes size
+    private double[] latLngBuffer = new double[0];
+    private float[] pixelBuffer = new float[0];
+
     /**
      * Creates an instance of MarkerViewManager.
      *
@@ -50,8 +61,11 @@ public class MarkerViewManager {
         this.markerViewAdapters = new ArrayList<>();
         this.mapView = mapView;
         this.markerViewMap = new HashMap<>();
+        this.markerViewAdapterMap = new HashMap<>();
+        this.visibleMarkers = new HashSet<>();
         this.defaultMarkerViewAdapter = new ImageMarkerViewAdapter(mapView.getContext());
         this.markerViewAdapters.add(defaultMarkerViewAdapter);
+        this.markerViewAdapterMap.put(defaultMarkerViewAdapter.getMarkerClass(), defaultMarkerViewAdapter);
     }
 
     /**
@@ -111,19 +125,41 @@ public class MarkerViewManager {
      * </p>
      */
     public void update() {
-        View convertView;
+        int count = markerViewMap.size();
+        if (count == 0) {
+            return;
+        }
+
+        if (latLngBuffer.length != count * 2) {
+            latLngBuffer = new double[count * 2];
+            pixelBuffer = new float[count * 2];
+        }
+
+        int index = 0;
+        LatLng position;
         for (MarkerView marker : markerViewMap.keySet()) {
-            convertView = markerViewMap.get(marker);
+            position = marker.getPosition();
+            latLngBuffer[index++] = position.getLatitude();
+            latLngBuffer[index++] = position.getLongitude();
+        }
+        mapboxMap.getProjection().toScreenLocations(latLngBuffer, pixelBuffer);
+
+        View convertView;
+        index = 0;
+        for (Map.Entry<MarkerView, View> entry : markerViewMap.entrySet()) {
+            MarkerView marker = entry.getKey();
+            convertView = entry.getValue();
+            float pointX = pixelBuffer[index++];
+            float pointY = pixelBuffer[index++];
             if (convertView != null) {
-                PointF point = mapboxMap.getProjection().toScreenLocation(marker.getPosition());
                 int x = (int) (marker.getAnchorU() * convertView.getMeasuredWidth());
                 int y = (int) (marker.getAnchorV() * convertView.getMeasuredHeight());
 
                 marker.setOffsetX(x);
                 marker.setOffsetY(y);
 
-                convertView.setX(point.x - x);
-                convertView.setY(point.y - y);
+                convertView.setX(pointX - x);
+                convertView.setY(pointY - y);
 
                 if (marker.isVisible() && convertView.getVisibility() == View.GONE) {
                     convertView.animate().cancel();
@@ -173,10 +209,9 @@ public class MarkerViewManager {
     public void deselect(@NonNull MarkerView marker) {
         final View convertView = markerViewMap.get(marker);
         if (convertView != null) {
-            for (MapboxMap.MarkerViewAdapter adapter : markerViewAdapters) {
-                if (adapter.getMarkerClass().equals(marker.getClass())) {
-                    adapter.onDeselect(marker, convertView);
-                }
+            MapboxMap.MarkerViewAdapter adapter = markerViewAdapterMap.get(marker.getClass());
+            if (adapter != null) {
+                adapter.onDeselect(marker, convertView);
             }
         }
     }
@@ -188,10 +223,9 @@ public class MarkerViewManager {
      */
     public void select(@NonNull MarkerView marker) {
         final View convertView = markerViewMap.get(marker);
-        for (MapboxMap.MarkerViewAdapter adapter : markerViewAdapters) {
-            if (adapter.getMarkerClass().equals(marker.getClass())) {
-                select(marker, convertView, adapter);
-            }
+        MapboxMap.MarkerViewAdapter adapter = markerViewAdapterMap.get(marker.getClass());
+        if (adapter != null) {
+            select(marker, convertView, adapter);
         }
     }
 
@@ -241,12 +275,9 @@ public class MarkerViewManager {
     public void removeMarkerView(MarkerView marker) {
         final View viewHolder = markerViewMap.get(marker);
         if (viewHolder != null && marker != null) {
-            for (final MapboxMap.MarkerViewAdapter<?> adapter : markerViewAdapters) {
-                if (adapter.getMarkerClass().equals(marker.getClass())) {
-                    if (adapter.prepareViewForReuse(marker, viewHolder)) {
-                        adapter.releaseView(viewHolder);
-                    }
-                }
+            MapboxMap.MarkerViewAdapter<?> adapter = markerViewAdapterMap.get(marker.getClass());
+            if (adapter != null && adapter.prepareViewForReuse(marker, viewHolder)) {
+                adapter.releaseView(viewHolder);
             }
         }
         markerViewMap.remove(marker);
@@ -255,7 +286,8 @@ public class MarkerViewManager {
     /**
      * Add a MarkerViewAdapter to the MarkerViewManager.
      * <p>
-     * The provided MarkerViewAdapter must use supply a generic subclass of MarkerView.
+     * The provided MarkerViewAdapter must use supply a generic subclass of MarkerView. When several
+     * adapters supply the same class, the first one added is used.
      * </p>
      *
      * @param markerViewAdapter the MarkerViewAdapter to add
@@ -267,6 +299,9 @@ public class MarkerViewManager {
 
         if (!markerViewAdapters.contains(markerViewAdapter)) {
             markerViewAdapters.add(markerViewAdapter);
+            if (!markerViewAdapterMap.containsKey(markerViewAdapter.getMarkerClass())) {
+                markerViewAdapterMap.put(markerViewAdapter.getMarkerClass(), markerViewAdapter);
+            }
             invalidateViewMarkersInBounds();
         }
     }
@@ -274,10 +309,10 @@ public class MarkerViewManager {
     /**
      * Get all MarkerViewAdapters associated with this MarkerViewManager.
      *
-     * @return a List of MarkerViewAdapters
+     * @return an unmodifiable List of MarkerViewAdapters
      */
     public List<MapboxMap.MarkerViewAdapter> getMarkerViewAdapters() {
-        return markerViewAdapters;
+        return Collections.unmodifiableList(markerViewAdapters);
     }
 
     /**
@@ -293,7 +328,7 @@ public class MarkerViewManager {
      * Schedule that ViewMarkers found in the viewport are invalidated.
      * <p>
      * This method is rate limited, and {@link #invalidateViewMarkersInBounds} will only be called
-     * once each 250 ms.
+     * once per frame.
      * </p>
      */
     public void scheduleViewMarkerInvalidation() {
@@ -303,94 +338,103 @@ public class MarkerViewManager {
                 return;
             }
             invalidateViewMarkersInBounds();
-            viewMarkerBoundsUpdateTime = currentTime + 250;
+            viewMarkerBoundsUpdateTime = currentTime + INVALIDATION_INTERVAL_MS;
         }
     }
 
     /**
      * Invalidate the ViewMarkers found in the viewport.
      * <p>
-     * This method will remove any markers that aren't in the viewport any more and will add new
-     * ones for each found Marker in the changed viewport.
+     * The MarkerViews found in the viewport are compared with the ones currently shown: views of
+     * markers that exited the viewport are released to their adapter and markers that entered
+     * the viewport are adapted to a View.
      * </p>
      */
     public void invalidateViewMarkersInBounds() {
         Projection projection = mapboxMap.getProjection();
         List<MarkerView> markers = mapView.getMarkerViewsInBounds(projection.getVisibleRegion().latLngBounds);
-        View convertView;
 
-        // remove old markers
-        Iterator<MarkerView> iterator = markerViewMap.keySet().iterator();
+        visibleMarkers.clear();
+        visibleMarkers.addAll(markers);
+
+        // release markers that exited the viewport
+        MarkerView marker;
+        View convertView;
+        MapboxMap.MarkerViewAdapter adapter;
+        Iterator<Map.Entry<MarkerView, View>> iterator = markerViewMap.entrySet().iterator();
         while (iterator.hasNext()) {
-            MarkerView m = iterator.next();
-            if (!markers.contains(m)) {
-                // remove marker
-                convertView = markerViewMap.get(m);
-                for (MapboxMap.MarkerViewAdapter adapter : markerViewAdapters) {
-                    if (adapter.getMarkerClass().equals(m.getClass())) {
-                        adapter.prepareViewForReuse(m, convertView);
-                        adapter.releaseView(convertView);
-                        iterator.remove();
-                    }
+            Map.Entry<MarkerView, View> entry = iterator.next();
+            marker = entry.getKey();
+            if (!visibleMarkers.contains(marker)) {
+                adapter = markerViewAdapterMap.get(marker.getClass());
+                if (adapter != null) {
+                    convertView = entry.getValue();
+                    adapter.prepareViewForReuse(marker, convertView);
+                    adapter.releaseView(convertView);
+                    iterator.remove();
                 }
             }
         }
 
-        // introduce new markers
-        for (final MarkerView marker : markers) {
+        // introduce markers that entered the viewport
+        for (int i = 0; i < markers.size(); i++) {
+            marker = markers.get(i);
             if (!markerViewMap.containsKey(marker)) {
-                for (final MapboxMap.MarkerViewAdapter adapter : markerViewAdapters) {
-                    if (adapter.getMarkerClass().equals(marker.getClass())) {
-                        convertView = (View) adapter.getViewReusePool().acquire();
-                        final View adaptedView = adapter.getView(marker, convertView, mapView);
-                        if (adaptedView != null) {
-
-                            // tilt
-                            adaptedView.setRotationX(marker.getTilt());
-
-                            // rotation
-                            adaptedView.setRotation(marker.getRotation());
-
-                            // alpha
-                            adaptedView.setAlpha(marker.getAlpha());
-
-                            // visible
-                            adaptedView.setVisibility(marker.isVisible() ? View.VISIBLE : View.GONE);
-
-                            if (mapboxMap.getSelectedMarkers().contains(marker)) {
-                                // if a marker to be shown was selected
-                                // replay that animation with duration 0
-                                if (adapter.onSelect(marker, adaptedView, true)) {
-                                    mapboxMap.selectMarker(marker);
-                                }
-                            }
-
-                            adaptedView.setOnClickListener(new View.OnClickListener() {
-                                @Override
-                                public void onClick(final View v) {
-                                    boolean clickHandled = false;
-                                    if (onMarkerViewClickListener != null) {
-                                        clickHandled = onMarkerViewClickListener.onMarkerClick(marker, v, adapter);
-                                    }
-
-                                    if (!clickHandled) {
-                                        // InfoWindow offset
-                                        int infoWindowOffsetX = (int) ((adaptedView.getWidth() * marker.getInfoWindowAnchorU()) - marker.getOffsetX());
-                                        int infoWindowOffsetY = (int) ((adaptedView.getHeight() * marker.getInfoWindowAnchorV()) - marker.getOffsetY());
-                                        marker.setTopOffsetPixels(infoWindowOffsetY);
-                                        marker.setRightOffsetPixels(infoWindowOffsetX);
-                                        select(marker, v, adapter);
-                                    }
-                                }
-                            });
-
-                            markerViewMap.put(marker, adaptedView);
-                            if (convertView == null) {
-                                mapView.addView(adaptedView);
-                            }
-                        }
+                adapter = markerViewAdapterMap.get(marker.getClass());
+                if (adapter != null) {
+                    addMarkerView(marker, adapter);
+                }
+            }
+        }
+    }
+
+    private void addMarkerView(final MarkerView marker, final MapboxMap.MarkerViewAdapter adapter) {
+        View convertView = (View) adapter.getViewReusePool().acquire();
+        final View adaptedView = adapter.getView(marker, convertView, mapView);
+        if (adaptedView != null) {
+
+            // tilt
+            adaptedView.setRotationX(marker.getTilt());
+
+            // rotation
+            adaptedView.setRotation(marker.getRotation());
+
+            // alpha
+            adaptedView.setAlpha(marker.getAlpha());
+
+            // visible
+            adaptedView.setVisibility(marker.isVisible() ? View.VISIBLE : View.GONE);
+
+            if (mapboxMap.getSelectedMarkers().contains(marker)) {
+                // if a marker to be shown was selected
+                // replay that animation with duration 0
+                if (adapter.onSelect(marker, adaptedView, true)) {
+                    mapboxMap.selectMarker(marker);
+                }
+            }
+
+            adaptedView.setOnClickListener(new View.OnClickListener() {
+                @Override
+                public void onClick(final View v) {
+                    boolean clickHandled = false;
+                    if (onMarkerViewClickListener != null) {
+                        clickHandled = onMarkerViewClickListener.onMarkerClick(marker, v, adapter);
+                    }
+
+                    if (!clickHandled) {
+                        // InfoWindow offset
+                        int infoWindowOffsetX = (int) ((adaptedView.getWidth() * marker.getInfoWindowAnchorU()) - marker.getOffsetX());
+                        int infoWindowOffsetY = (int) ((adaptedView.getHeight() * marker.getInfoWindowAnchorV()) - marker.getOffsetY());
+                        marker.setTopOffsetPixels(infoWindowOffsetY);
+                        marker.setRightOffsetPixels(infoWindowOffsetX);
+                        select(marker, v, adapter);
                     }
                 }
+            });
+
+            markerViewMap.put(marker, adaptedView);
+            if (convertView == null) {
+                mapView.addView(adaptedView);
             }
         }
     }
@@ -70,6 +70,16 @@ public class MapboxConstants {
      */
     public static final double MINIMUM_DIRECTION = 0;
 
+    /**
+     * Estimated memory used by a cached tile, used to convert memory budgets of the tile cache into tile counts
+     */
+    public static final long TILE_CACHE_ESTIMATED_TILE_BYTES = 256 * 1024;
+
+    /**
+     * Default number of bytes a prefetch may download, see MapboxMap#setPrefetchByteBudget(long)
+     */
+    public static final long PREFETCH_BYTE_BUDGET = 5 * 1024 * 1024;
+
     /**
      * Fragment Argument Key for MapboxMapOptions
      */
@@ -0,0 +1,45 @@
+package com.mapbox.mapboxsdk.constants;
+
+import android.support.annotation.IntDef;
+
+import com.mapbox.mapboxsdk.maps.MapboxMapOptions;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * RenderMode exposes the ways a map view can schedule the rendering of frames.
+ *
+ * @see MapboxMapOptions#renderMode(int)
+ */
+public class RenderMode {
+
+    /**
+     * Indicates the parameter accepts one of the values from {@link RenderMode}.
+     */
+    @IntDef({ON_DRAW, VSYNC, RENDER_THREAD})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Mode {
+    }
+
+    /**
+     * Frames are rendered on the UI thread when the map view is drawn after it was invalidated.
+     */
+    public static final int ON_DRAW = 0;
+
+    /**
+     * Frames are rendered on the UI thread at the start of a display frame, at most once per vsync and
+     * only when the map changed. Invalidations within the same display frame are merged. Requires
+     * Jelly Bean, earlier releases use {@link #ON_DRAW}.
+     */
+    public static final int VSYNC = 1;
+
+    /**
+     * Frames are rendered on a dedicated thread at the start of a display frame, like {@link #VSYNC}.
+     * The map lives on that thread: camera and annotation changes made on the UI thread are queued
+     * and applied between frames, so touch handling does not wait for the map to render. Requires
+     * Jelly Bean, earlier releases use {@link #ON_DRAW}.
+     */
+    public static final int RENDER_THREAD = 2;
+
+}
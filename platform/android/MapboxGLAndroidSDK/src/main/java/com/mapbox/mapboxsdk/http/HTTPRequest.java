@@ -3,6 +3,7 @@ package com.mapbox.mapboxsdk.http;
 import android.text.TextUtils;
 import android.util.Log;
 
+import com.mapbox.mapboxsdk.MapboxAccountManager;
 import com.mapbox.mapboxsdk.constants.MapboxConstants;
 
 import java.io.IOException;
@@ -10,7 +11,8 @@ import java.io.InterruptedIOException;
 import java.net.ProtocolException;
 import java.net.SocketException;
 import java.net.UnknownHostException;
-import java.util.concurrent.locks.ReentrantLock;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.net.ssl.SSLException;
 
@@ -20,19 +22,42 @@ import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
 
 class HTTPRequest implements Callback {
 
-    private static OkHttpClient mClient = new OkHttpClient();
+    private static volatile OkHttpClient mClient;
+    private static volatile HttpClientConfig mClientConfig;
     private final String LOG_TAG = HTTPRequest.class.getName();
 
     private static final int CONNECTION_ERROR = 0;
     private static final int TEMPORARY_ERROR = 1;
     private static final int PERMANENT_ERROR = 2;
 
-    // Reentrancy is not needed, but "Lock" is an
-    // abstract class.
-    private ReentrantLock mLock = new ReentrantLock();
+    private static final int BODY_CHUNK_SIZE = 8192;
+
+    // Content-Length is only trusted up to this size when allocating a body, larger bodies grow
+    // as their bytes arrive
+    private static final int BODY_PREALLOCATION_LIMIT = 1024 * 1024;
+
+    // Scratch space used to move body bytes from the OkHttp source into native memory,
+    // one per OkHttp dispatcher thread so streaming a body does not allocate.
+    private static final ThreadLocal<byte[]> sBodyChunk = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[BODY_CHUNK_SIZE];
+        }
+    };
+
+    // No call into the native peer is in progress
+    private static final int STATE_IDLE = 0;
+    // A response or failure is being delivered to the native peer
+    private static final int STATE_DELIVERING = 1;
+    // The native request was cancelled, the native peer must not be called anymore
+    private static final int STATE_CANCELLED = 2;
+
+    private final AtomicInteger mState = new AtomicInteger(STATE_IDLE);
 
     private long mNativePtr = 0;
 
@@ -43,6 +68,18 @@ class HTTPRequest implements Callback {
 
     private native void nativeOnResponse(int code, String etag, String modified, String cacheControl, String expires, byte[] body);
 
+    private native void nativeOnResponseBody(int code, String etag, String modified, String cacheControl, String expires, long body);
+
+    private native void nativeRelease();
+
+    private static native long nativeAllocateBody(int length);
+
+    private static native ByteBuffer nativeGetBodyBuffer(long body);
+
+    private static native void nativeResizeBody(long body, int length);
+
+    private static native void nativeReleaseBody(long body);
+
     private HTTPRequest(long nativePtr, String resourceUrl, String userAgent, String etag, String modified) {
         mNativePtr = nativePtr;
 
@@ -65,28 +102,72 @@ class HTTPRequest implements Callback {
                 builder = builder.addHeader("If-Modified-Since", modified);
             }
             mRequest = builder.build();
-            mCall = mClient.newCall(mRequest);
+            OkHttpClient client = getClient();
+            mCall = client.newCall(mRequest);
             mCall.enqueue(this);
+            notifyRequestQueueChanged(client);
         } catch (Exception e) {
             onFailure(e);
         }
     }
 
-    public void cancel() {
-        mCall.cancel();
-
-        // TODO: We need a lock here because we can try
-        // to cancel at the same time the request is getting
-        // answered on the OkHTTP thread. We could get rid of
-        // this lock by using Runnable when we move Android
-        // implementation of mbgl::RunLoop to Looper.
-        mLock.lock();
-        mNativePtr = 0;
-        mLock.unlock();
+    private static synchronized OkHttpClient getClient() {
+        HttpClientConfig config = HttpClientConfig.DEFAULT;
+        MapboxAccountManager accountManager = MapboxAccountManager.getInstance();
+        if (accountManager != null) {
+            config = accountManager.getHttpClientConfig();
+        }
+
+        if (mClient == null || config != mClientConfig) {
+            mClient = config.createClient();
+            mClientConfig = config;
+        }
+        return mClient;
+    }
+
+    private static void notifyRequestQueueChanged(OkHttpClient client) {
+        HttpClientConfig config = mClientConfig;
+        if (config == null) {
+            return;
+        }
+
+        HttpClientConfig.OnRequestQueueChangedListener listener = config.getOnRequestQueueChangedListener();
+        if (listener != null) {
+            listener.onRequestQueueChanged(client.dispatcher().queuedCallsCount(), client.dispatcher().runningCallsCount());
+        }
+    }
+
+    /**
+     * Cancels the request, called by native when the request is destroyed. Never blocks.
+     *
+     * @return true if the native peer can be released by the caller, false if a delivery is in
+     * flight and the peer will be released once it returns
+     */
+    public boolean cancel() {
+        if (mCall != null) {
+            mCall.cancel();
+        }
+        return mState.getAndSet(STATE_CANCELLED) != STATE_DELIVERING;
+    }
+
+    private boolean beginDelivery() {
+        return mState.compareAndSet(STATE_IDLE, STATE_DELIVERING);
+    }
+
+    private void endDelivery() {
+        if (!mState.compareAndSet(STATE_DELIVERING, STATE_IDLE)) {
+            // cancelled while delivering, native handed ownership of the peer over to us
+            nativeRelease();
+        }
     }
 
     @Override
     public void onResponse(Call call, Response response) throws IOException {
+        onResponse(response);
+        notifyRequestQueueChanged(mClient);
+    }
+
+    private void onResponse(Response response) {
         if (response.isSuccessful()) {
             Log.v(LOG_TAG, String.format("[HTTP] Request was successful (code = %d).", response.code()));
         } else {
@@ -97,27 +178,79 @@ class HTTPRequest implements Callback {
                     response.code(), message));
         }
 
+        ResponseBody responseBody = response.body();
+        long contentLength = responseBody.contentLength();
+        if (response.code() == 200 && contentLength > 0 && contentLength <= Integer.MAX_VALUE) {
+            onStreamingResponse(response, responseBody, (int) contentLength);
+            return;
+        }
+
         byte[] body;
         try {
-            body = response.body().bytes();
+            body = responseBody.bytes();
         } catch (IOException e) {
             onFailure(e);
             //throw e;
             return;
         } finally {
-            response.body().close();
+            responseBody.close();
         }
 
-        mLock.lock();
-        if (mNativePtr != 0) {
+        if (beginDelivery()) {
             nativeOnResponse(response.code(), response.header("ETag"), response.header("Last-Modified"), response.header("Cache-Control"), response.header("Expires"), body);
+            endDelivery();
+        }
+    }
+
+    /**
+     * Streams a body of known length directly into a native buffer, avoiding an intermediate
+     * byte array on the Java heap and a second copy when handing it to native. At most
+     * {@link #BODY_PREALLOCATION_LIMIT} bytes are allocated up front, so a bogus Content-Length
+     * can't reserve more memory than the server actually sends.
+     */
+    private void onStreamingResponse(Response response, ResponseBody responseBody, int contentLength) {
+        long body = nativeAllocateBody(Math.min(contentLength, BODY_PREALLOCATION_LIMIT));
+        try {
+            ByteBuffer buffer = nativeGetBodyBuffer(body);
+            BufferedSource source = responseBody.source();
+            byte[] chunk = sBodyChunk.get();
+            int read;
+            while (buffer.hasRemaining()) {
+                read = source.read(chunk, 0, Math.min(chunk.length, buffer.remaining()));
+                if (read == -1) {
+                    throw new ProtocolException("Unexpected end of response body");
+                }
+                buffer.put(chunk, 0, read);
+
+                if (!buffer.hasRemaining() && buffer.capacity() < contentLength) {
+                    // Double the body, resizing moves it, so continue in a new buffer
+                    int length = buffer.capacity();
+                    nativeResizeBody(body, (int) Math.min((long) length * 2, contentLength));
+                    buffer = nativeGetBodyBuffer(body);
+                    buffer.position(length);
+                }
+            }
+        } catch (IOException e) {
+            nativeReleaseBody(body);
+            onFailure(e);
+            return;
+        } finally {
+            responseBody.close();
+        }
+
+        if (beginDelivery()) {
+            // native takes ownership of the body
+            nativeOnResponseBody(response.code(), response.header("ETag"), response.header("Last-Modified"), response.header("Cache-Control"), response.header("Expires"), body);
+            endDelivery();
+        } else {
+            nativeReleaseBody(body);
         }
-        mLock.unlock();
     }
 
     @Override
     public void onFailure(Call call, IOException e) {
         onFailure(e);
+        notifyRequestQueueChanged(mClient);
     }
 
     private void onFailure(Exception e) {
@@ -132,10 +265,9 @@ class HTTPRequest implements Callback {
 
         String errorMessage = e.getMessage() != null ? e.getMessage() : "Error processing the request";
 
-        mLock.lock();
-        if (mNativePtr != 0) {
+        if (beginDelivery()) {
             nativeOnFailure(type, errorMessage);
+            endDelivery();
         }
-        mLock.unlock();
     }
 }
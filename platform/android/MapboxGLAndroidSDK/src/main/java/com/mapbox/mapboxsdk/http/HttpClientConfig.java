@@ -0,0 +1,256 @@
+package com.mapbox.mapboxsdk.http;
+
+import android.support.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/**
+ * Configuration of the HTTP client shared by all map and offline requests.
+ * <p>
+ * Use {@link Builder} to create a configuration and pass it to
+ * {@link com.mapbox.mapboxsdk.MapboxAccountManager#setHttpClientConfig(HttpClientConfig)}.
+ * Requests started after that call use the new configuration, requests in flight are not affected.
+ * </p>
+ */
+public final class HttpClientConfig {
+
+    /**
+     * Configuration matching the defaults of the underlying HTTP client.
+     */
+    public static final HttpClientConfig DEFAULT = new Builder().build();
+
+    private final int maxRequests;
+    private final int maxRequestsPerHost;
+    private final int maxIdleConnections;
+    private final long keepAliveDurationMillis;
+    private final boolean http2Enabled;
+    private final long connectTimeoutMillis;
+    private final long readTimeoutMillis;
+    private final long writeTimeoutMillis;
+    private final OnRequestQueueChangedListener onRequestQueueChangedListener;
+
+    private HttpClientConfig(Builder builder) {
+        maxRequests = builder.maxRequests;
+        maxRequestsPerHost = builder.maxRequestsPerHost;
+        maxIdleConnections = builder.maxIdleConnections;
+        keepAliveDurationMillis = builder.keepAliveDurationMillis;
+        http2Enabled = builder.http2Enabled;
+        connectTimeoutMillis = builder.connectTimeoutMillis;
+        readTimeoutMillis = builder.readTimeoutMillis;
+        writeTimeoutMillis = builder.writeTimeoutMillis;
+        onRequestQueueChangedListener = builder.onRequestQueueChangedListener;
+    }
+
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    public int getMaxRequestsPerHost() {
+        return maxRequestsPerHost;
+    }
+
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    public long getKeepAliveDurationMillis() {
+        return keepAliveDurationMillis;
+    }
+
+    public boolean isHttp2Enabled() {
+        return http2Enabled;
+    }
+
+    public long getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public long getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    public long getWriteTimeoutMillis() {
+        return writeTimeoutMillis;
+    }
+
+    @Nullable
+    public OnRequestQueueChangedListener getOnRequestQueueChangedListener() {
+        return onRequestQueueChangedListener;
+    }
+
+    OkHttpClient createClient() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveDurationMillis, TimeUnit.MILLISECONDS))
+                .protocols(http2Enabled ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1) : Collections.singletonList(Protocol.HTTP_1_1))
+                .connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS)
+                .writeTimeout(writeTimeoutMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Interface definition for a callback to be invoked when the request queue of the HTTP client changes.
+     * <p>
+     * Called from the thread that enqueued or completed a request, implementations must be thread safe
+     * and return quickly.
+     * </p>
+     */
+    public interface OnRequestQueueChangedListener {
+        /**
+         * Called when a request is enqueued or completes.
+         *
+         * @param queuedRequests  The number of requests waiting for a free slot in the dispatcher.
+         * @param runningRequests The number of requests currently in flight.
+         */
+        void onRequestQueueChanged(int queuedRequests, int runningRequests);
+    }
+
+    /**
+     * Builder for composing {@link HttpClientConfig} objects.
+     */
+    public static final class Builder {
+
+        private int maxRequests = 64;
+        private int maxRequestsPerHost = 5;
+        private int maxIdleConnections = 5;
+        private long keepAliveDurationMillis = TimeUnit.MINUTES.toMillis(5);
+        private boolean http2Enabled = true;
+        private long connectTimeoutMillis = TimeUnit.SECONDS.toMillis(10);
+        private long readTimeoutMillis = TimeUnit.SECONDS.toMillis(10);
+        private long writeTimeoutMillis = TimeUnit.SECONDS.toMillis(10);
+        private OnRequestQueueChangedListener onRequestQueueChangedListener;
+
+        /**
+         * Creates a builder initialised with the defaults of the underlying HTTP client.
+         */
+        public Builder() {
+            super();
+        }
+
+        /**
+         * Create Builder with an existing HttpClientConfig data.
+         *
+         * @param previous Existing HttpClientConfig values to use
+         */
+        public Builder(HttpClientConfig previous) {
+            super();
+            if (previous != null) {
+                maxRequests = previous.maxRequests;
+                maxRequestsPerHost = previous.maxRequestsPerHost;
+                maxIdleConnections = previous.maxIdleConnections;
+                keepAliveDurationMillis = previous.keepAliveDurationMillis;
+                http2Enabled = previous.http2Enabled;
+                connectTimeoutMillis = previous.connectTimeoutMillis;
+                readTimeoutMillis = previous.readTimeoutMillis;
+                writeTimeoutMillis = previous.writeTimeoutMillis;
+                onRequestQueueChangedListener = previous.onRequestQueueChangedListener;
+            }
+        }
+
+        /**
+         * Sets the maximum number of requests executed concurrently.
+         *
+         * @param maxRequests The maximum number of concurrent requests, must be at least 1.
+         * @return Builder
+         */
+        public Builder maxRequests(int maxRequests) {
+            if (maxRequests < 1) {
+                throw new IllegalArgumentException("maxRequests must be at least 1, was " + maxRequests);
+            }
+            this.maxRequests = maxRequests;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of requests executed concurrently against a single host.
+         *
+         * @param maxRequestsPerHost The maximum number of concurrent requests per host, must be at least 1.
+         * @return Builder
+         */
+        public Builder maxRequestsPerHost(int maxRequestsPerHost) {
+            if (maxRequestsPerHost < 1) {
+                throw new IllegalArgumentException("maxRequestsPerHost must be at least 1, was " + maxRequestsPerHost);
+            }
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        /**
+         * Sets the size of the connection pool.
+         *
+         * @param maxIdleConnections        The maximum number of idle connections kept open.
+         * @param keepAliveDurationMillis The time an idle connection is kept open, in milliseconds.
+         * @return Builder
+         */
+        public Builder connectionPool(int maxIdleConnections, long keepAliveDurationMillis) {
+            if (maxIdleConnections < 0 || keepAliveDurationMillis <= 0) {
+                throw new IllegalArgumentException("Invalid connection pool size " + maxIdleConnections
+                        + " or keep alive duration " + keepAliveDurationMillis);
+            }
+            this.maxIdleConnections = maxIdleConnections;
+            this.keepAliveDurationMillis = keepAliveDurationMillis;
+            return this;
+        }
+
+        /**
+         * Sets whether HTTP/2 is preferred when the server supports it, otherwise only HTTP/1.1 is used.
+         *
+         * @param http2Enabled True to prefer HTTP/2.
+         * @return Builder
+         */
+        public Builder http2Enabled(boolean http2Enabled) {
+            this.http2Enabled = http2Enabled;
+            return this;
+        }
+
+        /**
+         * Sets the connect, read and write timeouts. A value of 0 means no timeout.
+         *
+         * @param connectTimeoutMillis The connect timeout in milliseconds.
+         * @param readTimeoutMillis    The read timeout in milliseconds.
+         * @param writeTimeoutMillis   The write timeout in milliseconds.
+         * @return Builder
+         */
+        public Builder timeouts(long connectTimeoutMillis, long readTimeoutMillis, long writeTimeoutMillis) {
+            if (connectTimeoutMillis < 0 || readTimeoutMillis < 0 || writeTimeoutMillis < 0) {
+                throw new IllegalArgumentException("Timeouts must not be negative");
+            }
+            this.connectTimeoutMillis = connectTimeoutMillis;
+            this.readTimeoutMillis = readTimeoutMillis;
+            this.writeTimeoutMillis = writeTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * Sets a callback reporting queue depth and in-flight requests of the HTTP client.
+         *
+         * @param listener The callback to invoke, or null to remove it.
+         * @return Builder
+         */
+        public Builder onRequestQueueChangedListener(@Nullable OnRequestQueueChangedListener listener) {
+            this.onRequestQueueChangedListener = listener;
+            return this;
+        }
+
+        /**
+         * Builds the HttpClientConfig.
+         *
+         * @return HttpClientConfig
+         */
+        public HttpClientConfig build() {
+            return new HttpClientConfig(this);
+        }
+    }
+}
@@ -1,4 +1,6 @@
 /**
- * Do not use this package. Internal use only.
+ * Do not use this package. Internal use only, with the exception of
+ * {@link com.mapbox.mapboxsdk.http.HttpClientConfig} which is set through
+ * {@link com.mapbox.mapboxsdk.MapboxAccountManager#setHttpClientConfig(com.mapbox.mapboxsdk.http.HttpClientConfig)}.
  */
 package com.mapbox.mapboxsdk.http;
@@ -0,0 +1,266 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.support.annotation.NonNull;
+
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+/**
+ * The camera of a rendered frame, delivered to {@link MapboxMap.OnCameraFrameListener}.
+ * <p>
+ * A map view reuses the same instance for every frame and overwrites its values before each call,
+ * so reading it does not allocate. Copy the values needed after the callback returns instead of
+ * keeping a reference to the snapshot.
+ * </p>
+ */
+public class CameraSnapshot {
+
+    // Latitude, longitude, bearing, tilt, zoom and the 16 values of the projection matrix
+    static final int VALUE_COUNT = 21;
+
+    private static final int MATRIX_OFFSET = 5;
+
+    // The world is one tile of this size at zoom level 0
+    private static final double TILE_SIZE = 512;
+
+    private final double[] mValues = new double[VALUE_COUNT];
+    private final LatLng mTarget = new LatLng();
+
+    CameraSnapshot() {
+    }
+
+    // Filled by NativeMapView
+    double[] getValues() {
+        return mValues;
+    }
+
+    // Called after the values were written
+    void update() {
+        mTarget.setLatitude(mValues[0]);
+        mTarget.setLongitude(mValues[1]);
+    }
+
+    /**
+     * Returns the location the camera is pointing at. The returned object is owned by the snapshot
+     * and updated with it.
+     *
+     * @return The target of the camera.
+     */
+    public LatLng getTarget() {
+        return mTarget;
+    }
+
+    public double getLatitude() {
+        return mValues[0];
+    }
+
+    public double getLongitude() {
+        return mValues[1];
+    }
+
+    /**
+     * @return The direction the camera is pointing in, in degrees clockwise from north.
+     */
+    public double getBearing() {
+        return mValues[2];
+    }
+
+    /**
+     * @return The angle of the camera from the nadir, in degrees.
+     */
+    public double getTilt() {
+        return mValues[3];
+    }
+
+    public double getZoom() {
+        return mValues[4];
+    }
+
+    /**
+     * Copies the projection matrix of the frame. The column-major matrix transforms world
+     * coordinates in pixels at the current zoom level, with the origin at the top left corner of the
+     * world, into clip space, as used with {@link android.opengl.Matrix}.
+     *
+     * @param matrix An array of at least 16 values to copy the matrix into.
+     */
+    public void getProjectionMatrix(@NonNull float[] matrix) {
+        if (matrix.length < 16) {
+            throw new IllegalArgumentException("matrix must hold 16 values, was " + matrix.length);
+        }
+        for (int i = 0; i < 16; i++) {
+            matrix[i] = (float) mValues[MATRIX_OFFSET + i];
+        }
+    }
+
+    /**
+     * Copies the projection matrix of the frame in double precision.
+     *
+     * @param matrix An array of at least 16 values to copy the matrix into.
+     * @see #getProjectionMatrix(float[])
+     */
+    public void getProjectionMatrix(@NonNull double[] matrix) {
+        if (matrix.length < 16) {
+            throw new IllegalArgumentException("matrix must hold 16 values, was " + matrix.length);
+        }
+        System.arraycopy(mValues, MATRIX_OFFSET, matrix, 0, 16);
+    }
+
+    /**
+     * Projects coordinates into a view with the camera values of a snapshot, like the map does, so
+     * screen locations can be computed without asking the map.
+     *
+     * @param values     Snapshot values, as in {@link #getValues()}.
+     * @param width      The width of the view, in the units of the map.
+     * @param height     The height of the view, in the units of the map.
+     * @param latLngs    Latitude and longitude pairs.
+     * @param outPixels  Receives x and y pairs, one for each coordinate.
+     * @param pixelRatio The ratio of screen pixels to map units.
+     */
+    static void toScreenLocations(double[] values, double width, double height, double[] latLngs,
+                                  float[] outPixels, double pixelRatio) {
+        if (width <= 0 || height <= 0) {
+            // The map projects everything onto the origin until it has a size
+            for (int i = 0; i + 1 < latLngs.length; i += 2) {
+                outPixels[i] = 0;
+                outPixels[i + 1] = (float) (height * pixelRatio);
+            }
+            return;
+        }
+
+        double worldSize = TILE_SIZE * Math.pow(2, values[4]);
+        double centerLongitude = values[1];
+        for (int i = 0; i + 1 < latLngs.length; i += 2) {
+            double latitude = latLngs[i];
+            double longitude = wrapLongitude(latLngs[i + 1]);
+
+            // Take the shortest way around the world from the center, as mbgl::LatLng does
+            double delta = Math.abs(centerLongitude - longitude);
+            if (delta >= 180 && delta <= 360) {
+                if (longitude > 0 && centerLongitude < 0) {
+                    longitude -= 360;
+                } else if (longitude < 0 && centerLongitude > 0) {
+                    longitude += 360;
+                }
+            }
+
+            // World coordinates in pixels at the current zoom level
+            double x = (180 + longitude) * worldSize / 360;
+            double y = (180 - Math.toDegrees(Math.log(Math.tan(Math.PI / 4 + latitude * Math.PI / 360))))
+                    * worldSize / 360;
+
+            double clipX = values[MATRIX_OFFSET] * x + values[MATRIX_OFFSET + 4] * y + values[MATRIX_OFFSET + 12];
+            double clipY = values[MATRIX_OFFSET + 1] * x + values[MATRIX_OFFSET + 5] * y + values[MATRIX_OFFSET + 13];
+            double clipW = values[MATRIX_OFFSET + 3] * x + values[MATRIX_OFFSET + 7] * y + values[MATRIX_OFFSET + 15];
+
+            // Clip space has y up, the view has y down
+            outPixels[i] = (float) ((clipX / clipW + 1) * width / 2 * pixelRatio);
+            outPixels[i + 1] = (float) ((1 - clipY / clipW) * height / 2 * pixelRatio);
+        }
+    }
+
+    /**
+     * Finds the coordinates under screen locations with the camera values of a snapshot, like the map
+     * does, so taps can be resolved without asking the map.
+     *
+     * @param values     Snapshot values, as in {@link #getValues()}.
+     * @param width      The width of the view, in the units of the map.
+     * @param height     The height of the view, in the units of the map.
+     * @param pixels     X and y pairs.
+     * @param outLatLngs Receives latitude and longitude pairs, one for each screen location.
+     * @param pixelRatio The ratio of screen pixels to map units.
+     */
+    static void fromScreenLocations(double[] values, double width, double height, float[] pixels,
+                                    double[] outLatLngs, double pixelRatio) {
+        double[] inverse = new double[16];
+        if (width <= 0 || height <= 0 || !invert(values, MATRIX_OFFSET, inverse)) {
+            // Without a size or a projection every location is the center
+            for (int i = 0; i + 1 < pixels.length; i += 2) {
+                outLatLngs[i] = values[0];
+                outLatLngs[i + 1] = values[1];
+            }
+            return;
+        }
+
+        double worldSize = TILE_SIZE * Math.pow(2, values[4]);
+        for (int i = 0; i + 1 < pixels.length; i += 2) {
+            // The view has y down, clip space has y up
+            double ndcX = 2 * pixels[i] / pixelRatio / width - 1;
+            double ndcY = 1 - 2 * pixels[i + 1] / pixelRatio / height;
+
+            // Cast a ray through the near and far planes and intersect it with the ground
+            double w0 = inverse[3] * ndcX + inverse[7] * ndcY + inverse[15];
+            double x0 = (inverse[0] * ndcX + inverse[4] * ndcY + inverse[12]) / w0;
+            double y0 = (inverse[1] * ndcX + inverse[5] * ndcY + inverse[13]) / w0;
+            double z0 = (inverse[2] * ndcX + inverse[6] * ndcY + inverse[14]) / w0;
+            double w1 = w0 + inverse[11];
+            double x1 = (inverse[0] * ndcX + inverse[4] * ndcY + inverse[8] + inverse[12]) / w1;
+            double y1 = (inverse[1] * ndcX + inverse[5] * ndcY + inverse[9] + inverse[13]) / w1;
+            double z1 = (inverse[2] * ndcX + inverse[6] * ndcY + inverse[10] + inverse[14]) / w1;
+            double t = z0 == z1 ? 0 : -z0 / (z1 - z0);
+            double x = x0 + (x1 - x0) * t;
+            double y = y0 + (y1 - y0) * t;
+
+            double longitude = x * 360 / worldSize - 180;
+            outLatLngs[i] = 360 / Math.PI * Math.atan(Math.exp(Math.toRadians(180 - y * 360 / worldSize))) - 90;
+            // Wrapped as mbgl::LatLng::wrapped() does, so 180 becomes -180
+            outLatLngs[i + 1] = ((longitude + 180) % 360 + 360) % 360 - 180;
+        }
+    }
+
+    // Inverts the column-major 4x4 matrix starting at offset, returns false if it is singular
+    private static boolean invert(double[] m, int offset, double[] out) {
+        double a00 = m[offset], a01 = m[offset + 1], a02 = m[offset + 2], a03 = m[offset + 3];
+        double a10 = m[offset + 4], a11 = m[offset + 5], a12 = m[offset + 6], a13 = m[offset + 7];
+        double a20 = m[offset + 8], a21 = m[offset + 9], a22 = m[offset + 10], a23 = m[offset + 11];
+        double a30 = m[offset + 12], a31 = m[offset + 13], a32 = m[offset + 14], a33 = m[offset + 15];
+
+        double b00 = a00 * a11 - a01 * a10;
+        double b01 = a00 * a12 - a02 * a10;
+        double b02 = a00 * a13 - a03 * a10;
+        double b03 = a01 * a12 - a02 * a11;
+        double b04 = a01 * a13 - a03 * a11;
+        double b05 = a02 * a13 - a03 * a12;
+        double b06 = a20 * a31 - a21 * a30;
+        double b07 = a20 * a32 - a22 * a30;
+        double b08 = a20 * a33 - a23 * a30;
+        double b09 = a21 * a32 - a22 * a31;
+        double b10 = a21 * a33 - a23 * a31;
+        double b11 = a22 * a33 - a23 * a32;
+
+        double det = b00 * b11 - b01 * b10 + b02 * b09 + b03 * b08 - b04 * b07 + b05 * b06;
+        if (det == 0 || Double.isNaN(det)) {
+            return false;
+        }
+        det = 1 / det;
+
+        out[0] = (a11 * b11 - a12 * b10 + a13 * b09) * det;
+        out[1] = (a02 * b10 - a01 * b11 - a03 * b09) * det;
+        out[2] = (a31 * b05 - a32 * b04 + a33 * b03) * det;
+        out[3] = (a22 * b04 - a21 * b05 - a23 * b03) * det;
+        out[4] = (a12 * b08 - a10 * b11 - a13 * b07) * det;
+        out[5] = (a00 * b11 - a02 * b08 + a03 * b07) * det;
+        out[6] = (a32 * b02 - a30 * b05 - a33 * b01) * det;
+        out[7] = (a20 * b05 - a22 * b02 + a23 * b01) * det;
+        out[8] = (a10 * b10 - a11 * b08 + a13 * b06) * det;
+        out[9] = (a01 * b08 - a00 * b10 - a03 * b06) * det;
+        out[10] = (a30 * b04 - a31 * b02 + a33 * b00) * det;
+        out[11] = (a21 * b02 - a20 * b04 - a23 * b00) * det;
+        out[12] = (a11 * b07 - a10 * b09 - a12 * b06) * det;
+        out[13] = (a00 * b09 - a01 * b07 + a02 * b06) * det;
+        out[14] = (a31 * b01 - a30 * b03 - a32 * b00) * det;
+        out[15] = (a20 * b03 - a21 * b01 + a22 * b00) * det;
+        return true;
+    }
+
+    private static double wrapLongitude(double longitude) {
+        if (longitude == 180) {
+            return longitude;
+        }
+        return ((longitude + 180) % 360 + 360) % 360 - 180;
+    }
+
+    @Override
+    public String toString() {
+        return "CameraSnapshot [latitude=" + getLatitude() + ", longitude=" + getLongitude() + ", bearing="
+                + getBearing() + ", tilt=" + getTilt() + ", zoom=" + getZoom() + "]";
+    }
+}
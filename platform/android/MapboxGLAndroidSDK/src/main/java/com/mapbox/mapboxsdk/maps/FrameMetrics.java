@@ -0,0 +1,122 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.support.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Render timings and tile counts of the frames rendered to a map view during one second, as the
+ * 50th, 95th and 99th percentile of every metric.
+ * <p>
+ * Timings are in milliseconds of CPU time on the render thread; GL commands may complete later on
+ * the GPU. Symbol time covers drawing symbol layers, symbols are placed on background threads.
+ * </p>
+ *
+ * @see MapboxMap#setOnFrameMetricsListener(MapboxMap.OnFrameMetricsListener)
+ */
+public class FrameMetrics {
+
+    /**
+     * Definition of a frame metric.
+     */
+    @IntDef({TOTAL_RENDER_TIME, MAP_RENDER_TIME, UPLOAD_TIME, SYMBOL_TIME, RENDERED_TILES, PENDING_TILES})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Metric {
+    }
+
+    /**
+     * Time to render and present a frame, in milliseconds.
+     */
+    public static final int TOTAL_RENDER_TIME = 0;
+
+    /**
+     * Time spent rendering the map, excluding the buffer swap, in milliseconds.
+     */
+    public static final int MAP_RENDER_TIME = 1;
+
+    /**
+     * Time spent uploading buffers and textures, in milliseconds.
+     */
+    public static final int UPLOAD_TIME = 2;
+
+    /**
+     * Time spent drawing symbol layers, in milliseconds.
+     */
+    public static final int SYMBOL_TIME = 3;
+
+    /**
+     * Number of tiles rendered.
+     */
+    public static final int RENDERED_TILES = 4;
+
+    /**
+     * Number of tiles still waiting for data.
+     */
+    public static final int PENDING_TILES = 5;
+
+    /**
+     * Definition of a percentile.
+     */
+    @IntDef({P50, P95, P99})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Percentile {
+    }
+
+    public static final int P50 = 0;
+
+    public static final int P95 = 1;
+
+    public static final int P99 = 2;
+
+    private static final int METRIC_COUNT = 6;
+
+    private static final int PERCENTILE_COUNT = 3;
+
+    private final int mFrameCount;
+    private final float[] mValues;
+
+    FrameMetrics(int frameCount, float[] values) {
+        if (values.length != METRIC_COUNT * PERCENTILE_COUNT) {
+            throw new IllegalArgumentException("values must hold " + METRIC_COUNT * PERCENTILE_COUNT
+                    + " percentiles, was " + values.length);
+        }
+        mFrameCount = frameCount;
+        mValues = values;
+    }
+
+    /**
+     * @return The number of frames rendered during the second.
+     */
+    public int getFrameCount() {
+        return mFrameCount;
+    }
+
+    /**
+     * Returns a percentile of a metric.
+     *
+     * @param metric     The metric, one of {@link #TOTAL_RENDER_TIME}, {@link #MAP_RENDER_TIME},
+     *                   {@link #UPLOAD_TIME}, {@link #SYMBOL_TIME}, {@link #RENDERED_TILES} or
+     *                   {@link #PENDING_TILES}.
+     * @param percentile The percentile, one of {@link #P50}, {@link #P95} or {@link #P99}.
+     * @return The value of the metric the given share of frames did not exceed.
+     */
+    public float get(@Metric int metric, @Percentile int percentile) {
+        return mValues[metric * PERCENTILE_COUNT + percentile];
+    }
+
+    @Override
+    public String toString() {
+        return "FrameMetrics [frameCount=" + mFrameCount
+                + ", totalRenderTime=" + toString(TOTAL_RENDER_TIME)
+                + ", mapRenderTime=" + toString(MAP_RENDER_TIME)
+                + ", uploadTime=" + toString(UPLOAD_TIME)
+                + ", symbolTime=" + toString(SYMBOL_TIME)
+                + ", renderedTiles=" + toString(RENDERED_TILES)
+                + ", pendingTiles=" + toString(PENDING_TILES) + "]";
+    }
+
+    private String toString(@Metric int metric) {
+        return get(metric, P50) + "/" + get(metric, P95) + "/" + get(metric, P99);
+    }
+}
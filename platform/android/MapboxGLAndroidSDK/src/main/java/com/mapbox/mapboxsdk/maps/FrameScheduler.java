@@ -0,0 +1,89 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.Choreographer;
+
+/**
+ * Renders a map at the start of display frames, paced by the {@link Choreographer} of the thread
+ * it was created on.
+ * <p>
+ * A frame is only rendered after {@link #requestFrame()} was called. Requests made before the
+ * frame starts are merged into it, so the map renders at most once per vsync however often it
+ * is invalidated, and never while nothing changed.
+ * </p>
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+class FrameScheduler implements Choreographer.FrameCallback {
+
+    interface Renderer {
+        void onRenderFrame();
+    }
+
+    private final Choreographer mChoreographer;
+    private final Renderer mRenderer;
+
+    private boolean mFrameRequested;
+    private boolean mStopped;
+
+    private long mRequestCount;
+    private long mFrameCount;
+
+    FrameScheduler(Renderer renderer) {
+        this(Choreographer.getInstance(), renderer);
+    }
+
+    FrameScheduler(Choreographer choreographer, Renderer renderer) {
+        mChoreographer = choreographer;
+        mRenderer = renderer;
+    }
+
+    /**
+     * Schedules a frame at the next vsync, unless one is scheduled already.
+     */
+    void requestFrame() {
+        mRequestCount++;
+        if (mFrameRequested || mStopped) {
+            return;
+        }
+
+        mFrameRequested = true;
+        mChoreographer.postFrameCallback(this);
+    }
+
+    /**
+     * Cancels the scheduled frame and ignores requests until {@link #start()} is called.
+     */
+    void stop() {
+        mStopped = true;
+        if (mFrameRequested) {
+            mFrameRequested = false;
+            mChoreographer.removeFrameCallback(this);
+        }
+    }
+
+    /**
+     * Accepts requests again, and schedules a frame so the map catches up with changes made while
+     * stopped.
+     */
+    void start() {
+        mStopped = false;
+        requestFrame();
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        mFrameRequested = false;
+        mFrameCount++;
+        mRenderer.onRenderFrame();
+    }
+
+    // The number of requests and of frames rendered, the difference being the redundant requests dropped
+    long getRequestCount() {
+        return mRequestCount;
+    }
+
+    long getFrameCount() {
+        return mFrameCount;
+    }
+}
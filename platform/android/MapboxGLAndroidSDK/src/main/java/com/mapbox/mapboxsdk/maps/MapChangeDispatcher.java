@@ -0,0 +1,127 @@
+package com.mapbox.mapboxsdk.maps;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps the {@link MapView.OnMapChangedListener}s of a map indexed by the {@link MapView.MapChange}s
+ * they subscribed to.
+ * <p>
+ * Changes are delivered as a bit mask, one bit per {@link MapView.MapChange}, and each change only
+ * visits its own subscribers. The union of all subscriptions is exposed with {@link #getMask()} so
+ * changes nobody subscribed to can be dropped before they reach Java.
+ * </p>
+ */
+class MapChangeDispatcher {
+
+    static final int CHANGE_COUNT = MapView.DID_FINISH_RENDERING_MAP_FULLY_RENDERED + 1;
+
+    static final int ALL_CHANGES = (1 << CHANGE_COUNT) - 1;
+
+    private final List<CopyOnWriteArrayList<MapView.OnMapChangedListener>> mListeners;
+    private final Map<MapView.OnMapChangedListener, Integer> mSubscriptions = new HashMap<>();
+    private int mMask;
+
+    MapChangeDispatcher() {
+        mListeners = new ArrayList<>(CHANGE_COUNT);
+        for (int change = 0; change < CHANGE_COUNT; change++) {
+            mListeners.add(new CopyOnWriteArrayList<MapView.OnMapChangedListener>());
+        }
+    }
+
+    /**
+     * Returns the mask of a list of changes.
+     *
+     * @param changes The {@link MapView.MapChange}s, all of them when empty.
+     * @return The mask with the bit of every change set.
+     */
+    static int maskOf(@MapView.MapChange int... changes) {
+        if (changes.length == 0) {
+            return ALL_CHANGES;
+        }
+
+        int mask = 0;
+        for (int change : changes) {
+            if (change < 0 || change >= CHANGE_COUNT) {
+                throw new IllegalArgumentException("change must be a MapChange, was " + change);
+            }
+            mask |= 1 << change;
+        }
+        return mask;
+    }
+
+    /**
+     * Subscribes a listener to the changes of a mask, in addition to the ones it subscribed to before.
+     *
+     * @param listener The listener to subscribe.
+     * @param mask     The changes to subscribe to.
+     * @return True if the union of all subscriptions changed.
+     */
+    boolean add(MapView.OnMapChangedListener listener, int mask) {
+        Integer subscribed = mSubscriptions.get(listener);
+        int added = subscribed != null ? mask & ~subscribed : mask;
+        mSubscriptions.put(listener, subscribed != null ? subscribed | mask : mask);
+
+        for (int change = 0; change < CHANGE_COUNT; change++) {
+            if ((added & (1 << change)) != 0) {
+                mListeners.get(change).add(listener);
+            }
+        }
+        return updateMask();
+    }
+
+    /**
+     * Unsubscribes a listener from all changes.
+     *
+     * @param listener The listener to unsubscribe.
+     * @return True if the union of all subscriptions changed.
+     */
+    boolean remove(MapView.OnMapChangedListener listener) {
+        Integer subscribed = mSubscriptions.remove(listener);
+        if (subscribed == null) {
+            return false;
+        }
+
+        for (int change = 0; change < CHANGE_COUNT; change++) {
+            if ((subscribed & (1 << change)) != 0) {
+                mListeners.get(change).remove(listener);
+            }
+        }
+        return updateMask();
+    }
+
+    int getMask() {
+        return mMask;
+    }
+
+    /**
+     * Notifies the subscribers of every change in a mask, in ascending order of the changes.
+     *
+     * @param changes The mask of the changes that happened.
+     */
+    void dispatch(int changes) {
+        for (int change = 0; change < CHANGE_COUNT; change++) {
+            if ((changes & (1 << change)) != 0) {
+                for (MapView.OnMapChangedListener listener : mListeners.get(change)) {
+                    listener.onMapChanged(change);
+                }
+            }
+        }
+    }
+
+    private boolean updateMask() {
+        int mask = 0;
+        for (int change = 0; change < CHANGE_COUNT; change++) {
+            if (!mListeners.get(change).isEmpty()) {
+                mask |= 1 << change;
+            }
+        }
+
+        boolean changed = mask != mMask;
+        mMask = mask;
+        return changed;
+    }
+}
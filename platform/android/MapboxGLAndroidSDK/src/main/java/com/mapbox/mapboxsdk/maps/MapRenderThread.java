@@ -0,0 +1,88 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A thread owning a map and its GL context, running commands queued from other threads in order.
+ * <p>
+ * The thread has a {@link Looper}, so a map created on it schedules its own work there and frames
+ * can be paced with a {@link android.view.Choreographer} of its own.
+ * </p>
+ */
+class MapRenderThread extends HandlerThread {
+
+    private final Handler mHandler;
+
+    MapRenderThread() {
+        super("MapRenderThread", Process.THREAD_PRIORITY_DISPLAY);
+        start();
+        mHandler = new Handler(getLooper());
+    }
+
+    /**
+     * Queues a command without waiting for it.
+     *
+     * @param command The command to run on this thread.
+     * @return False if the thread quit, the command is dropped then.
+     */
+    boolean post(Runnable command) {
+        return mHandler.post(command);
+    }
+
+    /**
+     * Runs a command on this thread and waits for its result. Commands queued before run first.
+     *
+     * @param command The command to run on this thread.
+     * @param <T>     The type of the result.
+     * @return The result of the command.
+     */
+    <T> T call(Callable<T> command) {
+        FutureTask<T> task = new FutureTask<>(command);
+        if (Looper.myLooper() == getLooper()) {
+            task.run();
+        } else if (!mHandler.post(task)) {
+            throw new IllegalStateException("The map render thread quit.");
+        }
+
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException interruptedException) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException executionException) {
+            Throwable cause = executionException.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Runs a command on this thread and waits for it to complete.
+     *
+     * @param command The command to run on this thread.
+     */
+    void runAndWait(Runnable command) {
+        call(Executors.callable(command));
+    }
+}
@@ -6,11 +6,13 @@ import android.app.Activity;
 import android.app.Dialog;
 import android.app.Fragment;
 import android.content.BroadcastReceiver;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.IntentFilter;
 import android.content.pm.PackageManager;
+import android.content.res.Configuration;
 import android.content.res.Resources;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
@@ -23,6 +25,7 @@ import android.location.Location;
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
 import android.net.Uri;
+import android.os.Build;
 import android.os.Bundle;
 import android.support.annotation.CallSuper;
 import android.support.annotation.FloatRange;
@@ -73,6 +76,7 @@ import com.mapbox.mapboxsdk.camera.CameraUpdateFactory;
 import com.mapbox.mapboxsdk.constants.MapboxConstants;
 import com.mapbox.mapboxsdk.constants.MyBearingTracking;
 import com.mapbox.mapboxsdk.constants.MyLocationTracking;
+import com.mapbox.mapboxsdk.constants.RenderMode;
 import com.mapbox.mapboxsdk.constants.Style;
 import com.mapbox.mapboxsdk.exceptions.IconBitmapChangedException;
 import com.mapbox.mapboxsdk.geometry.LatLng;
@@ -95,7 +99,6 @@ import java.util.Collections;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * <p>
@@ -123,6 +126,9 @@ public class MapView extends FrameLayout {
 
     private NativeMapView mNativeMapView;
     private boolean mHasSurface = false;
+    @RenderMode.Mode
+    private int mRenderMode;
+    private FrameScheduler mFrameScheduler;
 
     private CompassView mCompassView;
     private ImageView mLogoView;
@@ -130,11 +136,33 @@ public class MapView extends FrameLayout {
     private MyLocationView mMyLocationView;
     private LocationListener mMyLocationListener;
 
-    private CopyOnWriteArrayList<OnMapChangedListener> mOnMapChangedListener;
+    private MapChangeDispatcher mMapChangeDispatcher;
+    private final CameraSnapshot mCameraSnapshot = new CameraSnapshot();
     private ZoomButtonsController mZoomButtonsController;
     private ConnectivityReceiver mConnectivityReceiver;
     private float mScreenDensity = 1.0f;
 
+    // Fraction of the tile cache kept when the system asks to trim memory
+    private static final float TILE_CACHE_TRIM_RUNNING_MODERATE = 0.75f;
+    private static final float TILE_CACHE_TRIM_RUNNING_LOW = 0.5f;
+    private static final float TILE_CACHE_TRIM_RUNNING_CRITICAL = 0.25f;
+
+    private final ComponentCallbacks2 mComponentCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            trimMemory(level);
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+        }
+
+        @Override
+        public void onLowMemory() {
+            MapView.this.onLowMemory();
+        }
+    };
+
     private TrackballLongPressTimeOut mCurrentTrackballLongPressTimeOut;
     private GestureDetectorCompat mGestureDetector;
     private ScaleGestureDetector mScaleGestureDetector;
@@ -181,7 +209,7 @@ public class MapView extends FrameLayout {
     private void initialize(@NonNull Context context, @NonNull MapboxMapOptions options) {
         mInitialLoad = true;
         mOnMapReadyCallbackList = new ArrayList<>();
-        mOnMapChangedListener = new CopyOnWriteArrayList<>();
+        mMapChangeDispatcher = new MapChangeDispatcher();
         mMapboxMap = new MapboxMap(this);
         mIcons = new ArrayList<>();
         mStyleInitializer = new StyleInitializer(context);
@@ -200,7 +228,26 @@ public class MapView extends FrameLayout {
             return;
         }
 
-        mNativeMapView = new NativeMapView(this);
+        // Pace rendering with the display when requested, Choreographer requires Jelly Bean
+        mRenderMode = options.getRenderMode();
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            mRenderMode = RenderMode.ON_DRAW;
+        }
+        if (mRenderMode == RenderMode.RENDER_THREAD) {
+            mNativeMapView = new RenderThreadNativeMapView(this);
+        } else {
+            mNativeMapView = new NativeMapView(this);
+        }
+        mNativeMapView.setMapChangeMask(mMapChangeDispatcher.getMask());
+
+        if (mRenderMode == RenderMode.VSYNC) {
+            mFrameScheduler = new FrameScheduler(new FrameScheduler.Renderer() {
+                @Override
+                public void onRenderFrame() {
+                    renderFrame();
+                }
+            });
+        }
 
         // Ensure this view is interactable
         setClickable(true);
@@ -300,6 +347,11 @@ public class MapView extends FrameLayout {
         mMapboxMap.setMaxZoom(options.getMaxZoom());
         mMapboxMap.setMinZoom(options.getMinZoom());
 
+        // Tile cache, sized automatically when no budget is set
+        if (options.getTileCacheBudget() > 0) {
+            mMapboxMap.setTileCacheBudget(options.getTileCacheBudget());
+        }
+
         // Compass
         uiSettings.setCompassEnabled(options.getCompassEnabled());
         uiSettings.setCompassGravity(options.getCompassGravity());
@@ -429,6 +481,9 @@ public class MapView extends FrameLayout {
         mNativeMapView.initializeDisplay();
         mNativeMapView.initializeContext();
 
+        // Trim the tile cache when the system runs low on memory
+        getContext().registerComponentCallbacks(mComponentCallbacks);
+
         // Add annotation deselection listener
         addOnMapChangedListener(new OnMapChangedListener() {
             @Override
@@ -451,7 +506,7 @@ public class MapView extends FrameLayout {
                     mMapboxMap.getMarkerViewManager().scheduleViewMarkerInvalidation();
                 }
             }
-        });
+        }, WILL_START_RENDERING_MAP, REGION_IS_CHANGING, REGION_DID_CHANGE, DID_FINISH_LOADING_MAP);
 
         // Fire MapLoad
         if (savedInstanceState == null) {
@@ -525,6 +580,10 @@ public class MapView extends FrameLayout {
     @UiThread
     public void onDestroy() {
         mDestroyed = true;
+        if (mFrameScheduler != null) {
+            mFrameScheduler.stop();
+        }
+        getContext().unregisterComponentCallbacks(mComponentCallbacks);
         mNativeMapView.terminateContext();
         mNativeMapView.terminateDisplay();
         mNativeMapView.destroySurface();
@@ -553,6 +612,8 @@ public class MapView extends FrameLayout {
         mConnectivityReceiver = new ConnectivityReceiver();
         getContext().registerReceiver(mConnectivityReceiver, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
 
+        // Restore a tile cache trimmed while in the background
+        mNativeMapView.updateTileCacheSize();
         mNativeMapView.update();
         mMyLocationView.onResume();
 
@@ -567,9 +628,29 @@ public class MapView extends FrameLayout {
      */
     @UiThread
     public void onLowMemory() {
+        if (mDestroyed) {
+            return;
+        }
         mNativeMapView.onLowMemory();
     }
 
+    // Shrinks or empties the tile cache depending on how much memory the system needs back
+    private void trimMemory(int level) {
+        if (mDestroyed) {
+            return;
+        }
+
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            // Clearing the cache alone lets it fill up to its full size again
+            mNativeMapView.onLowMemory();
+            mNativeMapView.trimTileCache(TILE_CACHE_TRIM_RUNNING_CRITICAL);
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            mNativeMapView.trimTileCache(TILE_CACHE_TRIM_RUNNING_LOW);
+        } else if (level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            mNativeMapView.trimTileCache(TILE_CACHE_TRIM_RUNNING_MODERATE);
+        }
+    }
+
     // Called when debug mode is enabled to update a FPS counter
     // Called via JNI from NativeMapView
     // Forward to any listener
@@ -585,6 +666,21 @@ public class MapView extends FrameLayout {
         });
     }
 
+    // Called once a second when a frame metrics listener is set
+    // Called via JNI from NativeMapView
+    // Forward to any listener
+    protected void onFrameMetrics(final int frameCount, final float[] values) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                MapboxMap.OnFrameMetricsListener listener = mMapboxMap.getOnFrameMetricsListener();
+                if (listener != null) {
+                    listener.onFrameMetrics(new FrameMetrics(frameCount, values));
+                }
+            }
+        });
+    }
+
     //
     // LatLng / CenterCoordinate
     //
@@ -720,6 +816,46 @@ public class MapView extends FrameLayout {
         return mNativeMapView.getMaxZoom();
     }
 
+    //
+    // Tile cache
+    //
+
+    void setTileCacheBudget(long tiles) {
+        if (mDestroyed) {
+            return;
+        }
+        mNativeMapView.setTileCacheBudget(tiles);
+    }
+
+    TileCacheStatistics getTileCacheStatistics() {
+        if (mDestroyed) {
+            return new TileCacheStatistics(0, 0, 0);
+        }
+        long[] statistics = mNativeMapView.getTileCacheStatistics();
+        return new TileCacheStatistics(statistics[0], statistics[1], statistics[2]);
+    }
+
+    void prefetch(double[] cameras, long byteBudget) {
+        if (mDestroyed) {
+            return;
+        }
+        mNativeMapView.prefetch(cameras, byteBudget);
+    }
+
+    void prefetchAlong(double[] coordinates, int minZoom, int maxZoom, long byteBudget) {
+        if (mDestroyed) {
+            return;
+        }
+        mNativeMapView.prefetchAlong(coordinates, minZoom, maxZoom, byteBudget);
+    }
+
+    void cancelPrefetch() {
+        if (mDestroyed) {
+            return;
+        }
+        mNativeMapView.cancelPrefetch();
+    }
+
     // Zoom in or out
     private void zoom(boolean zoomIn) {
         zoom(zoomIn, -1.0f, -1.0f);
@@ -764,6 +900,13 @@ public class MapView extends FrameLayout {
         mNativeMapView.cycleDebugOptions();
     }
 
+    void setFrameMetricsEnabled(boolean enabled) {
+        if (mDestroyed) {
+            return;
+        }
+        mNativeMapView.enableFrameMetrics(enabled);
+    }
+
     //
     // Styling
     //
@@ -913,6 +1056,20 @@ public class MapView extends FrameLayout {
         return pointF;
     }
 
+    void toScreenLocations(@NonNull double[] latLngs, @NonNull float[] outPixels) {
+        if (mDestroyed) {
+            return;
+        }
+        mNativeMapView.pixelsForLatLngs(latLngs, outPixels, mScreenDensity);
+    }
+
+    void fromScreenLocations(@NonNull float[] pixels, @NonNull double[] outLatLngs) {
+        if (mDestroyed) {
+            return;
+        }
+        mNativeMapView.latLngsForPixels(pixels, outLatLngs, mScreenDensity);
+    }
+
     //
     // Annotations
     //
@@ -1038,6 +1195,13 @@ public class MapView extends FrameLayout {
         return mNativeMapView.addMarkers(markerList);
     }
 
+    long[] addMarkers(@NonNull double[] latLngs, @NonNull int[] iconIndices, @NonNull String[] iconIds) {
+        if (mDestroyed) {
+            return new long[]{};
+        }
+        return mNativeMapView.addMarkers(latLngs, iconIndices, iconIds);
+    }
+
     long addPolyline(@NonNull Polyline polyline) {
         if (mDestroyed) {
             return 0l;
@@ -1085,25 +1249,21 @@ public class MapView extends FrameLayout {
             return new ArrayList<>();
         }
 
-        // TODO: filter in JNI using C++ parameter to getAnnotationsInBounds
+        // native only returns point annotations, resolve the ids against the annotation map
         long[] ids = mNativeMapView.getAnnotationsInBounds(bbox);
-
-        List<Long> idsList = new ArrayList<>(ids.length);
-        for (int i = 0; i < ids.length; i++) {
-            idsList.add(ids[i]);
+        if (ids == null) {
+            return new ArrayList<>();
         }
 
         List<Marker> annotations = new ArrayList<>(ids.length);
-        List<Annotation> annotationList = mMapboxMap.getAnnotations();
-        int count = annotationList.size();
-        for (int i = 0; i < count; i++) {
-            Annotation annotation = annotationList.get(i);
-            if (annotation instanceof Marker && idsList.contains(annotation.getId())) {
+        Annotation annotation;
+        for (int i = 0; i < ids.length; i++) {
+            annotation = mMapboxMap.getAnnotation(ids[i]);
+            if (annotation instanceof Marker) {
                 annotations.add((Marker) annotation);
             }
         }
-
-        return new ArrayList<>(annotations);
+        return annotations;
     }
 
     public List<MarkerView> getMarkerViewsInBounds(@NonNull LatLngBounds bbox) {
@@ -1111,25 +1271,21 @@ public class MapView extends FrameLayout {
             return new ArrayList<>();
         }
 
-        // TODO: filter in JNI using C++ parameter to getAnnotationsInBounds
+        // native only returns point annotations, resolve the ids against the annotation map
         long[] ids = mNativeMapView.getAnnotationsInBounds(bbox);
-
-        List<Long> idsList = new ArrayList<>(ids.length);
-        for (int i = 0; i < ids.length; i++) {
-            idsList.add(ids[i]);
+        if (ids == null) {
+            return new ArrayList<>();
         }
 
         List<MarkerView> annotations = new ArrayList<>(ids.length);
-        List<Annotation> annotationList = mMapboxMap.getAnnotations();
-        int count = annotationList.size();
-        for (int i = 0; i < count; i++) {
-            Annotation annotation = annotationList.get(i);
-            if (annotation instanceof MarkerView && idsList.contains(annotation.getId())) {
+        Annotation annotation;
+        for (int i = 0; i < ids.length; i++) {
+            annotation = mMapboxMap.getAnnotation(ids[i]);
+            if (annotation instanceof MarkerView) {
                 annotations.add((MarkerView) annotation);
             }
         }
-
-        return new ArrayList<>(annotations);
+        return annotations;
     }
 
 
@@ -1207,7 +1363,7 @@ public class MapView extends FrameLayout {
                         removeOnMapChangedListener(this);
                     }
                 }
-            });
+            }, REGION_DID_CHANGE_ANIMATED);
         }
 
         mNativeMapView.easeTo(bearing, center, duration, pitch, zoom, easingInterpolator);
@@ -1231,7 +1387,7 @@ public class MapView extends FrameLayout {
                         removeOnMapChangedListener(this);
                     }
                 }
-            });
+            }, REGION_DID_CHANGE_ANIMATED);
         }
 
         mNativeMapView.flyTo(bearing, center, duration, pitch, zoom);
@@ -1281,7 +1437,11 @@ public class MapView extends FrameLayout {
     // Called when the map needs to be rerendered
     // Called via JNI from NativeMapView
     protected void onInvalidate() {
-        postInvalidate();
+        if (mFrameScheduler != null) {
+            mFrameScheduler.requestFrame();
+        } else {
+            postInvalidate();
+        }
     }
 
     @Override
@@ -1291,6 +1451,13 @@ public class MapView extends FrameLayout {
             return;
         }
 
+        // Other render modes render frames when the display asks for them
+        if (mRenderMode == RenderMode.ON_DRAW) {
+            renderFrame();
+        }
+    }
+
+    private void renderFrame() {
         if (mDestroyed) {
             return;
         }
@@ -1302,6 +1469,13 @@ public class MapView extends FrameLayout {
         mNativeMapView.render();
     }
 
+    // Surface changes do not invalidate the map, with RenderMode.VSYNC they schedule a frame themselves
+    private void requestFrame() {
+        if (mFrameScheduler != null) {
+            mFrameScheduler.requestFrame();
+        }
+    }
+
     @Override
     protected void onSizeChanged(int width, int height, int oldw, int oldh) {
         if (mDestroyed) {
@@ -1337,6 +1511,7 @@ public class MapView extends FrameLayout {
             mNativeMapView.createSurface(mSurface = new Surface(surface));
             mNativeMapView.resizeFramebuffer(width, height);
             mHasSurface = true;
+            requestFrame();
         }
 
         // Called when the native surface texture has been destroyed
@@ -1361,6 +1536,7 @@ public class MapView extends FrameLayout {
             }
 
             mNativeMapView.resizeFramebuffer(width, height);
+            requestFrame();
         }
 
         // Called when the SurfaceTexure frame is drawn to screen
@@ -1371,6 +1547,13 @@ public class MapView extends FrameLayout {
                 return;
             }
 
+            MapboxMap.OnCameraFrameListener cameraFrameListener = mMapboxMap.getOnCameraFrameListener();
+            if (cameraFrameListener != null) {
+                mNativeMapView.getCameraSnapshot(mCameraSnapshot.getValues());
+                mCameraSnapshot.update();
+                cameraFrameListener.onCameraFrame(mCameraSnapshot);
+            }
+
             mCompassView.update(getDirection());
             mMyLocationView.update();
             mMapboxMap.getMarkerViewManager().update();
@@ -2342,14 +2525,40 @@ public class MapView extends FrameLayout {
      * <p>
      * Add a callback that's invoked when the displayed map view changes.
      * </p>
+     * The callback is subscribed to every {@link MapChange}, including the ones of every frame rendered.
+     * Use {@link MapView#addOnMapChangedListener(OnMapChangedListener, int...)} to subscribe to the
+     * changes the callback handles only.
+     * <p>
      * To remove the callback, use {@link MapView#removeOnMapChangedListener(OnMapChangedListener)}.
+     * </p>
      *
      * @param listener The callback that's invoked on every frame rendered to the map view.
      * @see MapView#removeOnMapChangedListener(OnMapChangedListener)
      */
     public void addOnMapChangedListener(@Nullable OnMapChangedListener listener) {
-        if (listener != null) {
-            mOnMapChangedListener.add(listener);
+        addOnMapChangedListener(listener, new int[0]);
+    }
+
+    /**
+     * <p>
+     * Add a callback that's invoked when one of the given {@link MapChange}s happens.
+     * </p>
+     * Changes no callback subscribed to are not reported by the renderer at all. Changes that happen
+     * while a frame is rendered are delivered once the frame is done, each at most once per frame and
+     * in the ascending order of their {@link MapChange} values. Adding a callback again subscribes it
+     * to the additional changes.
+     * <p>
+     * To remove the callback, use {@link MapView#removeOnMapChangedListener(OnMapChangedListener)}.
+     * </p>
+     *
+     * @param listener The callback that's invoked when one of the changes happens.
+     * @param changes  The {@link MapChange}s to subscribe to, all of them when none are given.
+     * @see MapView#removeOnMapChangedListener(OnMapChangedListener)
+     */
+    public void addOnMapChangedListener(@Nullable OnMapChangedListener listener, @MapChange int... changes) {
+        int mask = MapChangeDispatcher.maskOf(changes);
+        if (listener != null && mMapChangeDispatcher.add(listener, mask)) {
+            updateMapChangeMask();
         }
     }
 
@@ -2360,22 +2569,23 @@ public class MapView extends FrameLayout {
      * @see MapView#addOnMapChangedListener(OnMapChangedListener)
      */
     public void removeOnMapChangedListener(@Nullable OnMapChangedListener listener) {
-        if (listener != null) {
-            mOnMapChangedListener.remove(listener);
+        if (listener != null && mMapChangeDispatcher.remove(listener)) {
+            updateMapChangeMask();
+        }
+    }
+
+    private void updateMapChangeMask() {
+        if (mNativeMapView != null && !mDestroyed) {
+            mNativeMapView.setMapChangeMask(mMapChangeDispatcher.getMask());
         }
     }
 
     // Called when the map view transformation has changed
-    // Called via JNI from NativeMapView
-    // Forward to any listeners
-    protected void onMapChanged(int mapChange) {
-        if (mOnMapChangedListener != null) {
-            OnMapChangedListener listener;
-            final Iterator<OnMapChangedListener> iterator = mOnMapChangedListener.iterator();
-            while (iterator.hasNext()) {
-                listener = iterator.next();
-                listener.onMapChanged(mapChange);
-            }
+    // Called via JNI from NativeMapView, once per frame at most
+    // Forward to the listeners subscribed to each change
+    protected void onMapChanges(int mapChanges) {
+        if (mMapChangeDispatcher != null) {
+            mMapChangeDispatcher.dispatch(mapChanges);
         }
     }
 
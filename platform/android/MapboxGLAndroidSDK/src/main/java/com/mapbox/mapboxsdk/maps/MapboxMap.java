@@ -5,6 +5,7 @@ import android.graphics.Bitmap;
 import android.location.Location;
 import android.os.SystemClock;
 import android.support.annotation.FloatRange;
+import android.support.annotation.IntRange;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.UiThread;
@@ -86,14 +87,20 @@ public class MapboxMap {
     private MapboxMap.OnMyLocationTrackingModeChangeListener mOnMyLocationTrackingModeChangeListener;
     private MapboxMap.OnMyBearingTrackingModeChangeListener mOnMyBearingTrackingModeChangeListener;
     private MapboxMap.OnFpsChangedListener mOnFpsChangedListener;
+    private MapboxMap.OnFrameMetricsListener mOnFrameMetricsListener;
     private MapboxMap.OnCameraChangeListener mOnCameraChangeListener;
+    private MapboxMap.OnCameraFrameListener mOnCameraFrameListener;
 
     private double mMaxZoomLevel = -1;
     private double mMinZoomLevel = -1;
 
+    private long mPrefetchByteBudget = MapboxConstants.PREFETCH_BYTE_BUDGET;
+
     MapboxMap(@NonNull MapView mapView) {
         mMapView = mapView;
-        mMapView.addOnMapChangedListener(new MapChangeCameraPositionListener());
+        mMapView.addOnMapChangedListener(new MapChangeCameraPositionListener(), MapView.REGION_WILL_CHANGE,
+                MapView.REGION_WILL_CHANGE_ANIMATED, MapView.REGION_IS_CHANGING, MapView.REGION_DID_CHANGE,
+                MapView.REGION_DID_CHANGE_ANIMATED);
         mUiSettings = new UiSettings(mapView);
         mTrackingSettings = new TrackingSettings(mMapView, mUiSettings);
         mProjection = new Projection(mapView);
@@ -175,6 +182,154 @@ public class MapboxMap {
         return mMaxZoomLevel;
     }
 
+    //
+    // Tile cache
+    //
+
+    /**
+     * <p>
+     * Sets the number of tiles each source keeps in memory after they leave the viewport,
+     * so panning back over recently seen areas does not load and parse them again.
+     * </p>
+     * By default the cache is sized from the device memory, processors and the size of the map view,
+     * and resized whenever the map view changes size.
+     *
+     * @param tiles The number of tiles to keep per source, or 0 to size the cache automatically.
+     */
+    @UiThread
+    public void setTileCacheBudget(@IntRange(from = 0) int tiles) {
+        if (tiles < 0) {
+            throw new IllegalArgumentException("Tile cache budget must not be negative, was " + tiles);
+        }
+        mMapView.setTileCacheBudget(tiles);
+    }
+
+    /**
+     * <p>
+     * Sets the memory the tile cache may use, converted into a number of tiles using
+     * {@link MapboxConstants#TILE_CACHE_ESTIMATED_TILE_BYTES}.
+     * </p>
+     *
+     * @param bytes The memory budget in bytes, or 0 to size the cache automatically.
+     * @see #setTileCacheBudget(int)
+     */
+    @UiThread
+    public void setTileCacheMemoryBudget(@IntRange(from = 0) long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Tile cache memory budget must not be negative, was " + bytes);
+        }
+        setTileCacheBudget(MapboxMapOptions.tilesForMemoryBudget(bytes));
+    }
+
+    /**
+     * Gets the current size of the tile cache along with its hit and miss counters.
+     *
+     * @return The tile cache statistics.
+     */
+    @UiThread
+    public TileCacheStatistics getTileCacheStatistics() {
+        return mMapView.getTileCacheStatistics();
+    }
+
+    //
+    // Prefetching
+    //
+
+    /**
+     * <p>
+     * Sets the number of bytes each call to {@link #prefetch(CameraPosition...)} or
+     * {@link #prefetchAlong(List, int, int)} may download. Tiles and glyphs beyond the budget stay
+     * queued until the next call.
+     * </p>
+     * The default is {@link MapboxConstants#PREFETCH_BYTE_BUDGET}.
+     *
+     * @param bytes The number of bytes, or 0 for no limit.
+     */
+    @UiThread
+    public void setPrefetchByteBudget(@IntRange(from = 0) long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Prefetch byte budget must not be negative, was " + bytes);
+        }
+        mPrefetchByteBudget = bytes;
+    }
+
+    /**
+     * Gets the number of bytes a prefetch may download.
+     *
+     * @return The number of bytes, or 0 for no limit.
+     */
+    @UiThread
+    public long getPrefetchByteBudget() {
+        return mPrefetchByteBudget;
+    }
+
+    /**
+     * <p>
+     * Fetches the tiles and glyphs the given camera positions will show into the ambient cache,
+     * without rendering them, so moving the camera there later renders from the cache instead of
+     * showing blank tiles. Requests are made at low priority and never delay tiles the map shows.
+     * </p>
+     * Targets of {@link #animateCamera(CameraUpdate)} are prefetched automatically. A position without
+     * a target keeps the current center of the map, unset bearing, tilt and zoom values keep their
+     * current values too.
+     *
+     * @param positions The camera positions to prefetch, in the order they are needed.
+     */
+    @UiThread
+    public void prefetch(@NonNull CameraPosition... positions) {
+        double[] cameras = new double[positions.length * 5];
+        for (int i = 0; i < positions.length; i++) {
+            CameraPosition position = positions[i];
+            cameras[i * 5] = position.target != null ? position.target.getLatitude() : Double.NaN;
+            cameras[i * 5 + 1] = position.target != null ? position.target.getLongitude() : Double.NaN;
+            cameras[i * 5 + 2] = cameraValue(position.bearing);
+            cameras[i * 5 + 3] = cameraValue(position.tilt);
+            cameras[i * 5 + 4] = cameraValue(position.zoom);
+        }
+        mMapView.prefetch(cameras, mPrefetchByteBudget);
+    }
+
+    // CameraPosition uses -1 for unset values, native code expects NaN
+    private static double cameraValue(double value) {
+        return value == -1 ? Double.NaN : value;
+    }
+
+    /**
+     * <p>
+     * Fetches the tiles and glyphs of the map following a route across a range of zoom levels into
+     * the ambient cache, without rendering them. The route is walked from its first coordinate, so the
+     * start of the route is fetched first when the byte budget runs out.
+     * </p>
+     *
+     * @param route   The coordinates of the route.
+     * @param minZoom The lowest zoom level to prefetch.
+     * @param maxZoom The highest zoom level to prefetch.
+     */
+    @UiThread
+    public void prefetchAlong(@NonNull List<LatLng> route,
+                              @IntRange(from = 0) int minZoom,
+                              @IntRange(from = 0) int maxZoom) {
+        if (minZoom < MapboxConstants.MINIMUM_ZOOM || maxZoom > MapboxConstants.MAXIMUM_ZOOM || minZoom > maxZoom) {
+            throw new IllegalArgumentException("Invalid prefetch zoom range " + minZoom + " - " + maxZoom);
+        }
+
+        double[] coordinates = new double[route.size() * 2];
+        for (int i = 0; i < route.size(); i++) {
+            LatLng latLng = route.get(i);
+            coordinates[i * 2] = latLng.getLatitude();
+            coordinates[i * 2 + 1] = latLng.getLongitude();
+        }
+        mMapView.prefetchAlong(coordinates, minZoom, maxZoom, mPrefetchByteBudget);
+    }
+
+    /**
+     * Cancels prefetch requests in flight and drops the tiles and glyphs still queued.
+     */
+    @UiThread
+    public void cancelPrefetch() {
+        mMapView.cancelPrefetch();
+    }
+
     //
     // UiSettings
     //
@@ -427,6 +582,8 @@ public class MapboxMap {
     @UiThread
     public final void animateCamera(CameraUpdate update, int durationMs, final MapboxMap.CancelableCallback callback) {
         mCameraPosition = update.getCameraPosition(this);
+        // Fetch the tiles at the destination while the camera is still on its way
+        prefetch(mCameraPosition);
         mMapView.flyTo(mCameraPosition.bearing, mCameraPosition.target, getDurationNano(durationMs), mCameraPosition.tilt, mCameraPosition.zoom, new CancelableCallback() {
             @Override
             public void onCancel() {
@@ -758,6 +915,81 @@ public class MapboxMap {
         return markers;
     }
 
+    /**
+     * <p>
+     * Adds multiple markers to this map from packed primitive arrays.
+     * </p>
+     * Coordinates are passed as latitude/longitude pairs and every marker references its icon by index
+     * into {@code icons}, which allows very large marker sets to be handed to the renderer in a single call.
+     * A {@code null} entry in {@code icons} is rendered with the default marker icon.
+     *
+     * @param latLngs     Packed coordinates as {@code [lat0, lng0, lat1, lng1, ...]}.
+     * @param iconIndices Per marker index into {@code icons}, must hold {@code latLngs.length / 2} elements.
+     * @param icons       The icon table shared by all markers.
+     * @return A list of the {@code Marker}s that were added to the map.
+     */
+    @UiThread
+    @NonNull
+    public List<Marker> addMarkers(@NonNull double[] latLngs, @NonNull int[] iconIndices, @NonNull Icon[] icons) {
+        int count = iconIndices.length;
+        if (latLngs.length != count * 2) {
+            throw new IllegalArgumentException("latLngs must contain 2 values for each icon index, expected "
+                    + count * 2 + " but was " + latLngs.length);
+        }
+
+        List<Marker> markers = new ArrayList<>(count);
+        if (count == 0) {
+            return markers;
+        }
+
+        // load every icon once instead of once per marker
+        Icon[] iconTable = new Icon[icons.length];
+        String[] iconIds = new String[icons.length];
+        int[] topOffsets = new int[icons.length];
+        for (int i = 0; i < icons.length; i++) {
+            Marker marker = new MarkerOptions().icon(icons[i]).getMarker();
+            Icon icon = mMapView.loadIconForMarker(marker);
+            iconTable[i] = marker.getIcon();
+            topOffsets[i] = mMapView.getTopOffsetPixelsForIcon(icon);
+            if (icon != null) {
+                iconIds[i] = icon.getId();
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (iconIndices[i] < 0 || iconIndices[i] >= icons.length) {
+                throw new IllegalArgumentException("Icon index " + iconIndices[i] + " at position " + i
+                        + " is out of bounds for an icon table of size " + icons.length);
+            }
+        }
+
+        long[] ids = mMapView.addMarkers(latLngs, iconIndices, iconIds);
+
+        // if unittests or markers are correctly added to map
+        if (ids == null || ids.length == count) {
+            long id = 0;
+            Marker m;
+            for (int i = 0; i < count; i++) {
+                m = new MarkerOptions()
+                        .position(new LatLng(latLngs[i * 2], latLngs[i * 2 + 1]))
+                        .icon(iconTable[iconIndices[i]])
+                        .getMarker();
+                m.setTopOffsetPixels(topOffsets[iconIndices[i]]);
+                m.setMapboxMap(this);
+                if (ids != null) {
+                    id = ids[i];
+                } else {
+                    //unit test
+                    id++;
+                }
+                m.setId(id);
+                mAnnotations.put(id, m);
+                markers.add(m);
+            }
+        }
+        return markers;
+    }
+
     /**
      * <p>
      * Updates a marker on this map. Does nothing if the marker is already added.
@@ -1045,9 +1277,10 @@ public class MapboxMap {
      */
     @NonNull
     public List<Annotation> getAnnotations() {
-        List<Annotation> annotations = new ArrayList<>();
-        for (int i = 0; i < mAnnotations.size(); i++) {
-            annotations.add(mAnnotations.get(mAnnotations.keyAt(i)));
+        int count = mAnnotations.size();
+        List<Annotation> annotations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            annotations.add(mAnnotations.valueAt(i));
         }
         return annotations;
     }
@@ -1063,7 +1296,7 @@ public class MapboxMap {
         List<Marker> markers = new ArrayList<>();
         Annotation annotation;
         for (int i = 0; i < mAnnotations.size(); i++) {
-            annotation = mAnnotations.get(mAnnotations.keyAt(i));
+            annotation = mAnnotations.valueAt(i);
             if (annotation instanceof Marker) {
                 markers.add((Marker) annotation);
             }
@@ -1082,7 +1315,7 @@ public class MapboxMap {
         List<Polygon> polygons = new ArrayList<>();
         Annotation annotation;
         for (int i = 0; i < mAnnotations.size(); i++) {
-            annotation = mAnnotations.get(mAnnotations.keyAt(i));
+            annotation = mAnnotations.valueAt(i);
             if (annotation instanceof Polygon) {
                 polygons.add((Polygon) annotation);
             }
@@ -1101,7 +1334,7 @@ public class MapboxMap {
         List<Polyline> polylines = new ArrayList<>();
         Annotation annotation;
         for (int i = 0; i < mAnnotations.size(); i++) {
-            annotation = mAnnotations.get(mAnnotations.keyAt(i));
+            annotation = mAnnotations.valueAt(i);
             if (annotation instanceof Polyline) {
                 polylines.add((Polyline) annotation);
             }
@@ -1334,6 +1567,27 @@ public class MapboxMap {
         mOnCameraChangeListener = listener;
     }
 
+    /**
+     * <p>
+     * Sets a callback that's invoked with the camera of every frame rendered to the map view, when the
+     * frame is shown.
+     * </p>
+     * Unlike {@link #setOnCameraChangeListener(OnCameraChangeListener)}, calls are not throttled and
+     * do not allocate, so views and GL overlays can follow the camera in lock-step with the map.
+     *
+     * @param listener The callback that's invoked on every frame rendered to the map view.
+     *                 To unset the callback, use null.
+     */
+    @UiThread
+    public void setOnCameraFrameListener(@Nullable OnCameraFrameListener listener) {
+        mOnCameraFrameListener = listener;
+    }
+
+    // used by MapView
+    OnCameraFrameListener getOnCameraFrameListener() {
+        return mOnCameraFrameListener;
+    }
+
     /**
      * Sets a callback that's invoked on every frame rendered to the map view.
      *
@@ -1350,6 +1604,29 @@ public class MapboxMap {
         return mOnFpsChangedListener;
     }
 
+    /**
+     * <p>
+     * Sets a callback that's invoked once a second with the render timings and tile counts of the
+     * frames rendered during that second.
+     * </p>
+     * Unlike {@link #setOnFpsChangedListener(OnFpsChangedListener)}, this does not require debug mode
+     * and is cheap enough to leave enabled in production. Samples are only collected while a callback
+     * is set.
+     *
+     * @param listener The callback that's invoked with the metrics of the last second.
+     *                 To unset the callback, use null.
+     */
+    @UiThread
+    public void setOnFrameMetricsListener(@Nullable OnFrameMetricsListener listener) {
+        mOnFrameMetricsListener = listener;
+        mMapView.setFrameMetricsEnabled(listener != null);
+    }
+
+    // used by MapView
+    OnFrameMetricsListener getOnFrameMetricsListener() {
+        return mOnFrameMetricsListener;
+    }
+
     /**
      * Sets a callback that's invoked when the map is scrolled.
      *
@@ -1687,6 +1964,22 @@ public class MapboxMap {
         void onCameraChange(CameraPosition position);
     }
 
+    /**
+     * Interface definition for a callback to be invoked with the camera of every frame rendered to
+     * the map view.
+     *
+     * @see MapboxMap#setOnCameraFrameListener(OnCameraFrameListener)
+     */
+    public interface OnCameraFrameListener {
+        /**
+         * Called when a frame rendered to the map view is shown.
+         *
+         * @param camera The camera of the frame. The same instance is reused for every frame and
+         *               must not be kept after this call returns.
+         */
+        void onCameraFrame(CameraSnapshot camera);
+    }
+
     /**
      * Interface definition for a callback to be invoked when a frame is rendered to the map view.
      *
@@ -1701,6 +1994,21 @@ public class MapboxMap {
         void onFpsChanged(double fps);
     }
 
+    /**
+     * Interface definition for a callback to be invoked with the metrics of the frames rendered to the
+     * map view.
+     *
+     * @see MapboxMap#setOnFrameMetricsListener(OnFrameMetricsListener)
+     */
+    public interface OnFrameMetricsListener {
+        /**
+         * Called once a second while frames are rendered to the map view.
+         *
+         * @param metrics The percentiles of the frames rendered over the last second.
+         */
+        void onFrameMetrics(FrameMetrics metrics);
+    }
+
     /**
      * Interface definition for a callback to be invoked when the user clicks on the map view.
      *
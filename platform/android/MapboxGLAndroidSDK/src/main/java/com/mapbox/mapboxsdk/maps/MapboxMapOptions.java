@@ -16,6 +16,7 @@ import android.view.Gravity;
 import com.mapbox.mapboxsdk.R;
 import com.mapbox.mapboxsdk.camera.CameraPosition;
 import com.mapbox.mapboxsdk.constants.MapboxConstants;
+import com.mapbox.mapboxsdk.constants.RenderMode;
 import com.mapbox.mapboxsdk.utils.ColorUtils;
 import java.util.Arrays;
 
@@ -55,6 +56,11 @@ public class MapboxMapOptions implements Parcelable {
     private float minZoom = MapboxConstants.MINIMUM_ZOOM;
     private float maxZoom = MapboxConstants.MAXIMUM_ZOOM;
 
+    private int tileCacheBudget;
+
+    @RenderMode.Mode
+    private int renderMode = RenderMode.ON_DRAW;
+
     private boolean rotateGesturesEnabled = true;
     private boolean scrollGesturesEnabled = true;
     private boolean tiltGesturesEnabled = true;
@@ -101,6 +107,9 @@ public class MapboxMapOptions implements Parcelable {
         minZoom = in.readFloat();
         maxZoom = in.readFloat();
 
+        tileCacheBudget = in.readInt();
+        renderMode = in.readInt();
+
         rotateGesturesEnabled = in.readByte() != 0;
         scrollGesturesEnabled = in.readByte() != 0;
         tiltGesturesEnabled = in.readByte() != 0;
@@ -134,6 +143,7 @@ public class MapboxMapOptions implements Parcelable {
         TypedArray typedArray = context.obtainStyledAttributes(attrs, R.styleable.MapView, 0, 0);
         try {
             mapboxMapOptions.debugActive(typedArray.getBoolean(R.styleable.MapView_debug_active, false));
+            mapboxMapOptions.renderMode(typedArray.getInt(R.styleable.MapView_render_mode, RenderMode.ON_DRAW));
 
             mapboxMapOptions.camera(new CameraPosition.Builder(typedArray).build());
 
@@ -252,6 +262,22 @@ public class MapboxMapOptions implements Parcelable {
         return this;
     }
 
+    /**
+     * Specifies how a map view schedules the rendering of frames.
+     *
+     * @param renderMode One of {@link RenderMode#ON_DRAW}, {@link RenderMode#VSYNC} or
+     *                   {@link RenderMode#RENDER_THREAD}
+     * @return This
+     */
+    public MapboxMapOptions renderMode(@RenderMode.Mode int renderMode) {
+        if (renderMode != RenderMode.ON_DRAW && renderMode != RenderMode.VSYNC
+                && renderMode != RenderMode.RENDER_THREAD) {
+            throw new IllegalArgumentException("Render mode must be a RenderMode, was " + renderMode);
+        }
+        this.renderMode = renderMode;
+        return this;
+    }
+
     /**
      * Specifies the used minimum zoom level for a map view.
      *
@@ -274,6 +300,34 @@ public class MapboxMapOptions implements Parcelable {
         return this;
     }
 
+    /**
+     * Specifies the number of tiles each source keeps in memory after they leave the viewport.
+     *
+     * @param tiles The number of tiles, or 0 to size the cache from the device and map view size
+     * @return This
+     */
+    public MapboxMapOptions tileCacheBudget(@IntRange(from = 0) int tiles) {
+        if (tiles < 0) {
+            throw new IllegalArgumentException("Tile cache budget must not be negative, was " + tiles);
+        }
+        tileCacheBudget = tiles;
+        return this;
+    }
+
+    /**
+     * Specifies the memory the tile cache may use, converted into a number of tiles using
+     * {@link MapboxConstants#TILE_CACHE_ESTIMATED_TILE_BYTES}.
+     *
+     * @param bytes The memory budget in bytes, or 0 to size the cache from the device and map view size
+     * @return This
+     */
+    public MapboxMapOptions tileCacheMemoryBudget(@IntRange(from = 0) long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Tile cache memory budget must not be negative, was " + bytes);
+        }
+        return tileCacheBudget(tilesForMemoryBudget(bytes));
+    }
+
     /**
      * Specifies the visibility state of a compass for a map view.
      *
@@ -771,6 +825,33 @@ public class MapboxMapOptions implements Parcelable {
         return myLocationAccuracyAlpha;
     }
 
+    /**
+     * Get the number of tiles each source keeps in memory, 0 if the cache is sized automatically.
+     *
+     * @return Tile cache budget
+     */
+    public int getTileCacheBudget() {
+        return tileCacheBudget;
+    }
+
+    // A non zero budget always keeps at least one tile
+    static int tilesForMemoryBudget(long bytes) {
+        if (bytes == 0) {
+            return 0;
+        }
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, bytes / MapboxConstants.TILE_CACHE_ESTIMATED_TILE_BYTES));
+    }
+
+    /**
+     * Get how a map view schedules the rendering of frames.
+     *
+     * @return Render mode, {@link RenderMode#ON_DRAW} unless set
+     */
+    @RenderMode.Mode
+    public int getRenderMode() {
+        return renderMode;
+    }
+
     /**
      * Get the current configured debug state for a map view.
      *
@@ -817,6 +898,9 @@ public class MapboxMapOptions implements Parcelable {
         dest.writeFloat(minZoom);
         dest.writeFloat(maxZoom);
 
+        dest.writeInt(tileCacheBudget);
+        dest.writeInt(renderMode);
+
         dest.writeByte((byte) (rotateGesturesEnabled ? 1 : 0));
         dest.writeByte((byte) (scrollGesturesEnabled ? 1 : 0));
         dest.writeByte((byte) (tiltGesturesEnabled ? 1 : 0));
@@ -853,6 +937,8 @@ public class MapboxMapOptions implements Parcelable {
         if (attributionGravity != options.attributionGravity) return false;
         if (Float.compare(options.minZoom, minZoom) != 0) return false;
         if (Float.compare(options.maxZoom, maxZoom) != 0) return false;
+        if (tileCacheBudget != options.tileCacheBudget) return false;
+        if (renderMode != options.renderMode) return false;
         if (rotateGesturesEnabled != options.rotateGesturesEnabled) return false;
         if (scrollGesturesEnabled != options.scrollGesturesEnabled) return false;
         if (tiltGesturesEnabled != options.tiltGesturesEnabled) return false;
@@ -895,6 +981,8 @@ public class MapboxMapOptions implements Parcelable {
         result = 31 * result + Arrays.hashCode(attributionMargins);
         result = 31 * result + (minZoom != +0.0f ? Float.floatToIntBits(minZoom) : 0);
         result = 31 * result + (maxZoom != +0.0f ? Float.floatToIntBits(maxZoom) : 0);
+        result = 31 * result + tileCacheBudget;
+        result = 31 * result + renderMode;
         result = 31 * result + (rotateGesturesEnabled ? 1 : 0);
         result = 31 * result + (scrollGesturesEnabled ? 1 : 0);
         result = 31 * result + (tiltGesturesEnabled ? 1 : 0);
@@ -17,9 +17,10 @@ import com.mapbox.mapboxsdk.geometry.ProjectedMeters;
 import com.mapbox.mapboxsdk.layers.CustomLayer;
 
 import java.util.List;
+import java.util.concurrent.Callable;
 
 // Class that wraps the native methods for convenience
-final class NativeMapView {
+class NativeMapView {
 
     //
     // Static members
@@ -29,7 +30,8 @@ final class NativeMapView {
     // Instance members
     //
 
-    boolean mDestroyed = false;
+    // Set on the render thread in RenderMode.RENDER_THREAD and read on the UI thread
+    volatile boolean mDestroyed = false;
 
     // Holds the pointer to JNI NativeMapView
     private long mNativeMapViewPtr = 0;
@@ -50,17 +52,22 @@ final class NativeMapView {
     //
 
     public NativeMapView(MapView mapView) {
+        this(mapView, null);
+    }
+
+    // With a render thread the native map is created on it, and must only be used from it
+    NativeMapView(MapView mapView, MapRenderThread renderThread) {
         Context context = mapView.getContext();
-        String dataPath = context.getFilesDir().getAbsolutePath();
+        final String dataPath = context.getFilesDir().getAbsolutePath();
 
         // With the availability of offline, we're unifying the ambient (cache) and the offline
         // databases to be in the same folder, outside cache, to avoid automatic deletion from
         // the system
-        String cachePath = dataPath;
+        final String cachePath = dataPath;
 
-        float pixelRatio = context.getResources().getDisplayMetrics().density;
-        String apkPath = context.getPackageCodePath();
-        int availableProcessors = Runtime.getRuntime().availableProcessors();
+        final float pixelRatio = context.getResources().getDisplayMetrics().density;
+        final String apkPath = context.getPackageCodePath();
+        final int availableProcessors = Runtime.getRuntime().availableProcessors();
         ActivityManager.MemoryInfo memoryInfo = new ActivityManager.MemoryInfo();
         ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
         activityManager.getMemoryInfo(memoryInfo);
@@ -78,7 +85,17 @@ final class NativeMapView {
         }
 
         mMapView = mapView;
-        mNativeMapViewPtr = nativeCreate(cachePath, dataPath, apkPath, pixelRatio, availableProcessors, totalMemory);
+        if (renderThread == null) {
+            mNativeMapViewPtr = nativeCreate(cachePath, dataPath, apkPath, pixelRatio, availableProcessors, totalMemory);
+        } else {
+            final long memory = totalMemory;
+            mNativeMapViewPtr = renderThread.call(new Callable<Long>() {
+                @Override
+                public Long call() {
+                    return nativeCreate(cachePath, dataPath, apkPath, pixelRatio, availableProcessors, memory);
+                }
+            });
+        }
     }
 
     //
@@ -352,6 +369,10 @@ final class NativeMapView {
         return nativeAddMarkers(mNativeMapViewPtr, markers.toArray(new Marker[markers.size()]));
     }
 
+    public long[] addMarkers(double[] latLngs, int[] iconIndices, String[] iconIds) {
+        return nativeAddMarkersPacked(mNativeMapViewPtr, latLngs, iconIndices, iconIds);
+    }
+
     public long addPolyline(Polyline polyline) {
         Polyline[] polylines = { polyline };
         return nativeAddPolylines(mNativeMapViewPtr, polylines)[0];
@@ -373,7 +394,11 @@ final class NativeMapView {
     public void updateMarker(Marker marker) {
         LatLng position = marker.getPosition();
         Icon icon = marker.getIcon();
-        nativeUpdateMarker(mNativeMapViewPtr, marker.getId(), position.getLatitude(), position.getLongitude(), icon.getId());
+        updateMarker(marker.getId(), position.getLatitude(), position.getLongitude(), icon.getId());
+    }
+
+    public void updateMarker(long id, double latitude, double longitude, String iconId) {
+        nativeUpdateMarker(mNativeMapViewPtr, id, latitude, longitude, iconId);
     }
 
     public void removeAnnotation(long id) {
@@ -401,6 +426,38 @@ final class NativeMapView {
         nativeOnLowMemory(mNativeMapViewPtr);
     }
 
+    public void setMapChangeMask(int mask) {
+        nativeSetMapChangeMask(mNativeMapViewPtr, mask);
+    }
+
+    public void setTileCacheBudget(long tiles) {
+        nativeSetTileCacheBudget(mNativeMapViewPtr, tiles);
+    }
+
+    public void updateTileCacheSize() {
+        nativeUpdateTileCacheSize(mNativeMapViewPtr);
+    }
+
+    public void trimTileCache(float fraction) {
+        nativeTrimTileCache(mNativeMapViewPtr, fraction);
+    }
+
+    public long[] getTileCacheStatistics() {
+        return nativeGetTileCacheStatistics(mNativeMapViewPtr);
+    }
+
+    public void prefetch(double[] cameras, long byteBudget) {
+        nativePrefetch(mNativeMapViewPtr, cameras, byteBudget);
+    }
+
+    public void prefetchAlong(double[] coordinates, int minZoom, int maxZoom, long byteBudget) {
+        nativePrefetchAlong(mNativeMapViewPtr, coordinates, minZoom, maxZoom, byteBudget);
+    }
+
+    public void cancelPrefetch() {
+        nativeCancelPrefetch(mNativeMapViewPtr);
+    }
+
     public void setDebug(boolean debug) {
         nativeSetDebug(mNativeMapViewPtr, debug);
     }
@@ -413,6 +470,10 @@ final class NativeMapView {
         return nativeGetDebug(mNativeMapViewPtr);
     }
 
+    public void enableFrameMetrics(boolean enable) {
+        nativeEnableFrameMetrics(mNativeMapViewPtr, enable);
+    }
+
     public boolean isFullyLoaded() {
         return nativeIsFullyLoaded(mNativeMapViewPtr);
     }
@@ -441,6 +502,14 @@ final class NativeMapView {
         return nativeLatLngForPixel(mNativeMapViewPtr, pixel);
     }
 
+    public void pixelsForLatLngs(double[] latLngs, float[] outPixels, double pixelRatio) {
+        nativePixelsForLatLngs(mNativeMapViewPtr, latLngs, outPixels, pixelRatio);
+    }
+
+    public void latLngsForPixels(float[] pixels, double[] outLatLngs, double pixelRatio) {
+        nativeLatLngsForPixels(mNativeMapViewPtr, pixels, outLatLngs, pixelRatio);
+    }
+
     public double getTopOffsetPixelsForAnnotationSymbol(String symbolName) {
         return nativeGetTopOffsetPixelsForAnnotationSymbol(mNativeMapViewPtr, symbolName);
     }
@@ -469,6 +538,10 @@ final class NativeMapView {
         return nativeGetCameraValues(mNativeMapViewPtr);
     }
 
+    public void getCameraSnapshot(double[] values) {
+        nativeGetCameraSnapshot(mNativeMapViewPtr, values);
+    }
+
     //
     // Callbacks
     //
@@ -477,14 +550,18 @@ final class NativeMapView {
         mMapView.onInvalidate();
     }
 
-    protected void onMapChanged(int rawChange) {
-        mMapView.onMapChanged(rawChange);
+    protected void onMapChanges(int rawChanges) {
+        mMapView.onMapChanges(rawChanges);
     }
 
     protected void onFpsChanged(double fps) {
         mMapView.onFpsChanged(fps);
     }
 
+    protected void onFrameMetrics(int frameCount, float[] values) {
+        mMapView.onFrameMetrics(frameCount, values);
+    }
+
     //
     // JNI methods
     //
@@ -595,6 +672,8 @@ final class NativeMapView {
 
     private native long[] nativeAddMarkers(long nativeMapViewPtr, Marker[] markers);
 
+    private native long[] nativeAddMarkersPacked(long nativeMapViewPtr, double[] latLngs, int[] iconIndices, String[] iconIds);
+
     private native long[] nativeAddPolylines(long mNativeMapViewPtr, Polyline[] polylines);
 
     private native long[] nativeAddPolygons(long mNativeMapViewPtr, Polygon[] polygons);
@@ -611,12 +690,30 @@ final class NativeMapView {
 
     private native void nativeOnLowMemory(long nativeMapViewPtr);
 
+    private native void nativeSetMapChangeMask(long nativeMapViewPtr, int mask);
+
+    private native void nativeSetTileCacheBudget(long nativeMapViewPtr, long tiles);
+
+    private native void nativeUpdateTileCacheSize(long nativeMapViewPtr);
+
+    private native void nativeTrimTileCache(long nativeMapViewPtr, float fraction);
+
+    private native long[] nativeGetTileCacheStatistics(long nativeMapViewPtr);
+
+    private native void nativePrefetch(long nativeMapViewPtr, double[] cameras, long byteBudget);
+
+    private native void nativePrefetchAlong(long nativeMapViewPtr, double[] coordinates, int minZoom, int maxZoom, long byteBudget);
+
+    private native void nativeCancelPrefetch(long nativeMapViewPtr);
+
     private native void nativeSetDebug(long nativeMapViewPtr, boolean debug);
 
     private native void nativeToggleDebug(long nativeMapViewPtr);
 
     private native boolean nativeGetDebug(long nativeMapViewPtr);
 
+    private native void nativeEnableFrameMetrics(long nativeMapViewPtr, boolean enable);
+
     private native boolean nativeIsFullyLoaded(long nativeMapViewPtr);
 
     private native void nativeSetReachability(long nativeMapViewPtr, boolean status);
@@ -631,6 +728,10 @@ final class NativeMapView {
 
     private native LatLng nativeLatLngForPixel(long nativeMapViewPtr, PointF pixel);
 
+    private native void nativePixelsForLatLngs(long nativeMapViewPtr, double[] latLngs, float[] outPixels, double pixelRatio);
+
+    private native void nativeLatLngsForPixels(long nativeMapViewPtr, float[] pixels, double[] outLatLngs, double pixelRatio);
+
     private native double nativeGetTopOffsetPixelsForAnnotationSymbol(long nativeMapViewPtr, String symbolName);
 
     private native void nativeJumpTo(long nativeMapViewPtr, double angle, LatLng center, double pitch, double zoom);
@@ -644,4 +745,6 @@ final class NativeMapView {
     private native void nativeRemoveCustomLayer(long nativeMapViewPtr, String id);
 
     private native double[] nativeGetCameraValues(long mNativeMapViewPtr);
+
+    private native void nativeGetCameraSnapshot(long mNativeMapViewPtr, double[] values);
 }
@@ -87,6 +87,51 @@ public class Projection {
         return mMapView.toScreenLocation(location);
     }
 
+    /**
+     * <p>
+     * Converts multiple geographical coordinates to screen locations in a single call.
+     * </p>
+     * Coordinates are read from {@code latLngs} as {@code [lat0, lng0, lat1, lng1, ...]} and the
+     * resulting screen locations are written to {@code outPixels} as {@code [x0, y0, x1, y1, ...]}, in
+     * screen pixels relative to the top left of the map. No objects are allocated, which makes this
+     * suitable for laying out overlays on every frame.
+     *
+     * @param latLngs   Packed coordinates to convert.
+     * @param outPixels Caller owned array receiving the screen locations, must be at least as long as {@code latLngs}.
+     */
+    public void toScreenLocations(@NonNull double[] latLngs, @NonNull float[] outPixels) {
+        if (latLngs.length % 2 != 0) {
+            throw new IllegalArgumentException("latLngs must contain latitude/longitude pairs");
+        }
+        if (outPixels.length < latLngs.length) {
+            throw new IllegalArgumentException("outPixels is too small, expected at least "
+                    + latLngs.length + " but was " + outPixels.length);
+        }
+        mMapView.toScreenLocations(latLngs, outPixels);
+    }
+
+    /**
+     * <p>
+     * Converts multiple screen locations to geographical coordinates in a single call.
+     * </p>
+     * Screen locations are read from {@code pixels} as {@code [x0, y0, x1, y1, ...]}, in screen pixels
+     * relative to the top left of the map, and the resulting coordinates are written to
+     * {@code outLatLngs} as {@code [lat0, lng0, lat1, lng1, ...]}.
+     *
+     * @param pixels     Packed screen locations to convert.
+     * @param outLatLngs Caller owned array receiving the coordinates, must be at least as long as {@code pixels}.
+     */
+    public void fromScreenLocations(@NonNull float[] pixels, @NonNull double[] outLatLngs) {
+        if (pixels.length % 2 != 0) {
+            throw new IllegalArgumentException("pixels must contain x/y pairs");
+        }
+        if (outLatLngs.length < pixels.length) {
+            throw new IllegalArgumentException("outLatLngs is too small, expected at least "
+                    + pixels.length + " but was " + outLatLngs.length);
+        }
+        mMapView.fromScreenLocations(pixels, outLatLngs);
+    }
+
     /**
      * Calculates a zoom level based on minimum scale and current scale from MapView
      *
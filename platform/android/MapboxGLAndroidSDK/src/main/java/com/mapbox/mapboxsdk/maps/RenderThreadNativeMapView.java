@@ -0,0 +1,1125 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.annotation.TargetApi;
+import android.graphics.PointF;
+import android.graphics.RectF;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.v4.util.LongSparseArray;
+import android.view.Surface;
+
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.Polygon;
+import com.mapbox.mapboxsdk.annotations.Polyline;
+import com.mapbox.mapboxsdk.constants.RenderMode;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.geometry.LatLngBounds;
+import com.mapbox.mapboxsdk.geometry.ProjectedMeters;
+import com.mapbox.mapboxsdk.layers.CustomLayer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link NativeMapView} whose map and GL context live on a {@link MapRenderThread}, used with
+ * {@link RenderMode#RENDER_THREAD}.
+ * <p>
+ * Changes without a result, like camera moves and annotation updates, are queued and return
+ * immediately. Annotations are added the same way, with ids allocated here and mapped to the ids of
+ * the native map on the render thread. Other queries wait for the changes queued before them. The
+ * camera and view size of the last frame or applied change are published, camera getters and
+ * projections between coordinates and screen locations, which run for every UI frame and tap, read
+ * them without waiting and may lag queued changes by a frame.
+ * Frames are paced by the {@link android.view.Choreographer} of the render thread, map changes are
+ * delivered on the UI thread.
+ * </p>
+ * <p>
+ * Arrays handed to queued changes are used after the call returns and must not be modified by the
+ * caller. Annotations are read when their add runs on the render thread.
+ * </p>
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+class RenderThreadNativeMapView extends NativeMapView {
+
+    private final MapRenderThread mRenderThread;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    // Camera values as in CameraSnapshot and the view size they project into, guarded by mCamera
+    private final double[] mCamera = new double[CameraSnapshot.VALUE_COUNT];
+    private int mWidth;
+    private int mHeight;
+
+    private final AtomicLong mNextAnnotationId = new AtomicLong();
+    // Top offsets of the annotation icons added, guarded by mTopOffsets
+    private final Map<String, Double> mTopOffsets = new HashMap<>();
+
+    // Only used on the render thread
+    private final LongSparseArray<Long> mNativeAnnotationIds = new LongSparseArray<>();
+    private final LongSparseArray<Long> mAnnotationIds = new LongSparseArray<>();
+    private final double[] mRenderedCamera = new double[CameraSnapshot.VALUE_COUNT];
+    private int mRenderedWidth;
+    private int mRenderedHeight;
+    private FrameScheduler mFrameScheduler;
+    private boolean mHasSurface;
+
+    RenderThreadNativeMapView(MapView mapView) {
+        this(mapView, new MapRenderThread());
+    }
+
+    private RenderThreadNativeMapView(MapView mapView, MapRenderThread renderThread) {
+        super(mapView, renderThread);
+        mRenderThread = renderThread;
+        mRenderThread.runAndWait(new Runnable() {
+            @Override
+            public void run() {
+                mFrameScheduler = new FrameScheduler(new FrameScheduler.Renderer() {
+                    @Override
+                    public void onRenderFrame() {
+                        renderFrame();
+                    }
+                });
+                publishCamera();
+            }
+        });
+    }
+
+    //
+    // Render thread
+    //
+
+    private void renderFrame() {
+        if (mDestroyed || !mHasSurface) {
+            return;
+        }
+
+        super.render();
+        publishCamera();
+    }
+
+    private void publishCamera() {
+        if (mDestroyed) {
+            return;
+        }
+
+        super.getCameraSnapshot(mRenderedCamera);
+        synchronized (mCamera) {
+            System.arraycopy(mRenderedCamera, 0, mCamera, 0, mCamera.length);
+            mWidth = mRenderedWidth;
+            mHeight = mRenderedHeight;
+        }
+    }
+
+    // Changes queued after the map was destroyed are dropped
+    private void queue(final Runnable change) {
+        mRenderThread.post(new Runnable() {
+            @Override
+            public void run() {
+                if (!mDestroyed) {
+                    change.run();
+                    publishCamera();
+                }
+            }
+        });
+    }
+
+    private <T> T call(Callable<T> query) {
+        return mRenderThread.call(query);
+    }
+
+    private double getCameraValue(int index) {
+        synchronized (mCamera) {
+            return mCamera[index];
+        }
+    }
+
+    //
+    // Lifecycle
+    //
+
+    @Override
+    public void destroy() {
+        mRenderThread.runAndWait(new Runnable() {
+            @Override
+            public void run() {
+                mFrameScheduler.stop();
+                RenderThreadNativeMapView.super.destroy();
+                // Drops anything queued meanwhile, the UI thread is waiting for this command
+                mRenderThread.quit();
+            }
+        });
+    }
+
+    @Override
+    public void initializeDisplay() {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.initializeDisplay();
+            }
+        });
+    }
+
+    @Override
+    public void terminateDisplay() {
+        mRenderThread.runAndWait(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.terminateDisplay();
+            }
+        });
+    }
+
+    @Override
+    public void initializeContext() {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.initializeContext();
+            }
+        });
+    }
+
+    @Override
+    public void terminateContext() {
+        mRenderThread.runAndWait(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.terminateContext();
+            }
+        });
+    }
+
+    @Override
+    public void createSurface(final Surface surface) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.createSurface(surface);
+                mHasSurface = true;
+                mFrameScheduler.requestFrame();
+            }
+        });
+    }
+
+    // The surface is released once this returns, so wait for the render thread to stop using it
+    @Override
+    public void destroySurface() {
+        mRenderThread.runAndWait(new Runnable() {
+            @Override
+            public void run() {
+                mHasSurface = false;
+                RenderThreadNativeMapView.super.destroySurface();
+            }
+        });
+    }
+
+    @Override
+    public void update() {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.update();
+            }
+        });
+    }
+
+    // Frames are rendered by the render thread, rendering from another thread schedules one instead
+    @Override
+    public void render() {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                mFrameScheduler.requestFrame();
+            }
+        });
+    }
+
+    @Override
+    public void resizeView(final int width, final int height) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.resizeView(width, height);
+                mRenderedWidth = width;
+                mRenderedHeight = height;
+            }
+        });
+    }
+
+    @Override
+    public void resizeFramebuffer(final int fbWidth, final int fbHeight) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.resizeFramebuffer(fbWidth, fbHeight);
+                mFrameScheduler.requestFrame();
+            }
+        });
+    }
+
+    //
+    // Style
+    //
+
+    @Override
+    public void addClass(final String clazz) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.addClass(clazz);
+            }
+        });
+    }
+
+    @Override
+    public void removeClass(final String clazz) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.removeClass(clazz);
+            }
+        });
+    }
+
+    @Override
+    public boolean hasClass(final String clazz) {
+        return call(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return RenderThreadNativeMapView.super.hasClass(clazz);
+            }
+        });
+    }
+
+    @Override
+    public void setClasses(List<String> classes) {
+        final List<String> copy = new ArrayList<>(classes);
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.setClasses(copy);
+            }
+        });
+    }
+
+    @Override
+    public List<String> getClasses() {
+        return call(new Callable<List<String>>() {
+            @Override
+            public List<String> call() {
+                return RenderThreadNativeMapView.super.getClasses();
+            }
+        });
+    }
+
+    @Override
+    public void setStyleUrl(final String url) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.setStyleUrl(url);
+            }
+        });
+    }
+
+    @Override
+    public void setStyleJson(final String newStyleJson) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.setStyleJson(newStyleJson);
+            }
+        });
+    }
+
+    @Override
+    public String getStyleJson() {
+        return call(new Callable<String>() {
+            @Override
+            public String call() {
+                return RenderThreadNativeMapView.super.getStyleJson();
+            }
+        });
+    }
+
+    @Override
+    public void setAccessToken(final String accessToken) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.setAccessToken(accessToken);
+            }
+        });
+    }
+
+    @Override
+    public String getAccessToken() {
+        return call(new Callable<String>() {
+            @Override
+            public String call() {
+                return RenderThreadNativeMapView.super.getAccessToken();
+            }
+        });
+    }
+
+    //
+    // Camera
+    //
+
+    @Override
+    public void cancelTransitions() {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.cancelTransitions();
+            }
+        });
+    }
+
+    @Override
+    public void setGestureInProgress(final boolean inProgress) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.setGestureInProgress(inProgress);
+            }
+        });
+    }
+
+    @Override
+    public void moveBy(final double dx, final double dy, final long duration) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.moveBy(dx, dy, duration);
+            }
+        });
+    }
+
+    @Override
+    public void setLatLng(LatLng latLng, final long duration) {
+        final LatLng copy = new LatLng(latLng);
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.setLatLng(copy, duration);
+            }
+        });
+    }
+
+    @Override
+    public LatLng getLatLng() {
+        synchronized (mCamera) {
+            return new LatLng(mCamera[0], mCamera[1]);
+        }
+    }
+
+    @Override
+    public void resetPosition() {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.resetPosition();
+            }
+        });
+    }
+
+    @Override
+    public double getPitch() {
+        return getCameraValue(3);
+    }
+
+    @Override
+    public void setPitch(final double pitch, final long duration) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.setPitch(pitch, duration);
+            }
+        });
+    }
+
+    @Override
+    public void scaleBy(final double ds, final double cx, final double cy, final long duration) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.scaleBy(ds, cx, cy, duration);
+            }
+        });
+    }
+
+    @Override
+    public void setScale(final double scale, final double cx, final double cy, final long duration) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.setScale(scale, cx, cy, duration);
+            }
+        });
+    }
+
+    @Override
+    public double getScale() {
+        return call(new Callable<Double>() {
+            @Override
+            public Double call() {
+                return RenderThreadNativeMapView.super.getScale();
+            }
+        });
+    }
+
+    @Override
+    public void setZoom(final double zoom, final long duration) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.setZoom(zoom, duration);
+            }
+        });
+    }
+
+    @Override
+    public double getZoom() {
+        return getCameraValue(4);
+    }
+
+    @Override
+    public void resetZoom() {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.resetZoom();
+            }
+        });
+    }
+
+    @Override
+    public void setMinZoom(final double zoom) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.setMinZoom(zoom);
+            }
+        });
+    }
+
+    @Override
+    public double getMinZoom() {
+        return call(new Callable<Double>() {
+            @Override
+            public Double call() {
+                return RenderThreadNativeMapView.super.getMinZoom();
+            }
+        });
+    }
+
+    @Override
+    public void setMaxZoom(final double zoom) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.setMaxZoom(zoom);
+            }
+        });
+    }
+
+    @Override
+    public double getMaxZoom() {
+        return call(new Callable<Double>() {
+            @Override
+            public Double call() {
+                return RenderThreadNativeMapView.super.getMaxZoom();
+            }
+        });
+    }
+
+    @Override
+    public void rotateBy(final double sx, final double sy, final double ex, final double ey, final long duration) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.rotateBy(sx, sy, ex, ey, duration);
+            }
+        });
+    }
+
+    @Override
+    public void setContentPadding(final double top, final double left, final double bottom, final double right) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.setContentPadding(top, left, bottom, right);
+            }
+        });
+    }
+
+    @Override
+    public void setBearing(final double degrees, final long duration) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.setBearing(degrees, duration);
+            }
+        });
+    }
+
+    @Override
+    public void setBearing(final double degrees, final double cx, final double cy) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.setBearing(degrees, cx, cy);
+            }
+        });
+    }
+
+    @Override
+    public double getBearing() {
+        return getCameraValue(2);
+    }
+
+    @Override
+    public void resetNorth() {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.resetNorth();
+            }
+        });
+    }
+
+    @Override
+    public void setVisibleCoordinateBounds(final LatLng[] coordinates, RectF padding, final double direction,
+                                           final long duration) {
+        final RectF paddingCopy = new RectF(padding);
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.setVisibleCoordinateBounds(coordinates, paddingCopy, direction, duration);
+            }
+        });
+    }
+
+    @Override
+    public void jumpTo(final double angle, LatLng center, final double pitch, final double zoom) {
+        final LatLng copy = new LatLng(center);
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.jumpTo(angle, copy, pitch, zoom);
+            }
+        });
+    }
+
+    @Override
+    public void easeTo(final double angle, LatLng center, final long duration, final double pitch, final double zoom,
+                       final boolean easingInterpolator) {
+        final LatLng copy = new LatLng(center);
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.easeTo(angle, copy, duration, pitch, zoom, easingInterpolator);
+            }
+        });
+    }
+
+    @Override
+    public void flyTo(final double angle, LatLng center, final long duration, final double pitch, final double zoom) {
+        final LatLng copy = new LatLng(center);
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.flyTo(angle, copy, duration, pitch, zoom);
+            }
+        });
+    }
+
+    @Override
+    public double[] getCameraValues() {
+        synchronized (mCamera) {
+            // Latitude, longitude, bearing, tilt and zoom lead the snapshot values
+            return Arrays.copyOf(mCamera, 5);
+        }
+    }
+
+    @Override
+    public void getCameraSnapshot(double[] values) {
+        synchronized (mCamera) {
+            System.arraycopy(mCamera, 0, values, 0, mCamera.length);
+        }
+    }
+
+    //
+    // Annotations
+    //
+
+    // Annotation ids are allocated here so adds can be queued, the render thread maps them to the ids
+    // of the native map
+
+    private long[] allocateAnnotationIds(int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = mNextAnnotationId.getAndIncrement();
+        }
+        return ids;
+    }
+
+    // Called on the render thread with the ids returned by the native map
+    private void bindAnnotationIds(long[] ids, long[] nativeIds) {
+        for (int i = 0; i < ids.length && i < nativeIds.length; i++) {
+            mNativeAnnotationIds.put(ids[i], nativeIds[i]);
+            mAnnotationIds.put(nativeIds[i], ids[i]);
+        }
+    }
+
+    @Override
+    public long addMarker(final Marker marker) {
+        final long[] ids = allocateAnnotationIds(1);
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                bindAnnotationIds(ids, new long[]{RenderThreadNativeMapView.super.addMarker(marker)});
+            }
+        });
+        return ids[0];
+    }
+
+    @Override
+    public long[] addMarkers(List<Marker> markers) {
+        final List<Marker> copy = new ArrayList<>(markers);
+        final long[] ids = allocateAnnotationIds(copy.size());
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                bindAnnotationIds(ids, RenderThreadNativeMapView.super.addMarkers(copy));
+            }
+        });
+        return ids.clone();
+    }
+
+    @Override
+    public long[] addMarkers(final double[] latLngs, final int[] iconIndices, final String[] iconIds) {
+        final long[] ids = allocateAnnotationIds(iconIndices.length);
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                bindAnnotationIds(ids, RenderThreadNativeMapView.super.addMarkers(latLngs, iconIndices, iconIds));
+            }
+        });
+        return ids.clone();
+    }
+
+    @Override
+    public long addPolyline(final Polyline polyline) {
+        final long[] ids = allocateAnnotationIds(1);
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                bindAnnotationIds(ids, new long[]{RenderThreadNativeMapView.super.addPolyline(polyline)});
+            }
+        });
+        return ids[0];
+    }
+
+    @Override
+    public long[] addPolylines(List<Polyline> polylines) {
+        final List<Polyline> copy = new ArrayList<>(polylines);
+        final long[] ids = allocateAnnotationIds(copy.size());
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                bindAnnotationIds(ids, RenderThreadNativeMapView.super.addPolylines(copy));
+            }
+        });
+        return ids.clone();
+    }
+
+    @Override
+    public long addPolygon(final Polygon polygon) {
+        final long[] ids = allocateAnnotationIds(1);
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                bindAnnotationIds(ids, new long[]{RenderThreadNativeMapView.super.addPolygon(polygon)});
+            }
+        });
+        return ids[0];
+    }
+
+    @Override
+    public long[] addPolygons(List<Polygon> polygons) {
+        final List<Polygon> copy = new ArrayList<>(polygons);
+        final long[] ids = allocateAnnotationIds(copy.size());
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                bindAnnotationIds(ids, RenderThreadNativeMapView.super.addPolygons(copy));
+            }
+        });
+        return ids.clone();
+    }
+
+    // Marker values are read by updateMarker(Marker) on the calling thread
+    @Override
+    public void updateMarker(final long id, final double latitude, final double longitude, final String iconId) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                Long nativeId = mNativeAnnotationIds.get(id);
+                if (nativeId != null) {
+                    RenderThreadNativeMapView.super.updateMarker(nativeId, latitude, longitude, iconId);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void removeAnnotations(final long[] ids) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                long[] nativeIds = new long[ids.length];
+                int count = 0;
+                for (long id : ids) {
+                    Long nativeId = mNativeAnnotationIds.get(id);
+                    if (nativeId != null) {
+                        mNativeAnnotationIds.remove(id);
+                        mAnnotationIds.remove(nativeId);
+                        nativeIds[count++] = nativeId;
+                    }
+                }
+                RenderThreadNativeMapView.super.removeAnnotations(Arrays.copyOf(nativeIds, count));
+            }
+        });
+    }
+
+    @Override
+    public long[] getAnnotationsInBounds(final LatLngBounds bbox) {
+        return call(new Callable<long[]>() {
+            @Override
+            public long[] call() {
+                long[] nativeIds = RenderThreadNativeMapView.super.getAnnotationsInBounds(bbox);
+                if (nativeIds == null) {
+                    return null;
+                }
+
+                long[] ids = new long[nativeIds.length];
+                int count = 0;
+                for (long nativeId : nativeIds) {
+                    Long id = mAnnotationIds.get(nativeId);
+                    if (id != null) {
+                        ids[count++] = id;
+                    }
+                }
+                return Arrays.copyOf(ids, count);
+            }
+        });
+    }
+
+    @Override
+    public void addAnnotationIcon(final String symbol, final int width, final int height, final float scale,
+                                  final byte[] pixels) {
+        // Half the height of the icon in map units, as the native map computes it from the sprite
+        synchronized (mTopOffsets) {
+            mTopOffsets.put(symbol, -(height / scale) / 2.0);
+        }
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.addAnnotationIcon(symbol, width, height, scale, pixels);
+            }
+        });
+    }
+
+    // Known from the icons added, so adding markers does not wait for the render thread
+    @Override
+    public double getTopOffsetPixelsForAnnotationSymbol(String symbolName) {
+        synchronized (mTopOffsets) {
+            Double topOffset = mTopOffsets.get(symbolName);
+            return topOffset != null ? topOffset : 0;
+        }
+    }
+
+    //
+    // Tiles and debug
+    //
+
+    @Override
+    public void onLowMemory() {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.onLowMemory();
+            }
+        });
+    }
+
+    @Override
+    public void setMapChangeMask(final int mask) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.setMapChangeMask(mask);
+            }
+        });
+    }
+
+    @Override
+    public void setTileCacheBudget(final long tiles) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.setTileCacheBudget(tiles);
+            }
+        });
+    }
+
+    @Override
+    public void updateTileCacheSize() {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.updateTileCacheSize();
+            }
+        });
+    }
+
+    @Override
+    public void trimTileCache(final float fraction) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.trimTileCache(fraction);
+            }
+        });
+    }
+
+    @Override
+    public long[] getTileCacheStatistics() {
+        return call(new Callable<long[]>() {
+            @Override
+            public long[] call() {
+                return RenderThreadNativeMapView.super.getTileCacheStatistics();
+            }
+        });
+    }
+
+    @Override
+    public void prefetch(final double[] cameras, final long byteBudget) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.prefetch(cameras, byteBudget);
+            }
+        });
+    }
+
+    @Override
+    public void prefetchAlong(final double[] coordinates, final int minZoom, final int maxZoom, final long byteBudget) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.prefetchAlong(coordinates, minZoom, maxZoom, byteBudget);
+            }
+        });
+    }
+
+    @Override
+    public void cancelPrefetch() {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.cancelPrefetch();
+            }
+        });
+    }
+
+    @Override
+    public void setDebug(final boolean debug) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.setDebug(debug);
+            }
+        });
+    }
+
+    @Override
+    public void cycleDebugOptions() {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.cycleDebugOptions();
+            }
+        });
+    }
+
+    @Override
+    public boolean getDebug() {
+        return call(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return RenderThreadNativeMapView.super.getDebug();
+            }
+        });
+    }
+
+    @Override
+    public void enableFrameMetrics(final boolean enable) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.enableFrameMetrics(enable);
+            }
+        });
+    }
+
+    @Override
+    public boolean isFullyLoaded() {
+        return call(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return RenderThreadNativeMapView.super.isFullyLoaded();
+            }
+        });
+    }
+
+    @Override
+    public void setReachability(final boolean status) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.setReachability(status);
+            }
+        });
+    }
+
+    //
+    // Projection
+    //
+
+    @Override
+    public double getMetersPerPixelAtLatitude(final double lat, final double zoom) {
+        return call(new Callable<Double>() {
+            @Override
+            public Double call() {
+                return RenderThreadNativeMapView.super.getMetersPerPixelAtLatitude(lat, zoom);
+            }
+        });
+    }
+
+    @Override
+    public ProjectedMeters projectedMetersForLatLng(final LatLng latLng) {
+        return call(new Callable<ProjectedMeters>() {
+            @Override
+            public ProjectedMeters call() {
+                return RenderThreadNativeMapView.super.projectedMetersForLatLng(latLng);
+            }
+        });
+    }
+
+    @Override
+    public LatLng latLngForProjectedMeters(final ProjectedMeters projectedMeters) {
+        return call(new Callable<LatLng>() {
+            @Override
+            public LatLng call() {
+                return RenderThreadNativeMapView.super.latLngForProjectedMeters(projectedMeters);
+            }
+        });
+    }
+
+    // Screen locations are projected with the published camera, markers follow it every UI frame and
+    // taps are resolved without waiting for the render thread
+
+    @Override
+    public PointF pixelForLatLng(LatLng latLng) {
+        float[] pixel = new float[2];
+        toScreenLocations(new double[]{latLng.getLatitude(), latLng.getLongitude()}, pixel, 1);
+        return new PointF(pixel[0], pixel[1]);
+    }
+
+    @Override
+    public LatLng latLngForPixel(PointF pixel) {
+        double[] latLng = new double[2];
+        fromScreenLocations(new float[]{pixel.x, pixel.y}, latLng, 1);
+        return new LatLng(latLng[0], latLng[1]);
+    }
+
+    @Override
+    public void pixelsForLatLngs(double[] latLngs, float[] outPixels, double pixelRatio) {
+        toScreenLocations(latLngs, outPixels, pixelRatio);
+    }
+
+    private void toScreenLocations(double[] latLngs, float[] outPixels, double pixelRatio) {
+        synchronized (mCamera) {
+            CameraSnapshot.toScreenLocations(mCamera, mWidth, mHeight, latLngs, outPixels, pixelRatio);
+        }
+    }
+
+    @Override
+    public void latLngsForPixels(float[] pixels, double[] outLatLngs, double pixelRatio) {
+        fromScreenLocations(pixels, outLatLngs, pixelRatio);
+    }
+
+    private void fromScreenLocations(float[] pixels, double[] outLatLngs, double pixelRatio) {
+        synchronized (mCamera) {
+            CameraSnapshot.fromScreenLocations(mCamera, mWidth, mHeight, pixels, outLatLngs, pixelRatio);
+        }
+    }
+
+    //
+    // Custom layers
+    //
+
+    // Custom layers are initialized and drawn on the render thread
+    @Override
+    public void addCustomLayer(final CustomLayer customLayer, final String before) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.addCustomLayer(customLayer, before);
+            }
+        });
+    }
+
+    @Override
+    public void removeCustomLayer(final String id) {
+        queue(new Runnable() {
+            @Override
+            public void run() {
+                RenderThreadNativeMapView.super.removeCustomLayer(id);
+            }
+        });
+    }
+
+    //
+    // Callbacks
+    //
+
+    // Called on the render thread, also while the native map is created
+    @Override
+    protected void onInvalidate() {
+        if (mFrameScheduler != null) {
+            mFrameScheduler.requestFrame();
+        }
+    }
+
+    @Override
+    protected void onMapChanges(final int rawChanges) {
+        mMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (!mDestroyed) {
+                    RenderThreadNativeMapView.super.onMapChanges(rawChanges);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package com.mapbox.mapboxsdk.maps;
+
+/**
+ * Snapshot of the in-memory tile cache of a map.
+ * <p>
+ * Hits count tiles that were reused from the cache when they came back into view, misses count tiles
+ * that had to be loaded and parsed again. Both are cumulative for the current style.
+ * </p>
+ */
+public final class TileCacheStatistics {
+
+    private final long size;
+    private final long hits;
+    private final long misses;
+
+    TileCacheStatistics(long size, long hits, long misses) {
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    /**
+     * @return The maximum number of tiles kept per source, 0 until the map has been laid out.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return The fraction of tile lookups served from the cache, 0 if no tiles were looked up yet.
+     */
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups > 0 ? (double) hits / lookups : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "TileCacheStatistics [size=" + size + ", hits=" + hits + ", misses=" + misses + "]";
+    }
+}
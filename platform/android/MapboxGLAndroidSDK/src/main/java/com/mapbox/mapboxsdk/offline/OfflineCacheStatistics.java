@@ -0,0 +1,102 @@
+package com.mapbox.mapboxsdk.offline;
+
+/**
+ * A snapshot of the ambient cache, the resources and tiles stored because they were displayed
+ * on a map rather than downloaded for an offline region.
+ * <p>
+ * Hit and miss counts are cumulative since the database was opened by the process, and include
+ * lookups of resources that belong to offline regions.
+ * </p>
+ */
+public class OfflineCacheStatistics {
+
+    /**
+     * The maximum size of the database in bytes, see {@link OfflineManager#setAmbientCacheSize(long)}.
+     */
+    private long maximumSize = 0;
+
+    /**
+     * The size of the database file in bytes, inclusive of offline regions.
+     */
+    private long databaseSize = 0;
+
+    /**
+     * The stored size of the ambient resources and tiles in bytes.
+     */
+    private long size = 0;
+
+    private long resourceCount = 0;
+    private long tileCount = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictedCount = 0;
+
+    /*
+     * Use OfflineManager.getCacheStatistics() to obtain an OfflineCacheStatistics object.
+     */
+
+    private OfflineCacheStatistics() {
+        // For JNI use only
+    }
+
+    /*
+     * Getters
+     */
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * @return The size of the database file in bytes, inclusive of offline regions and of
+     * free space not reclaimed yet.
+     */
+    public long getDatabaseSize() {
+        return databaseSize;
+    }
+
+    /**
+     * @return The stored size of the ambient resources and tiles in bytes.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    public long getResourceCount() {
+        return resourceCount;
+    }
+
+    public long getTileCount() {
+        return tileCount;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return The fraction of lookups served from the database, 0 if nothing was looked up yet.
+     */
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups > 0 ? (double) hits / lookups : 0;
+    }
+
+    /**
+     * @return The number of entries evicted to stay below the maximum size.
+     */
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "OfflineCacheStatistics [maximumSize=" + maximumSize + ", databaseSize=" + databaseSize
+                + ", size=" + size + ", resourceCount=" + resourceCount + ", tileCount=" + tileCount
+                + ", hits=" + hits + ", misses=" + misses + ", evictedCount=" + evictedCount + "]";
+    }
+}
@@ -0,0 +1,74 @@
+package com.mapbox.mapboxsdk.offline;
+
+import android.support.annotation.NonNull;
+
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import java.util.List;
+
+/**
+ * An offline region defined by a style URL, a line buffered by a radius, zoom range, and device
+ * pixel ratio.
+ *
+ * Only the tiles within radius meters of the line are part of the region, which suits a route
+ * far better than the bounds of the route would. {@link #getBounds()} returns the bounds of the
+ * line widened by the radius.
+ *
+ * The line needs at least one coordinate and the radius must be ≥ 0.
+ *
+ * The zoom range and pixel ratio are constrained like those of {@link OfflineTilePyramidRegionDefinition}.
+ */
+public class OfflineCorridorRegionDefinition extends OfflineTilePyramidRegionDefinition {
+
+    // Latitude, longitude pairs
+    private double[] coordinates;
+    private double radius;
+
+    /*
+     * Constructors
+     */
+
+    private OfflineCorridorRegionDefinition() {
+        // For JNI use only
+    }
+
+    public OfflineCorridorRegionDefinition(
+            String styleURL, @NonNull List<LatLng> line, double radius,
+            double minZoom, double maxZoom, float pixelRatio) {
+        this(styleURL, checkLine(line, radius), radius, minZoom, maxZoom, pixelRatio);
+    }
+
+    private OfflineCorridorRegionDefinition(
+            String styleURL, double[] coordinates, double radius,
+            double minZoom, double maxZoom, float pixelRatio) {
+        super(styleURL, OfflineRegionShape.bounds(coordinates, radius), minZoom, maxZoom, pixelRatio);
+        this.coordinates = coordinates;
+        this.radius = radius;
+    }
+
+    private static double[] checkLine(List<LatLng> line, double radius) {
+        if (line.isEmpty()) {
+            throw new IllegalArgumentException("A corridor needs at least 1 coordinate");
+        }
+        if (radius < 0 || Double.isInfinite(radius) || Double.isNaN(radius)) {
+            throw new IllegalArgumentException("radius must be finite and not negative, was " + radius);
+        }
+        return OfflineRegionShape.toArray(line);
+    }
+
+    /*
+     * Getters
+     */
+
+    public List<LatLng> getLine() {
+        return OfflineRegionShape.toList(coordinates);
+    }
+
+    /**
+     * @return The distance in meters on both sides of the line.
+     */
+    public double getRadius() {
+        return radius;
+    }
+
+}
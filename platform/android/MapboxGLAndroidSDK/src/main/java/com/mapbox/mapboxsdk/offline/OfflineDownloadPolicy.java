@@ -0,0 +1,215 @@
+package com.mapbox.mapboxsdk.offline;
+
+/**
+ * Limits applied to the downloads of all offline regions.
+ * <p>
+ * Use {@link Builder} to create a policy and pass it to
+ * {@link OfflineManager#setDownloadPolicy(OfflineDownloadPolicy)}. Request and bandwidth limits apply to
+ * requests started after that call, requests in flight are completed. A limit of 0 means unlimited.
+ * </p>
+ */
+public final class OfflineDownloadPolicy {
+
+    /**
+     * Policy without any limits, matching the behaviour of previous releases.
+     */
+    public static final OfflineDownloadPolicy DEFAULT = new Builder().build();
+
+    private final int maxRegionRequests;
+    private final int maxRequests;
+    private final long maxBytesPerSecond;
+    private final boolean unmeteredOnly;
+    private final boolean chargingOnly;
+    private final boolean zoomLevelFirst;
+
+    private OfflineDownloadPolicy(Builder builder) {
+        maxRegionRequests = builder.maxRegionRequests;
+        maxRequests = builder.maxRequests;
+        maxBytesPerSecond = builder.maxBytesPerSecond;
+        unmeteredOnly = builder.unmeteredOnly;
+        chargingOnly = builder.chargingOnly;
+        zoomLevelFirst = builder.zoomLevelFirst;
+    }
+
+    public int getMaxRegionRequests() {
+        return maxRegionRequests;
+    }
+
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    public long getMaxBytesPerSecond() {
+        return maxBytesPerSecond;
+    }
+
+    public boolean isUnmeteredOnly() {
+        return unmeteredOnly;
+    }
+
+    public boolean isChargingOnly() {
+        return chargingOnly;
+    }
+
+    public boolean isZoomLevelFirst() {
+        return zoomLevelFirst;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        OfflineDownloadPolicy policy = (OfflineDownloadPolicy) o;
+        return maxRegionRequests == policy.maxRegionRequests
+                && maxRequests == policy.maxRequests
+                && maxBytesPerSecond == policy.maxBytesPerSecond
+                && unmeteredOnly == policy.unmeteredOnly
+                && chargingOnly == policy.chargingOnly
+                && zoomLevelFirst == policy.zoomLevelFirst;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = maxRegionRequests;
+        result = 31 * result + maxRequests;
+        result = 31 * result + (int) (maxBytesPerSecond ^ (maxBytesPerSecond >>> 32));
+        result = 31 * result + (unmeteredOnly ? 1 : 0);
+        result = 31 * result + (chargingOnly ? 1 : 0);
+        result = 31 * result + (zoomLevelFirst ? 1 : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "OfflineDownloadPolicy [maxRegionRequests=" + maxRegionRequests + ", maxRequests=" + maxRequests
+                + ", maxBytesPerSecond=" + maxBytesPerSecond + ", unmeteredOnly=" + unmeteredOnly
+                + ", chargingOnly=" + chargingOnly + ", zoomLevelFirst=" + zoomLevelFirst + "]";
+    }
+
+    /**
+     * Builder for composing {@link OfflineDownloadPolicy} objects.
+     */
+    public static final class Builder {
+
+        private int maxRegionRequests;
+        private int maxRequests;
+        private long maxBytesPerSecond;
+        private boolean unmeteredOnly;
+        private boolean chargingOnly;
+        private boolean zoomLevelFirst;
+
+        /**
+         * Creates a builder without any limits.
+         */
+        public Builder() {
+            super();
+        }
+
+        /**
+         * Create Builder with an existing OfflineDownloadPolicy data.
+         *
+         * @param previous Existing OfflineDownloadPolicy values to use
+         */
+        public Builder(OfflineDownloadPolicy previous) {
+            super();
+            if (previous != null) {
+                maxRegionRequests = previous.maxRegionRequests;
+                maxRequests = previous.maxRequests;
+                maxBytesPerSecond = previous.maxBytesPerSecond;
+                unmeteredOnly = previous.unmeteredOnly;
+                chargingOnly = previous.chargingOnly;
+                zoomLevelFirst = previous.zoomLevelFirst;
+            }
+        }
+
+        /**
+         * Sets the maximum number of requests in flight at the same time for a single region.
+         *
+         * @param maxRegionRequests The maximum number of concurrent requests per region, 0 for unlimited.
+         * @return Builder
+         */
+        public Builder maxRegionRequests(int maxRegionRequests) {
+            if (maxRegionRequests < 0) {
+                throw new IllegalArgumentException("maxRegionRequests must not be negative, was " + maxRegionRequests);
+            }
+            this.maxRegionRequests = maxRegionRequests;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of requests in flight at the same time across all regions.
+         *
+         * @param maxRequests The maximum number of concurrent requests, 0 for unlimited.
+         * @return Builder
+         */
+        public Builder maxRequests(int maxRequests) {
+            if (maxRequests < 0) {
+                throw new IllegalArgumentException("maxRequests must not be negative, was " + maxRequests);
+            }
+            this.maxRequests = maxRequests;
+            return this;
+        }
+
+        /**
+         * Sets the maximum download rate across all regions.
+         *
+         * @param maxBytesPerSecond The maximum rate in bytes per second, 0 for unlimited.
+         * @return Builder
+         */
+        public Builder maxBytesPerSecond(long maxBytesPerSecond) {
+            if (maxBytesPerSecond < 0) {
+                throw new IllegalArgumentException("maxBytesPerSecond must not be negative, was " + maxBytesPerSecond);
+            }
+            this.maxBytesPerSecond = maxBytesPerSecond;
+            return this;
+        }
+
+        /**
+         * Sets whether downloads are paused while the active network is metered or disconnected.
+         *
+         * @param unmeteredOnly True to download on unmetered networks only.
+         * @return Builder
+         */
+        public Builder unmeteredOnly(boolean unmeteredOnly) {
+            this.unmeteredOnly = unmeteredOnly;
+            return this;
+        }
+
+        /**
+         * Sets whether downloads are paused while the device is not charging.
+         *
+         * @param chargingOnly True to download while charging only.
+         * @return Builder
+         */
+        public Builder chargingOnly(boolean chargingOnly) {
+            this.chargingOnly = chargingOnly;
+            return this;
+        }
+
+        /**
+         * Sets whether tiles are requested by ascending zoom level across all sources of a region, so
+         * a partially downloaded region is usable at lower zoom levels first.
+         *
+         * @param zoomLevelFirst True to order tile requests by zoom level.
+         * @return Builder
+         */
+        public Builder zoomLevelFirst(boolean zoomLevelFirst) {
+            this.zoomLevelFirst = zoomLevelFirst;
+            return this;
+        }
+
+        /**
+         * Builds the OfflineDownloadPolicy.
+         *
+         * @return OfflineDownloadPolicy
+         */
+        public OfflineDownloadPolicy build() {
+            return new OfflineDownloadPolicy(this);
+        }
+    }
+}
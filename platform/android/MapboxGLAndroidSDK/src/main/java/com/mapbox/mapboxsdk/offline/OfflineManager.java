@@ -1,12 +1,22 @@
 package com.mapbox.mapboxsdk.offline;
 
+import android.content.BroadcastReceiver;
 import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.os.BatteryManager;
 import android.os.Handler;
 import android.os.Looper;
+import android.support.annotation.IntDef;
 import android.support.annotation.NonNull;
+import android.support.v4.net.ConnectivityManagerCompat;
 import android.util.Log;
 import com.mapbox.mapboxsdk.MapboxAccountManager;
 import java.io.File;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
 
 /**
  * The offline manager is the main entry point for offline-related functionality.
@@ -34,12 +44,34 @@ public class OfflineManager {
      */
     private final static long DEFAULT_MAX_CACHE_SIZE = 50 * 1024 * 1024;
 
+    /**
+     * Order in which ambient cache entries are evicted once the cache is full.
+     * <p>
+     * {@link #EVICTION_POLICY_LRU} evicts the entries read or written the longest time ago.
+     * {@link #EVICTION_POLICY_LFU} evicts the entries with the fewest reads per stored byte first,
+     * so large, rarely displayed tiles go before small, popular ones.
+     * </p>
+     */
+    @IntDef({EVICTION_POLICY_LRU, EVICTION_POLICY_LFU})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface EvictionPolicy {}
+
+    public static final int EVICTION_POLICY_LRU = 0;
+    public static final int EVICTION_POLICY_LFU = 1;
+
     // Holds the pointer to JNI DefaultFileSource
     private long mDefaultFileSourcePtr = 0;
 
     // Makes sure callbacks come back to the main thread
     private Handler handler;
 
+    private final Context context;
+
+    private OfflineDownloadPolicy downloadPolicy = OfflineDownloadPolicy.DEFAULT;
+
+    // Pauses and resumes downloads when the policy requires an unmetered network or charging
+    private BroadcastReceiver downloadConditionsReceiver;
+
     // This object is implemented as a singleton
     private static OfflineManager instance;
 
@@ -82,14 +114,78 @@ public class OfflineManager {
         void onError(String error);
     }
 
+    /**
+     * This callback receives an asynchronous response containing the {@link OfflineRegionEstimate}
+     * of a region definition, or an error message otherwise.
+     */
+    public interface EstimateOfflineRegionCallback {
+        /**
+         * Receives the estimate
+         *
+         * @param estimate
+         */
+        void onEstimate(OfflineRegionEstimate estimate);
+
+        /**
+         * Receives the error message
+         *
+         * @param error
+         */
+        void onError(String error);
+    }
+
+    /**
+     * This callback receives an asynchronous response containing the {@link OfflineCacheStatistics}
+     * of the ambient cache, or an error message otherwise.
+     */
+    public interface CacheStatisticsCallback {
+        /**
+         * Receives the statistics
+         *
+         * @param statistics
+         */
+        void onStatistics(OfflineCacheStatistics statistics);
+
+        /**
+         * Receives the error message
+         *
+         * @param error
+         */
+        void onError(String error);
+    }
+
+    /**
+     * This callback receives an asynchronous response containing the {@link OfflineRegion}
+     * objects added to the database by an import, or an error message otherwise.
+     */
+    public interface ImportOfflineRegionsCallback {
+        /**
+         * Receives the imported offline regions
+         *
+         * @param offlineRegions
+         */
+        void onImport(OfflineRegion[] offlineRegions);
+
+        /**
+         * Receives the error message
+         *
+         * @param error
+         */
+        void onError(String error);
+    }
+
     /*
      * Constructors
      */
 
     private OfflineManager(Context context) {
-        // Get a pointer to the DefaultFileSource instance
-        String assetRoot = context.getFilesDir().getAbsolutePath();
-        String cachePath = assetRoot  + File.separator + DATABASE_NAME;
+        this.context = context.getApplicationContext();
+
+        // Get a pointer to the DefaultFileSource instance, shared with all MapViews of the process.
+        // Use the same database and asset root as NativeMapView so whichever is created first
+        // opens the file source in a way that suits both.
+        String cachePath = context.getFilesDir().getAbsolutePath() + File.separator + DATABASE_NAME;
+        String assetRoot = context.getPackageCodePath();
         mDefaultFileSourcePtr = createDefaultFileSource(cachePath, assetRoot, DEFAULT_MAX_CACHE_SIZE);
 
         if (MapboxAccountManager.getInstance() != null) {
@@ -225,6 +321,201 @@ public class OfflineManager {
         });
     }
 
+    /**
+     * Estimate the number of tiles and the size of a region before creating it, for instance to
+     * warn the user before a download that would exceed the Mapbox tile count limit.
+     *
+     * The estimate is computed on the database thread from stored data only, without network
+     * requests, and passed to the given callback on the main thread.
+     */
+    public void estimate(
+            @NonNull OfflineTilePyramidRegionDefinition definition,
+            @NonNull final EstimateOfflineRegionCallback callback) {
+
+        estimateOfflineRegion(mDefaultFileSourcePtr, definition, new EstimateOfflineRegionCallback() {
+            @Override
+            public void onEstimate(final OfflineRegionEstimate estimate) {
+                getHandler().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onEstimate(estimate);
+                    }
+                });
+            }
+
+            @Override
+            public void onError(final String error) {
+                getHandler().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onError(error);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Add the regions of a file written by {@link OfflineRegion#export(File, OfflineRegion.OfflineRegionExportCallback)}
+     * to the database, for instance a region bundled with the application or copied from another device.
+     * The resources of the regions are available right away, without downloading them again.
+     *
+     * All regions of the file are imported in a single transaction, so either all or none of them
+     * are added. Resources that are already in the database are kept. The result is passed to the
+     * given callback on the main thread.
+     *
+     * Note that the imported regions will be in an inactive download state, like newly created ones.
+     */
+    public void importRegion(@NonNull File file, @NonNull final ImportOfflineRegionsCallback callback) {
+        importOfflineRegions(mDefaultFileSourcePtr, file.getAbsolutePath(), new ImportOfflineRegionsCallback() {
+            @Override
+            public void onImport(final OfflineRegion[] offlineRegions) {
+                getHandler().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onImport(offlineRegions);
+                    }
+                });
+            }
+
+            @Override
+            public void onError(final String error) {
+                getHandler().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onError(error);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Limit the concurrency and bandwidth of the downloads of all offline regions, and the
+     * conditions under which they run.
+     * <p>
+     * While the conditions of the policy are not met, active regions stay active but do not
+     * start new requests; they resume automatically once the conditions are met again.
+     * </p>
+     *
+     * @param policy The policy to apply, {@link OfflineDownloadPolicy#DEFAULT} removes all limits.
+     */
+    public void setDownloadPolicy(@NonNull OfflineDownloadPolicy policy) {
+        downloadPolicy = policy;
+        setOfflineDownloadPolicy(mDefaultFileSourcePtr, policy.getMaxRegionRequests(), policy.getMaxRequests(),
+                policy.getMaxBytesPerSecond(), policy.isZoomLevelFirst());
+
+        if (policy.isUnmeteredOnly() || policy.isChargingOnly()) {
+            registerDownloadConditionsReceiver();
+        } else {
+            unregisterDownloadConditionsReceiver();
+        }
+        updateDownloadConditions();
+    }
+
+    @NonNull
+    public OfflineDownloadPolicy getDownloadPolicy() {
+        return downloadPolicy;
+    }
+
+    private void registerDownloadConditionsReceiver() {
+        if (downloadConditionsReceiver != null) {
+            return;
+        }
+
+        downloadConditionsReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                updateDownloadConditions();
+            }
+        };
+
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(ConnectivityManager.CONNECTIVITY_ACTION);
+        filter.addAction(Intent.ACTION_POWER_CONNECTED);
+        filter.addAction(Intent.ACTION_POWER_DISCONNECTED);
+        context.registerReceiver(downloadConditionsReceiver, filter);
+    }
+
+    private void unregisterDownloadConditionsReceiver() {
+        if (downloadConditionsReceiver != null) {
+            context.unregisterReceiver(downloadConditionsReceiver);
+            downloadConditionsReceiver = null;
+        }
+    }
+
+    private void updateDownloadConditions() {
+        boolean paused = (downloadPolicy.isUnmeteredOnly() && !isOnUnmeteredNetwork())
+                || (downloadPolicy.isChargingOnly() && !isCharging());
+        setOfflineDownloadsPaused(mDefaultFileSourcePtr, paused);
+    }
+
+    private boolean isOnUnmeteredNetwork() {
+        ConnectivityManager connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        NetworkInfo networkInfo = connectivityManager.getActiveNetworkInfo();
+        return networkInfo != null && networkInfo.isConnected()
+                && !ConnectivityManagerCompat.isActiveNetworkMetered(connectivityManager);
+    }
+
+    private boolean isCharging() {
+        // ACTION_BATTERY_CHANGED is sticky, registering without a receiver returns the current state
+        Intent batteryStatus = context.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        return batteryStatus != null && batteryStatus.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0) != 0;
+    }
+
+    /**
+     * Set the maximum size of the offline database in bytes. Resources and tiles cached while
+     * displaying maps are evicted to stay below it; resources of offline regions are never evicted
+     * and have no size limit. Lowering the size evicts entries right away, on the database thread.
+     * The default is 50 MB.
+     *
+     * @param size The maximum size in bytes.
+     */
+    public void setAmbientCacheSize(long size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must not be negative, was " + size);
+        }
+        setMaximumAmbientCacheSize(mDefaultFileSourcePtr, size);
+    }
+
+    /**
+     * Choose which ambient cache entries are evicted first once the cache is full.
+     *
+     * @param policy {@link #EVICTION_POLICY_LRU}, the default, or {@link #EVICTION_POLICY_LFU}.
+     */
+    public void setAmbientCacheEvictionPolicy(@EvictionPolicy int policy) {
+        setAmbientCacheEvictionPolicy(mDefaultFileSourcePtr, policy);
+    }
+
+    /**
+     * Retrieve the sizes, entry counts and hit ratio of the ambient cache, for instance to weigh
+     * the disk budget given by {@link #setAmbientCacheSize(long)} against the requests it saves.
+     * The statistics are passed to the given callback on the main thread.
+     */
+    public void getCacheStatistics(@NonNull final CacheStatisticsCallback callback) {
+        getAmbientCacheStatistics(mDefaultFileSourcePtr, new CacheStatisticsCallback() {
+            @Override
+            public void onStatistics(final OfflineCacheStatistics statistics) {
+                getHandler().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onStatistics(statistics);
+                    }
+                });
+            }
+
+            @Override
+            public void onError(final String error) {
+                getHandler().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onError(error);
+                    }
+                });
+            }
+        });
+    }
+
     /*
     * Changing or bypassing this limit without permission from Mapbox is prohibited
     * by the Mapbox Terms of Service.
@@ -251,7 +542,30 @@ public class OfflineManager {
             long defaultFileSourcePtr, OfflineRegionDefinition definition,
             byte[] metadata, CreateOfflineRegionCallback callback);
 
+    private native void estimateOfflineRegion(
+            long defaultFileSourcePtr, OfflineRegionDefinition definition,
+            EstimateOfflineRegionCallback callback);
+
+    private native void importOfflineRegions(
+            long defaultFileSourcePtr, String path, ImportOfflineRegionsCallback callback);
+
     private native void setOfflineMapboxTileCountLimit(
             long defaultFileSourcePtr, long limit);
 
+    private native void setMaximumAmbientCacheSize(
+            long defaultFileSourcePtr, long size);
+
+    private native void setAmbientCacheEvictionPolicy(
+            long defaultFileSourcePtr, int policy);
+
+    private native void getAmbientCacheStatistics(
+            long defaultFileSourcePtr, CacheStatisticsCallback callback);
+
+    private native void setOfflineDownloadPolicy(
+            long defaultFileSourcePtr, int maxRegionRequests, int maxRequests,
+            long maxBytesPerSecond, boolean zoomLevelFirst);
+
+    private native void setOfflineDownloadsPaused(
+            long defaultFileSourcePtr, boolean paused);
+
 }
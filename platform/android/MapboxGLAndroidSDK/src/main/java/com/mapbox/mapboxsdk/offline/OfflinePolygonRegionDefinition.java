@@ -0,0 +1,61 @@
+package com.mapbox.mapboxsdk.offline;
+
+import android.support.annotation.NonNull;
+
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import java.util.List;
+
+/**
+ * An offline region defined by a style URL, a polygon, zoom range, and device pixel ratio.
+ *
+ * Only the tiles intersecting the polygon are part of the region, instead of all the tiles
+ * intersecting its bounds. This keeps regions that follow a coastline, a border or any other
+ * irregular area from downloading tiles far outside of it. {@link #getBounds()} returns the
+ * bounds of the polygon.
+ *
+ * The polygon is given by its outer ring of at least three coordinates and is closed implicitly.
+ * Holes are not supported.
+ *
+ * The zoom range and pixel ratio are constrained like those of {@link OfflineTilePyramidRegionDefinition}.
+ */
+public class OfflinePolygonRegionDefinition extends OfflineTilePyramidRegionDefinition {
+
+    // Latitude, longitude pairs
+    private double[] coordinates;
+
+    /*
+     * Constructors
+     */
+
+    private OfflinePolygonRegionDefinition() {
+        // For JNI use only
+    }
+
+    public OfflinePolygonRegionDefinition(
+            String styleURL, @NonNull List<LatLng> polygon, double minZoom, double maxZoom, float pixelRatio) {
+        this(styleURL, checkPolygon(polygon), minZoom, maxZoom, pixelRatio);
+    }
+
+    private OfflinePolygonRegionDefinition(
+            String styleURL, double[] coordinates, double minZoom, double maxZoom, float pixelRatio) {
+        super(styleURL, OfflineRegionShape.bounds(coordinates, 0), minZoom, maxZoom, pixelRatio);
+        this.coordinates = coordinates;
+    }
+
+    private static double[] checkPolygon(List<LatLng> polygon) {
+        if (polygon.size() < 3) {
+            throw new IllegalArgumentException("A polygon needs at least 3 coordinates, was " + polygon.size());
+        }
+        return OfflineRegionShape.toArray(polygon);
+    }
+
+    /*
+     * Getters
+     */
+
+    public List<LatLng> getPolygon() {
+        return OfflineRegionShape.toList(coordinates);
+    }
+
+}
@@ -6,6 +6,7 @@ import android.support.annotation.IntDef;
 import android.support.annotation.NonNull;
 import android.util.Log;
 
+import java.io.File;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 
@@ -123,6 +124,24 @@ public class OfflineRegion {
         void onError(String error);
     }
 
+    /**
+     * This callback receives an asynchronous response containing a notification when
+     * an offline region has been exported, or a {@link String} error message otherwise.
+     */
+    public interface OfflineRegionExportCallback {
+        /**
+         * Receives the export notification
+         */
+        void onExport();
+
+        /**
+         * Receives the error message
+         *
+         * @param error
+         */
+        void onError(String error);
+    }
+
     /**
      * A region is either inactive (not downloading, but previously-downloaded
      * resources are available for use), or active (resources are being downloaded
@@ -217,6 +236,21 @@ public class OfflineRegion {
         setOfflineRegionDownloadState(state);
     }
 
+    /**
+     * Revalidate the downloaded resources of the region with the server and download the ones
+     * that changed, along with any that are still missing.
+     * <p>
+     * Resources are requested with their stored ETag or Last-Modified date, so resources the server
+     * reports as unchanged are not downloaded again; see
+     * {@link OfflineRegionStatus#getUnchangedResourceSize()} for the bytes saved. The region becomes
+     * active. If the refresh is interrupted, for instance because the process is stopped, setting the
+     * region active again resumes it with the resources that were not revalidated yet.
+     * </p>
+     */
+    public void refresh() {
+        refreshOfflineRegion();
+    }
+
     /**
      * Retrieve the current status of the region. The query will be executed
      * asynchronously and the results passed to the given callback which will be
@@ -246,6 +280,38 @@ public class OfflineRegion {
         });
     }
 
+    /**
+     * Write the region and its downloaded resources to a standalone file, replacing any existing
+     * file. The file can be imported on another device with
+     * {@link OfflineManager#importRegion(File, OfflineManager.ImportOfflineRegionsCallback)}.
+     *
+     * When the operation is complete or encounters an error, the given callback will be
+     * executed on the main thread. Resources that are not downloaded yet are not part of the file.
+     */
+    public void export(@NonNull File file, @NonNull final OfflineRegionExportCallback callback) {
+        exportOfflineRegion(file.getAbsolutePath(), new OfflineRegionExportCallback() {
+            @Override
+            public void onExport() {
+                getHandler().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onExport();
+                    }
+                });
+            }
+
+            @Override
+            public void onError(final String error) {
+                getHandler().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onError(error);
+                    }
+                });
+            }
+        });
+    }
+
     /**
      * Remove an offline region from the database and perform any resources evictions
      * necessary as a result.
@@ -305,9 +371,14 @@ public class OfflineRegion {
     private native void setOfflineRegionDownloadState(
             @DownloadState int offlineRegionDownloadState);
 
+    private native void refreshOfflineRegion();
+
     private native void getOfflineRegionStatus(
             OfflineRegionStatusCallback statusCallback);
 
+    private native void exportOfflineRegion(
+            String path, OfflineRegionExportCallback exportCallback);
+
     private native void deleteOfflineRegion(
             OfflineRegionDeleteCallback deleteCallback);
 
@@ -3,7 +3,9 @@ package com.mapbox.mapboxsdk.offline;
 /**
  * This is the interface that all Offline Region definitions have to implement.
  *
- * For the present, a tile pyramid is the only type of offline region.
+ * For the present, a tile pyramid is the only type of offline region. Its tiles can be
+ * restricted to a polygon with {@link OfflinePolygonRegionDefinition} or to a corridor
+ * along a line with {@link OfflineCorridorRegionDefinition}.
  */
 public interface OfflineRegionDefinition {
 }
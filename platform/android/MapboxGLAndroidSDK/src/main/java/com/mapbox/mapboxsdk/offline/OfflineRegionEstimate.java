@@ -0,0 +1,109 @@
+package com.mapbox.mapboxsdk.offline;
+
+/**
+ * An estimate of the resources an offline region requires, computed from the offline database
+ * without any network request, before the region is created or downloaded.
+ * <p>
+ * Tile counts are exact when the style and the TileJSON of its sources are stored in the database,
+ * for instance because the style was displayed before, see {@link #isPrecise()}. Otherwise the counts
+ * are those of a single source of 512 pixel tiles covering the zoom range of the region.
+ * </p>
+ */
+public class OfflineRegionEstimate {
+
+    /**
+     * The number of tiles, summed across the tile sources of the style, indexed by the
+     * zoom level of the tiles.
+     */
+    private long[] tileCounts = new long[0];
+
+    /**
+     * The total number of tiles.
+     */
+    private long tileCount = 0;
+
+    /**
+     * The number of tiles that count towards the Mapbox tile count limit.
+     */
+    private long mapboxTileCount = 0;
+
+    /**
+     * The number of resources, inclusive of tiles.
+     */
+    private long resourceCount = 0;
+
+    /**
+     * True when the style and the TileJSON of all its sources were stored.
+     */
+    private boolean precise = false;
+
+    /**
+     * The expected size in bytes, -1 when not available.
+     */
+    private long size = -1;
+
+    /*
+     * Use OfflineManager.estimate() to obtain an OfflineRegionEstimate object.
+     */
+
+    private OfflineRegionEstimate() {
+        // For JNI use only
+    }
+
+    /*
+     * Getters
+     */
+
+    /**
+     * @return The number of tiles, indexed by the zoom level of the tiles.
+     */
+    public long[] getTileCounts() {
+        return tileCounts.clone();
+    }
+
+    public long getTileCount() {
+        return tileCount;
+    }
+
+    /**
+     * Returns the number of tiles that count towards the limit set with
+     * {@link OfflineManager#setOfflineMapboxTileCountLimit(long)}. Tiles already stored for other
+     * regions count towards the limit too; a region that exceeds it stops downloading.
+     *
+     * @return The number of Mapbox tiles.
+     */
+    public long getMapboxTileCount() {
+        return mapboxTileCount;
+    }
+
+    /**
+     * @return The number of resources, inclusive of tiles, comparable to
+     * {@link OfflineRegionStatus#getRequiredResourceCount()}.
+     */
+    public long getResourceCount() {
+        return resourceCount;
+    }
+
+    /**
+     * @return True if the style and the sources of the region were stored, so the counts match
+     * the ones the download will report.
+     */
+    public boolean isPrecise() {
+        return precise;
+    }
+
+    /**
+     * @return True if the size could be extrapolated from stored tiles of the same sources.
+     */
+    public boolean isSizeAvailable() {
+        return size >= 0;
+    }
+
+    /**
+     * @return The expected size in bytes, -1 when no tiles of a source are stored yet.
+     */
+    public long getSize() {
+        return size;
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.mapbox.mapboxsdk.offline;
+
+import com.mapbox.mapboxsdk.constants.GeoConstants;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.geometry.LatLngBounds;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Conversions of the coordinates of a region shape, which are handed to JNI as an array of
+ * latitude, longitude pairs.
+ */
+final class OfflineRegionShape {
+
+    private OfflineRegionShape() {
+        // Utility class
+    }
+
+    static double[] toArray(List<LatLng> latLngs) {
+        double[] coordinates = new double[latLngs.size() * 2];
+        for (int i = 0; i < latLngs.size(); i++) {
+            coordinates[i * 2] = latLngs.get(i).getLatitude();
+            coordinates[i * 2 + 1] = latLngs.get(i).getLongitude();
+        }
+        return coordinates;
+    }
+
+    static List<LatLng> toList(double[] coordinates) {
+        List<LatLng> latLngs = new ArrayList<>(coordinates.length / 2);
+        for (int i = 0; i + 1 < coordinates.length; i += 2) {
+            latLngs.add(new LatLng(coordinates[i], coordinates[i + 1]));
+        }
+        return latLngs;
+    }
+
+    /**
+     * @param coordinates The coordinates of the shape.
+     * @param radius      The distance in meters to widen the bounds by on all sides.
+     * @return The bounds enclosing the shape.
+     */
+    static LatLngBounds bounds(double[] coordinates, double radius) {
+        double north = -90;
+        double south = 90;
+        double east = -180;
+        double west = 180;
+        for (int i = 0; i + 1 < coordinates.length; i += 2) {
+            north = Math.max(north, coordinates[i]);
+            south = Math.min(south, coordinates[i]);
+            east = Math.max(east, coordinates[i + 1]);
+            west = Math.min(west, coordinates[i + 1]);
+        }
+
+        // Longitude degrees shrink towards the poles, widen by the amount at the latitude closest to one
+        double latitudeDelta = Math.toDegrees(radius / GeoConstants.RADIUS_EARTH_METERS);
+        double latitude = Math.min(GeoConstants.MAX_LATITUDE, Math.max(Math.abs(north), Math.abs(south)));
+        double longitudeDelta = latitudeDelta / Math.cos(Math.toRadians(latitude));
+
+        return new LatLngBounds.Builder()
+                .include(new LatLng(Math.min(90, north + latitudeDelta), east + longitudeDelta))
+                .include(new LatLng(Math.max(-90, south - latitudeDelta), west - longitudeDelta))
+                .build();
+    }
+}
@@ -53,6 +53,35 @@ public class OfflineRegionStatus {
      */
     private boolean requiredResourceCountIsPrecise = true;
 
+    /**
+     * The number of bytes received from the network since the download was last
+     * activated. Resources that were already in the database are not counted.
+     */
+    private long downloadedSize = 0;
+
+    /**
+     * The average download rate, in bytes per second, since the download was last
+     * activated.
+     */
+    private double downloadRate = 0;
+
+    /**
+     * The number of requests for this region that are currently in flight.
+     */
+    private long activeRequestCount = 0;
+
+    /**
+     * The number of stored resources the server reported as unchanged while the
+     * region was being refreshed.
+     */
+    private long unchangedResourceCount = 0;
+
+    /**
+     * The stored size, in bytes, of the resources counted by `unchangedResourceCount`,
+     * i.e. the data that did not need to be downloaded again.
+     */
+    private long unchangedResourceSize = 0;
+
     /*
      * Use setObserver(OfflineRegionObserver observer) to obtain a OfflineRegionStatus object.
      */
@@ -101,4 +130,24 @@ public class OfflineRegionStatus {
         return requiredResourceCountIsPrecise;
     }
 
+    public long getDownloadedSize() {
+        return downloadedSize;
+    }
+
+    public double getDownloadRate() {
+        return downloadRate;
+    }
+
+    public long getActiveRequestCount() {
+        return activeRequestCount;
+    }
+
+    public long getUnchangedResourceCount() {
+        return unchangedResourceCount;
+    }
+
+    public long getUnchangedResourceSize() {
+        return unchangedResourceSize;
+    }
+
 }
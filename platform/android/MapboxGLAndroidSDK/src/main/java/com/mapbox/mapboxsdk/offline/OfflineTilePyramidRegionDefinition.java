@@ -25,8 +25,8 @@ public class OfflineTilePyramidRegionDefinition implements OfflineRegionDefiniti
      * Constructors
      */
 
-    private OfflineTilePyramidRegionDefinition() {
-        // For JNI use only
+    OfflineTilePyramidRegionDefinition() {
+        // For JNI and subclass use only
     }
 
     public OfflineTilePyramidRegionDefinition(
@@ -1,6 +1,7 @@
 package com.mapbox.mapboxsdk.telemetry;
 
 import android.app.ActivityManager;
+import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
@@ -26,13 +27,10 @@ import android.util.DisplayMetrics;
 import android.util.Log;
 import android.view.WindowManager;
 import com.mapbox.mapboxsdk.BuildConfig;
-import com.mapbox.mapboxsdk.constants.GeoConstants;
 import com.mapbox.mapboxsdk.constants.MapboxConstants;
 import com.mapbox.mapboxsdk.exceptions.TelemetryServiceNotConfiguredException;
 import com.mapbox.mapboxsdk.location.LocationServices;
-import com.mapbox.mapboxsdk.utils.MathUtils;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import java.io.File;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
@@ -42,13 +40,9 @@ import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.UUID;
-import java.util.Vector;
 import okhttp3.CertificatePinner;
-import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
-import okhttp3.Request;
 import okhttp3.RequestBody;
-import okhttp3.Response;
 import okhttp3.internal.Util;
 
 /**
@@ -64,9 +58,33 @@ public class MapboxEventManager {
     private boolean initialized = false;
     private boolean telemetryEnabled;
 
-    private final Vector<Hashtable<String, Object>> events = new Vector<>();
-    private static final MediaType JSON  = MediaType.parse("application/json; charset=utf-8");
-    private static SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ", MapboxConstants.MAPBOX_LOCALE);
+    // Covers a flush interval of location events at 1 Hz with room for interaction events
+    private static final int MAX_EVENTS = 512;
+    private final TelemetryEventBuffer events = new TelemetryEventBuffer(MAX_EVENTS);
+    private final TelemetryEvent[] flushBatch = new TelemetryEvent[MAX_EVENTS];
+    private static final String DATE_FORMAT_PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
+    private static SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT_PATTERN, MapboxConstants.MAPBOX_LOCALE);
+
+    private static OkHttpClient client = null;
+
+    // Batches that could not be sent are kept on disk and replayed with backoff once connected
+    private static final String JOURNAL_DIRECTORY = "mapbox-telemetry";
+    private static final long JOURNAL_MAX_SEGMENT_BYTES = 256 * 1024;
+    private static final long JOURNAL_MAX_BYTES = 2 * 1024 * 1024;
+    private static final long REPLAY_DELAY_INITIAL_IN_MILLIS = 1000 * 10;  // 10 Seconds
+    private static final long REPLAY_DELAY_MAX_IN_MILLIS = 1000 * 60 * 30;  // 30 Minutes
+    private TelemetryJournal journal = null;
+    private long replayDelayInMillis = REPLAY_DELAY_INITIAL_IN_MILLIS;
+    private boolean replayScheduled = false;
+
+    private final BroadcastReceiver connectivityReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            if (isConnected() && !journal.isEmpty()) {
+                scheduleReplay();
+            }
+        }
+    };
 
     private Context context = null;
     private String accessToken = null;
@@ -82,6 +100,7 @@ public class MapboxEventManager {
     private String mapboxVendorId = null;
 
     private String mapboxSessionId = null;
+    private String encodedSessionId = null;
     private long mapboxSessionIdLastSet = 0;
     private static long hourInMillis = 1000 * 60 * 60;
     private static long flushDelayInitialInMillis = 1000 * 10;  // 10 Seconds
@@ -97,6 +116,9 @@ public class MapboxEventManager {
      */
     private MapboxEventManager() {
         super();
+        for (int i = 0; i < flushBatch.length; i++) {
+            flushBatch[i] = new TelemetryEvent();
+        }
     }
 
     /**
@@ -131,6 +153,10 @@ public class MapboxEventManager {
         // Create Initial Session Id
         rotateSessionId();
 
+        // Open the journal of unsent events before telemetry starts flushing
+        journal = new TelemetryJournal(new File(this.context.getFilesDir(), JOURNAL_DIRECTORY),
+                JOURNAL_MAX_SEGMENT_BYTES, JOURNAL_MAX_BYTES);
+
         SharedPreferences prefs = context.getSharedPreferences(MapboxConstants.MAPBOX_SHARED_PREFERENCES_FILE, Context.MODE_PRIVATE);
 
         // Determine if Telemetry Should Be Enabled
@@ -275,17 +301,30 @@ public class MapboxEventManager {
             }
 
             // Manage Timer Flush
-            timer = new Timer();
-            timer.schedule(new FlushEventsTimerTask(), flushDelayInitialInMillis, flushDelayInMillis);
+            synchronized (this) {
+                timer = new Timer();
+                timer.schedule(new FlushEventsTimerTask(), flushDelayInitialInMillis, flushDelayInMillis);
+            }
+
+            // Replay stored events when connectivity returns
+            context.registerReceiver(connectivityReceiver, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
         } else {
             Log.d(TAG, "Shutting Telemetry Down");
             // Shut It Down
-            events.removeAllElements();
+            events.clear();
+            journal.clear();
             context.stopService(new Intent(context, TelemetryService.class));
 
-            if (timer != null) {
-                timer.cancel();
-                timer = null;
+            if (this.telemetryEnabled) {
+                context.unregisterReceiver(connectivityReceiver);
+            }
+
+            synchronized (this) {
+                if (timer != null) {
+                    timer.cancel();
+                    timer = null;
+                }
+                replayScheduled = false;
             }
         }
 
@@ -313,19 +352,21 @@ public class MapboxEventManager {
      * @param location Location event
      */
     public void addLocationEvent(Location location) {
-        // Add Location even to queue
-        Hashtable<String, Object> event = new Hashtable<>();
-        event.put(MapboxEvent.ATTRIBUTE_EVENT, MapboxEvent.TYPE_LOCATION);
-        event.put(MapboxEvent.ATTRIBUTE_CREATED, generateCreateDate());
-        event.put(MapboxEvent.ATTRIBUTE_SOURCE, MapboxEvent.SOURCE_MAPBOX);
-        event.put(MapboxEvent.ATTRIBUTE_SESSION_ID, encodeString(mapboxSessionId));
-        event.put(MapboxEvent.KEY_LATITUDE, location.getLatitude());
-        event.put(MapboxEvent.KEY_LONGITUDE, location.getLongitude());
-        event.put(MapboxEvent.KEY_ALTITUDE, location.getAltitude());
-        event.put(MapboxEvent.ATTRIBUTE_OPERATING_SYSTEM, operatingSystem);
-        event.put(MapboxEvent.ATTRIBUTE_APPLICATION_STATE, getApplicationState());
-
-        events.add(event);
+        String applicationState = getApplicationState();
+
+        // Add Location event to queue, the created date is formatted when the event is sent
+        synchronized (events) {
+            TelemetryEvent event = events.obtain();
+            event.event = MapboxEvent.TYPE_LOCATION;
+            event.createdMillis = System.currentTimeMillis();
+            event.source = MapboxEvent.SOURCE_MAPBOX;
+            event.sessionId = encodedSessionId;
+            event.latitude = location.getLatitude();
+            event.longitude = location.getLongitude();
+            event.altitude = location.getAltitude();
+            event.operatingSystem = operatingSystem;
+            event.applicationState = applicationState;
+        }
 
         rotateSessionId();
     }
@@ -349,49 +390,44 @@ public class MapboxEventManager {
             return;
         }
 
-        if (eventType.equalsIgnoreCase(MapboxEvent.TYPE_MAP_LOAD)) {
-            // Map Load Data Model
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_USERID, mapboxVendorId);
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_MODEL, Build.MODEL);
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_OPERATING_SYSTEM, operatingSystem);
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_RESOLUTION, displayMetrics.density);
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_ACCESSIBILITY_FONT_SCALE, getAccesibilityFontScaleSize());
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_ORIENTATION, getOrientation());
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_BATTERY_LEVEL, getBatteryLevel());
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_PLUGGED_IN, isPluggedIn());
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_CARRIER, getCellularCarrier());
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_CELLULAR_NETWORK_TYPE, getCellularNetworkType());
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_WIFI, getConnectedToWifi());
-
-            // Put Map Load on events before Turnstile clears it
-            events.add(eventWithAttributes);
-
-            // Turnstile
-            pushTurnstileEvent();
-
-            // Return immediately to avoid double adding of event
-            return;
-
-        } else if (eventType.equalsIgnoreCase(MapboxEvent.TYPE_MAP_CLICK)) {
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_ORIENTATION, getOrientation());
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_BATTERY_LEVEL, getBatteryLevel());
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_PLUGGED_IN, isPluggedIn());
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_CARRIER, getCellularCarrier());
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_CELLULAR_NETWORK_TYPE, getCellularNetworkType());
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_WIFI, getConnectedToWifi());
-        } else if (eventType.equalsIgnoreCase(MapboxEvent.TYPE_MAP_DRAGEND)) {
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_ORIENTATION, getOrientation());
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_BATTERY_LEVEL, getBatteryLevel());
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_PLUGGED_IN, isPluggedIn());
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_CARRIER, getCellularCarrier());
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_CELLULAR_NETWORK_TYPE, getCellularNetworkType());
-            eventWithAttributes.put(MapboxEvent.ATTRIBUTE_WIFI, getConnectedToWifi());
-        } else {
+        boolean mapLoad = eventType.equalsIgnoreCase(MapboxEvent.TYPE_MAP_LOAD);
+        if (!mapLoad && !eventType.equalsIgnoreCase(MapboxEvent.TYPE_MAP_CLICK)
+                && !eventType.equalsIgnoreCase(MapboxEvent.TYPE_MAP_DRAGEND)) {
             Log.w(TAG, "This is not an event type in the Events Data Model.");
             return;
         }
 
-       events.add(eventWithAttributes);
+        // Gather device state before taking the buffer lock
+        String orientation = getOrientation();
+        int batteryLevel = getBatteryLevel();
+        boolean pluggedIn = isPluggedIn();
+        String carrier = getCellularCarrier();
+        String cellularNetworkType = getCellularNetworkType();
+        Boolean wifi = getConnectedToWifi();
+
+        synchronized (events) {
+            TelemetryEvent event = events.obtain();
+            event.set(eventWithAttributes);
+            if (mapLoad) {
+                // Map Load Data Model
+                event.userId = mapboxVendorId;
+                event.model = Build.MODEL;
+                event.operatingSystem = operatingSystem;
+                event.resolution = displayMetrics.density;
+                event.accessibilityFontScale = getAccesibilityFontScaleSize();
+            }
+            event.orientation = orientation;
+            event.batteryLevel = batteryLevel;
+            event.pluggedIn = pluggedIn;
+            event.carrier = carrier;
+            event.cellularNetworkType = cellularNetworkType;
+            event.wifi = wifi;
+        }
+
+        if (mapLoad) {
+            // Turnstile, queued after Map Load so both are sent together
+            pushTurnstileEvent();
+        }
     }
 
     /**
@@ -399,13 +435,13 @@ public class MapboxEventManager {
      */
     private void pushTurnstileEvent() {
 
-        Hashtable<String, Object> event = new Hashtable<>();
-        event.put(MapboxEvent.ATTRIBUTE_EVENT, MapboxEvent.TYPE_TURNSTILE);
-        event.put(MapboxEvent.ATTRIBUTE_CREATED, generateCreateDate());
-        event.put(MapboxEvent.ATTRIBUTE_USERID, mapboxVendorId);
-        event.put(MapboxEvent.ATTRIBUTE_ENABLED_TELEMETRY, telemetryEnabled);
-
-        events.add(event);
+        synchronized (events) {
+            TelemetryEvent event = events.obtain();
+            event.event = MapboxEvent.TYPE_TURNSTILE;
+            event.createdMillis = System.currentTimeMillis();
+            event.userId = mapboxVendorId;
+            event.enabledTelemetry = telemetryEnabled;
+        }
 
         // Send to Server Immediately
         flushEventsQueueImmediately();
@@ -447,6 +483,7 @@ public class MapboxEventManager {
         if ((TextUtils.isEmpty(mapboxSessionId)) || (now - mapboxSessionIdLastSet > (SESSION_ID_ROTATION_HOURS * hourInMillis))) {
             mapboxSessionId = UUID.randomUUID().toString();
             mapboxSessionIdLastSet = System.currentTimeMillis();
+            encodedSessionId = encodeString(mapboxSessionId);
         }
     }
 
@@ -587,135 +624,56 @@ public class MapboxEventManager {
         @Override
         protected Void doInBackground(Void... voids) {
 
-             if (events.isEmpty()) {
-                Log.d(TAG, "No events in the queue to send so returning.");
+            if (events.isEmpty() && journal.isEmpty()) {
+                Log.d(TAG, "No events in the queue or journal to send so returning.");
                 return null;
             }
 
-            // Check for NetworkConnectivity
-            ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
-            NetworkInfo networkInfo = cm.getActiveNetworkInfo();
-            if (networkInfo == null || !networkInfo.isConnected()) {
-                Log.w(TAG, "Not connected to network, so empty events cache and return without attempting to send events");
-                // Make sure that events don't pile up when Offline
-                // and thus impact available memory over time.
-                events.removeAllElements();
-                return null;
-            }
+            boolean connected = isConnected();
 
-            try {
-                // Send data
-                // =========
-                JSONArray jsonArray = new JSONArray();
-
-                for (Hashtable<String, Object> evt : events) {
-                    JSONObject jsonObject = new JSONObject();
-
-                    // Build the JSON but only if there's a value for it in the evt
-                    jsonObject.putOpt(MapboxEvent.ATTRIBUTE_EVENT, evt.get(MapboxEvent.ATTRIBUTE_EVENT));
-                    jsonObject.putOpt(MapboxEvent.ATTRIBUTE_CREATED, evt.get(MapboxEvent.ATTRIBUTE_CREATED));
-                    jsonObject.putOpt(MapboxEvent.ATTRIBUTE_USERID, evt.get(MapboxEvent.ATTRIBUTE_USERID));
-                    jsonObject.putOpt(MapboxEvent.ATTRIBUTE_ENABLED_TELEMETRY, evt.get(MapboxEvent.ATTRIBUTE_ENABLED_TELEMETRY));
-                    jsonObject.putOpt(MapboxEvent.ATTRIBUTE_SOURCE, evt.get(MapboxEvent.ATTRIBUTE_SOURCE));
-                    jsonObject.putOpt(MapboxEvent.ATTRIBUTE_SESSION_ID, evt.get(MapboxEvent.ATTRIBUTE_SESSION_ID));
-                    jsonObject.putOpt(MapboxEvent.KEY_LATITUDE, evt.get(MapboxEvent.KEY_LATITUDE));
-
-                    // Make sure Longitude Is Wrapped
-                    if (evt.containsKey(MapboxEvent.KEY_LONGITUDE)) {
-                        double lon = (double)evt.get(MapboxEvent.KEY_LONGITUDE);
-                        if ((lon < GeoConstants.MIN_LONGITUDE) || (lon > GeoConstants.MAX_LONGITUDE)) {
-                            lon = MathUtils.wrap(lon, GeoConstants.MIN_LONGITUDE, GeoConstants.MAX_LONGITUDE);
-                        }
-                        jsonObject.put(MapboxEvent.KEY_LONGITUDE, lon);
-                    }
+            // Flushes run one at a time on the serial AsyncTask executor, the lock guards the shared batch regardless
+            synchronized (flushBatch) {
+                int count = events.drainTo(flushBatch);
+                RequestBody body = null;
+                if (count > 0) {
+                    // Events are serialised straight into the request body or journal segment
+                    body = new TelemetryEventsRequestBody(flushBatch, count,
+                            new SimpleDateFormat(DATE_FORMAT_PATTERN, MapboxConstants.MAPBOX_LOCALE));
+                }
 
-                    jsonObject.putOpt(MapboxEvent.KEY_ALTITUDE, evt.get(MapboxEvent.KEY_ALTITUDE));
-                    jsonObject.putOpt(MapboxEvent.KEY_ZOOM, evt.get(MapboxEvent.KEY_ZOOM));
-                    jsonObject.putOpt(MapboxEvent.ATTRIBUTE_OPERATING_SYSTEM, evt.get(MapboxEvent.ATTRIBUTE_OPERATING_SYSTEM));
-                    jsonObject.putOpt(MapboxEvent.ATTRIBUTE_USERID, evt.get(MapboxEvent.ATTRIBUTE_USERID));
-                    jsonObject.putOpt(MapboxEvent.ATTRIBUTE_MODEL, evt.get(MapboxEvent.ATTRIBUTE_MODEL));
-                    jsonObject.putOpt(MapboxEvent.ATTRIBUTE_RESOLUTION, evt.get(MapboxEvent.ATTRIBUTE_RESOLUTION));
-                    jsonObject.putOpt(MapboxEvent.ATTRIBUTE_ACCESSIBILITY_FONT_SCALE, evt.get(MapboxEvent.ATTRIBUTE_ACCESSIBILITY_FONT_SCALE));
-                    jsonObject.putOpt(MapboxEvent.ATTRIBUTE_BATTERY_LEVEL, evt.get(MapboxEvent.ATTRIBUTE_BATTERY_LEVEL));
-                    jsonObject.putOpt(MapboxEvent.ATTRIBUTE_PLUGGED_IN, evt.get(MapboxEvent.ATTRIBUTE_PLUGGED_IN));
-                    jsonObject.putOpt(MapboxEvent.ATTRIBUTE_WIFI, evt.get(MapboxEvent.ATTRIBUTE_WIFI));
-
-                    // Special Cases where empty string is denoting null and therefore should not be sent at all
-                    // This arises as thread safe Hashtable does not accept null values (nor keys)
-                    if (evt.containsKey(MapboxEvent.ATTRIBUTE_ORIENTATION)) {
-                        String orientation =  (String)evt.get(MapboxEvent.ATTRIBUTE_ORIENTATION);
-                        if (!TextUtils.isEmpty(orientation)) {
-                            jsonObject.putOpt(MapboxEvent.ATTRIBUTE_ORIENTATION, orientation);
-                        }
-                    }
-                    if (evt.containsKey(MapboxEvent.ATTRIBUTE_CARRIER)) {
-                        String carrier =  (String)evt.get(MapboxEvent.ATTRIBUTE_CARRIER);
-                        if (!TextUtils.isEmpty(carrier)) {
-                            jsonObject.putOpt(MapboxEvent.ATTRIBUTE_CARRIER, carrier);
-                        }
-                    }
-                    if (evt.containsKey(MapboxEvent.ATTRIBUTE_APPLICATION_STATE)) {
-                        String appState = (String)evt.get(MapboxEvent.ATTRIBUTE_APPLICATION_STATE);
-                        if (!TextUtils.isEmpty(appState)) {
-                            jsonObject.putOpt(MapboxEvent.ATTRIBUTE_APPLICATION_STATE, evt.get(MapboxEvent.ATTRIBUTE_APPLICATION_STATE));
+                boolean sent = false;
+                if (connected) {
+                    String url = eventsURL + "/events/v2?access_token=" + accessToken;
+//                    Log.d(TAG, "Events URL = " + url);
+                    TelemetryUploader uploader = new TelemetryUploader(getHttpClient(), url, userAgent);
+                    try {
+                        // Replay stored batches first so events arrive in order
+                        if (journal.replay(uploader) && body != null) {
+                            int code = uploader.upload(body);
+                            Log.d(TAG, "response code = " + code + " for events " + count);
+                            sent = TelemetryUploader.isFinal(code);
                         }
+                    } catch (Exception e) {
+                        Log.e(TAG, "FlushTheEventsTask borked: " + e);
+                        e.printStackTrace();
                     }
+                } else {
+                    Log.w(TAG, "Not connected to network, so store events until connectivity returns");
+                }
 
-                    // Special Cases where null has to be passed if no value exists
-                    // Requires using put() instead of putOpt()
-                    String eventType = (String)evt.get(MapboxEvent.ATTRIBUTE_EVENT);
-                    if (!TextUtils.isEmpty(eventType) && eventType.equalsIgnoreCase(MapboxEvent.TYPE_MAP_CLICK)) {
-                        jsonObject.put(MapboxEvent.KEY_GESTURE_ID, evt.get(MapboxEvent.KEY_GESTURE_ID));
-                    }
-                    if (evt.containsKey(MapboxEvent.ATTRIBUTE_CELLULAR_NETWORK_TYPE)) {
-                        String cellularNetworkType = (String)evt.get(MapboxEvent.ATTRIBUTE_CELLULAR_NETWORK_TYPE);
-                        if (TextUtils.isEmpty(cellularNetworkType)) {
-                            jsonObject.put(MapboxEvent.ATTRIBUTE_CELLULAR_NETWORK_TYPE, null);
-                        } else {
-                            jsonObject.put(MapboxEvent.ATTRIBUTE_CELLULAR_NETWORK_TYPE, evt.get(MapboxEvent.ATTRIBUTE_CELLULAR_NETWORK_TYPE));
+                if (body != null && !sent) {
+                    try {
+                        if (!journal.append(body)) {
+                            Log.w(TAG, "Dropping " + count + " events exceeding the journal segment size");
                         }
+                    } catch (Exception e) {
+                        Log.e(TAG, "Error storing events: " + e);
                     }
-
-                    jsonArray.put(jsonObject);
                 }
+            }
 
-                // Based on http://square.github.io/okhttp/3.x/okhttp/okhttp3/CertificatePinner.html
-                CertificatePinner certificatePinner = new CertificatePinner.Builder()
-                        // Staging - Geotrust
-                        .add("cloudfront-staging.tilestream.net", "sha256/kR9ysyN/lzBl/ecearDERV7qO7xqSN4jt6XuQjIVL0I=")
-                        .add("cloudfront-staging.tilestream.net", "sha256/sPbNCVpVasMJxps3IqFfLTRKkVnRCLrTlZVc5kspqlkw=")
-                        .add("cloudfront-staging.tilestream.net", "sha256/h6801m+z8v3zbgkRHpq6L29Esgfzhj89C1SyUCOQmqU=")
-                        // Prod - Geotrust
-                        .add("events.mapbox.com", "sha256/BhynraKizavqoC5U26qgYuxLZst6pCu9J5stfL6RSYY=")
-                        .add("events.mapbox.com", "sha256/owrR9U9FWDWtrFF+myoRIu75JwU4sJwzvhCNLZoY37g=")
-                        .add("events.mapbox.com", "sha256/SQVGZiOrQXi+kqxcvWWE96HhfydlLVqFr4lQTqI5qqo=")
-                        // Prod - DigiCert
-                        .add("events.mapbox.com", "sha256/Tb0uHZ/KQjWh8N9+CZFLc4zx36LONQ55l6laDi1qtT4=")
-                        .add("events.mapbox.com", "sha256/RRM1dGqnDFsCJXBTHky16vi1obOlCgFFn/yOhI/y+ho=")
-                        .add("events.mapbox.com", "sha256/WoiWRyIOVNa9ihaBciRSC7XHjliYS9VwUGOIud4PB18=")
-                        .build();
-
-                OkHttpClient client = new OkHttpClient.Builder().certificatePinner(certificatePinner).build();
-                RequestBody body = RequestBody.create(JSON, jsonArray.toString());
-
-                String url = eventsURL + "/events/v2?access_token=" + accessToken;
-//                Log.d(TAG, "Events URL = " + url);
-
-                Request request = new Request.Builder()
-                        .url(url)
-                        .header("User-Agent", userAgent)
-                        .post(body)
-                        .build();
-                Response response = client.newCall(request).execute();
-                Log.d(TAG, "response code = " + response.code() + " for events " + events.size());
-
-            } catch (Exception e) {
-                Log.e(TAG, "FlushTheEventsTask borked: " + e);
-                e.printStackTrace();
-            } finally {
-                // Reset Events
-                // ============
-                events.removeAllElements();
+            if (connected) {
+                onReplayFinished(journal.isEmpty());
             }
 
             return null;
@@ -724,6 +682,73 @@ public class MapboxEventManager {
     }
 
 
+    private boolean isConnected() {
+        ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        NetworkInfo networkInfo = cm.getActiveNetworkInfo();
+        return networkInfo != null && networkInfo.isConnected();
+    }
+
+    /**
+     * Schedules a flush replaying the journal after the current backoff delay, unless one is pending.
+     */
+    private synchronized void scheduleReplay() {
+        if (timer == null || replayScheduled) {
+            return;
+        }
+        replayScheduled = true;
+        timer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                synchronized (MapboxEventManager.this) {
+                    replayScheduled = false;
+                }
+                new FlushTheEventsTask().execute();
+            }
+        }, replayDelayInMillis);
+    }
+
+    /**
+     * Resets the backoff once the journal is drained, otherwise retries later with a longer delay.
+     *
+     * @param journalEmpty True if all stored events were sent
+     */
+    private synchronized void onReplayFinished(boolean journalEmpty) {
+        if (journalEmpty) {
+            replayDelayInMillis = REPLAY_DELAY_INITIAL_IN_MILLIS;
+            return;
+        }
+        scheduleReplay();
+        replayDelayInMillis = Math.min(replayDelayInMillis * 2, REPLAY_DELAY_MAX_IN_MILLIS);
+    }
+
+    /**
+     * Returns the client used for all telemetry requests, pinned to the certificates of the events servers.
+     *
+     * @return OkHttpClient
+     */
+    private static synchronized OkHttpClient getHttpClient() {
+        if (client == null) {
+            // Based on http://square.github.io/okhttp/3.x/okhttp/okhttp3/CertificatePinner.html
+            CertificatePinner certificatePinner = new CertificatePinner.Builder()
+                    // Staging - Geotrust
+                    .add("cloudfront-staging.tilestream.net", "sha256/kR9ysyN/lzBl/ecearDERV7qO7xqSN4jt6XuQjIVL0I=")
+                    .add("cloudfront-staging.tilestream.net", "sha256/sPbNCVpVasMJxps3IqFfLTRKkVnRCLrTlZVc5kspqlkw=")
+                    .add("cloudfront-staging.tilestream.net", "sha256/h6801m+z8v3zbgkRHpq6L29Esgfzhj89C1SyUCOQmqU=")
+                    // Prod - Geotrust
+                    .add("events.mapbox.com", "sha256/BhynraKizavqoC5U26qgYuxLZst6pCu9J5stfL6RSYY=")
+                    .add("events.mapbox.com", "sha256/owrR9U9FWDWtrFF+myoRIu75JwU4sJwzvhCNLZoY37g=")
+                    .add("events.mapbox.com", "sha256/SQVGZiOrQXi+kqxcvWWE96HhfydlLVqFr4lQTqI5qqo=")
+                    // Prod - DigiCert
+                    .add("events.mapbox.com", "sha256/Tb0uHZ/KQjWh8N9+CZFLc4zx36LONQ55l6laDi1qtT4=")
+                    .add("events.mapbox.com", "sha256/RRM1dGqnDFsCJXBTHky16vi1obOlCgFFn/yOhI/y+ho=")
+                    .add("events.mapbox.com", "sha256/WoiWRyIOVNa9ihaBciRSC7XHjliYS9VwUGOIud4PB18=")
+                    .build();
+
+            client = new OkHttpClient.Builder().certificatePinner(certificatePinner).build();
+        }
+        return client;
+    }
+
     /**
      * TimerTask responsible for sending event data to server
      */
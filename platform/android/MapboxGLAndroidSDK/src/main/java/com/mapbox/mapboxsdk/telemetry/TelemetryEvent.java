@@ -0,0 +1,115 @@
+package com.mapbox.mapboxsdk.telemetry;
+
+import java.util.Hashtable;
+
+/**
+ * Typed, reusable holder for a single telemetry event.
+ * <p>
+ * Instances live in a {@link TelemetryEventBuffer} and are recycled once sent, unset floating
+ * point values are marked with NaN, unset integers with {@link #UNSET} and unset objects with null.
+ * </p>
+ */
+final class TelemetryEvent {
+
+    static final int UNSET = Integer.MIN_VALUE;
+
+    String event;
+    String created;
+    long createdMillis;
+    String userId;
+    Boolean enabledTelemetry;
+    String source;
+    String sessionId;
+    double latitude;
+    double longitude;
+    double altitude;
+    double zoom;
+    String operatingSystem;
+    String model;
+    float resolution;
+    float accessibilityFontScale;
+    int batteryLevel;
+    Boolean pluggedIn;
+    Boolean wifi;
+    String orientation;
+    String carrier;
+    String applicationState;
+    String gestureId;
+    String cellularNetworkType;
+
+    TelemetryEvent() {
+        reset();
+    }
+
+    void reset() {
+        event = null;
+        created = null;
+        createdMillis = 0;
+        userId = null;
+        enabledTelemetry = null;
+        source = null;
+        sessionId = null;
+        latitude = Double.NaN;
+        longitude = Double.NaN;
+        altitude = Double.NaN;
+        zoom = Double.NaN;
+        operatingSystem = null;
+        model = null;
+        resolution = Float.NaN;
+        accessibilityFontScale = Float.NaN;
+        batteryLevel = UNSET;
+        pluggedIn = null;
+        wifi = null;
+        orientation = null;
+        carrier = null;
+        applicationState = null;
+        gestureId = null;
+        cellularNetworkType = null;
+    }
+
+    /**
+     * Copies the known attributes of an untyped event into this event.
+     *
+     * @param attributes Event attributes keyed by the {@link MapboxEvent} constants.
+     */
+    void set(Hashtable<String, Object> attributes) {
+        event = getString(attributes, MapboxEvent.ATTRIBUTE_EVENT);
+        created = getString(attributes, MapboxEvent.ATTRIBUTE_CREATED);
+        userId = getString(attributes, MapboxEvent.ATTRIBUTE_USERID);
+        enabledTelemetry = getBoolean(attributes, MapboxEvent.ATTRIBUTE_ENABLED_TELEMETRY);
+        source = getString(attributes, MapboxEvent.ATTRIBUTE_SOURCE);
+        sessionId = getString(attributes, MapboxEvent.ATTRIBUTE_SESSION_ID);
+        latitude = getDouble(attributes, MapboxEvent.KEY_LATITUDE);
+        longitude = getDouble(attributes, MapboxEvent.KEY_LONGITUDE);
+        altitude = getDouble(attributes, MapboxEvent.KEY_ALTITUDE);
+        zoom = getDouble(attributes, MapboxEvent.KEY_ZOOM);
+        operatingSystem = getString(attributes, MapboxEvent.ATTRIBUTE_OPERATING_SYSTEM);
+        model = getString(attributes, MapboxEvent.ATTRIBUTE_MODEL);
+        resolution = (float) getDouble(attributes, MapboxEvent.ATTRIBUTE_RESOLUTION);
+        accessibilityFontScale = (float) getDouble(attributes, MapboxEvent.ATTRIBUTE_ACCESSIBILITY_FONT_SCALE);
+        Object battery = attributes.get(MapboxEvent.ATTRIBUTE_BATTERY_LEVEL);
+        batteryLevel = battery instanceof Number ? ((Number) battery).intValue() : UNSET;
+        pluggedIn = getBoolean(attributes, MapboxEvent.ATTRIBUTE_PLUGGED_IN);
+        wifi = getBoolean(attributes, MapboxEvent.ATTRIBUTE_WIFI);
+        orientation = getString(attributes, MapboxEvent.ATTRIBUTE_ORIENTATION);
+        carrier = getString(attributes, MapboxEvent.ATTRIBUTE_CARRIER);
+        applicationState = getString(attributes, MapboxEvent.ATTRIBUTE_APPLICATION_STATE);
+        gestureId = getString(attributes, MapboxEvent.KEY_GESTURE_ID);
+        cellularNetworkType = getString(attributes, MapboxEvent.ATTRIBUTE_CELLULAR_NETWORK_TYPE);
+    }
+
+    private static String getString(Hashtable<String, Object> attributes, String key) {
+        Object value = attributes.get(key);
+        return value != null ? value.toString() : null;
+    }
+
+    private static Boolean getBoolean(Hashtable<String, Object> attributes, String key) {
+        Object value = attributes.get(key);
+        return value instanceof Boolean ? (Boolean) value : null;
+    }
+
+    private static double getDouble(Hashtable<String, Object> attributes, String key) {
+        Object value = attributes.get(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+    }
+}
@@ -0,0 +1,99 @@
+package com.mapbox.mapboxsdk.telemetry;
+
+/**
+ * Fixed capacity ring buffer of {@link TelemetryEvent} slots.
+ * <p>
+ * When the buffer is full the oldest event is overwritten. All slots are allocated up front and
+ * recycled, adding an event and draining the buffer do not allocate.
+ * </p>
+ */
+final class TelemetryEventBuffer {
+
+    private final TelemetryEvent[] slots;
+    private int head;
+    private int size;
+    private int droppedCount;
+
+    TelemetryEventBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1, was " + capacity);
+        }
+        slots = new TelemetryEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new TelemetryEvent();
+        }
+    }
+
+    /**
+     * Returns a cleared slot at the end of the buffer, dropping the oldest event if the buffer is full.
+     * <p>
+     * Callers must hold the monitor of this buffer until they are done filling the returned slot.
+     * </p>
+     *
+     * @return The slot to fill.
+     */
+    TelemetryEvent obtain() {
+        int index;
+        if (size == slots.length) {
+            index = head;
+            head = (head + 1) % slots.length;
+            droppedCount++;
+        } else {
+            index = (head + size) % slots.length;
+            size++;
+        }
+        TelemetryEvent event = slots[index];
+        event.reset();
+        return event;
+    }
+
+    /**
+     * Moves all buffered events, oldest first, into the given array and empties the buffer.
+     * <p>
+     * Events are exchanged with the slots already present in {@code target}, which must be filled with
+     * non null instances and be at least as large as the capacity of this buffer.
+     * </p>
+     *
+     * @param target The array receiving the events.
+     * @return The number of events moved into target.
+     */
+    synchronized int drainTo(TelemetryEvent[] target) {
+        if (target.length < slots.length) {
+            throw new IllegalArgumentException("Target can hold " + target.length + " events, need " + slots.length);
+        }
+        int count = size;
+        for (int i = 0; i < count; i++) {
+            int index = (head + i) % slots.length;
+            TelemetryEvent event = slots[index];
+            slots[index] = target[i];
+            target[i] = event;
+        }
+        head = 0;
+        size = 0;
+        return count;
+    }
+
+    synchronized void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * @return The number of events overwritten because the buffer was full.
+     */
+    synchronized int getDroppedCount() {
+        return droppedCount;
+    }
+}
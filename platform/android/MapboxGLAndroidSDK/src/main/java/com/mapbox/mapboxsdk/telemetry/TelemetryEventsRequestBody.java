@@ -0,0 +1,142 @@
+package com.mapbox.mapboxsdk.telemetry;
+
+import android.text.TextUtils;
+import android.util.JsonWriter;
+
+import com.mapbox.mapboxsdk.constants.GeoConstants;
+import com.mapbox.mapboxsdk.utils.MathUtils;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * Request body serialising a batch of {@link TelemetryEvent} as a JSON array while it is written
+ * to the connection, without building an intermediate JSON tree or string.
+ */
+final class TelemetryEventsRequestBody extends RequestBody {
+
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+    private final TelemetryEvent[] events;
+    private final int count;
+    private final SimpleDateFormat dateFormat;
+
+    TelemetryEventsRequestBody(TelemetryEvent[] events, int count, SimpleDateFormat dateFormat) {
+        this.events = events;
+        this.count = count;
+        this.dateFormat = dateFormat;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return JSON;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        JsonWriter writer = new JsonWriter(new OutputStreamWriter(sink.outputStream(), "UTF-8"));
+        writer.beginArray();
+        Date date = new Date();
+        for (int i = 0; i < count; i++) {
+            writeEvent(writer, events[i], date);
+        }
+        writer.endArray();
+        writer.flush();
+    }
+
+    private void writeEvent(JsonWriter writer, TelemetryEvent evt, Date date) throws IOException {
+        writer.beginObject();
+
+        // Only write values that are present in the event
+        writeOpt(writer, MapboxEvent.ATTRIBUTE_EVENT, evt.event);
+        if (evt.created != null) {
+            writer.name(MapboxEvent.ATTRIBUTE_CREATED).value(evt.created);
+        } else if (evt.createdMillis != 0) {
+            date.setTime(evt.createdMillis);
+            writer.name(MapboxEvent.ATTRIBUTE_CREATED).value(dateFormat.format(date));
+        }
+        writeOpt(writer, MapboxEvent.ATTRIBUTE_USERID, evt.userId);
+        writeOpt(writer, MapboxEvent.ATTRIBUTE_ENABLED_TELEMETRY, evt.enabledTelemetry);
+        writeOpt(writer, MapboxEvent.ATTRIBUTE_SOURCE, evt.source);
+        writeOpt(writer, MapboxEvent.ATTRIBUTE_SESSION_ID, evt.sessionId);
+        writeOpt(writer, MapboxEvent.KEY_LATITUDE, evt.latitude);
+
+        // Make sure Longitude Is Wrapped
+        if (!Double.isNaN(evt.longitude)) {
+            double lon = evt.longitude;
+            if ((lon < GeoConstants.MIN_LONGITUDE) || (lon > GeoConstants.MAX_LONGITUDE)) {
+                lon = MathUtils.wrap(lon, GeoConstants.MIN_LONGITUDE, GeoConstants.MAX_LONGITUDE);
+            }
+            writer.name(MapboxEvent.KEY_LONGITUDE).value(lon);
+        }
+
+        writeOpt(writer, MapboxEvent.KEY_ALTITUDE, evt.altitude);
+        writeOpt(writer, MapboxEvent.KEY_ZOOM, evt.zoom);
+        writeOpt(writer, MapboxEvent.ATTRIBUTE_OPERATING_SYSTEM, evt.operatingSystem);
+        writeOpt(writer, MapboxEvent.ATTRIBUTE_MODEL, evt.model);
+        writeOpt(writer, MapboxEvent.ATTRIBUTE_RESOLUTION, evt.resolution);
+        writeOpt(writer, MapboxEvent.ATTRIBUTE_ACCESSIBILITY_FONT_SCALE, evt.accessibilityFontScale);
+        if (evt.batteryLevel != TelemetryEvent.UNSET) {
+            writer.name(MapboxEvent.ATTRIBUTE_BATTERY_LEVEL).value(evt.batteryLevel);
+        }
+        writeOpt(writer, MapboxEvent.ATTRIBUTE_PLUGGED_IN, evt.pluggedIn);
+        writeOpt(writer, MapboxEvent.ATTRIBUTE_WIFI, evt.wifi);
+
+        // Special Cases where empty string is denoting null and therefore should not be sent at all
+        if (!TextUtils.isEmpty(evt.orientation)) {
+            writer.name(MapboxEvent.ATTRIBUTE_ORIENTATION).value(evt.orientation);
+        }
+        if (!TextUtils.isEmpty(evt.carrier)) {
+            writer.name(MapboxEvent.ATTRIBUTE_CARRIER).value(evt.carrier);
+        }
+        if (!TextUtils.isEmpty(evt.applicationState)) {
+            writer.name(MapboxEvent.ATTRIBUTE_APPLICATION_STATE).value(evt.applicationState);
+        }
+
+        // Special Cases where null has to be passed if no value exists
+        if (!TextUtils.isEmpty(evt.event) && evt.event.equalsIgnoreCase(MapboxEvent.TYPE_MAP_CLICK)) {
+            writer.name(MapboxEvent.KEY_GESTURE_ID).value(evt.gestureId);
+        }
+        if (evt.cellularNetworkType != null) {
+            writer.name(MapboxEvent.ATTRIBUTE_CELLULAR_NETWORK_TYPE);
+            if (evt.cellularNetworkType.isEmpty()) {
+                writer.nullValue();
+            } else {
+                writer.value(evt.cellularNetworkType);
+            }
+        }
+
+        writer.endObject();
+    }
+
+    private static void writeOpt(JsonWriter writer, String name, String value) throws IOException {
+        if (value != null) {
+            writer.name(name).value(value);
+        }
+    }
+
+    private static void writeOpt(JsonWriter writer, String name, Boolean value) throws IOException {
+        if (value != null) {
+            writer.name(name).value(value.booleanValue());
+        }
+    }
+
+    private static void writeOpt(JsonWriter writer, String name, double value) throws IOException {
+        if (!Double.isNaN(value)) {
+            writer.name(name).value(value);
+        }
+    }
+
+    private static void writeOpt(JsonWriter writer, String name, float value) throws IOException {
+        if (!Float.isNaN(value)) {
+            // Boxed so the value is written with float precision
+            writer.name(name).value(Float.valueOf(value));
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.mapbox.mapboxsdk.telemetry;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+/**
+ * Append-only journal of telemetry batches that could not be sent.
+ * <p>
+ * Each batch is written as its own gzip compressed segment file, ready to be posted as is. Segments
+ * are never modified, they are deleted once the server accepted them or when the journal grows past
+ * its size limit, in which case the oldest segments are dropped first.
+ * </p>
+ */
+final class TelemetryJournal {
+
+    private static final String SEGMENT_SUFFIX = ".json.gz";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final FilenameFilter SEGMENT_FILTER = new FilenameFilter() {
+        @Override
+        public boolean accept(File dir, String name) {
+            return name.endsWith(SEGMENT_SUFFIX);
+        }
+    };
+
+    private final File directory;
+    private final long maxSegmentBytes;
+    private final long maxJournalBytes;
+    private long nextSequence;
+
+    /**
+     * @param directory       The directory holding the segments, created if needed.
+     * @param maxSegmentBytes The maximum compressed size of a single segment, larger batches are dropped.
+     * @param maxJournalBytes The maximum compressed size of all segments together.
+     */
+    TelemetryJournal(File directory, long maxSegmentBytes, long maxJournalBytes) {
+        if (maxSegmentBytes <= 0 || maxJournalBytes < maxSegmentBytes) {
+            throw new IllegalArgumentException("Invalid segment size " + maxSegmentBytes
+                    + " or journal size " + maxJournalBytes);
+        }
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxJournalBytes = maxJournalBytes;
+
+        File[] segments = segments();
+        nextSequence = segments.length > 0 ? sequenceOf(segments[segments.length - 1]) + 1 : 0;
+    }
+
+    /**
+     * Compresses a batch into a new segment at the end of the journal.
+     *
+     * @param batch The uncompressed JSON batch.
+     * @return True if the batch was stored, false if it exceeded the segment size.
+     * @throws IOException If the segment could not be written.
+     */
+    synchronized boolean append(RequestBody batch) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create telemetry journal at " + directory);
+        }
+
+        File temp = new File(directory, String.format(Locale.US, "%019d%s", nextSequence, TEMP_SUFFIX));
+        BufferedSink sink = Okio.buffer(new GzipSink(Okio.sink(temp)));
+        try {
+            batch.writeTo(sink);
+        } finally {
+            sink.close();
+        }
+
+        if (temp.length() > maxSegmentBytes) {
+            temp.delete();
+            return false;
+        }
+
+        // Rename once complete so a crash never leaves a partial segment behind
+        File segment = new File(directory, String.format(Locale.US, "%019d%s", nextSequence, SEGMENT_SUFFIX));
+        if (!temp.renameTo(segment)) {
+            temp.delete();
+            throw new IOException("Unable to commit telemetry segment " + segment);
+        }
+        nextSequence++;
+
+        trim();
+        return true;
+    }
+
+    /**
+     * Posts all segments, oldest first, deleting the ones that are done with.
+     * Stops at the first segment the server asks to be retried.
+     *
+     * @param uploader The uploader to post segments with.
+     * @return True if the journal is empty afterwards.
+     * @throws IOException If a segment could not be posted, remaining segments are kept.
+     */
+    synchronized boolean replay(TelemetryUploader uploader) throws IOException {
+        for (File segment : segments()) {
+            if (!TelemetryUploader.isFinal(uploader.upload(segment))) {
+                return false;
+            }
+            segment.delete();
+        }
+        return true;
+    }
+
+    synchronized boolean isEmpty() {
+        return segments().length == 0;
+    }
+
+    /**
+     * @return The compressed size of all segments in bytes.
+     */
+    synchronized long size() {
+        long size = 0;
+        for (File segment : segments()) {
+            size += segment.length();
+        }
+        return size;
+    }
+
+    synchronized void clear() {
+        for (File segment : segments()) {
+            segment.delete();
+        }
+    }
+
+    private void trim() {
+        File[] segments = segments();
+        long size = 0;
+        for (File segment : segments) {
+            size += segment.length();
+        }
+        for (int i = 0; i < segments.length && size > maxJournalBytes; i++) {
+            size -= segments[i].length();
+            segments[i].delete();
+        }
+    }
+
+    private File[] segments() {
+        File[] segments = directory.listFiles(SEGMENT_FILTER);
+        if (segments == null) {
+            return new File[0];
+        }
+        // Zero padded sequence numbers sort by name
+        Arrays.sort(segments);
+        return segments;
+    }
+
+    private static long sequenceOf(File segment) {
+        String name = segment.getName();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
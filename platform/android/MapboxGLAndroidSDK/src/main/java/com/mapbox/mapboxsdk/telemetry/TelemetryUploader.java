@@ -0,0 +1,88 @@
+package com.mapbox.mapboxsdk.telemetry;
+
+import java.io.File;
+import java.io.IOException;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+/**
+ * Posts gzip compressed batches of telemetry events to the events server.
+ */
+final class TelemetryUploader {
+
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+    private final OkHttpClient client;
+    private final String url;
+    private final String userAgent;
+
+    TelemetryUploader(OkHttpClient client, String url, String userAgent) {
+        this.client = client;
+        this.url = url;
+        this.userAgent = userAgent;
+    }
+
+    /**
+     * Compresses the body while it is sent and posts it.
+     *
+     * @param body The uncompressed JSON body.
+     * @return The HTTP status code of the response.
+     * @throws IOException If the request could not be executed.
+     */
+    int upload(final RequestBody body) throws IOException {
+        return post(new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return body.contentType();
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                BufferedSink gzipSink = Okio.buffer(new GzipSink(sink));
+                body.writeTo(gzipSink);
+                gzipSink.close();
+            }
+        });
+    }
+
+    /**
+     * Posts a journal segment, which is already gzip compressed.
+     *
+     * @param segment The segment file.
+     * @return The HTTP status code of the response.
+     * @throws IOException If the request could not be executed.
+     */
+    int upload(File segment) throws IOException {
+        return post(RequestBody.create(JSON, segment));
+    }
+
+    private int post(RequestBody body) throws IOException {
+        Request request = new Request.Builder()
+                .url(url)
+                .header("User-Agent", userAgent)
+                .header("Content-Encoding", "gzip")
+                .post(body)
+                .build();
+        Response response = client.newCall(request).execute();
+        response.body().close();
+        return response.code();
+    }
+
+    /**
+     * Returns whether a batch answered with the given status code is done with, either because it was
+     * accepted or because the server will never accept it. Other batches should be retried later.
+     *
+     * @param code The HTTP status code.
+     * @return True if the batch should not be sent again.
+     */
+    static boolean isFinal(int code) {
+        return (code >= 200 && code < 300) || (code >= 400 && code < 500 && code != 408 && code != 429);
+    }
+}
@@ -0,0 +1,165 @@
+package com.mapbox.mapboxsdk.testapp.espresso;
+
+import android.annotation.TargetApi;
+import android.content.Intent;
+import android.os.Build;
+import android.os.Bundle;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.rule.ActivityTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.Log;
+import android.view.Choreographer;
+
+import com.mapbox.mapboxsdk.constants.RenderMode;
+import com.mapbox.mapboxsdk.testapp.R;
+import com.mapbox.mapboxsdk.testapp.activity.annotation.MarkerViewActivity;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static android.support.test.espresso.Espresso.onView;
+import static android.support.test.espresso.action.ViewActions.swipeDown;
+import static android.support.test.espresso.action.ViewActions.swipeLeft;
+import static android.support.test.espresso.action.ViewActions.swipeRight;
+import static android.support.test.espresso.action.ViewActions.swipeUp;
+import static android.support.test.espresso.matcher.ViewMatchers.withId;
+
+/**
+ * Benchmarks dropped frames while panning the MarkerViewActivity map in every RenderMode.
+ * <p>
+ * A frame is counted as dropped when the display frame that follows it starts more than one and a
+ * half refresh periods later. Results are logged and reported as instrumentation status.
+ * </p>
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+public class MarkerViewActivityBenchmarkTest extends BaseTest {
+
+    private static final String TAG = "MarkerViewBenchmark";
+
+    private static final int PAN_COUNT = 10;
+
+    @Rule
+    public ActivityTestRule<MarkerViewActivity> mActivityRule = new ActivityTestRule<>(MarkerViewActivity.class, false, false);
+
+    private FrameRecorder mFrameRecorder;
+
+    @Before
+    public void beforeTest() {
+        // Choreographer is not available before Jelly Bean
+        Assume.assumeTrue(Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN);
+    }
+
+    @Test
+    public void testPanOnDraw() {
+        benchmarkPan(RenderMode.ON_DRAW, "on_draw");
+    }
+
+    @Test
+    public void testPanVsync() {
+        benchmarkPan(RenderMode.VSYNC, "vsync");
+    }
+
+    @Test
+    public void testPanRenderThread() {
+        benchmarkPan(RenderMode.RENDER_THREAD, "render_thread");
+    }
+
+    @After
+    public void afterTest() {
+        if (mFrameRecorder != null) {
+            mFrameRecorder.stop();
+        }
+    }
+
+    private void benchmarkPan(@RenderMode.Mode int renderMode, String name) {
+        Intent intent = new Intent();
+        intent.putExtra(MarkerViewActivity.EXTRA_RENDER_MODE, renderMode);
+        MarkerViewActivity activity = mActivityRule.launchActivity(intent);
+        checkViewIsDisplayed(R.id.mapView);
+
+        long refreshPeriodNanos = (long) (1e9 / activity.getWindowManager().getDefaultDisplay().getRefreshRate());
+        mFrameRecorder = new FrameRecorder();
+        mFrameRecorder.start();
+
+        for (int i = 0; i < PAN_COUNT; i++) {
+            onView(withId(R.id.mapView)).perform(swipeLeft());
+            onView(withId(R.id.mapView)).perform(swipeUp());
+            onView(withId(R.id.mapView)).perform(swipeRight());
+            onView(withId(R.id.mapView)).perform(swipeDown());
+        }
+
+        mFrameRecorder.stop();
+        report(name, mFrameRecorder.getFrameTimes(), refreshPeriodNanos);
+    }
+
+    private void report(String name, List<Long> frameTimes, long refreshPeriodNanos) {
+        int frames = Math.max(frameTimes.size() - 1, 0);
+        int droppedFrames = 0;
+        for (int i = 1; i < frameTimes.size(); i++) {
+            long interval = frameTimes.get(i) - frameTimes.get(i - 1);
+            if (interval > refreshPeriodNanos * 3 / 2) {
+                // intervals spanning several periods dropped all but one of them
+                droppedFrames += Math.max(Math.round((double) interval / refreshPeriodNanos) - 1, 1);
+            }
+        }
+
+        Log.i(TAG, name + ": " + droppedFrames + " dropped frames in " + frames + " frames");
+
+        Bundle results = new Bundle();
+        results.putInt(name + "_frames", frames);
+        results.putInt(name + "_dropped_frames", droppedFrames);
+        InstrumentationRegistry.getInstrumentation().sendStatus(0, results);
+    }
+
+    /**
+     * Records the start time of every display frame on the main thread.
+     */
+    private static class FrameRecorder implements Choreographer.FrameCallback {
+
+        private final List<Long> mFrameTimes = new ArrayList<>();
+        private boolean mRecording;
+
+        void start() {
+            InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    mRecording = true;
+                    Choreographer.getInstance().postFrameCallback(FrameRecorder.this);
+                }
+            });
+        }
+
+        void stop() {
+            InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    mRecording = false;
+                    Choreographer.getInstance().removeFrameCallback(FrameRecorder.this);
+                }
+            });
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (mRecording) {
+                mFrameTimes.add(frameTimeNanos);
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+        }
+
+        // Only read after stop(), the main thread no longer writes then
+        List<Long> getFrameTimes() {
+            return mFrameTimes;
+        }
+    }
+}
@@ -13,6 +13,7 @@ import android.support.v7.app.ActionBar;
 import android.support.v7.app.AppCompatActivity;
 import android.support.v7.widget.Toolbar;
 import android.util.Log;
+import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
 import android.widget.AdapterView;
@@ -32,6 +33,7 @@ import com.mapbox.mapboxsdk.maps.MapboxMap;
 import com.mapbox.mapboxsdk.maps.OnMapReadyCallback;
 import com.mapbox.mapboxsdk.testapp.R;
 import com.mapbox.mapboxsdk.testapp.utils.GeoParseUtil;
+import com.mapbox.mapboxsdk.testapp.utils.TimingLogger;
 
 import org.json.JSONException;
 
@@ -43,6 +45,8 @@ import java.util.Random;
 
 public class BulkMarkerActivity extends AppCompatActivity implements AdapterView.OnItemSelectedListener {
 
+    private static final String TAG = "BulkMarkerActivity";
+
     private MapboxMap mMapboxMap;
     private MapView mMapView;
     private boolean mCustomMarkerView;
@@ -154,6 +158,35 @@ public class BulkMarkerActivity extends AppCompatActivity implements AdapterView
         mMapboxMap.addMarkers(markerOptionsList);
     }
 
+    private void benchmarkGlMarkers() {
+        if (mMapboxMap == null || mLocations == null) {
+            return;
+        }
+
+        int amount = mLocations.size();
+        List<MarkerOptions> markerOptionsList = new ArrayList<>(amount);
+        double[] latLngs = new double[amount * 2];
+        int[] iconIndices = new int[amount];
+        for (int i = 0; i < amount; i++) {
+            LatLng latLng = mLocations.get(i);
+            markerOptionsList.add(new MarkerOptions().position(latLng));
+            latLngs[i * 2] = latLng.getLatitude();
+            latLngs[i * 2 + 1] = latLng.getLongitude();
+        }
+        Icon[] icons = {IconFactory.getInstance(this).defaultMarker()};
+
+        TimingLogger timings = new TimingLogger(TAG, "add " + amount + " markers");
+        mMapboxMap.clear();
+        timings.addSplit("clear");
+        mMapboxMap.addMarkers(markerOptionsList);
+        timings.addSplit("addMarkers(List<MarkerOptions>)");
+        mMapboxMap.clear();
+        timings.addSplit("clear");
+        mMapboxMap.addMarkers(latLngs, iconIndices, icons);
+        timings.addSplit("addMarkers(double[], int[], Icon[])");
+        timings.dumpToLog();
+    }
+
     @Override
     public void onNothingSelected(AdapterView<?> parent) {
         // nothing selected, nothing to do!
@@ -189,12 +222,21 @@ public class BulkMarkerActivity extends AppCompatActivity implements AdapterView
         mMapView.onLowMemory();
     }
 
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.menu_bulk_marker, menu);
+        return true;
+    }
+
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         switch (item.getItemId()) {
             case android.R.id.home:
                 onBackPressed();
                 return true;
+            case R.id.action_benchmark_bulk_markers:
+                benchmarkGlMarkers();
+                return true;
             default:
                 return super.onOptionsItemSelected(item);
         }
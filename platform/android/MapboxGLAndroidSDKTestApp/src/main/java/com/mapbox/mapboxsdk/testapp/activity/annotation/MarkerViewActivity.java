@@ -27,9 +27,12 @@ import com.mapbox.mapboxsdk.annotations.MarkerOptions;
 import com.mapbox.mapboxsdk.annotations.MarkerView;
 import com.mapbox.mapboxsdk.annotations.MarkerViewManager;
 import com.mapbox.mapboxsdk.annotations.MarkerViewOptions;
+import com.mapbox.mapboxsdk.camera.CameraPosition;
+import com.mapbox.mapboxsdk.constants.RenderMode;
 import com.mapbox.mapboxsdk.geometry.LatLng;
 import com.mapbox.mapboxsdk.maps.MapView;
 import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.mapboxsdk.maps.MapboxMapOptions;
 import com.mapbox.mapboxsdk.maps.OnMapReadyCallback;
 import com.mapbox.mapboxsdk.testapp.R;
 import com.mapbox.mapboxsdk.testapp.model.annotations.CountryMarkerView;
@@ -41,6 +44,9 @@ import java.util.Random;
 
 public class MarkerViewActivity extends AppCompatActivity {
 
+    // Replaces the map view of the layout with one using the given RenderMode, used by benchmarks
+    public static final String EXTRA_RENDER_MODE = "com.mapbox.mapboxsdk.testapp.EXTRA_RENDER_MODE";
+
     private MapboxMap mMapboxMap;
     private MapView mMapView;
 
@@ -74,6 +80,9 @@ public class MarkerViewActivity extends AppCompatActivity {
 
         final TextView viewCountView = (TextView) findViewById(R.id.countView);
         mMapView = (MapView) findViewById(R.id.mapView);
+        if (getIntent().hasExtra(EXTRA_RENDER_MODE)) {
+            mMapView = replaceMapView(mMapView, getIntent().getIntExtra(EXTRA_RENDER_MODE, RenderMode.ON_DRAW));
+        }
         mMapView.onCreate(savedInstanceState);
         mMapView.getMapAsync(new OnMapReadyCallback() {
             @Override
@@ -361,6 +370,26 @@ public class MarkerViewActivity extends AppCompatActivity {
     }
 
 
+    private MapView replaceMapView(MapView mapView, @RenderMode.Mode int renderMode) {
+        MapView replacement = new MapView(this, new MapboxMapOptions()
+                .camera(new CameraPosition.Builder()
+                        .target(new LatLng(38.907192, -77.036871))
+                        .zoom(12)
+                        .build())
+                .styleUrl(getString(R.string.style_mapbox_streets))
+                .renderMode(renderMode));
+        replacement.setId(R.id.mapView);
+
+        ViewGroup parent = (ViewGroup) mapView.getParent();
+        int index = parent.indexOfChild(mapView);
+        parent.removeViewAt(index);
+        parent.addView(replacement, index, mapView.getLayoutParams());
+
+        // the inflated map view was never created, this only releases its native map
+        mapView.onDestroy();
+        return replacement;
+    }
+
     @Override
     public void onResume() {
         super.onResume();
@@ -0,0 +1,50 @@
+package com.mapbox.mapboxsdk.http;
+
+import org.junit.Test;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HttpClientConfigTest {
+
+    @Test
+    public void testDefaults() {
+        HttpClientConfig config = HttpClientConfig.DEFAULT;
+        assertEquals("maxRequests should match", 64, config.getMaxRequests());
+        assertEquals("maxRequestsPerHost should match", 5, config.getMaxRequestsPerHost());
+        assertTrue("http2 should be enabled", config.isHttp2Enabled());
+    }
+
+    @Test
+    public void testCreateClient() {
+        HttpClientConfig config = new HttpClientConfig.Builder()
+                .maxRequests(32)
+                .maxRequestsPerHost(12)
+                .http2Enabled(false)
+                .timeouts(1000, 2000, 3000)
+                .build();
+        OkHttpClient client = config.createClient();
+        assertEquals("maxRequests should match", 32, client.dispatcher().getMaxRequests());
+        assertEquals("maxRequestsPerHost should match", 12, client.dispatcher().getMaxRequestsPerHost());
+        assertEquals("connectTimeout should match", 1000, client.connectTimeoutMillis());
+        assertEquals("readTimeout should match", 2000, client.readTimeoutMillis());
+        assertEquals("writeTimeout should match", 3000, client.writeTimeoutMillis());
+        assertFalse("http2 should be disabled", client.protocols().contains(Protocol.HTTP_2));
+    }
+
+    @Test
+    public void testBuilderCopy() {
+        HttpClientConfig config = new HttpClientConfig.Builder().maxRequestsPerHost(8).build();
+        HttpClientConfig copy = new HttpClientConfig.Builder(config).build();
+        assertEquals("maxRequestsPerHost should match", 8, copy.getMaxRequestsPerHost());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxRequestsPerHost() {
+        new HttpClientConfig.Builder().maxRequestsPerHost(0);
+    }
+}
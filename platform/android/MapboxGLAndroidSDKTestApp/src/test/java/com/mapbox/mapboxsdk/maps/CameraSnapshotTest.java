@@ -0,0 +1,147 @@
+package com.mapbox.mapboxsdk.maps;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class CameraSnapshotTest {
+
+    private static final double DELTA = 1e-15;
+    private static final double PIXEL_DELTA = 1e-3;
+
+    @Test
+    public void testValues() {
+        CameraSnapshot snapshot = new CameraSnapshot();
+        double[] values = snapshot.getValues();
+        for (int i = 0; i < CameraSnapshot.VALUE_COUNT; i++) {
+            values[i] = i;
+        }
+        snapshot.update();
+
+        assertEquals("latitude should match", 0, snapshot.getLatitude(), DELTA);
+        assertEquals("longitude should match", 1, snapshot.getLongitude(), DELTA);
+        assertEquals("bearing should match", 2, snapshot.getBearing(), DELTA);
+        assertEquals("tilt should match", 3, snapshot.getTilt(), DELTA);
+        assertEquals("zoom should match", 4, snapshot.getZoom(), DELTA);
+        assertEquals("target longitude should match", 1, snapshot.getTarget().getLongitude(), DELTA);
+
+        float[] matrix = new float[16];
+        snapshot.getProjectionMatrix(matrix);
+        assertEquals("first matrix value should match", 5, matrix[0], DELTA);
+        assertEquals("last matrix value should match", 20, matrix[15], DELTA);
+    }
+
+    @Test
+    public void testReuse() {
+        CameraSnapshot snapshot = new CameraSnapshot();
+        snapshot.getValues()[0] = 10;
+        snapshot.update();
+        double[] values = snapshot.getValues();
+        values[0] = 20;
+        snapshot.update();
+
+        assertSame("values should be reused", values, snapshot.getValues());
+        assertEquals("target latitude should match", 20, snapshot.getTarget().getLatitude(), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testProjectionMatrixTooSmall() {
+        new CameraSnapshot().getProjectionMatrix(new float[4]);
+    }
+
+    @Test
+    public void testToScreenLocations() {
+        double[] values = zoomZeroValues(0);
+        float[] pixels = new float[6];
+        CameraSnapshot.toScreenLocations(values, 512, 512, new double[]{0, 0, 0, 90, 0, -90}, pixels, 2);
+
+        assertEquals("center x should match", 512, pixels[0], PIXEL_DELTA);
+        assertEquals("center y should match", 512, pixels[1], PIXEL_DELTA);
+        assertEquals("east x should match", 768, pixels[2], PIXEL_DELTA);
+        assertEquals("east y should match", 512, pixels[3], PIXEL_DELTA);
+        assertEquals("west x should match", 256, pixels[4], PIXEL_DELTA);
+    }
+
+    @Test
+    public void testToScreenLocationsAcrossAntimeridian() {
+        double[] values = zoomZeroValues(170);
+        float[] pixels = new float[2];
+        CameraSnapshot.toScreenLocations(values, 512, 512, new double[]{0, -170}, pixels, 1);
+
+        // -170 is 20 degrees east of the center, not 340 degrees west of it
+        assertEquals("x should match", 370 * 512 / 360.0, pixels[0], PIXEL_DELTA);
+    }
+
+    @Test
+    public void testToScreenLocationsWithoutSize() {
+        float[] pixels = new float[2];
+        CameraSnapshot.toScreenLocations(zoomZeroValues(0), 0, 0, new double[]{0, 0}, pixels, 1);
+
+        assertEquals("x should match", 0, pixels[0], DELTA);
+        assertEquals("y should match", 0, pixels[1], DELTA);
+    }
+
+    @Test
+    public void testFromScreenLocations() {
+        double[] latLngs = new double[4];
+        CameraSnapshot.fromScreenLocations(zoomZeroValues(0), 512, 512, new float[]{512, 512, 768, 512}, latLngs, 2);
+
+        assertEquals("center latitude should match", 0, latLngs[0], PIXEL_DELTA);
+        assertEquals("center longitude should match", 0, latLngs[1], PIXEL_DELTA);
+        assertEquals("east latitude should match", 0, latLngs[2], PIXEL_DELTA);
+        assertEquals("east longitude should match", 90, latLngs[3], PIXEL_DELTA);
+    }
+
+    @Test
+    public void testFromScreenLocationsRoundTrip() {
+        double[] values = zoomZeroValues(0);
+        // Tilted and rotated, as a perspective projection would
+        values[6] = 1 / 1024.0;
+        values[8] = 1 / 4096.0;
+        values[9] = -1 / 1024.0;
+        values[12] = 1 / 4096.0;
+        values[20] = 0.5;
+        double[] latLngs = new double[]{12.5, 34.25, -40, -120};
+        float[] pixels = new float[4];
+        CameraSnapshot.toScreenLocations(values, 512, 512, latLngs, pixels, 1);
+
+        double[] outLatLngs = new double[4];
+        CameraSnapshot.fromScreenLocations(values, 512, 512, pixels, outLatLngs, 1);
+        for (int i = 0; i < latLngs.length; i++) {
+            assertEquals("coordinate " + i + " should match", latLngs[i], outLatLngs[i], PIXEL_DELTA);
+        }
+    }
+
+    @Test
+    public void testFromScreenLocationsWrapsLongitude() {
+        double[] latLngs = new double[2];
+        CameraSnapshot.fromScreenLocations(zoomZeroValues(0), 512, 512, new float[]{512, 256}, latLngs, 1);
+
+        assertEquals("longitude should wrap", -180, latLngs[1], PIXEL_DELTA);
+    }
+
+    @Test
+    public void testFromScreenLocationsWithoutSize() {
+        double[] values = zoomZeroValues(20);
+        values[0] = 10;
+        double[] latLngs = new double[2];
+        CameraSnapshot.fromScreenLocations(values, 0, 0, new float[]{100, 100}, latLngs, 1);
+
+        assertEquals("latitude should match", 10, latLngs[0], DELTA);
+        assertEquals("longitude should match", 20, latLngs[1], DELTA);
+    }
+
+    // A 512 by 512 view showing the whole world at zoom level 0, looking straight down
+    private static double[] zoomZeroValues(double longitude) {
+        double[] values = new double[CameraSnapshot.VALUE_COUNT];
+        values[1] = longitude;
+        values[5] = 1 / 256.0;
+        values[10] = -1 / 256.0;
+        values[15] = 1;
+        values[17] = -1;
+        values[18] = 1;
+        values[20] = 1;
+        return values;
+    }
+}
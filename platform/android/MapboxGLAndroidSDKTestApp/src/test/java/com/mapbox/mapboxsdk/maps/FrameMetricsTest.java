@@ -0,0 +1,28 @@
+package com.mapbox.mapboxsdk.maps;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class FrameMetricsTest {
+
+    private static final double DELTA = 1e-15;
+
+    @Test
+    public void testGet() {
+        float[] values = new float[18];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        FrameMetrics metrics = new FrameMetrics(60, values);
+        assertEquals("frame count should match", 60, metrics.getFrameCount());
+        assertEquals("total render time p50 should match", 0, metrics.get(FrameMetrics.TOTAL_RENDER_TIME, FrameMetrics.P50), DELTA);
+        assertEquals("upload time p95 should match", 7, metrics.get(FrameMetrics.UPLOAD_TIME, FrameMetrics.P95), DELTA);
+        assertEquals("pending tiles p99 should match", 17, metrics.get(FrameMetrics.PENDING_TILES, FrameMetrics.P99), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidValues() {
+        new FrameMetrics(60, new float[3]);
+    }
+}
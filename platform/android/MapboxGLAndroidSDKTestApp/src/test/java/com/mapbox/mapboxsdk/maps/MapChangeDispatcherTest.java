@@ -0,0 +1,81 @@
+package com.mapbox.mapboxsdk.maps;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class MapChangeDispatcherTest {
+
+    @Test
+    public void testMaskOf() {
+        assertEquals("mask should match", MapChangeDispatcher.ALL_CHANGES, MapChangeDispatcher.maskOf());
+        assertEquals("mask should match", (1 << MapView.REGION_DID_CHANGE) | (1 << MapView.DID_FINISH_LOADING_MAP),
+                MapChangeDispatcher.maskOf(MapView.REGION_DID_CHANGE, MapView.DID_FINISH_LOADING_MAP));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaskOfInvalidChange() {
+        MapChangeDispatcher.maskOf(MapChangeDispatcher.CHANGE_COUNT);
+    }
+
+    @Test
+    public void testMask() {
+        MapChangeDispatcher dispatcher = new MapChangeDispatcher();
+        MapView.OnMapChangedListener regionListener = mock(MapView.OnMapChangedListener.class);
+        MapView.OnMapChangedListener frameListener = mock(MapView.OnMapChangedListener.class);
+
+        assertTrue("mask should change", dispatcher.add(regionListener, 1 << MapView.REGION_DID_CHANGE));
+        assertFalse("mask should not change", dispatcher.add(regionListener, 1 << MapView.REGION_DID_CHANGE));
+        assertTrue("mask should change", dispatcher.add(frameListener, 1 << MapView.DID_FINISH_RENDERING_FRAME));
+        assertEquals("mask should match", (1 << MapView.REGION_DID_CHANGE) | (1 << MapView.DID_FINISH_RENDERING_FRAME),
+                dispatcher.getMask());
+
+        assertTrue("mask should change", dispatcher.remove(frameListener));
+        assertFalse("mask should not change", dispatcher.remove(frameListener));
+        assertEquals("mask should match", 1 << MapView.REGION_DID_CHANGE, dispatcher.getMask());
+    }
+
+    @Test
+    public void testDispatch() {
+        MapChangeDispatcher dispatcher = new MapChangeDispatcher();
+        MapView.OnMapChangedListener regionListener = mock(MapView.OnMapChangedListener.class);
+        MapView.OnMapChangedListener allListener = mock(MapView.OnMapChangedListener.class);
+        dispatcher.add(regionListener, MapChangeDispatcher.maskOf(MapView.REGION_DID_CHANGE));
+        dispatcher.add(allListener, MapChangeDispatcher.ALL_CHANGES);
+
+        dispatcher.dispatch((1 << MapView.DID_FINISH_RENDERING_FRAME) | (1 << MapView.REGION_DID_CHANGE));
+
+        verify(regionListener, times(1)).onMapChanged(MapView.REGION_DID_CHANGE);
+        verify(regionListener, never()).onMapChanged(MapView.DID_FINISH_RENDERING_FRAME);
+        InOrder order = inOrder(allListener);
+        order.verify(allListener, times(1)).onMapChanged(MapView.REGION_DID_CHANGE);
+        order.verify(allListener, times(1)).onMapChanged(MapView.DID_FINISH_RENDERING_FRAME);
+    }
+
+    @Test
+    public void testRemoveWhileDispatching() {
+        final MapChangeDispatcher dispatcher = new MapChangeDispatcher();
+        MapView.OnMapChangedListener listener = new MapView.OnMapChangedListener() {
+            @Override
+            public void onMapChanged(@MapView.MapChange int change) {
+                dispatcher.remove(this);
+            }
+        };
+        MapView.OnMapChangedListener otherListener = mock(MapView.OnMapChangedListener.class);
+        dispatcher.add(listener, MapChangeDispatcher.ALL_CHANGES);
+        dispatcher.add(otherListener, MapChangeDispatcher.maskOf(MapView.REGION_DID_CHANGE));
+
+        dispatcher.dispatch(1 << MapView.REGION_DID_CHANGE);
+
+        verify(otherListener, times(1)).onMapChanged(MapView.REGION_DID_CHANGE);
+        assertEquals("mask should match", 1 << MapView.REGION_DID_CHANGE, dispatcher.getMask());
+    }
+}
@@ -5,6 +5,7 @@ import android.view.Gravity;
 
 import com.mapbox.mapboxsdk.camera.CameraPosition;
 import com.mapbox.mapboxsdk.constants.MapboxConstants;
+import com.mapbox.mapboxsdk.constants.RenderMode;
 import com.mapbox.mapboxsdk.constants.Style;
 import com.mapbox.mapboxsdk.geometry.LatLng;
 import com.mapbox.mapboxsdk.utils.MockParcel;
@@ -191,5 +192,26 @@ public class MapboxMapOptionsTest {
         assertEquals("test", new MapboxMapOptions().accessToken("test").getAccessToken());
         assertNotEquals("nottest", new MapboxMapOptions().accessToken("test").getStyle());
     }
-}
 
+    @Test
+    public void testTileCacheBudget() {
+        assertEquals(0, new MapboxMapOptions().getTileCacheBudget());
+        assertEquals(64, new MapboxMapOptions().tileCacheBudget(64).getTileCacheBudget());
+        assertEquals(4, new MapboxMapOptions().tileCacheMemoryBudget(4 * MapboxConstants.TILE_CACHE_ESTIMATED_TILE_BYTES).getTileCacheBudget());
+        assertEquals(1, new MapboxMapOptions().tileCacheMemoryBudget(1).getTileCacheBudget());
+        assertEquals(0, new MapboxMapOptions().tileCacheMemoryBudget(0).getTileCacheBudget());
+    }
+
+    @Test
+    public void testRenderMode() {
+        assertEquals(RenderMode.ON_DRAW, new MapboxMapOptions().getRenderMode());
+        assertEquals(RenderMode.VSYNC, new MapboxMapOptions().renderMode(RenderMode.VSYNC).getRenderMode());
+        assertEquals(RenderMode.RENDER_THREAD, new MapboxMapOptions().renderMode(RenderMode.RENDER_THREAD).getRenderMode());
+        assertNotEquals(new MapboxMapOptions(), new MapboxMapOptions().renderMode(RenderMode.VSYNC));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRenderModeInvalid() {
+        new MapboxMapOptions().renderMode(-1);
+    }
+}
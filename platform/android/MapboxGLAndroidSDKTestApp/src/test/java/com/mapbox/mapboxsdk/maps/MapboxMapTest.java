@@ -5,6 +5,7 @@ import android.graphics.Point;
 import android.graphics.PointF;
 
 import com.mapbox.mapboxsdk.annotations.BaseMarkerOptions;
+import com.mapbox.mapboxsdk.annotations.Icon;
 import com.mapbox.mapboxsdk.annotations.Marker;
 import com.mapbox.mapboxsdk.annotations.MarkerOptions;
 import com.mapbox.mapboxsdk.annotations.Polygon;
@@ -13,6 +14,7 @@ import com.mapbox.mapboxsdk.annotations.Polyline;
 import com.mapbox.mapboxsdk.annotations.PolylineOptions;
 import com.mapbox.mapboxsdk.camera.CameraPosition;
 import com.mapbox.mapboxsdk.camera.CameraUpdateFactory;
+import com.mapbox.mapboxsdk.constants.MapboxConstants;
 import com.mapbox.mapboxsdk.geometry.LatLng;
 import com.mapbox.mapboxsdk.geometry.LatLngBounds;
 
@@ -30,6 +32,8 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.aryEq;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -60,6 +64,12 @@ public class MapboxMapTest {
     @Mock
     MapboxMap.OnFpsChangedListener mFpsChangedListener;
 
+    @Mock
+    MapboxMap.OnCameraFrameListener mCameraFrameListener;
+
+    @Mock
+    MapboxMap.OnFrameMetricsListener mFrameMetricsListener;
+
     @Mock
     MapboxMap.OnInfoWindowClickListener mWindowClickListener;
 
@@ -132,6 +142,81 @@ public class MapboxMapTest {
         assertEquals("MinZoom should match", 0, mMapboxMap.getMinZoom(), 0);
     }
 
+    //
+    // Tile cache
+    //
+
+    @Test
+    public void testTileCacheBudget() {
+        mMapboxMap.setTileCacheBudget(120);
+        verify(mMapView, times(1)).setTileCacheBudget(120);
+    }
+
+    @Test
+    public void testTileCacheMemoryBudget() {
+        mMapboxMap.setTileCacheMemoryBudget(32 * MapboxConstants.TILE_CACHE_ESTIMATED_TILE_BYTES);
+        verify(mMapView, times(1)).setTileCacheBudget(32);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTileCacheBudgetNegative() {
+        mMapboxMap.setTileCacheBudget(-1);
+    }
+
+    @Test
+    public void testTileCacheStatistics() {
+        when(mMapView.getTileCacheStatistics()).thenReturn(new TileCacheStatistics(100, 30, 10));
+        TileCacheStatistics statistics = mMapboxMap.getTileCacheStatistics();
+        assertEquals("size should match", 100, statistics.getSize());
+        assertEquals("hit ratio should match", 0.75, statistics.getHitRatio(), 0);
+    }
+
+    //
+    // Prefetching
+    //
+
+    @Test
+    public void testPrefetch() {
+        CameraPosition position = new CameraPosition.Builder().target(new LatLng(10, 20)).bearing(30).tilt(40).zoom(12).build();
+        mMapboxMap.prefetch(position);
+        verify(mMapView, times(1)).prefetch(aryEq(new double[]{10, 20, 30, 40, 12}), eq(MapboxConstants.PREFETCH_BYTE_BUDGET));
+    }
+
+    @Test
+    public void testPrefetchPartialCameraPosition() {
+        // Like CameraUpdateFactory.newLatLng, bearing, tilt and zoom are left unset
+        CameraPosition position = new CameraPosition.Builder().target(new LatLng(10, 20)).build();
+        mMapboxMap.prefetch(position);
+        verify(mMapView, times(1)).prefetch(aryEq(new double[]{10, 20, Double.NaN, Double.NaN, Double.NaN}),
+                eq(MapboxConstants.PREFETCH_BYTE_BUDGET));
+    }
+
+    @Test
+    public void testPrefetchAlong() {
+        List<LatLng> route = new ArrayList<>();
+        route.add(new LatLng(10, 20));
+        route.add(new LatLng(11, 21));
+        mMapboxMap.setPrefetchByteBudget(1024);
+        mMapboxMap.prefetchAlong(route, 10, 14);
+        verify(mMapView, times(1)).prefetchAlong(aryEq(new double[]{10, 20, 11, 21}), eq(10), eq(14), eq(1024L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPrefetchAlongInvalidZoomRange() {
+        mMapboxMap.prefetchAlong(new ArrayList<LatLng>(), 14, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPrefetchByteBudgetNegative() {
+        mMapboxMap.setPrefetchByteBudget(-1);
+    }
+
+    @Test
+    public void testCancelPrefetch() {
+        mMapboxMap.cancelPrefetch();
+        verify(mMapView, times(1)).cancelPrefetch();
+    }
+
     //
     // TrackingSettings
     //
@@ -226,6 +311,22 @@ public class MapboxMapTest {
         assertEquals("FpsListener should match", mFpsChangedListener, mMapboxMap.getOnFpsChangedListener());
     }
 
+    @Test
+    public void testCameraFrameListener() {
+        mMapboxMap.setOnCameraFrameListener(mCameraFrameListener);
+        assertEquals("CameraFrameListener should match", mCameraFrameListener, mMapboxMap.getOnCameraFrameListener());
+    }
+
+    @Test
+    public void testFrameMetricsListener() {
+        mMapboxMap.setOnFrameMetricsListener(mFrameMetricsListener);
+        assertEquals("FrameMetricsListener should match", mFrameMetricsListener, mMapboxMap.getOnFrameMetricsListener());
+        verify(mMapView, times(1)).setFrameMetricsEnabled(true);
+
+        mMapboxMap.setOnFrameMetricsListener(null);
+        verify(mMapView, times(1)).setFrameMetricsEnabled(false);
+    }
+
     @Test
     public void testInfoWindowClickListener() {
         mMapboxMap.setOnInfoWindowClickListener(mWindowClickListener);
@@ -607,6 +708,32 @@ public class MapboxMapTest {
         assertTrue(mMapboxMap.getMarkers().contains(markerOptions.getMarker()));
     }
 
+    @Test
+    public void testAddMarkersPacked() {
+        double[] latLngs = {10, 20, 30, 40};
+        int[] iconIndices = {0, 0};
+        List<Marker> markers = mMapboxMap.addMarkers(latLngs, iconIndices, new Icon[]{null});
+        assertEquals("Markers size should be 2", 2, mMapboxMap.getMarkers().size());
+        assertEquals("Latitude should match", 30, markers.get(1).getPosition().getLatitude(), 0);
+        assertEquals("Longitude should match", 40, markers.get(1).getPosition().getLongitude(), 0);
+    }
+
+    @Test
+    public void testAddMarkersPackedEmpty() {
+        mMapboxMap.addMarkers(new double[0], new int[0], new Icon[0]);
+        assertEquals("Markers size should be 0", 0, mMapboxMap.getMarkers().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddMarkersPackedCoordinateMismatch() {
+        mMapboxMap.addMarkers(new double[]{10, 20, 30}, new int[]{0, 0}, new Icon[]{null});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddMarkersPackedIconIndexOutOfBounds() {
+        mMapboxMap.addMarkers(new double[]{10, 20}, new int[]{1}, new Icon[]{null});
+    }
+
     @Test
     public void testAddPolygon() {
         PolygonOptions polygonOptions = new PolygonOptions().add(new LatLng());
@@ -7,6 +7,8 @@ import org.mockito.MockitoAnnotations;
 
 import static org.junit.Assert.assertNotNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 public class ProjectionTest {
 
@@ -23,4 +25,40 @@ public class ProjectionTest {
         Projection projection = new Projection(mMapView);
         assertNotNull("projection should not be null", projection);
     }
+
+    @Test
+    public void testToScreenLocations() {
+        Projection projection = new Projection(mMapView);
+        double[] latLngs = {10, 20, 30, 40};
+        float[] pixels = new float[4];
+        projection.toScreenLocations(latLngs, pixels);
+        verify(mMapView, times(1)).toScreenLocations(latLngs, pixels);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testToScreenLocationsOutputTooSmall() {
+        Projection projection = new Projection(mMapView);
+        projection.toScreenLocations(new double[]{10, 20, 30, 40}, new float[2]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testToScreenLocationsOddInput() {
+        Projection projection = new Projection(mMapView);
+        projection.toScreenLocations(new double[]{10, 20, 30}, new float[4]);
+    }
+
+    @Test
+    public void testFromScreenLocations() {
+        Projection projection = new Projection(mMapView);
+        float[] pixels = {10, 20, 30, 40};
+        double[] latLngs = new double[4];
+        projection.fromScreenLocations(pixels, latLngs);
+        verify(mMapView, times(1)).fromScreenLocations(pixels, latLngs);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromScreenLocationsOutputTooSmall() {
+        Projection projection = new Projection(mMapView);
+        projection.fromScreenLocations(new float[]{10, 20, 30, 40}, new double[2]);
+    }
 }
@@ -0,0 +1,52 @@
+package com.mapbox.mapboxsdk.offline;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OfflineDownloadPolicyTest {
+
+    @Test
+    public void testDefaults() {
+        OfflineDownloadPolicy policy = OfflineDownloadPolicy.DEFAULT;
+        assertEquals("maxRegionRequests should match", 0, policy.getMaxRegionRequests());
+        assertEquals("maxRequests should match", 0, policy.getMaxRequests());
+        assertEquals("maxBytesPerSecond should match", 0, policy.getMaxBytesPerSecond());
+        assertFalse("unmeteredOnly should be disabled", policy.isUnmeteredOnly());
+        assertFalse("chargingOnly should be disabled", policy.isChargingOnly());
+        assertFalse("zoomLevelFirst should be disabled", policy.isZoomLevelFirst());
+    }
+
+    @Test
+    public void testBuilder() {
+        OfflineDownloadPolicy policy = new OfflineDownloadPolicy.Builder()
+                .maxRegionRequests(2)
+                .maxRequests(8)
+                .maxBytesPerSecond(512 * 1024)
+                .unmeteredOnly(true)
+                .chargingOnly(true)
+                .zoomLevelFirst(true)
+                .build();
+        assertEquals("maxRegionRequests should match", 2, policy.getMaxRegionRequests());
+        assertEquals("maxRequests should match", 8, policy.getMaxRequests());
+        assertEquals("maxBytesPerSecond should match", 512 * 1024, policy.getMaxBytesPerSecond());
+        assertTrue("unmeteredOnly should be enabled", policy.isUnmeteredOnly());
+        assertTrue("chargingOnly should be enabled", policy.isChargingOnly());
+        assertTrue("zoomLevelFirst should be enabled", policy.isZoomLevelFirst());
+    }
+
+    @Test
+    public void testBuilderCopy() {
+        OfflineDownloadPolicy policy = new OfflineDownloadPolicy.Builder().maxRequests(4).unmeteredOnly(true).build();
+        OfflineDownloadPolicy copy = new OfflineDownloadPolicy.Builder(policy).build();
+        assertEquals("policies should match", policy, copy);
+        assertEquals("hashCode should match", policy.hashCode(), copy.hashCode());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxBytesPerSecond() {
+        new OfflineDownloadPolicy.Builder().maxBytesPerSecond(-1);
+    }
+}
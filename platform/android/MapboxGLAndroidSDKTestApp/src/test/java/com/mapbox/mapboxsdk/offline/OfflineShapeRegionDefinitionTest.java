@@ -0,0 +1,61 @@
+package com.mapbox.mapboxsdk.offline;
+
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.geometry.LatLngBounds;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OfflineShapeRegionDefinitionTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void testPolygon() {
+        List<LatLng> polygon = Arrays.asList(new LatLng(0, 0), new LatLng(0, 40), new LatLng(40, 0));
+        OfflinePolygonRegionDefinition definition =
+                new OfflinePolygonRegionDefinition("mapbox://style", polygon, 0, 10, 2.0f);
+
+        assertEquals("polygon should match", polygon, definition.getPolygon());
+        LatLngBounds bounds = definition.getBounds();
+        assertEquals("north should match", 40, bounds.getLatNorth(), DELTA);
+        assertEquals("south should match", 0, bounds.getLatSouth(), DELTA);
+        assertEquals("east should match", 40, bounds.getLonEast(), DELTA);
+        assertEquals("west should match", 0, bounds.getLonWest(), DELTA);
+        assertEquals("zoom should match", 10, definition.getMaxZoom(), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPolygonTooShort() {
+        new OfflinePolygonRegionDefinition("mapbox://style",
+                Arrays.asList(new LatLng(0, 0), new LatLng(0, 40)), 0, 10, 2.0f);
+    }
+
+    @Test
+    public void testCorridor() {
+        List<LatLng> line = Arrays.asList(new LatLng(0, 0), new LatLng(10, 10));
+        OfflineCorridorRegionDefinition definition =
+                new OfflineCorridorRegionDefinition("mapbox://style", line, 1000, 0, 10, 2.0f);
+
+        assertEquals("line should match", line, definition.getLine());
+        assertEquals("radius should match", 1000, definition.getRadius(), DELTA);
+
+        // The bounds are widened by about 0.009 degrees on all sides
+        LatLngBounds bounds = definition.getBounds();
+        assertTrue("bounds should be widened", bounds.getLatNorth() > 10.008 && bounds.getLatNorth() < 10.01);
+        assertTrue("bounds should be widened", bounds.getLatSouth() < -0.008 && bounds.getLatSouth() > -0.01);
+        assertTrue("bounds should be widened", bounds.getLonWest() < -0.008 && bounds.getLonWest() > -0.01);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCorridorNegativeRadius() {
+        new OfflineCorridorRegionDefinition("mapbox://style",
+                Collections.singletonList(new LatLng(0, 0)), -1, 0, 10, 2.0f);
+    }
+}
@@ -0,0 +1,111 @@
+package com.mapbox.mapboxsdk.telemetry;
+
+import org.junit.Test;
+
+import java.util.Hashtable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TelemetryEventBufferTest {
+
+    @Test
+    public void testDrainInOrder() {
+        TelemetryEventBuffer buffer = new TelemetryEventBuffer(4);
+        add(buffer, 1);
+        add(buffer, 2);
+        add(buffer, 3);
+        assertEquals("size should match", 3, buffer.size());
+
+        TelemetryEvent[] batch = newBatch(4);
+        int count = buffer.drainTo(batch);
+        assertEquals("count should match", 3, count);
+        assertEquals("first event should match", 1, batch[0].createdMillis);
+        assertEquals("last event should match", 3, batch[2].createdMillis);
+        assertTrue("buffer should be empty", buffer.isEmpty());
+    }
+
+    @Test
+    public void testOverflowDropsOldest() {
+        TelemetryEventBuffer buffer = new TelemetryEventBuffer(3);
+        for (int i = 1; i <= 5; i++) {
+            add(buffer, i);
+        }
+        assertEquals("size should match", 3, buffer.size());
+        assertEquals("dropped count should match", 2, buffer.getDroppedCount());
+
+        TelemetryEvent[] batch = newBatch(3);
+        assertEquals("count should match", 3, buffer.drainTo(batch));
+        assertEquals("oldest event should be dropped", 3, batch[0].createdMillis);
+        assertEquals("newest event should match", 5, batch[2].createdMillis);
+    }
+
+    @Test
+    public void testSlotsAreRecycled() {
+        TelemetryEventBuffer buffer = new TelemetryEventBuffer(2);
+        TelemetryEvent[] batch = newBatch(2);
+        add(buffer, 1);
+        buffer.drainTo(batch);
+        TelemetryEvent drained = batch[0];
+
+        add(buffer, 2);
+        add(buffer, 3);
+        buffer.drainTo(batch);
+        assertTrue("drained instance should not be handed out again before the next drain",
+                batch[0] != drained && batch[1] != drained);
+    }
+
+    @Test
+    public void testObtainResetsSlot() {
+        TelemetryEventBuffer buffer = new TelemetryEventBuffer(1);
+        TelemetryEvent event = buffer.obtain();
+        event.gestureId = MapboxEvent.GESTURE_SINGLETAP;
+        event.latitude = 10;
+
+        event = buffer.obtain();
+        assertNull("gesture should be reset", event.gestureId);
+        assertTrue("latitude should be reset", Double.isNaN(event.latitude));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDrainToSmallTarget() {
+        new TelemetryEventBuffer(4).drainTo(newBatch(2));
+    }
+
+    @Test
+    public void testSetFromAttributes() {
+        Hashtable<String, Object> attributes = new Hashtable<>();
+        attributes.put(MapboxEvent.ATTRIBUTE_EVENT, MapboxEvent.TYPE_MAP_CLICK);
+        attributes.put(MapboxEvent.KEY_GESTURE_ID, MapboxEvent.GESTURE_DOUBLETAP);
+        attributes.put(MapboxEvent.KEY_LATITUDE, 12.5);
+        attributes.put(MapboxEvent.KEY_ZOOM, 3.0);
+        attributes.put(MapboxEvent.ATTRIBUTE_BATTERY_LEVEL, 80);
+        attributes.put(MapboxEvent.ATTRIBUTE_WIFI, Boolean.TRUE);
+
+        TelemetryEvent event = new TelemetryEvent();
+        event.set(attributes);
+        assertEquals("event type should match", MapboxEvent.TYPE_MAP_CLICK, event.event);
+        assertEquals("gesture should match", MapboxEvent.GESTURE_DOUBLETAP, event.gestureId);
+        assertEquals("latitude should match", 12.5, event.latitude, 0);
+        assertEquals("zoom should match", 3.0, event.zoom, 0);
+        assertEquals("battery level should match", 80, event.batteryLevel);
+        assertEquals("wifi should match", Boolean.TRUE, event.wifi);
+        assertTrue("longitude should be unset", Double.isNaN(event.longitude));
+        assertNull("carrier should be unset", event.carrier);
+    }
+
+    private static void add(TelemetryEventBuffer buffer, long created) {
+        synchronized (buffer) {
+            buffer.obtain().createdMillis = created;
+        }
+    }
+
+    private static TelemetryEvent[] newBatch(int size) {
+        TelemetryEvent[] batch = new TelemetryEvent[size];
+        for (int i = 0; i < size; i++) {
+            batch[i] = new TelemetryEvent();
+        }
+        return batch;
+    }
+}
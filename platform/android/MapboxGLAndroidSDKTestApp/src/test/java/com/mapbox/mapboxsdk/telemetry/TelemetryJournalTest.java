@@ -0,0 +1,153 @@
+package com.mapbox.mapboxsdk.telemetry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.GzipSource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TelemetryJournalTest {
+
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private TelemetryUploader uploader;
+
+    @Before
+    public void beforeTest() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        uploader = new TelemetryUploader(new OkHttpClient(), server.url("/events/v2").toString(), "test");
+    }
+
+    @After
+    public void afterTest() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void testReplaySendsSegmentsInOrder() throws Exception {
+        TelemetryJournal journal = new TelemetryJournal(folder.getRoot(), 1024, 4096);
+        assertTrue("batch should be stored", journal.append(batch("[1]")));
+        assertTrue("batch should be stored", journal.append(batch("[2]")));
+        assertFalse("journal should not be empty", journal.isEmpty());
+
+        server.enqueue(new MockResponse().setResponseCode(204));
+        server.enqueue(new MockResponse().setResponseCode(204));
+        assertTrue("journal should be drained", journal.replay(uploader));
+        assertTrue("journal should be empty", journal.isEmpty());
+
+        assertEquals("first batch should match", "[1]", decompress(server.takeRequest()));
+        assertEquals("second batch should match", "[2]", decompress(server.takeRequest()));
+    }
+
+    @Test
+    public void testReplayKeepsSegmentsOnServerError() throws Exception {
+        TelemetryJournal journal = new TelemetryJournal(folder.getRoot(), 1024, 4096);
+        journal.append(batch("[1]"));
+        journal.append(batch("[2]"));
+
+        server.enqueue(new MockResponse().setResponseCode(204));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        assertFalse("journal should not be drained", journal.replay(uploader));
+        assertEquals("requests should match", 2, server.getRequestCount());
+
+        server.enqueue(new MockResponse().setResponseCode(204));
+        assertTrue("journal should be drained", journal.replay(uploader));
+        server.takeRequest();
+        server.takeRequest();
+        assertEquals("retried batch should match", "[2]", decompress(server.takeRequest()));
+    }
+
+    @Test
+    public void testReplayDropsRejectedSegments() throws Exception {
+        TelemetryJournal journal = new TelemetryJournal(folder.getRoot(), 1024, 4096);
+        journal.append(batch("[1]"));
+
+        server.enqueue(new MockResponse().setResponseCode(400));
+        assertTrue("rejected batch should not be retried", journal.replay(uploader));
+    }
+
+    @Test
+    public void testJournalSizeDropsOldest() throws Exception {
+        TelemetryJournal journal = new TelemetryJournal(folder.getRoot(), 1024, 1024);
+        for (int i = 0; i < 100; i++) {
+            journal.append(batch("[" + i + "]"));
+        }
+        assertTrue("journal should be bounded", journal.size() <= 1024);
+
+        for (int i = 0; i < 100; i++) {
+            server.enqueue(new MockResponse().setResponseCode(204));
+        }
+        journal.replay(uploader);
+        int count = server.getRequestCount();
+        assertTrue("oldest batches should be dropped", count > 0 && count < 100);
+        assertEquals("oldest kept batch should match", "[" + (100 - count) + "]", decompress(server.takeRequest()));
+    }
+
+    @Test
+    public void testOversizedBatchIsRejected() throws Exception {
+        TelemetryJournal journal = new TelemetryJournal(folder.getRoot(), 16, 1024);
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            builder.append(Math.random()).append(',');
+        }
+        builder.append("0]");
+        assertFalse("batch should be rejected", journal.append(batch(builder.toString())));
+        assertTrue("journal should be empty", journal.isEmpty());
+    }
+
+    @Test
+    public void testJournalResumesSequence() throws Exception {
+        File directory = folder.getRoot();
+        new TelemetryJournal(directory, 1024, 4096).append(batch("[1]"));
+        TelemetryJournal reopened = new TelemetryJournal(directory, 1024, 4096);
+        reopened.append(batch("[2]"));
+
+        server.enqueue(new MockResponse().setResponseCode(204));
+        server.enqueue(new MockResponse().setResponseCode(204));
+        reopened.replay(uploader);
+        assertEquals("first batch should match", "[1]", decompress(server.takeRequest()));
+        assertEquals("second batch should match", "[2]", decompress(server.takeRequest()));
+    }
+
+    @Test
+    public void testUploadCompressesBody() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(204));
+        assertEquals("response code should match", 204, uploader.upload(batch("[3]")));
+        assertEquals("batch should match", "[3]", decompress(server.takeRequest()));
+    }
+
+    private static RequestBody batch(String json) {
+        return RequestBody.create(JSON, json);
+    }
+
+    private static String decompress(RecordedRequest request) throws IOException {
+        assertEquals("content encoding should match", "gzip", request.getHeader("Content-Encoding"));
+        Buffer buffer = new Buffer();
+        GzipSource source = new GzipSource(request.getBody());
+        while (source.read(buffer, 8192) != -1) {
+            // read fully
+        }
+        return buffer.readUtf8();
+    }
+}
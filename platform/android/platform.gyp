@@ -27,6 +27,7 @@
         'src/native_map_view.cpp',
         'src/jni.cpp',
         'src/attach_env.cpp',
+        'src/shared_file_source.cpp',
         'src/log_android.cpp',
         'src/http_file_source.cpp',
         'src/asset_file_source.cpp',
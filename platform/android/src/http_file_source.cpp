@@ -18,28 +18,47 @@ public:
     android::UniqueEnv env { android::AttachEnv() };
 };
 
-class HTTPRequest : public AsyncRequest {
+// Native peer of the Java HTTPRequest. Responses are delivered on OkHttp threads without taking a
+// lock: the Java side tracks delivery with an atomic state and, when the request gets cancelled while
+// a delivery is in flight, takes over ownership of the peer and releases it once the delivery returns.
+class HTTPRequest {
 public:
     static constexpr auto Name() { return "com/mapbox/mapboxsdk/http/HTTPRequest"; };
 
     HTTPRequest(jni::JNIEnv&, const Resource&, FileSource::Callback);
-    ~HTTPRequest();
 
     void onFailure(jni::JNIEnv&, int type, jni::String message);
     void onResponse(jni::JNIEnv&, int code,
                     jni::String etag, jni::String modified,
                     jni::String cacheControl, jni::String expires,
                     jni::Array<jni::jbyte> body);
+    void onResponseBody(jni::JNIEnv&, int code,
+                        jni::String etag, jni::String modified,
+                        jni::String cacheControl, jni::String expires,
+                        jni::jlong body);
+    void release(jni::JNIEnv&);
 
     static jni::Class<HTTPRequest> javaClass;
     jni::UniqueObject<HTTPRequest> javaRequest;
 
+    // Only accessed on the thread owning the request.
+    bool cancelled = false;
+
 private:
+    void handleResponse(jni::JNIEnv&, int code,
+                        jni::String etag, jni::String modified,
+                        jni::String cacheControl, jni::String expires,
+                        std::shared_ptr<const std::string> data);
+
     Resource resource;
     FileSource::Callback callback;
     Response response;
 
     util::AsyncTask async { [this] {
+        if (cancelled) {
+            return;
+        }
+
         // Calling `callback` may result in deleting `this`. Copy data to temporaries first.
         auto callback_ = callback;
         auto response_ = response;
@@ -53,8 +72,54 @@ private:
 
 jni::Class<HTTPRequest> HTTPRequest::javaClass;
 
+class HTTPRequestHandle : public AsyncRequest {
+public:
+    HTTPRequestHandle(std::unique_ptr<HTTPRequest> request_)
+        : request(std::move(request_)) {
+    }
+
+    ~HTTPRequestHandle() override {
+        android::UniqueEnv env = android::AttachEnv();
+
+        static auto cancel = HTTPRequest::javaClass.GetMethod<jni::jboolean ()>(*env, "cancel");
+
+        request->cancelled = true;
+        bool owned = request->javaRequest->Call(*env, cancel);
+        request->javaRequest.reset();
+
+        if (!owned) {
+            // A response is being delivered, the Java request releases the peer when it returns.
+            request.release();
+        }
+    }
+
+private:
+    std::unique_ptr<HTTPRequest> request;
+};
+
 namespace android {
 
+// Response bodies with a known length are allocated natively and exposed to Java as a direct
+// ByteBuffer, so OkHttp can stream a tile straight into the memory that ends up in the Response.
+// Java caps the initial allocation and resizes the body as large bodies arrive.
+
+jni::jlong nativeAllocateBody(JNIEnv*, jni::jclass*, jni::jint length) {
+    return reinterpret_cast<jni::jlong>(new std::string(length, char()));
+}
+
+jni::jobject* nativeGetBodyBuffer(JNIEnv* env, jni::jclass*, jni::jlong body) {
+    std::string* data = reinterpret_cast<std::string*>(body);
+    return reinterpret_cast<jni::jobject*>(env->NewDirectByteBuffer(&(*data)[0], data->size()));
+}
+
+void nativeResizeBody(JNIEnv*, jni::jclass*, jni::jlong body, jni::jint length) {
+    reinterpret_cast<std::string*>(body)->resize(length);
+}
+
+void nativeReleaseBody(JNIEnv*, jni::jclass*, jni::jlong body) {
+    delete reinterpret_cast<std::string*>(body);
+}
+
 void RegisterNativeHTTPRequest(jni::JNIEnv& env) {
     HTTPRequest::javaClass = *jni::Class<HTTPRequest>::Find(env).NewGlobalRef(env).release();
 
@@ -62,7 +127,17 @@ void RegisterNativeHTTPRequest(jni::JNIEnv& env) {
 
     jni::RegisterNativePeer<HTTPRequest>(env, HTTPRequest::javaClass, "mNativePtr",
         METHOD(&HTTPRequest::onFailure, "nativeOnFailure"),
-        METHOD(&HTTPRequest::onResponse, "nativeOnResponse"));
+        METHOD(&HTTPRequest::onResponse, "nativeOnResponse"),
+        METHOD(&HTTPRequest::onResponseBody, "nativeOnResponseBody"),
+        METHOD(&HTTPRequest::release, "nativeRelease"));
+
+    #define MAKE_NATIVE_METHOD(name, sig) jni::MakeNativeMethod<decltype(name), name>( #name, sig )
+
+    jni::RegisterNatives(env, *HTTPRequest::javaClass,
+        MAKE_NATIVE_METHOD(nativeAllocateBody, "(I)J"),
+        MAKE_NATIVE_METHOD(nativeGetBodyBuffer, "(J)Ljava/nio/ByteBuffer;"),
+        MAKE_NATIVE_METHOD(nativeResizeBody, "(JI)V"),
+        MAKE_NATIVE_METHOD(nativeReleaseBody, "(J)V"));
 }
 
 } // namespace android
@@ -92,17 +167,32 @@ HTTPRequest::HTTPRequest(jni::JNIEnv& env, const Resource& resource_, FileSource
         jni::Make<jni::String>(env, modifiedStr)).NewGlobalRef(env);
 }
 
-HTTPRequest::~HTTPRequest() {
-    android::UniqueEnv env = android::AttachEnv();
-
-    static auto cancel = javaClass.GetMethod<void ()>(*env, "cancel");
-
-    javaRequest->Call(*env, cancel);
+void HTTPRequest::release(jni::JNIEnv&) {
+    delete this;
 }
 
 void HTTPRequest::onResponse(jni::JNIEnv& env, int code,
                              jni::String etag, jni::String modified, jni::String cacheControl,
                              jni::String expires, jni::Array<jni::jbyte> body) {
+    std::shared_ptr<std::string> data;
+    if (code == 200 && body) {
+        data = std::make_shared<std::string>(body.Length(env), char());
+        jni::GetArrayRegion(env, *body, 0, data->size(), reinterpret_cast<jbyte*>(&(*data)[0]));
+    }
+    handleResponse(env, code, etag, modified, cacheControl, expires, data);
+}
+
+void HTTPRequest::onResponseBody(jni::JNIEnv& env, int code,
+                                 jni::String etag, jni::String modified, jni::String cacheControl,
+                                 jni::String expires, jni::jlong body) {
+    // Takes ownership of the body allocated by nativeAllocateBody.
+    std::shared_ptr<std::string> data(reinterpret_cast<std::string*>(body));
+    handleResponse(env, code, etag, modified, cacheControl, expires, data);
+}
+
+void HTTPRequest::handleResponse(jni::JNIEnv& env, int code,
+                                 jni::String etag, jni::String modified, jni::String cacheControl,
+                                 jni::String expires, std::shared_ptr<const std::string> data) {
     using Error = Response::Error;
 
     if (etag) {
@@ -122,9 +212,7 @@ void HTTPRequest::onResponse(jni::JNIEnv& env, int code,
     }
 
     if (code == 200) {
-        if (body) {
-            auto data = std::make_shared<std::string>(body.Length(env), char());
-            jni::GetArrayRegion(env, *body, 0, data->size(), reinterpret_cast<jbyte*>(&(*data)[0]));
+        if (data) {
             response.data = data;
         } else {
             response.data = std::make_shared<std::string>();
@@ -170,7 +258,7 @@ HTTPFileSource::HTTPFileSource()
 HTTPFileSource::~HTTPFileSource() = default;
 
 std::unique_ptr<AsyncRequest> HTTPFileSource::request(const Resource& resource, Callback callback) {
-    return std::make_unique<HTTPRequest>(*impl->env, resource, callback);
+    return std::make_unique<HTTPRequestHandle>(std::make_unique<HTTPRequest>(*impl->env, resource, callback));
 }
 
 uint32_t HTTPFileSource::maximumConcurrentRequests() {
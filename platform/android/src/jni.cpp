@@ -1,6 +1,8 @@
 #include <cstdint>
 #include <cinttypes>
 #include <cassert>
+#include <cmath>
+#include <algorithm>
 #include <string>
 #include <array>
 #include <vector>
@@ -10,6 +12,7 @@
 
 #include "jni.hpp"
 #include "native_map_view.hpp"
+#include "shared_file_source.hpp"
 
 #include <mbgl/map/map.hpp>
 #include <mbgl/map/camera.hpp>
@@ -40,8 +43,9 @@ std::string apkPath;
 std::string androidRelease;
 
 jni::jmethodID* onInvalidateId = nullptr;
-jni::jmethodID* onMapChangedId = nullptr;
+jni::jmethodID* onMapChangesId = nullptr;
 jni::jmethodID* onFpsChangedId = nullptr;
+jni::jmethodID* onFrameMetricsId = nullptr;
 
 jni::jclass* latLngClass = nullptr;
 jni::jmethodID* latLngConstructorId = nullptr;
@@ -128,9 +132,47 @@ jni::jfieldID* offlineRegionDefinitionMinZoomId = nullptr;
 jni::jfieldID* offlineRegionDefinitionMaxZoomId = nullptr;
 jni::jfieldID* offlineRegionDefinitionPixelRatioId = nullptr;
 
+jni::jclass* offlinePolygonRegionDefinitionClass = nullptr;
+jni::jmethodID* offlinePolygonRegionDefinitionConstructorId = nullptr;
+jni::jfieldID* offlinePolygonRegionDefinitionCoordinatesId = nullptr;
+
+jni::jclass* offlineCorridorRegionDefinitionClass = nullptr;
+jni::jmethodID* offlineCorridorRegionDefinitionConstructorId = nullptr;
+jni::jfieldID* offlineCorridorRegionDefinitionCoordinatesId = nullptr;
+jni::jfieldID* offlineCorridorRegionDefinitionRadiusId = nullptr;
+
 jni::jmethodID* createOnCreateMethodId = nullptr;
 jni::jmethodID* createOnErrorMethodId = nullptr;
 
+jni::jmethodID* estimateOnEstimateMethodId = nullptr;
+jni::jmethodID* estimateOnErrorMethodId = nullptr;
+
+jni::jclass* offlineRegionEstimateClass = nullptr;
+jni::jmethodID* offlineRegionEstimateConstructorId = nullptr;
+jni::jfieldID* offlineRegionEstimateTileCountsId = nullptr;
+jni::jfieldID* offlineRegionEstimateTileCountId = nullptr;
+jni::jfieldID* offlineRegionEstimateMapboxTileCountId = nullptr;
+jni::jfieldID* offlineRegionEstimateResourceCountId = nullptr;
+jni::jfieldID* offlineRegionEstimatePreciseId = nullptr;
+jni::jfieldID* offlineRegionEstimateSizeId = nullptr;
+
+jni::jmethodID* cacheStatisticsOnStatisticsMethodId = nullptr;
+jni::jmethodID* cacheStatisticsOnErrorMethodId = nullptr;
+
+jni::jclass* offlineCacheStatisticsClass = nullptr;
+jni::jmethodID* offlineCacheStatisticsConstructorId = nullptr;
+jni::jfieldID* offlineCacheStatisticsMaximumSizeId = nullptr;
+jni::jfieldID* offlineCacheStatisticsDatabaseSizeId = nullptr;
+jni::jfieldID* offlineCacheStatisticsSizeId = nullptr;
+jni::jfieldID* offlineCacheStatisticsResourceCountId = nullptr;
+jni::jfieldID* offlineCacheStatisticsTileCountId = nullptr;
+jni::jfieldID* offlineCacheStatisticsHitsId = nullptr;
+jni::jfieldID* offlineCacheStatisticsMissesId = nullptr;
+jni::jfieldID* offlineCacheStatisticsEvictedCountId = nullptr;
+
+jni::jmethodID* importOnImportMethodId = nullptr;
+jni::jmethodID* importOnErrorMethodId = nullptr;
+
 jni::jmethodID* offlineRegionObserveronStatusChangedId = nullptr;
 jni::jmethodID* offlineRegionObserveronErrorId = nullptr;
 jni::jmethodID* offlineRegionObserveronLimitId = nullptr;
@@ -144,6 +186,11 @@ jni::jfieldID* offlineRegionStatusCompletedTileCountId = nullptr;
 jni::jfieldID* offlineRegionStatusCompletedTileSizeId = nullptr;
 jni::jfieldID* offlineRegionStatusRequiredResourceCountId = nullptr;
 jni::jfieldID* offlineRegionStatusRequiredResourceCountIsPreciseId = nullptr;
+jni::jfieldID* offlineRegionStatusDownloadedSizeId = nullptr;
+jni::jfieldID* offlineRegionStatusDownloadRateId = nullptr;
+jni::jfieldID* offlineRegionStatusActiveRequestCountId = nullptr;
+jni::jfieldID* offlineRegionStatusUnchangedResourceCountId = nullptr;
+jni::jfieldID* offlineRegionStatusUnchangedResourceSizeId = nullptr;
 
 jni::jclass* offlineRegionErrorClass = nullptr;
 jni::jmethodID* offlineRegionErrorConstructorId = nullptr;
@@ -156,6 +203,9 @@ jni::jmethodID* offlineRegionStatusOnErrorId = nullptr;
 jni::jmethodID* offlineRegionDeleteOnDeleteId = nullptr;
 jni::jmethodID* offlineRegionDeleteOnErrorId = nullptr;
 
+jni::jmethodID* offlineRegionExportOnExportId = nullptr;
+jni::jmethodID* offlineRegionExportOnErrorId = nullptr;
+
 // Offline declarations end
 
 bool attach_jni_thread(JavaVM* vm, JNIEnv** env, std::string threadName) {
@@ -235,10 +285,11 @@ jni::jobject* std_vector_string_to_jobject(JNIEnv *env, std::vector<std::string>
     return jlist;
 }
 
-jni::jarray<jlong>* std_vector_uint_to_jobject(JNIEnv *env, std::vector<uint32_t> vector) {
+jni::jarray<jlong>* std_vector_uint_to_jobject(JNIEnv *env, const std::vector<uint32_t>& vector) {
     jni::jarray<jlong>& jarray = jni::NewArray<jlong>(*env, vector.size());
 
     std::vector<jlong> v;
+    v.reserve(vector.size());
     for (const uint32_t& id : vector) {
         v.push_back(id);
     }
@@ -285,6 +336,108 @@ static jni::jobject* latlngbounds_from_native(JNIEnv *env, mbgl::LatLngBounds bo
     return jbounds;
 }
 
+static std::vector<mbgl::LatLng> latlngs_from_java(JNIEnv *env, jni::jarray<jdouble>* jcoordinates) {
+    std::size_t len = jni::GetArrayLength(*env, *jcoordinates) / 2;
+    std::vector<jdouble> coordinates = jni::GetArrayRegion(*env, *jcoordinates, 0, len * 2);
+
+    std::vector<mbgl::LatLng> latLngs;
+    latLngs.reserve(len);
+    for (std::size_t i = 0; i < len; i++) {
+        latLngs.emplace_back(coordinates[i * 2], coordinates[i * 2 + 1]);
+    }
+    return latLngs;
+}
+
+static jni::jarray<jdouble>* latlngs_from_native(JNIEnv *env, const std::vector<mbgl::LatLng>& latLngs) {
+    std::vector<jdouble> coordinates;
+    coordinates.reserve(latLngs.size() * 2);
+    for (const auto& latLng : latLngs) {
+        coordinates.push_back(latLng.latitude);
+        coordinates.push_back(latLng.longitude);
+    }
+
+    jni::jarray<jdouble>& jcoordinates = jni::NewArray<jdouble>(*env, coordinates.size());
+    jni::SetArrayRegion(*env, jcoordinates, 0, coordinates);
+    return &jcoordinates;
+}
+
+static mbgl::OfflineRegionDefinition offline_definition_from_java(JNIEnv *env, jni::jobject* definition_) {
+    // Fields shared by all definitions
+    jni::jstring* jStyleURL = reinterpret_cast<jni::jstring*>(jni::GetField<jni::jobject*>(*env, definition_, *offlineRegionDefinitionStyleURLId));
+    std::string styleURL = std_string_from_jstring(env, jStyleURL);
+    jdouble jMinZoom = jni::GetField<jdouble>(*env, definition_, *offlineRegionDefinitionMinZoomId);
+    jdouble jMaxZoom = jni::GetField<jdouble>(*env, definition_, *offlineRegionDefinitionMaxZoomId);
+    jfloat jPixelRatio = jni::GetField<jfloat>(*env, definition_, *offlineRegionDefinitionPixelRatioId);
+
+    // Shaped definitions, the bounds are derived from the shape
+    if (jni::IsInstanceOf(*env, definition_, *offlinePolygonRegionDefinitionClass)) {
+        jni::jarray<jdouble>* jCoordinates = reinterpret_cast<jni::jarray<jdouble>*>(
+            jni::GetField<jni::jobject*>(*env, definition_, *offlinePolygonRegionDefinitionCoordinatesId));
+        mbgl::OfflineRegionShape shape { mbgl::OfflineRegionShape::Type::Polygon, latlngs_from_java(env, jCoordinates) };
+        return { styleURL, std::move(shape), jMinZoom, jMaxZoom, jPixelRatio };
+    }
+
+    if (jni::IsInstanceOf(*env, definition_, *offlineCorridorRegionDefinitionClass)) {
+        jni::jarray<jdouble>* jCoordinates = reinterpret_cast<jni::jarray<jdouble>*>(
+            jni::GetField<jni::jobject*>(*env, definition_, *offlineCorridorRegionDefinitionCoordinatesId));
+        jdouble jRadius = jni::GetField<jdouble>(*env, definition_, *offlineCorridorRegionDefinitionRadiusId);
+        mbgl::OfflineRegionShape shape { mbgl::OfflineRegionShape::Type::Corridor, latlngs_from_java(env, jCoordinates), jRadius };
+        return { styleURL, std::move(shape), jMinZoom, jMaxZoom, jPixelRatio };
+    }
+
+    jni::jobject* jBounds = jni::GetField<jni::jobject*>(*env, definition_, *offlineRegionDefinitionBoundsId);
+    return { styleURL, latlngbounds_from_java(env, jBounds), jMinZoom, jMaxZoom, jPixelRatio };
+}
+
+static jni::jobject* offline_definition_from_native(JNIEnv *env, const mbgl::OfflineRegionDefinition& definition) {
+    jni::jobject* jdefinition;
+    if (!definition.shape) {
+        jdefinition = &jni::NewObject(*env, *offlineRegionDefinitionClass, *offlineRegionDefinitionConstructorId);
+    } else if (definition.shape->type == mbgl::OfflineRegionShape::Type::Polygon) {
+        jdefinition = &jni::NewObject(*env, *offlinePolygonRegionDefinitionClass, *offlinePolygonRegionDefinitionConstructorId);
+        jni::SetField<jni::jobject*>(*env, jdefinition, *offlinePolygonRegionDefinitionCoordinatesId, latlngs_from_native(env, definition.shape->coordinates));
+    } else {
+        jdefinition = &jni::NewObject(*env, *offlineCorridorRegionDefinitionClass, *offlineCorridorRegionDefinitionConstructorId);
+        jni::SetField<jni::jobject*>(*env, jdefinition, *offlineCorridorRegionDefinitionCoordinatesId, latlngs_from_native(env, definition.shape->coordinates));
+        jni::SetField<jdouble>(*env, jdefinition, *offlineCorridorRegionDefinitionRadiusId, definition.shape->radius);
+    }
+
+    jni::SetField<jni::jobject*>(*env, jdefinition, *offlineRegionDefinitionStyleURLId, std_string_to_jstring(env, definition.styleURL));
+    jni::SetField<jni::jobject*>(*env, jdefinition, *offlineRegionDefinitionBoundsId, latlngbounds_from_native(env, definition.bounds));
+    jni::SetField<jdouble>(*env, jdefinition, *offlineRegionDefinitionMinZoomId, definition.minZoom);
+    jni::SetField<jdouble>(*env, jdefinition, *offlineRegionDefinitionMaxZoomId, definition.maxZoom);
+    jni::SetField<jfloat>(*env, jdefinition, *offlineRegionDefinitionPixelRatioId, definition.pixelRatio);
+    return jdefinition;
+}
+
+static jni::jarray<jni::jobject>* offline_regions_from_native(JNIEnv *env, jni::jobject* jmanager, std::vector<mbgl::OfflineRegion>& regions) {
+    std::size_t index = 0;
+    jni::jarray<jni::jobject>* jregions = &jni::NewObjectArray(*env, regions.size(), *offlineRegionClass, NULL);
+    for (auto& region : regions) {
+        // Build the Region object
+        jni::jobject* jregion = &jni::NewObject(*env, *offlineRegionClass, *offlineRegionConstructorId);
+        jni::SetField<jni::jobject*>(*env, jregion, *offlineRegionOfflineManagerId, jmanager);
+        jni::SetField<jlong>(*env, jregion, *offlineRegionIdId, region.getID());
+
+        // Definition object
+        jni::jobject* jdefinition = offline_definition_from_native(env, region.getDefinition());
+        jni::SetField<jni::jobject*>(*env, jregion, *offlineRegionDefinitionId, jdefinition);
+
+        // Metadata object
+        jni::jarray<jbyte>* metadata = metadata_from_native(env, region.getMetadata());
+        jni::SetField<jni::jobject*>(*env, jregion, *offlineRegionMetadataId, metadata);
+
+        // Moves the region on the stack into a heap-allocated one
+        jni::SetField<jlong>(*env, jregion, *offlineRegionPtrId,
+            reinterpret_cast<jlong>(new mbgl::OfflineRegion(std::move(region))));
+
+        jni::SetObjectArrayElement(*env, *jregions, index, jregion);
+        index++;
+    }
+
+    return jregions;
+}
+
 }
 }
 
@@ -522,6 +675,26 @@ jdoubleArray nativeGetCameraValues(JNIEnv *env, jni::jobject* obj, jlong nativeM
     return output;
 }
 
+void nativeGetCameraSnapshot(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jni::jarray<jdouble>* values) {
+    mbgl::Log::Debug(mbgl::Event::JNI, "nativeGetCameraSnapshot");
+    assert(nativeMapViewPtr != 0);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+    mbgl::Map& map = nativeMapView->getMap();
+
+    // Written into the caller's array, so delivering a camera every frame allocates nothing
+    assert(jni::GetArrayLength(*env, *values) == 21);
+    mbgl::LatLng latLng = map.getLatLng(nativeMapView->getInsets());
+    const std::array<double, 16> matrix = map.getProjectionMatrix();
+    jdouble buf[21];
+    buf[0] = latLng.latitude;
+    buf[1] = latLng.longitude;
+    buf[2] = map.getBearing();
+    buf[3] = map.getPitch();
+    buf[4] = map.getZoom();
+    std::copy(matrix.begin(), matrix.end(), buf + 5);
+    jni::SetArrayRegion(*env, *values, 0, 21, buf);
+}
+
 void nativeResetPosition(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr) {
     mbgl::Log::Debug(mbgl::Event::JNI, "nativeResetPosition");
     assert(nativeMapViewPtr != 0);
@@ -706,6 +879,47 @@ jni::jarray<jlong>* nativeAddMarkers(JNIEnv *env, jni::jobject* obj, jlong nativ
     return std_vector_uint_to_jobject(env, ids);
 }
 
+jni::jarray<jlong>* nativeAddMarkersPacked(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jni::jarray<jdouble>* jlatLngs, jni::jarray<jint>* jiconIndices, jni::jarray<jni::jobject>* jiconIds) {
+    mbgl::Log::Debug(mbgl::Event::JNI, "nativeAddMarkersPacked");
+    assert(nativeMapViewPtr != 0);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+
+    NullCheck(*env, jlatLngs);
+    NullCheck(*env, jiconIndices);
+    NullCheck(*env, jiconIds);
+
+    // Resolve the icon table once, markers only carry an index into it
+    std::size_t iconCount = jni::GetArrayLength(*env, *jiconIds);
+    std::vector<std::string> iconIds;
+    iconIds.reserve(iconCount);
+    for (std::size_t i = 0; i < iconCount; i++) {
+        jni::jstring* jid = reinterpret_cast<jni::jstring*>(jni::GetObjectArrayElement(*env, *jiconIds, i));
+        iconIds.push_back(std_string_from_jstring(env, jid));
+        jni::DeleteLocalRef(*env, jid);
+    }
+
+    std::size_t len = jni::GetArrayLength(*env, *jiconIndices);
+    assert(jni::GetArrayLength(*env, *jlatLngs) == len * 2);
+
+    auto latLngElements = jni::GetArrayElements(*env, *jlatLngs);
+    jdouble* latLngs = std::get<0>(latLngElements).get();
+    auto iconIndexElements = jni::GetArrayElements(*env, *jiconIndices);
+    jint* iconIndices = std::get<0>(iconIndexElements).get();
+
+    std::vector<mbgl::AnnotationID> ids;
+    ids.reserve(len);
+
+    mbgl::Map& map = nativeMapView->getMap();
+    for (std::size_t i = 0; i < len; i++) {
+        ids.push_back(map.addAnnotation(mbgl::SymbolAnnotation {
+            mbgl::Point<double>(latLngs[i * 2 + 1], latLngs[i * 2]),
+            iconIds[iconIndices[i]]
+        }));
+    }
+
+    return std_vector_uint_to_jobject(env, ids);
+}
+
 static mbgl::Color toColor(jint color) {
     float r = (color >> 16) & 0xFF;
     float g = (color >> 8) & 0xFF;
@@ -902,6 +1116,103 @@ void nativeOnLowMemory(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr) {
     nativeMapView->getMap().onLowMemory();
 }
 
+void nativeSetMapChangeMask(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jint mask) {
+    mbgl::Log::Debug(mbgl::Event::JNI, "nativeSetMapChangeMask");
+    assert(nativeMapViewPtr != 0);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+    nativeMapView->setMapChangeMask(mask);
+}
+
+void nativeSetTileCacheBudget(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jlong tiles) {
+    mbgl::Log::Debug(mbgl::Event::JNI, "nativeSetTileCacheBudget");
+    assert(nativeMapViewPtr != 0);
+    assert(tiles >= 0);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+    nativeMapView->setTileCacheBudget(tiles);
+}
+
+void nativeUpdateTileCacheSize(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr) {
+    mbgl::Log::Debug(mbgl::Event::JNI, "nativeUpdateTileCacheSize");
+    assert(nativeMapViewPtr != 0);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+    nativeMapView->updateTileCacheSize();
+}
+
+void nativeTrimTileCache(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jfloat fraction) {
+    mbgl::Log::Debug(mbgl::Event::JNI, "nativeTrimTileCache");
+    assert(nativeMapViewPtr != 0);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+    nativeMapView->trimTileCache(fraction);
+}
+
+jni::jarray<jlong>* nativeGetTileCacheStatistics(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr) {
+    mbgl::Log::Debug(mbgl::Event::JNI, "nativeGetTileCacheStatistics");
+    assert(nativeMapViewPtr != 0);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+
+    mbgl::Map::TileCacheStatistics statistics = nativeMapView->getMap().getSourceTileCacheStatistics();
+    jlong values[] = {
+        static_cast<jlong>(nativeMapView->getMap().getSourceTileCacheSize()),
+        static_cast<jlong>(statistics.hits),
+        static_cast<jlong>(statistics.misses)
+    };
+
+    jni::jarray<jlong>& jarray = jni::NewArray<jlong>(*env, 3);
+    jni::SetArrayRegion(*env, jarray, 0, 3, values);
+    return &jarray;
+}
+
+void nativePrefetch(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jni::jarray<jdouble>* jcameras, jlong byteBudget) {
+    mbgl::Log::Debug(mbgl::Event::JNI, "nativePrefetch");
+    assert(nativeMapViewPtr != 0);
+    assert(byteBudget >= 0);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+
+    // Packed as latitude, longitude, bearing, tilt and zoom per camera, see nativeGetCameraValues.
+    // Unset values are NaN and keep their current value.
+    std::size_t count = jni::GetArrayLength(*env, *jcameras) / 5;
+    std::vector<jdouble> values = jni::GetArrayRegion(*env, *jcameras, 0, count * 5);
+
+    std::vector<mbgl::CameraOptions> cameras;
+    cameras.reserve(count);
+    for (std::size_t i = 0; i < count; i++) {
+        mbgl::CameraOptions options;
+        if (!std::isnan(values[i * 5]) && !std::isnan(values[i * 5 + 1])) {
+            options.center = mbgl::LatLng(values[i * 5], values[i * 5 + 1]);
+        }
+        options.padding = nativeMapView->getInsets();
+        if (!std::isnan(values[i * 5 + 2])) {
+            options.angle = values[i * 5 + 2];
+        }
+        if (!std::isnan(values[i * 5 + 3])) {
+            options.pitch = values[i * 5 + 3];
+        }
+        if (!std::isnan(values[i * 5 + 4])) {
+            options.zoom = values[i * 5 + 4];
+        }
+        cameras.push_back(options);
+    }
+
+    nativeMapView->getMap().prefetch(cameras, byteBudget);
+}
+
+void nativePrefetchAlong(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jni::jarray<jdouble>* jcoordinates, jint minZoom, jint maxZoom, jlong byteBudget) {
+    mbgl::Log::Debug(mbgl::Event::JNI, "nativePrefetchAlong");
+    assert(nativeMapViewPtr != 0);
+    assert(minZoom >= 0 && minZoom <= maxZoom);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+
+    nativeMapView->getMap().prefetchAlong(latlngs_from_java(env, jcoordinates),
+        mbgl::Range<uint8_t>(minZoom, maxZoom), byteBudget);
+}
+
+void nativeCancelPrefetch(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr) {
+    mbgl::Log::Debug(mbgl::Event::JNI, "nativeCancelPrefetch");
+    assert(nativeMapViewPtr != 0);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+    nativeMapView->getMap().cancelPrefetch();
+}
+
 void nativeSetDebug(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jboolean debug) {
     mbgl::Log::Debug(mbgl::Event::JNI, "nativeSetDebug");
     assert(nativeMapViewPtr != 0);
@@ -921,6 +1232,13 @@ void nativeToggleDebug(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr) {
     nativeMapView->enableFps(nativeMapView->getMap().getDebug() != DebugOptions::NoDebug);
 }
 
+void nativeEnableFrameMetrics(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jboolean enable) {
+    mbgl::Log::Debug(mbgl::Event::JNI, "nativeEnableFrameMetrics");
+    assert(nativeMapViewPtr != 0);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+    nativeMapView->enableFrameMetrics(enable);
+}
+
 jboolean nativeGetDebug(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr) {
     mbgl::Log::Debug(mbgl::Event::JNI, "nativeGetDebug");
     assert(nativeMapViewPtr != 0);
@@ -998,6 +1316,50 @@ jni::jobject* nativeLatLngForPixel(JNIEnv *env, jni::jobject* obj, jlong nativeM
     return &jni::NewObject(*env, *latLngClass, *latLngConstructorId, latLng.latitude, latLng.longitude);
 }
 
+void nativePixelsForLatLngs(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jni::jarray<jdouble>* jlatLngs, jni::jarray<jfloat>* jpixels, jdouble pixelRatio) {
+    mbgl::Log::Debug(mbgl::Event::JNI, "nativePixelsForLatLngs");
+    assert(nativeMapViewPtr != 0);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+
+    NullCheck(*env, jlatLngs);
+    NullCheck(*env, jpixels);
+
+    std::size_t len = jni::GetArrayLength(*env, *jlatLngs) / 2;
+    std::vector<jdouble> latLngs = jni::GetArrayRegion(*env, *jlatLngs, 0, len * 2);
+    std::vector<jfloat> pixels(len * 2);
+
+    mbgl::Map& map = nativeMapView->getMap();
+    for (std::size_t i = 0; i < len; i++) {
+        mbgl::ScreenCoordinate pixel = map.pixelForLatLng(mbgl::LatLng(latLngs[i * 2], latLngs[i * 2 + 1]));
+        pixels[i * 2] = static_cast<jfloat>(pixel.x * pixelRatio);
+        pixels[i * 2 + 1] = static_cast<jfloat>(pixel.y * pixelRatio);
+    }
+
+    jni::SetArrayRegion(*env, *jpixels, 0, pixels);
+}
+
+void nativeLatLngsForPixels(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jni::jarray<jfloat>* jpixels, jni::jarray<jdouble>* jlatLngs, jdouble pixelRatio) {
+    mbgl::Log::Debug(mbgl::Event::JNI, "nativeLatLngsForPixels");
+    assert(nativeMapViewPtr != 0);
+    NativeMapView *nativeMapView = reinterpret_cast<NativeMapView *>(nativeMapViewPtr);
+
+    NullCheck(*env, jpixels);
+    NullCheck(*env, jlatLngs);
+
+    std::size_t len = jni::GetArrayLength(*env, *jpixels) / 2;
+    std::vector<jfloat> pixels = jni::GetArrayRegion(*env, *jpixels, 0, len * 2);
+    std::vector<jdouble> latLngs(len * 2);
+
+    mbgl::Map& map = nativeMapView->getMap();
+    for (std::size_t i = 0; i < len; i++) {
+        mbgl::LatLng latLng = map.latLngForPixel(mbgl::ScreenCoordinate(pixels[i * 2] / pixelRatio, pixels[i * 2 + 1] / pixelRatio));
+        latLngs[i * 2] = latLng.latitude;
+        latLngs[i * 2 + 1] = latLng.longitude;
+    }
+
+    jni::SetArrayRegion(*env, *jlatLngs, 0, latLngs);
+}
+
 jdouble nativeGetTopOffsetPixelsForAnnotationSymbol(JNIEnv *env, jni::jobject* obj, jlong nativeMapViewPtr, jni::jstring* symbolName) {
     mbgl::Log::Debug(mbgl::Event::JNI, "nativeGetTopOffsetPixelsForAnnotationSymbol");
     assert(nativeMapViewPtr != 0);
@@ -1115,12 +1477,15 @@ void nativeRemoveCustomLayer(JNIEnv *env, jni::jobject* obj, jlong nativeMapView
 
 // Offline calls begin
 
+// The offline manager is a process-wide singleton, it keeps its reference for the lifetime of the process
+std::shared_ptr<mbgl::DefaultFileSource> offlineFileSource;
+
 jlong createDefaultFileSource(JNIEnv *env, jni::jobject* obj, jni::jstring* cachePath_, jni::jstring* assetRoot_, jlong maximumCacheSize) {
     mbgl::Log::Debug(mbgl::Event::JNI, "createDefaultFileSource");
     std::string cachePath = std_string_from_jstring(env, cachePath_);
     std::string assetRoot = std_string_from_jstring(env, assetRoot_);
-    mbgl::DefaultFileSource *defaultFileSource = new mbgl::DefaultFileSource(cachePath, assetRoot, maximumCacheSize);
-    jlong defaultFileSourcePtr = reinterpret_cast<jlong>(defaultFileSource);
+    offlineFileSource = mbgl::android::obtainDefaultFileSource(cachePath, assetRoot, maximumCacheSize);
+    jlong defaultFileSourcePtr = reinterpret_cast<jlong>(offlineFileSource.get());
     return defaultFileSourcePtr;
 }
 
@@ -1166,37 +1531,7 @@ void listOfflineRegions(JNIEnv *env, jni::jobject* obj, jlong defaultFileSourceP
             std::string message = mbgl::util::toString(error);
             jni::CallMethod<void>(*env2, listCallback, *listOnErrorMethodId, std_string_to_jstring(env2, message));
         } else if (regions) {
-            // Build jni::jarray<jni::jobject>*
-            std::size_t index = 0;
-            jni::jarray<jni::jobject>* jregions = &jni::NewObjectArray(*env2, regions->size(), *offlineRegionClass, NULL);
-            for (auto& region : *regions) {
-                // Build the Region object
-                jni::jobject* jregion = &jni::NewObject(*env2, *offlineRegionClass, *offlineRegionConstructorId);
-                jni::SetField<jni::jobject*>(*env2, jregion, *offlineRegionOfflineManagerId, obj);
-                jni::SetField<jlong>(*env2, jregion, *offlineRegionIdId, region.getID());
-
-
-                // Definition object
-                mbgl::OfflineTilePyramidRegionDefinition definition = region.getDefinition();
-                jni::jobject* jdefinition = &jni::NewObject(*env2, *offlineRegionDefinitionClass, *offlineRegionDefinitionConstructorId);
-                jni::SetField<jni::jobject*>(*env2, jdefinition, *offlineRegionDefinitionStyleURLId, std_string_to_jstring(env2, definition.styleURL));
-                jni::SetField<jni::jobject*>(*env2, jdefinition, *offlineRegionDefinitionBoundsId, latlngbounds_from_native(env2, definition.bounds));
-                jni::SetField<jdouble>(*env2, jdefinition, *offlineRegionDefinitionMinZoomId, definition.minZoom);
-                jni::SetField<jdouble>(*env2, jdefinition, *offlineRegionDefinitionMaxZoomId, definition.maxZoom);
-                jni::SetField<jfloat>(*env2, jdefinition, *offlineRegionDefinitionPixelRatioId, definition.pixelRatio);
-                jni::SetField<jni::jobject*>(*env2, jregion, *offlineRegionDefinitionId, jdefinition);
-
-                // Metadata object
-                jni::jarray<jbyte>* metadata = metadata_from_native(env2, region.getMetadata());
-                jni::SetField<jni::jobject*>(*env2, jregion, *offlineRegionMetadataId, metadata);
-
-                // Moves the region on the stack into a heap-allocated one
-                jni::SetField<jlong>(*env2, jregion, *offlineRegionPtrId,
-                    reinterpret_cast<jlong>(new mbgl::OfflineRegion(std::move(region))));
-
-                jni::SetObjectArrayElement(*env2, *jregions, index, jregion);
-                index++;
-            }
+            jni::jarray<jni::jobject>* jregions = offline_regions_from_native(env2, obj, *regions);
 
             // Trigger callback
             jni::CallMethod<void>(*env2, listCallback, *listOnListMethodId, jregions);
@@ -1216,19 +1551,8 @@ void createOfflineRegion(JNIEnv *env, jni::jobject* obj, jlong defaultFileSource
     assert(defaultFileSourcePtr != 0);
     NullCheck(*env, createCallback);
 
-    // Definition fields
-    jni::jstring* jStyleURL = reinterpret_cast<jni::jstring*>(jni::GetField<jni::jobject*>(*env, definition_, *offlineRegionDefinitionStyleURLId));
-    std::string styleURL = std_string_from_jstring(env, jStyleURL);
-    jni::jobject* jBounds = jni::GetField<jni::jobject*>(*env, definition_, *offlineRegionDefinitionBoundsId);
-    jdouble jMinZoom = jni::GetField<jdouble>(*env, definition_, *offlineRegionDefinitionMinZoomId);
-    jdouble jMaxZoom = jni::GetField<jdouble>(*env, definition_, *offlineRegionDefinitionMaxZoomId);
-    jfloat jPixelRatio = jni::GetField<jfloat>(*env, definition_, *offlineRegionDefinitionPixelRatioId);
-
-    // Convert bounds fields to native
-    mbgl::LatLngBounds bounds = latlngbounds_from_java(env, jBounds);
-
     // Definition
-    mbgl::OfflineTilePyramidRegionDefinition definition(styleURL, bounds, jMinZoom, jMaxZoom, jPixelRatio);
+    mbgl::OfflineRegionDefinition definition = offline_definition_from_java(env, definition_);
 
     // Metadata
     mbgl::OfflineRegionMetadata metadata;
@@ -1279,6 +1603,97 @@ void createOfflineRegion(JNIEnv *env, jni::jobject* obj, jlong defaultFileSource
     });
 }
 
+void estimateOfflineRegion(JNIEnv *env, jni::jobject* obj, jlong defaultFileSourcePtr, jni::jobject* definition_, jni::jobject* estimateCallback) {
+    mbgl::Log::Debug(mbgl::Event::JNI, "estimateOfflineRegion");
+
+    // Checks
+    assert(defaultFileSourcePtr != 0);
+    NullCheck(*env, estimateCallback);
+
+    // Definition
+    mbgl::OfflineRegionDefinition definition = offline_definition_from_java(env, definition_);
+
+    // Makes sure the callback doesn't get GC'ed
+    estimateCallback = jni::NewGlobalRef(*env, estimateCallback).release();
+
+    // Launch estimateCallback
+    mbgl::DefaultFileSource *defaultFileSource = reinterpret_cast<mbgl::DefaultFileSource *>(defaultFileSourcePtr);
+    defaultFileSource->estimateOfflineRegion(definition, [estimateCallback] (std::exception_ptr error, mbgl::optional<mbgl::OfflineRegionEstimate> estimate) mutable {
+
+        // Reattach, the callback comes from a different thread
+        JNIEnv *env2;
+        jboolean renderDetach = attach_jni_thread(theJVM, &env2, "Offline Thread");
+        if (renderDetach) {
+            mbgl::Log::Debug(mbgl::Event::JNI, "Attached.");
+        }
+
+        if (error) {
+            std::string message = mbgl::util::toString(error);
+            jni::CallMethod<void>(*env2, estimateCallback, *estimateOnErrorMethodId, std_string_to_jstring(env2, message));
+        } else if (estimate) {
+            // Tile counts
+            std::vector<jlong> tileCounts(estimate->tileCounts.begin(), estimate->tileCounts.end());
+            jni::jarray<jlong>& jtileCounts = jni::NewArray<jlong>(*env2, tileCounts.size());
+            jni::SetArrayRegion(*env2, jtileCounts, 0, tileCounts.size(), tileCounts.data());
+
+            // Estimate object
+            jni::jobject* jestimate = &jni::NewObject(*env2, *offlineRegionEstimateClass, *offlineRegionEstimateConstructorId);
+            jni::SetField<jni::jobject*>(*env2, jestimate, *offlineRegionEstimateTileCountsId, &jtileCounts);
+            jni::SetField<jlong>(*env2, jestimate, *offlineRegionEstimateTileCountId, estimate->tileCount);
+            jni::SetField<jlong>(*env2, jestimate, *offlineRegionEstimateMapboxTileCountId, estimate->mapboxTileCount);
+            jni::SetField<jlong>(*env2, jestimate, *offlineRegionEstimateResourceCountId, estimate->resourceCount);
+            jni::SetField<jboolean>(*env2, jestimate, *offlineRegionEstimatePreciseId, estimate->precise);
+            jni::SetField<jlong>(*env2, jestimate, *offlineRegionEstimateSizeId, estimate->size ? jlong(*estimate->size) : -1);
+
+            // Trigger callback
+            jni::CallMethod<void>(*env2, estimateCallback, *estimateOnEstimateMethodId, jestimate);
+        }
+
+        // Delete global refs and detach when we're done
+        jni::DeleteGlobalRef(*env2, jni::UniqueGlobalRef<jni::jobject>(estimateCallback));
+        detach_jni_thread(theJVM, &env2, renderDetach);
+    });
+}
+
+void importOfflineRegions(JNIEnv *env, jni::jobject* obj, jlong defaultFileSourcePtr, jni::jstring* path_, jni::jobject* importCallback) {
+    mbgl::Log::Debug(mbgl::Event::JNI, "importOfflineRegions");
+
+    // Checks
+    assert(defaultFileSourcePtr != 0);
+    NullCheck(*env, importCallback);
+
+    std::string path = std_string_from_jstring(env, path_);
+
+    // Makes sure the objects don't get GC'ed
+    obj = jni::NewGlobalRef(*env, obj).release();
+    importCallback = jni::NewGlobalRef(*env, importCallback).release();
+
+    // Launch importCallback
+    mbgl::DefaultFileSource *defaultFileSource = reinterpret_cast<mbgl::DefaultFileSource *>(defaultFileSourcePtr);
+    defaultFileSource->importOfflineRegions(path, [obj, importCallback](std::exception_ptr error, mbgl::optional<std::vector<mbgl::OfflineRegion>> regions) mutable {
+
+        // Reattach, the callback comes from a different thread
+        JNIEnv *env2;
+        jboolean renderDetach = attach_jni_thread(theJVM, &env2, "Offline Thread");
+        if (renderDetach) {
+            mbgl::Log::Debug(mbgl::Event::JNI, "Attached.");
+        }
+
+        if (error) {
+            std::string message = mbgl::util::toString(error);
+            jni::CallMethod<void>(*env2, importCallback, *importOnErrorMethodId, std_string_to_jstring(env2, message));
+        } else if (regions) {
+            jni::jarray<jni::jobject>* jregions = offline_regions_from_native(env2, obj, *regions);
+            jni::CallMethod<void>(*env2, importCallback, *importOnImportMethodId, jregions);
+        }
+
+        // Delete global refs and detach when we're done
+        jni::DeleteGlobalRef(*env2, jni::UniqueGlobalRef<jni::jobject>(obj));
+        jni::DeleteGlobalRef(*env2, jni::UniqueGlobalRef<jni::jobject>(importCallback));
+        detach_jni_thread(theJVM, &env2, renderDetach);
+    });
+}
+
 void setOfflineMapboxTileCountLimit(JNIEnv *env, jni::jobject* obj, jlong defaultFileSourcePtr, jlong limit) {
     mbgl::Log::Debug(mbgl::Event::JNI, "setOfflineMapboxTileCountLimit");
 
@@ -1291,6 +1706,95 @@ void setOfflineMapboxTileCountLimit(JNIEnv *env, jni::jobject* obj, jlong defaul
     defaultFileSource->setOfflineMapboxTileCountLimit(limit);
 }
 
+void setMaximumAmbientCacheSize(JNIEnv *env, jni::jobject* obj, jlong defaultFileSourcePtr, jlong size) {
+    mbgl::Log::Debug(mbgl::Event::JNI, "setMaximumAmbientCacheSize");
+
+    // Checks
+    assert(defaultFileSourcePtr != 0);
+    assert(size >= 0);
+
+    // Set size
+    mbgl::DefaultFileSource *defaultFileSource = reinterpret_cast<mbgl::DefaultFileSource *>(defaultFileSourcePtr);
+    defaultFileSource->setMaximumAmbientCacheSize(size);
+}
+
+void setAmbientCacheEvictionPolicy(JNIEnv *env, jni::jobject* obj, jlong defaultFileSourcePtr, jint policy) {
+    mbgl::Log::Debug(mbgl::Event::JNI, "setAmbientCacheEvictionPolicy");
+    assert(defaultFileSourcePtr != 0);
+
+    mbgl::DefaultFileSource *defaultFileSource = reinterpret_cast<mbgl::DefaultFileSource *>(defaultFileSourcePtr);
+    defaultFileSource->setAmbientCacheEvictionPolicy(policy == 1
+        ? mbgl::OfflineCacheEvictionPolicy::LeastFrequentlyUsed
+        : mbgl::OfflineCacheEvictionPolicy::LeastRecentlyUsed);
+}
+
+void getAmbientCacheStatistics(JNIEnv *env, jni::jobject* obj, jlong defaultFileSourcePtr, jni::jobject* statisticsCallback) {
+    mbgl::Log::Debug(mbgl::Event::JNI, "getAmbientCacheStatistics");
+
+    // Checks
+    assert(defaultFileSourcePtr != 0);
+    NullCheck(*env, statisticsCallback);
+
+    // Makes sure the callback doesn't get GC'ed
+    statisticsCallback = jni::NewGlobalRef(*env, statisticsCallback).release();
+
+    // Launch statisticsCallback
+    mbgl::DefaultFileSource *defaultFileSource = reinterpret_cast<mbgl::DefaultFileSource *>(defaultFileSourcePtr);
+    defaultFileSource->getAmbientCacheStatistics([statisticsCallback] (std::exception_ptr error, mbgl::optional<mbgl::AmbientCacheStatistics> statistics) mutable {
+
+        // Reattach, the callback comes from a different thread
+        JNIEnv *env2;
+        jboolean renderDetach = attach_jni_thread(theJVM, &env2, "Offline Thread");
+        if (renderDetach) {
+            mbgl::Log::Debug(mbgl::Event::JNI, "Attached.");
+        }
+
+        if (error) {
+            std::string message = mbgl::util::toString(error);
+            jni::CallMethod<void>(*env2, statisticsCallback, *cacheStatisticsOnErrorMethodId, std_string_to_jstring(env2, message));
+        } else if (statistics) {
+            // Statistics object
+            jni::jobject* jstatistics = &jni::NewObject(*env2, *offlineCacheStatisticsClass, *offlineCacheStatisticsConstructorId);
+            jni::SetField<jlong>(*env2, jstatistics, *offlineCacheStatisticsMaximumSizeId, statistics->maximumSize);
+            jni::SetField<jlong>(*env2, jstatistics, *offlineCacheStatisticsDatabaseSizeId, statistics->databaseSize);
+            jni::SetField<jlong>(*env2, jstatistics, *offlineCacheStatisticsSizeId, statistics->size);
+            jni::SetField<jlong>(*env2, jstatistics, *offlineCacheStatisticsResourceCountId, statistics->resourceCount);
+            jni::SetField<jlong>(*env2, jstatistics, *offlineCacheStatisticsTileCountId, statistics->tileCount);
+            jni::SetField<jlong>(*env2, jstatistics, *offlineCacheStatisticsHitsId, statistics->hits);
+            jni::SetField<jlong>(*env2, jstatistics, *offlineCacheStatisticsMissesId, statistics->misses);
+            jni::SetField<jlong>(*env2, jstatistics, *offlineCacheStatisticsEvictedCountId, statistics->evictedCount);
+
+            // Trigger callback
+            jni::CallMethod<void>(*env2, statisticsCallback, *cacheStatisticsOnStatisticsMethodId, jstatistics);
+        }
+
+        // Delete global refs and detach when we're done
+        jni::DeleteGlobalRef(*env2, jni::UniqueGlobalRef<jni::jobject>(statisticsCallback));
+        detach_jni_thread(theJVM, &env2, renderDetach);
+    });
+}
+
+void setOfflineDownloadPolicy(JNIEnv *env, jni::jobject* obj, jlong defaultFileSourcePtr, jint maxRegionRequests, jint maxRequests, jlong maxBytesPerSecond, jboolean zoomLevelFirst) {
+    mbgl::Log::Debug(mbgl::Event::JNI, "setOfflineDownloadPolicy");
+    assert(defaultFileSourcePtr != 0);
+
+    mbgl::OfflineDownloadPolicy policy;
+    policy.maximumRegionRequests = maxRegionRequests;
+    policy.maximumRequests = maxRequests;
+    policy.maximumBytesPerSecond = maxBytesPerSecond;
+    policy.zoomLevelFirst = zoomLevelFirst;
+
+    mbgl::DefaultFileSource *defaultFileSource = reinterpret_cast<mbgl::DefaultFileSource *>(defaultFileSourcePtr);
+    defaultFileSource->setOfflineDownloadPolicy(policy);
+}
+
+void setOfflineDownloadsPaused(JNIEnv *env, jni::jobject* obj, jlong defaultFileSourcePtr, jboolean paused) {
+    mbgl::Log::Debug(mbgl::Event::JNI, "setOfflineDownloadsPaused");
+    assert(defaultFileSourcePtr != 0);
+    mbgl::DefaultFileSource *defaultFileSource = reinterpret_cast<mbgl::DefaultFileSource *>(defaultFileSourcePtr);
+    defaultFileSource->setOfflineDownloadsPaused(paused);
+}
+
 mbgl::OfflineRegion* getOfflineRegionPeer(JNIEnv *env, jni::jobject* offlineRegion_) {
     jlong offlineRegionPtr = jni::GetField<jlong>(*env, offlineRegion_, *offlineRegionPtrId);
     if (!offlineRegionPtr) {
@@ -1377,6 +1881,11 @@ void setOfflineRegionObserver(JNIEnv *env, jni::jobject* offlineRegion_, jni::jo
             jni::SetField<jlong>(*env2, jstatus, *offlineRegionStatusCompletedTileSizeId, status.completedTileSize);
             jni::SetField<jlong>(*env2, jstatus, *offlineRegionStatusRequiredResourceCountId, status.requiredResourceCount);
             jni::SetField<jboolean>(*env2, jstatus, *offlineRegionStatusRequiredResourceCountIsPreciseId, status.requiredResourceCountIsPrecise);
+            jni::SetField<jlong>(*env2, jstatus, *offlineRegionStatusDownloadedSizeId, status.downloadedSize);
+            jni::SetField<jdouble>(*env2, jstatus, *offlineRegionStatusDownloadRateId, status.downloadRate);
+            jni::SetField<jlong>(*env2, jstatus, *offlineRegionStatusActiveRequestCountId, status.activeRequestCount);
+            jni::SetField<jlong>(*env2, jstatus, *offlineRegionStatusUnchangedResourceCountId, status.unchangedResourceCount);
+            jni::SetField<jlong>(*env2, jstatus, *offlineRegionStatusUnchangedResourceSizeId, status.unchangedResourceSize);
             jni::CallMethod<void>(*env2, observerCallback.get(), *offlineRegionObserveronStatusChangedId, jstatus);
 
             // Detach when we're done
@@ -1464,6 +1973,20 @@ void setOfflineRegionDownloadState(JNIEnv *env, jni::jobject* offlineRegion_, ji
     defaultFileSource->setOfflineRegionDownloadState(*offlineRegion, state);
 }
 
+void refreshOfflineRegion(JNIEnv *env, jni::jobject* offlineRegion_) {
+    mbgl::Log::Debug(mbgl::Event::JNI, "refreshOfflineRegion");
+
+    // Offline region
+    mbgl::OfflineRegion* offlineRegion = getOfflineRegionPeer(env, offlineRegion_);
+
+    // File source
+    jni::jobject* jmanager = jni::GetField<jni::jobject*>(*env, offlineRegion_, *offlineRegionOfflineManagerId);
+    jlong defaultFileSourcePtr = jni::GetField<jlong>(*env, jmanager, *offlineManagerClassPtrId);
+    mbgl::DefaultFileSource *defaultFileSource = reinterpret_cast<mbgl::DefaultFileSource *>(defaultFileSourcePtr);
+
+    defaultFileSource->refreshOfflineRegion(*offlineRegion);
+}
+
 void getOfflineRegionStatus(JNIEnv *env, jni::jobject* offlineRegion_, jni::jobject* statusCallback) {
     mbgl::Log::Debug(mbgl::Event::JNI, "getOfflineRegionStatus");
 
@@ -1510,6 +2033,11 @@ void getOfflineRegionStatus(JNIEnv *env, jni::jobject* offlineRegion_, jni::jobj
             jni::SetField<jlong>(*env2, jstatus, *offlineRegionStatusCompletedResourceSizeId, status->completedResourceSize);
             jni::SetField<jlong>(*env2, jstatus, *offlineRegionStatusRequiredResourceCountId, status->requiredResourceCount);
             jni::SetField<jboolean>(*env2, jstatus, *offlineRegionStatusRequiredResourceCountIsPreciseId, status->requiredResourceCountIsPrecise);
+            jni::SetField<jlong>(*env2, jstatus, *offlineRegionStatusDownloadedSizeId, status->downloadedSize);
+            jni::SetField<jdouble>(*env2, jstatus, *offlineRegionStatusDownloadRateId, status->downloadRate);
+            jni::SetField<jlong>(*env2, jstatus, *offlineRegionStatusActiveRequestCountId, status->activeRequestCount);
+            jni::SetField<jlong>(*env2, jstatus, *offlineRegionStatusUnchangedResourceCountId, status->unchangedResourceCount);
+            jni::SetField<jlong>(*env2, jstatus, *offlineRegionStatusUnchangedResourceSizeId, status->unchangedResourceSize);
             jni::CallMethod<void>(*env2, statusCallback, *offlineRegionStatusOnStatusId, jstatus);
         }
 
@@ -1519,6 +2047,42 @@ void getOfflineRegionStatus(JNIEnv *env, jni::jobject* offlineRegion_, jni::jobj
     });
 }
 
+void exportOfflineRegion(JNIEnv *env, jni::jobject* offlineRegion_, jni::jstring* path_, jni::jobject* exportCallback) {
+    mbgl::Log::Debug(mbgl::Event::JNI, "exportOfflineRegion");
+
+    // Offline region
+    mbgl::OfflineRegion* offlineRegion = getOfflineRegionPeer(env, offlineRegion_);
+
+    // File source
+    jni::jobject* jmanager = jni::GetField<jni::jobject*>(*env, offlineRegion_, *offlineRegionOfflineManagerId);
+    jlong defaultFileSourcePtr = jni::GetField<jlong>(*env, jmanager, *offlineManagerClassPtrId);
+    mbgl::DefaultFileSource *defaultFileSource = reinterpret_cast<mbgl::DefaultFileSource *>(defaultFileSourcePtr);
+
+    // Makes sure the callback doesn't get GC'ed
+    exportCallback = jni::NewGlobalRef(*env, exportCallback).release();
+
+    defaultFileSource->exportOfflineRegion(*offlineRegion, std_string_from_jstring(env, path_), [exportCallback](std::exception_ptr error) mutable {
+
+        // Reattach, the callback comes from a different thread
+        JNIEnv *env2;
+        jboolean renderDetach = attach_jni_thread(theJVM, &env2, "Offline Thread");
+        if (renderDetach) {
+            mbgl::Log::Debug(mbgl::Event::JNI, "Attached.");
+        }
+
+        if (error) {
+            std::string message = mbgl::util::toString(error);
+            jni::CallMethod<void>(*env2, exportCallback, *offlineRegionExportOnErrorId, std_string_to_jstring(env2, message));
+        } else {
+            jni::CallMethod<void>(*env2, exportCallback, *offlineRegionExportOnExportId);
+        }
+
+        // Delete global refs and detach when we're done
+        jni::DeleteGlobalRef(*env2, jni::UniqueGlobalRef<jni::jobject>(exportCallback));
+        detach_jni_thread(theJVM, &env2, renderDetach);
+    });
+}
+
 void deleteOfflineRegion(JNIEnv *env, jni::jobject* offlineRegion_, jni::jobject* deleteCallback) {
     mbgl::Log::Debug(mbgl::Event::JNI, "deleteOfflineRegion");
 
@@ -1647,8 +2211,9 @@ extern "C" JNIEXPORT jint JNI_OnLoad(JavaVM *vm, void *reserved) {
     jni::jclass& nativeMapViewClass = jni::FindClass(env, "com/mapbox/mapboxsdk/maps/NativeMapView");
 
     onInvalidateId = &jni::GetMethodID(env, nativeMapViewClass, "onInvalidate", "()V");
-    onMapChangedId = &jni::GetMethodID(env, nativeMapViewClass, "onMapChanged", "(I)V");
+    onMapChangesId = &jni::GetMethodID(env, nativeMapViewClass, "onMapChanges", "(I)V");
     onFpsChangedId = &jni::GetMethodID(env, nativeMapViewClass, "onFpsChanged", "(D)V");
+    onFrameMetricsId = &jni::GetMethodID(env, nativeMapViewClass, "onFrameMetrics", "(I[F)V");
 
     #define MAKE_NATIVE_METHOD(name, sig) jni::MakeNativeMethod<decltype(name), name>( #name, sig )
 
@@ -1682,6 +2247,7 @@ extern "C" JNIEXPORT jint JNI_OnLoad(JavaVM *vm, void *reserved) {
         MAKE_NATIVE_METHOD(nativeGetLatLng, "(J)Lcom/mapbox/mapboxsdk/geometry/LatLng;"),
         MAKE_NATIVE_METHOD(nativeResetPosition, "(J)V"),
         MAKE_NATIVE_METHOD(nativeGetCameraValues, "(J)[D"),
+        MAKE_NATIVE_METHOD(nativeGetCameraSnapshot, "(J[D)V"),
         MAKE_NATIVE_METHOD(nativeGetPitch, "(J)D"),
         MAKE_NATIVE_METHOD(nativeSetPitch, "(JDJ)V"),
         MAKE_NATIVE_METHOD(nativeScaleBy, "(JDDDJ)V"),
@@ -1700,6 +2266,7 @@ extern "C" JNIEXPORT jint JNI_OnLoad(JavaVM *vm, void *reserved) {
         MAKE_NATIVE_METHOD(nativeGetBearing, "(J)D"),
         MAKE_NATIVE_METHOD(nativeResetNorth, "(J)V"),
         MAKE_NATIVE_METHOD(nativeAddMarkers, "(J[Lcom/mapbox/mapboxsdk/annotations/Marker;)[J"),
+        MAKE_NATIVE_METHOD(nativeAddMarkersPacked, "(J[D[I[Ljava/lang/String;)[J"),
         MAKE_NATIVE_METHOD(nativeAddPolylines, "(J[Lcom/mapbox/mapboxsdk/annotations/Polyline;)[J"),
         MAKE_NATIVE_METHOD(nativeAddPolygons, "(J[Lcom/mapbox/mapboxsdk/annotations/Polygon;)[J"),
         MAKE_NATIVE_METHOD(nativeUpdateMarker, "(JJDDLjava/lang/String;)V"),
@@ -1708,9 +2275,18 @@ extern "C" JNIEXPORT jint JNI_OnLoad(JavaVM *vm, void *reserved) {
         MAKE_NATIVE_METHOD(nativeAddAnnotationIcon, "(JLjava/lang/String;IIF[B)V"),
         MAKE_NATIVE_METHOD(nativeSetVisibleCoordinateBounds, "(J[Lcom/mapbox/mapboxsdk/geometry/LatLng;Landroid/graphics/RectF;DJ)V"),
         MAKE_NATIVE_METHOD(nativeOnLowMemory, "(J)V"),
+        MAKE_NATIVE_METHOD(nativeSetMapChangeMask, "(JI)V"),
+        MAKE_NATIVE_METHOD(nativeSetTileCacheBudget, "(JJ)V"),
+        MAKE_NATIVE_METHOD(nativeUpdateTileCacheSize, "(J)V"),
+        MAKE_NATIVE_METHOD(nativeTrimTileCache, "(JF)V"),
+        MAKE_NATIVE_METHOD(nativeGetTileCacheStatistics, "(J)[J"),
+        MAKE_NATIVE_METHOD(nativePrefetch, "(J[DJ)V"),
+        MAKE_NATIVE_METHOD(nativePrefetchAlong, "(J[DIIJ)V"),
+        MAKE_NATIVE_METHOD(nativeCancelPrefetch, "(J)V"),
         MAKE_NATIVE_METHOD(nativeSetDebug, "(JZ)V"),
         MAKE_NATIVE_METHOD(nativeToggleDebug, "(J)V"),
         MAKE_NATIVE_METHOD(nativeGetDebug, "(J)Z"),
+        MAKE_NATIVE_METHOD(nativeEnableFrameMetrics, "(JZ)V"),
         MAKE_NATIVE_METHOD(nativeIsFullyLoaded, "(J)Z"),
         MAKE_NATIVE_METHOD(nativeSetReachability, "(JZ)V"),
         MAKE_NATIVE_METHOD(nativeGetMetersPerPixelAtLatitude, "(JDD)D"),
@@ -1718,6 +2294,8 @@ extern "C" JNIEXPORT jint JNI_OnLoad(JavaVM *vm, void *reserved) {
         MAKE_NATIVE_METHOD(nativeLatLngForProjectedMeters, "(JLcom/mapbox/mapboxsdk/geometry/ProjectedMeters;)Lcom/mapbox/mapboxsdk/geometry/LatLng;"),
         MAKE_NATIVE_METHOD(nativePixelForLatLng, "(JLcom/mapbox/mapboxsdk/geometry/LatLng;)Landroid/graphics/PointF;"),
         MAKE_NATIVE_METHOD(nativeLatLngForPixel, "(JLandroid/graphics/PointF;)Lcom/mapbox/mapboxsdk/geometry/LatLng;"),
+        MAKE_NATIVE_METHOD(nativePixelsForLatLngs, "(J[D[FD)V"),
+        MAKE_NATIVE_METHOD(nativeLatLngsForPixels, "(J[F[DD)V"),
         MAKE_NATIVE_METHOD(nativeGetTopOffsetPixelsForAnnotationSymbol, "(JLjava/lang/String;)D"),
         MAKE_NATIVE_METHOD(nativeJumpTo, "(JDLcom/mapbox/mapboxsdk/geometry/LatLng;DD)V"),
         MAKE_NATIVE_METHOD(nativeEaseTo, "(JDLcom/mapbox/mapboxsdk/geometry/LatLng;JDDZ)V"),
@@ -1739,6 +2317,18 @@ extern "C" JNIEXPORT jint JNI_OnLoad(JavaVM *vm, void *reserved) {
         struct CreateOfflineRegionsCallback {
             static constexpr auto Name() { return "com/mapbox/mapboxsdk/offline/OfflineManager$CreateOfflineRegionCallback"; }
         };
+
+        struct EstimateOfflineRegionCallback {
+            static constexpr auto Name() { return "com/mapbox/mapboxsdk/offline/OfflineManager$EstimateOfflineRegionCallback"; }
+        };
+
+        struct ImportOfflineRegionsCallback {
+            static constexpr auto Name() { return "com/mapbox/mapboxsdk/offline/OfflineManager$ImportOfflineRegionsCallback"; }
+        };
+
+        struct CacheStatisticsCallback {
+            static constexpr auto Name() { return "com/mapbox/mapboxsdk/offline/OfflineManager$CacheStatisticsCallback"; }
+        };
     };
 
     struct OfflineRegion {
@@ -1754,7 +2344,14 @@ extern "C" JNIEXPORT jint JNI_OnLoad(JavaVM *vm, void *reserved) {
         MAKE_NATIVE_METHOD(getAccessToken, "(J)Ljava/lang/String;"),
         MAKE_NATIVE_METHOD(listOfflineRegions, "(JLcom/mapbox/mapboxsdk/offline/OfflineManager$ListOfflineRegionsCallback;)V"),
         MAKE_NATIVE_METHOD(createOfflineRegion, "(JLcom/mapbox/mapboxsdk/offline/OfflineRegionDefinition;[BLcom/mapbox/mapboxsdk/offline/OfflineManager$CreateOfflineRegionCallback;)V"),
-        MAKE_NATIVE_METHOD(setOfflineMapboxTileCountLimit, "(JJ)V")
+        MAKE_NATIVE_METHOD(estimateOfflineRegion, "(JLcom/mapbox/mapboxsdk/offline/OfflineRegionDefinition;Lcom/mapbox/mapboxsdk/offline/OfflineManager$EstimateOfflineRegionCallback;)V"),
+        MAKE_NATIVE_METHOD(importOfflineRegions, "(JLjava/lang/String;Lcom/mapbox/mapboxsdk/offline/OfflineManager$ImportOfflineRegionsCallback;)V"),
+        MAKE_NATIVE_METHOD(setOfflineMapboxTileCountLimit, "(JJ)V"),
+        MAKE_NATIVE_METHOD(setMaximumAmbientCacheSize, "(JJ)V"),
+        MAKE_NATIVE_METHOD(setAmbientCacheEvictionPolicy, "(JI)V"),
+        MAKE_NATIVE_METHOD(getAmbientCacheStatistics, "(JLcom/mapbox/mapboxsdk/offline/OfflineManager$CacheStatisticsCallback;)V"),
+        MAKE_NATIVE_METHOD(setOfflineDownloadPolicy, "(JIIJZ)V"),
+        MAKE_NATIVE_METHOD(setOfflineDownloadsPaused, "(JZ)V")
     );
 
     jni::Class<OfflineManager::ListOfflineRegionsCallback> listOfflineRegionsCallbackClass = jni::Class<OfflineManager::ListOfflineRegionsCallback>::Find(env);
@@ -1765,6 +2362,40 @@ extern "C" JNIEXPORT jint JNI_OnLoad(JavaVM *vm, void *reserved) {
     createOnCreateMethodId = &jni::GetMethodID(env, createOfflineRegionCallbackClass, "onCreate", "(Lcom/mapbox/mapboxsdk/offline/OfflineRegion;)V");
     createOnErrorMethodId = &jni::GetMethodID(env, createOfflineRegionCallbackClass, "onError", "(Ljava/lang/String;)V");
 
+    jni::Class<OfflineManager::EstimateOfflineRegionCallback> estimateOfflineRegionCallbackClass = jni::Class<OfflineManager::EstimateOfflineRegionCallback>::Find(env);
+    estimateOnEstimateMethodId = &jni::GetMethodID(env, estimateOfflineRegionCallbackClass, "onEstimate", "(Lcom/mapbox/mapboxsdk/offline/OfflineRegionEstimate;)V");
+    estimateOnErrorMethodId = &jni::GetMethodID(env, estimateOfflineRegionCallbackClass, "onError", "(Ljava/lang/String;)V");
+
+    offlineRegionEstimateClass = &jni::FindClass(env, "com/mapbox/mapboxsdk/offline/OfflineRegionEstimate");
+    offlineRegionEstimateClass = jni::NewGlobalRef(env, offlineRegionEstimateClass).release();
+    offlineRegionEstimateConstructorId = &jni::GetMethodID(env, *offlineRegionEstimateClass, "<init>", "()V");
+    offlineRegionEstimateTileCountsId = &jni::GetFieldID(env, *offlineRegionEstimateClass, "tileCounts", "[J");
+    offlineRegionEstimateTileCountId = &jni::GetFieldID(env, *offlineRegionEstimateClass, "tileCount", "J");
+    offlineRegionEstimateMapboxTileCountId = &jni::GetFieldID(env, *offlineRegionEstimateClass, "mapboxTileCount", "J");
+    offlineRegionEstimateResourceCountId = &jni::GetFieldID(env, *offlineRegionEstimateClass, "resourceCount", "J");
+    offlineRegionEstimatePreciseId = &jni::GetFieldID(env, *offlineRegionEstimateClass, "precise", "Z");
+    offlineRegionEstimateSizeId = &jni::GetFieldID(env, *offlineRegionEstimateClass, "size", "J");
+
+    jni::Class<OfflineManager::CacheStatisticsCallback> cacheStatisticsCallbackClass = jni::Class<OfflineManager::CacheStatisticsCallback>::Find(env);
+    cacheStatisticsOnStatisticsMethodId = &jni::GetMethodID(env, cacheStatisticsCallbackClass, "onStatistics", "(Lcom/mapbox/mapboxsdk/offline/OfflineCacheStatistics;)V");
+    cacheStatisticsOnErrorMethodId = &jni::GetMethodID(env, cacheStatisticsCallbackClass, "onError", "(Ljava/lang/String;)V");
+
+    offlineCacheStatisticsClass = &jni::FindClass(env, "com/mapbox/mapboxsdk/offline/OfflineCacheStatistics");
+    offlineCacheStatisticsClass = jni::NewGlobalRef(env, offlineCacheStatisticsClass).release();
+    offlineCacheStatisticsConstructorId = &jni::GetMethodID(env, *offlineCacheStatisticsClass, "<init>", "()V");
+    offlineCacheStatisticsMaximumSizeId = &jni::GetFieldID(env, *offlineCacheStatisticsClass, "maximumSize", "J");
+    offlineCacheStatisticsDatabaseSizeId = &jni::GetFieldID(env, *offlineCacheStatisticsClass, "databaseSize", "J");
+    offlineCacheStatisticsSizeId = &jni::GetFieldID(env, *offlineCacheStatisticsClass, "size", "J");
+    offlineCacheStatisticsResourceCountId = &jni::GetFieldID(env, *offlineCacheStatisticsClass, "resourceCount", "J");
+    offlineCacheStatisticsTileCountId = &jni::GetFieldID(env, *offlineCacheStatisticsClass, "tileCount", "J");
+    offlineCacheStatisticsHitsId = &jni::GetFieldID(env, *offlineCacheStatisticsClass, "hits", "J");
+    offlineCacheStatisticsMissesId = &jni::GetFieldID(env, *offlineCacheStatisticsClass, "misses", "J");
+    offlineCacheStatisticsEvictedCountId = &jni::GetFieldID(env, *offlineCacheStatisticsClass, "evictedCount", "J");
+
+    jni::Class<OfflineManager::ImportOfflineRegionsCallback> importOfflineRegionsCallbackClass = jni::Class<OfflineManager::ImportOfflineRegionsCallback>::Find(env);
+    importOnImportMethodId = &jni::GetMethodID(env, importOfflineRegionsCallbackClass, "onImport", "([Lcom/mapbox/mapboxsdk/offline/OfflineRegion;)V");
+    importOnErrorMethodId = &jni::GetMethodID(env, importOfflineRegionsCallbackClass, "onError", "(Ljava/lang/String;)V");
+
     offlineRegionClass = &jni::FindClass(env, OfflineRegion::Name());
     offlineRegionClass = jni::NewGlobalRef(env, offlineRegionClass).release();
     offlineRegionConstructorId = &jni::GetMethodID(env, *offlineRegionClass, "<init>", "()V");
@@ -1778,11 +2409,13 @@ extern "C" JNIEXPORT jint JNI_OnLoad(JavaVM *vm, void *reserved) {
         MAKE_NATIVE_METHOD(destroyOfflineRegion, "()V"),
         MAKE_NATIVE_METHOD(setOfflineRegionObserver, "(Lcom/mapbox/mapboxsdk/offline/OfflineRegion$OfflineRegionObserver;)V"),
         MAKE_NATIVE_METHOD(setOfflineRegionDownloadState, "(I)V"),
+        MAKE_NATIVE_METHOD(refreshOfflineRegion, "()V"),
         MAKE_NATIVE_METHOD(getOfflineRegionStatus, "(Lcom/mapbox/mapboxsdk/offline/OfflineRegion$OfflineRegionStatusCallback;)V"),
+        MAKE_NATIVE_METHOD(exportOfflineRegion, "(Ljava/lang/String;Lcom/mapbox/mapboxsdk/offline/OfflineRegion$OfflineRegionExportCallback;)V"),
         MAKE_NATIVE_METHOD(deleteOfflineRegion, "(Lcom/mapbox/mapboxsdk/offline/OfflineRegion$OfflineRegionDeleteCallback;)V")
     );
 
-    // This needs to be updated once we support more than one type of region definition
+    // Polygon and corridor definitions extend the tile pyramid definition and share its fields
     offlineRegionDefinitionClass = &jni::FindClass(env, "com/mapbox/mapboxsdk/offline/OfflineTilePyramidRegionDefinition");
     offlineRegionDefinitionClass = jni::NewGlobalRef(env, offlineRegionDefinitionClass).release();
     offlineRegionDefinitionConstructorId = &jni::GetMethodID(env, *offlineRegionDefinitionClass, "<init>", "()V");
@@ -1792,6 +2425,17 @@ extern "C" JNIEXPORT jint JNI_OnLoad(JavaVM *vm, void *reserved) {
     offlineRegionDefinitionMaxZoomId = &jni::GetFieldID(env, *offlineRegionDefinitionClass, "maxZoom", "D");
     offlineRegionDefinitionPixelRatioId = &jni::GetFieldID(env, *offlineRegionDefinitionClass, "pixelRatio", "F");
 
+    offlinePolygonRegionDefinitionClass = &jni::FindClass(env, "com/mapbox/mapboxsdk/offline/OfflinePolygonRegionDefinition");
+    offlinePolygonRegionDefinitionClass = jni::NewGlobalRef(env, offlinePolygonRegionDefinitionClass).release();
+    offlinePolygonRegionDefinitionConstructorId = &jni::GetMethodID(env, *offlinePolygonRegionDefinitionClass, "<init>", "()V");
+    offlinePolygonRegionDefinitionCoordinatesId = &jni::GetFieldID(env, *offlinePolygonRegionDefinitionClass, "coordinates", "[D");
+
+    offlineCorridorRegionDefinitionClass = &jni::FindClass(env, "com/mapbox/mapboxsdk/offline/OfflineCorridorRegionDefinition");
+    offlineCorridorRegionDefinitionClass = jni::NewGlobalRef(env, offlineCorridorRegionDefinitionClass).release();
+    offlineCorridorRegionDefinitionConstructorId = &jni::GetMethodID(env, *offlineCorridorRegionDefinitionClass, "<init>", "()V");
+    offlineCorridorRegionDefinitionCoordinatesId = &jni::GetFieldID(env, *offlineCorridorRegionDefinitionClass, "coordinates", "[D");
+    offlineCorridorRegionDefinitionRadiusId = &jni::GetFieldID(env, *offlineCorridorRegionDefinitionClass, "radius", "D");
+
     jni::jclass* offlineRegionObserverClass = &jni::FindClass(env, "com/mapbox/mapboxsdk/offline/OfflineRegion$OfflineRegionObserver");
     offlineRegionObserveronStatusChangedId = &jni::GetMethodID(env, *offlineRegionObserverClass, "onStatusChanged", "(Lcom/mapbox/mapboxsdk/offline/OfflineRegionStatus;)V");
     offlineRegionObserveronErrorId = &jni::GetMethodID(env, *offlineRegionObserverClass, "onError", "(Lcom/mapbox/mapboxsdk/offline/OfflineRegionError;)V");
@@ -1807,6 +2451,11 @@ extern "C" JNIEXPORT jint JNI_OnLoad(JavaVM *vm, void *reserved) {
     offlineRegionStatusCompletedTileSizeId = &jni::GetFieldID(env, *offlineRegionStatusClass, "completedTileSize", "J");
     offlineRegionStatusRequiredResourceCountId = &jni::GetFieldID(env, *offlineRegionStatusClass, "requiredResourceCount", "J");
     offlineRegionStatusRequiredResourceCountIsPreciseId = &jni::GetFieldID(env, *offlineRegionStatusClass, "requiredResourceCountIsPrecise", "Z");
+    offlineRegionStatusDownloadedSizeId = &jni::GetFieldID(env, *offlineRegionStatusClass, "downloadedSize", "J");
+    offlineRegionStatusDownloadRateId = &jni::GetFieldID(env, *offlineRegionStatusClass, "downloadRate", "D");
+    offlineRegionStatusActiveRequestCountId = &jni::GetFieldID(env, *offlineRegionStatusClass, "activeRequestCount", "J");
+    offlineRegionStatusUnchangedResourceCountId = &jni::GetFieldID(env, *offlineRegionStatusClass, "unchangedResourceCount", "J");
+    offlineRegionStatusUnchangedResourceSizeId = &jni::GetFieldID(env, *offlineRegionStatusClass, "unchangedResourceSize", "J");
 
     offlineRegionErrorClass = &jni::FindClass(env, "com/mapbox/mapboxsdk/offline/OfflineRegionError");
     offlineRegionErrorClass = jni::NewGlobalRef(env, offlineRegionErrorClass).release();
@@ -1822,6 +2471,10 @@ extern "C" JNIEXPORT jint JNI_OnLoad(JavaVM *vm, void *reserved) {
     offlineRegionDeleteOnDeleteId = &jni::GetMethodID(env, *offlineRegionDeleteCallbackClass, "onDelete", "()V");
     offlineRegionDeleteOnErrorId = &jni::GetMethodID(env, *offlineRegionDeleteCallbackClass, "onError", "(Ljava/lang/String;)V");
 
+    jni::jclass* offlineRegionExportCallbackClass = &jni::FindClass(env, "com/mapbox/mapboxsdk/offline/OfflineRegion$OfflineRegionExportCallback");
+    offlineRegionExportOnExportId = &jni::GetMethodID(env, *offlineRegionExportCallbackClass, "onExport", "()V");
+    offlineRegionExportOnErrorId = &jni::GetMethodID(env, *offlineRegionExportCallbackClass, "onError", "(Ljava/lang/String;)V");
+
     // Offline end
 
     char release[PROP_VALUE_MAX] = "";
@@ -17,8 +17,9 @@ extern std::string apkPath;
 extern std::string androidRelease;
 
 extern jmethodID onInvalidateId;
-extern jmethodID onMapChangedId;
+extern jmethodID onMapChangesId;
 extern jmethodID onFpsChangedId;
+extern jmethodID onFrameMetricsId;
 
 extern bool attach_jni_thread(JavaVM* vm, JNIEnv** env, std::string threadName);
 extern void detach_jni_thread(JavaVM* vm, JNIEnv** env, bool detach);
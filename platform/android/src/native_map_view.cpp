@@ -1,6 +1,9 @@
 #include "native_map_view.hpp"
 #include "jni.hpp"
+#include "shared_file_source.hpp"
 
+#include <algorithm>
+#include <cmath>
 #include <cstdlib>
 #include <ctime>
 #include <cassert>
@@ -76,21 +79,18 @@ NativeMapView::NativeMapView(JNIEnv *env_, jobject obj_, float pixelRatio_, int
         return;
     }
 
-    fileSource = std::make_unique<mbgl::DefaultFileSource>(
+    // The map, and everything it schedules, stays on the thread creating it
+    if (!mbgl::util::RunLoop::Get()) {
+        runLoop = std::make_unique<mbgl::util::RunLoop>();
+    }
+
+    fileSource = mbgl::android::obtainDefaultFileSource(
         mbgl::android::cachePath + "/mbgl-offline.db",
         mbgl::android::apkPath);
 
     map = std::make_unique<mbgl::Map>(*this, *fileSource, MapMode::Continuous);
 
-    float zoomFactor   = map->getMaxZoom() - map->getMinZoom() + 1;
-    float cpuFactor    = availableProcessors;
-    float memoryFactor = static_cast<float>(totalMemory) / 1000.0f / 1000.0f / 1000.0f;
-    float sizeFactor   = (static_cast<float>(map->getWidth())  / mbgl::util::tileSize) *
-                         (static_cast<float>(map->getHeight()) / mbgl::util::tileSize);
-
-    size_t cacheSize = zoomFactor * cpuFactor * memoryFactor * sizeFactor * 0.5f;
-
-    map->setSourceTileCacheSize(cacheSize);
+    // The tile cache is sized once the view has dimensions, see resizeView
 }
 
 NativeMapView::~NativeMapView() {
@@ -104,6 +104,7 @@ NativeMapView::~NativeMapView() {
 
     map.reset();
     fileSource.reset();
+    runLoop.reset();
 
     env->DeleteWeakGlobalRef(obj);
 
@@ -185,6 +186,8 @@ void NativeMapView::invalidate() {
 }
 
 void NativeMapView::render() {
+    const mbgl::TimePoint frameStart = mbgl::Clock::now();
+
     activate();
 
     if(sizeChanged){
@@ -192,7 +195,11 @@ void NativeMapView::render() {
         glViewport(0, 0, fbWidth, fbHeight);
     }
 
+    rendering = true;
+    const mbgl::TimePoint mapRenderStart = mbgl::Clock::now();
     map->render();
+    const mbgl::Duration mapRenderTime = mbgl::Clock::now() - mapRenderStart;
+    rendering = false;
 
     if ((display != EGL_NO_DISPLAY) && (surface != EGL_NO_SURFACE)) {
         if (!eglSwapBuffers(display, surface)) {
@@ -207,6 +214,12 @@ void NativeMapView::render() {
     }
 
     deactivate();
+
+    if (frameMetricsEnabled) {
+        updateFrameMetrics(frameStart, mapRenderTime);
+    }
+
+    dispatchMapChanges();
 }
 
 mbgl::Map &NativeMapView::getMap() { return *map; }
@@ -637,12 +650,39 @@ EGLConfig NativeMapView::chooseConfig(const EGLConfig configs[], EGLint numConfi
 }
 
 void NativeMapView::notifyMapChange(mbgl::MapChange change) {
-    mbgl::Log::Debug(mbgl::Event::Android, "NativeMapView::notifyMapChange()");
+    // Changes no listener subscribed to never cross JNI
+    const uint32_t bit = 1u << change;
+    if (!(mapChangeMask & bit)) {
+        return;
+    }
+
+    pendingMapChanges |= bit;
+
+    // Changes raised while rendering are dispatched together once the frame is done
+    if (!rendering) {
+        dispatchMapChanges();
+    }
+}
+
+void NativeMapView::setMapChangeMask(uint32_t mask) {
+    mapChangeMask = mask;
+    pendingMapChanges &= mask;
+}
+
+void NativeMapView::dispatchMapChanges() {
+    if (!pendingMapChanges) {
+        return;
+    }
+
+    mbgl::Log::Debug(mbgl::Event::Android, "NativeMapView::dispatchMapChanges()");
 
     assert(vm != nullptr);
     assert(obj != nullptr);
 
-    env->CallVoidMethod(obj, onMapChangedId, change);
+    const jint changes = pendingMapChanges;
+    pendingMapChanges = 0;
+
+    env->CallVoidMethod(obj, onMapChangesId, changes);
     if (env->ExceptionCheck()) {
         env->ExceptionDescribe();
     }
@@ -685,13 +725,107 @@ void NativeMapView::updateFps() {
     }
 }
 
+void NativeMapView::enableFrameMetrics(bool enable) {
+    mbgl::Log::Debug(mbgl::Event::Android, "NativeMapView::enableFrameMetrics()");
+
+    frameMetricsEnabled = enable;
+    frameMetricsStart = mbgl::Clock::now();
+    for (auto& samples : frameMetrics) {
+        samples.clear();
+        samples.reserve(enable ? 128 : 0);
+    }
+}
+
+void NativeMapView::updateFrameMetrics(mbgl::TimePoint frameStart, mbgl::Duration mapRenderTime) {
+    auto milliseconds = [] (mbgl::Duration duration) {
+        return std::chrono::duration<float, std::milli>(duration).count();
+    };
+
+    const mbgl::TimePoint now = mbgl::Clock::now();
+    const mbgl::Map::FrameStatistics statistics = map->getFrameStatistics();
+    frameMetrics[FrameMetricTotalRenderTime].push_back(milliseconds(now - frameStart));
+    frameMetrics[FrameMetricMapRenderTime].push_back(milliseconds(mapRenderTime));
+    frameMetrics[FrameMetricUploadTime].push_back(milliseconds(statistics.uploadTime));
+    frameMetrics[FrameMetricSymbolTime].push_back(milliseconds(statistics.symbolTime));
+    frameMetrics[FrameMetricRenderedTiles].push_back(statistics.renderedTiles);
+    frameMetrics[FrameMetricPendingTiles].push_back(statistics.pendingTiles);
+
+    if (now - frameMetricsStart < mbgl::Seconds(1)) {
+        return;
+    }
+
+    // p50, p95 and p99 of every metric, nearest rank
+    const jint frames = frameMetrics[0].size();
+    const float percentiles[] = { 0.50f, 0.95f, 0.99f };
+    jfloat values[FrameMetricCount * 3];
+    for (std::size_t metric = 0; metric < FrameMetricCount; metric++) {
+        auto& samples = frameMetrics[metric];
+        for (std::size_t i = 0; i < 3; i++) {
+            const std::size_t rank = std::ceil(percentiles[i] * samples.size()) - 1;
+            std::nth_element(samples.begin(), samples.begin() + rank, samples.end());
+            values[metric * 3 + i] = samples[rank];
+        }
+        samples.clear();
+    }
+    frameMetricsStart = now;
+
+    assert(vm != nullptr);
+    assert(obj != nullptr);
+
+    jfloatArray array = env->NewFloatArray(FrameMetricCount * 3);
+    env->SetFloatArrayRegion(array, 0, FrameMetricCount * 3, values);
+    env->CallVoidMethod(obj, onFrameMetricsId, frames, array);
+    if (env->ExceptionCheck()) {
+        env->ExceptionDescribe();
+    }
+    env->DeleteLocalRef(array);
+}
+
 void NativeMapView::resizeView(int w, int h) {
     width = w;
     height = h;
     sizeChanged = true;
+    updateTileCacheSize();
     map->update(mbgl::Update::Dimensions);
 }
 
+void NativeMapView::setTileCacheBudget(size_t tiles) {
+    tileCacheBudget = tiles;
+    updateTileCacheSize();
+}
+
+void NativeMapView::updateTileCacheSize() {
+    // Without a size yet, leave the cache to the conservative default of each source
+    size_t cacheSize = computeTileCacheSize();
+    if (cacheSize > 0) {
+        map->setSourceTileCacheSize(cacheSize);
+    }
+}
+
+size_t NativeMapView::computeTileCacheSize() {
+    size_t cacheSize = tileCacheBudget;
+    if (cacheSize == 0) {
+        float zoomFactor   = map->getMaxZoom() - map->getMinZoom() + 1;
+        float cpuFactor    = availableProcessors;
+        float memoryFactor = static_cast<float>(totalMemory) / 1000.0f / 1000.0f / 1000.0f;
+        float sizeFactor   = (static_cast<float>(width)  / mbgl::util::tileSize) *
+                             (static_cast<float>(height) / mbgl::util::tileSize);
+
+        cacheSize = zoomFactor * cpuFactor * memoryFactor * sizeFactor * 0.5f;
+    }
+
+    return cacheSize;
+}
+
+// The fraction applies to the policy size, not to the current one, so repeated trims at the same
+// level don't shrink the cache any further
+void NativeMapView::trimTileCache(float fraction) {
+    size_t cacheSize = computeTileCacheSize();
+    if (cacheSize > 0) {
+        map->setSourceTileCacheSize(std::max<size_t>(cacheSize * fraction, 1));
+    }
+}
+
 void NativeMapView::resizeFramebuffer(int w, int h) {
     fbWidth = w;
     fbHeight = h;
@@ -3,9 +3,12 @@
 #include <mbgl/map/map.hpp>
 #include <mbgl/map/view.hpp>
 #include <mbgl/util/noncopyable.hpp>
+#include <mbgl/util/run_loop.hpp>
 #include <mbgl/storage/default_file_source.hpp>
 
+#include <array>
 #include <string>
+#include <vector>
 #include <jni.h>
 #include <android/native_window.h>
 #include <EGL/egl.h>
@@ -26,6 +29,7 @@ public:
     void invalidate() override;
 
     void notifyMapChange(mbgl::MapChange) override;
+    void setMapChangeMask(uint32_t mask);
 
     mbgl::Map &getMap();
     mbgl::DefaultFileSource &getFileSource();
@@ -44,13 +48,23 @@ public:
     void enableFps(bool enable);
     void updateFps();
 
+    void enableFrameMetrics(bool enable);
+
     void resizeView(int width, int height);
     void resizeFramebuffer(int width, int height);
     mbgl::EdgeInsets getInsets() { return insets;}
     void setInsets(mbgl::EdgeInsets insets_);
 
+    void setTileCacheBudget(size_t tiles);
+    void updateTileCacheSize();
+    void trimTileCache(float fraction);
+
 private:
+    // The tile budget if one is set, otherwise a size derived from the viewport and the device
+    size_t computeTileCacheSize();
     EGLConfig chooseConfig(const EGLConfig configs[], EGLint numConfigs);
+    void dispatchMapChanges();
+    void updateFrameMetrics(mbgl::TimePoint frameStart, mbgl::Duration mapRenderTime);
 
     bool inEmulator();
 
@@ -90,8 +104,34 @@ private:
     int availableProcessors = 0;
     size_t totalMemory = 0;
 
+    // Map changes Java subscribed to, one bit per mbgl::MapChange
+    uint32_t mapChangeMask = 0;
+    // Map changes not dispatched to Java yet, coalesced while a frame renders
+    uint32_t pendingMapChanges = 0;
+    bool rendering = false;
+
+    // Per frame samples, reported to Java as percentiles once a second
+    enum FrameMetric {
+        FrameMetricTotalRenderTime,
+        FrameMetricMapRenderTime,
+        FrameMetricUploadTime,
+        FrameMetricSymbolTime,
+        FrameMetricRenderedTiles,
+        FrameMetricPendingTiles,
+        FrameMetricCount
+    };
+    bool frameMetricsEnabled = false;
+    mbgl::TimePoint frameMetricsStart;
+    std::array<std::vector<float>, FrameMetricCount> frameMetrics;
+
+    // Explicit source tile cache size, 0 sizes the cache from the device and viewport
+    size_t tileCacheBudget = 0;
+
+    // Owned when the map is created on a thread without a run loop, like a dedicated render thread
+    std::unique_ptr<mbgl::util::RunLoop> runLoop;
+
     // Ensure these are initialised last
-    std::unique_ptr<mbgl::DefaultFileSource> fileSource;
+    std::shared_ptr<mbgl::DefaultFileSource> fileSource;
     std::unique_ptr<mbgl::Map> map;
     mbgl::EdgeInsets insets;
 };
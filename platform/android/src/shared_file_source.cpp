@@ -0,0 +1,35 @@
+#include "shared_file_source.hpp"
+
+#include <mbgl/platform/event.hpp>
+#include <mbgl/platform/log.hpp>
+
+#include <mutex>
+#include <unordered_map>
+
+namespace mbgl {
+namespace android {
+
+namespace {
+
+std::mutex fileSourcesMutex;
+std::unordered_map<std::string, std::weak_ptr<DefaultFileSource>> fileSources;
+
+} // namespace
+
+std::shared_ptr<DefaultFileSource> obtainDefaultFileSource(const std::string& cachePath,
+                                                           const std::string& assetRoot,
+                                                           uint64_t maximumCacheSize) {
+    std::lock_guard<std::mutex> lock(fileSourcesMutex);
+
+    std::weak_ptr<DefaultFileSource>& entry = fileSources[cachePath];
+    std::shared_ptr<DefaultFileSource> fileSource = entry.lock();
+    if (!fileSource) {
+        mbgl::Log::Debug(mbgl::Event::Android, "Opening shared file source %s", cachePath.c_str());
+        fileSource = std::make_shared<DefaultFileSource>(cachePath, assetRoot, maximumCacheSize);
+        entry = fileSource;
+    }
+    return fileSource;
+}
+
+}
+}
@@ -0,0 +1,22 @@
+#pragma once
+
+#include <mbgl/storage/default_file_source.hpp>
+#include <mbgl/util/constants.hpp>
+
+#include <cstdint>
+#include <memory>
+#include <string>
+
+namespace mbgl {
+namespace android {
+
+// Returns the file source backed by the database at cachePath, creating it on first use. All maps and
+// the offline manager of the process share one instance per database, so there is a single SQLite
+// connection and request queue. The file source is closed once the last reference goes away; the
+// asset root and cache size of the first caller win.
+std::shared_ptr<DefaultFileSource> obtainDefaultFileSource(const std::string& cachePath,
+                                                           const std::string& assetRoot,
+                                                           uint64_t maximumCacheSize = util::DEFAULT_MAX_CACHE_SIZE);
+
+}
+}
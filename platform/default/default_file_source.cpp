@@ -5,6 +5,8 @@
 #include <mbgl/storage/offline_download.hpp>
 
 #include <mbgl/platform/platform.hpp>
+#include <mbgl/platform/log.hpp>
+#include <mbgl/util/string.hpp>
 #include <mbgl/util/url.hpp>
 #include <mbgl/util/thread.hpp>
 #include <mbgl/util/work_request.hpp>
@@ -27,6 +29,7 @@ class DefaultFileSource::Impl {
 public:
     Impl(const std::string& cachePath, uint64_t maximumCacheSize)
         : offlineDatabase(cachePath, maximumCacheSize) {
+        offlineDatabase.setBatchSize(util::DEFAULT_OFFLINE_BATCH_SIZE);
     }
 
     void setAccessToken(const std::string& accessToken) {
@@ -55,6 +58,16 @@ public:
         }
     }
 
+    void estimateRegion(OfflineRegionDefinition definition, std::function<void (std::exception_ptr, optional<OfflineRegionEstimate>)> callback) {
+        try {
+            // The download is never activated, so it makes no requests. Region IDs start at 1.
+            OfflineDownload download(0, std::move(definition), offlineDatabase, onlineFileSource);
+            callback({}, download.estimate());
+        } catch (...) {
+            callback(std::current_exception(), {});
+        }
+    }
+
     void getRegionStatus(int64_t regionID, std::function<void (std::exception_ptr, optional<OfflineRegionStatus>)> callback) {
         try {
             callback({}, getDownload(regionID).getStatus());
@@ -73,6 +86,23 @@ public:
         }
     }
 
+    void exportRegion(int64_t regionID, const std::string& path, std::function<void (std::exception_ptr)> callback) {
+        try {
+            offlineDatabase.exportRegion(regionID, path);
+            callback({});
+        } catch (...) {
+            callback(std::current_exception());
+        }
+    }
+
+    void importRegions(const std::string& path, std::function<void (std::exception_ptr, optional<std::vector<OfflineRegion>>)> callback) {
+        try {
+            callback({}, offlineDatabase.importRegions(path));
+        } catch (...) {
+            callback(std::current_exception(), {});
+        }
+    }
+
     void setRegionObserver(int64_t regionID, std::unique_ptr<OfflineRegionObserver> observer) {
         getDownload(regionID).setObserver(std::move(observer));
     }
@@ -81,6 +111,10 @@ public:
         getDownload(regionID).setState(state);
     }
 
+    void refreshRegion(int64_t regionID) {
+        getDownload(regionID).refresh();
+    }
+
     void request(AsyncRequest* req, Resource resource, Callback callback) {
         Resource revalidation = resource;
 
@@ -106,38 +140,142 @@ public:
         }
 
         if (resource.necessity == Resource::Required) {
-            tasks[req] = onlineFileSource.request(revalidation, [=] (Response onlineResponse) {
-                this->offlineDatabase.put(revalidation, onlineResponse);
-                callback(onlineResponse);
-            });
+            auto it = sharedRequests.find(revalidation.url);
+            if (it == sharedRequests.end()) {
+                startSharedRequest(req, revalidation, callback);
+            } else if (isSameRevalidation(it->second->resource, revalidation)) {
+                // An identical request is already running, share its responses instead of
+                // fetching the resource again. It may have answered already and only deliver
+                // again once the response expires, if ever, so replay its last response.
+                it->second->subscribers.emplace(req, callback);
+                subscriptions.emplace(req, revalidation.url);
+                if (it->second->resource.priority == Resource::Low && revalidation.priority == Resource::Regular) {
+                    // The map waits for this resource now, it must not wait behind other prefetches.
+                    it->second->resource.priority = Resource::Regular;
+                    onlineFileSource.setPriority(*it->second->request, Resource::Regular);
+                }
+                if (it->second->lastResponse) {
+                    callback(*it->second->lastResponse);
+                }
+            } else {
+                tasks[req] = onlineFileSource.request(revalidation, [=] (Response onlineResponse) {
+                    this->offlineDatabase.put(revalidation, onlineResponse);
+                    callback(onlineResponse);
+                });
+            }
         }
     }
 
     void cancel(AsyncRequest* req) {
         tasks.erase(req);
+
+        auto subscription = subscriptions.find(req);
+        if (subscription == subscriptions.end()) {
+            return;
+        }
+
+        auto it = sharedRequests.find(subscription->second);
+        subscriptions.erase(subscription);
+        if (it == sharedRequests.end()) {
+            return;
+        }
+
+        it->second->subscribers.erase(req);
+        if (it->second->subscribers.empty()) {
+            sharedRequests.erase(it);
+        }
+    }
+
+    void setMaximumAmbientCacheSize(uint64_t size) {
+        try {
+            offlineDatabase.setMaximumAmbientCacheSize(size);
+        } catch (...) {
+            Log::Error(Event::Database, "Unable to evict ambient cache entries: %s", util::toString(std::current_exception()).c_str());
+        }
+    }
+
+    void setAmbientCacheEvictionPolicy(OfflineCacheEvictionPolicy policy) {
+        offlineDatabase.setAmbientCacheEvictionPolicy(policy);
+    }
+
+    void getAmbientCacheStatistics(std::function<void (std::exception_ptr, optional<AmbientCacheStatistics>)> callback) {
+        try {
+            callback({}, offlineDatabase.getAmbientCacheStatistics());
+        } catch (...) {
+            callback(std::current_exception(), {});
+        }
     }
 
     void setOfflineMapboxTileCountLimit(uint64_t limit) {
         offlineDatabase.setOfflineMapboxTileCountLimit(limit);
     }
 
+    void setOfflineDownloadPolicy(const OfflineDownloadPolicy& policy) {
+        downloadScheduler.setPolicy(policy);
+    }
+
+    void setOfflineDownloadsPaused(bool paused) {
+        downloadScheduler.setPaused(paused);
+    }
+
     void put(const Resource& resource, const Response& response) {
         offlineDatabase.put(resource, response);
     }
 
 private:
+    // One online request for a URL, shared by all requests that asked for it with the same
+    // revalidation headers while it runs. Every response is forwarded to all of them, the last
+    // one is kept for requests joining later.
+    struct SharedRequest {
+        SharedRequest(const Resource& resource_)
+            : resource(resource_) {
+        }
+
+        Resource resource;
+        std::unique_ptr<AsyncRequest> request;
+        std::unordered_map<AsyncRequest*, Callback> subscribers;
+        optional<Response> lastResponse;
+    };
+
+    static bool isSameRevalidation(const Resource& a, const Resource& b) {
+        return a.priorEtag == b.priorEtag && a.priorModified == b.priorModified;
+    }
+
+    void startSharedRequest(AsyncRequest* req, const Resource& revalidation, Callback callback) {
+        const std::string url = revalidation.url;
+        auto& shared = *sharedRequests.emplace(url, std::make_unique<SharedRequest>(revalidation)).first->second;
+        shared.subscribers.emplace(req, callback);
+        subscriptions.emplace(req, url);
+
+        shared.request = onlineFileSource.request(revalidation, [=] (Response onlineResponse) {
+            this->offlineDatabase.put(revalidation, onlineResponse);
+
+            auto it = this->sharedRequests.find(url);
+            if (it == this->sharedRequests.end()) {
+                return;
+            }
+            it->second->lastResponse = onlineResponse;
+            for (const auto& subscriber : it->second->subscribers) {
+                subscriber.second(onlineResponse);
+            }
+        });
+    }
+
     OfflineDownload& getDownload(int64_t regionID) {
         auto it = downloads.find(regionID);
         if (it != downloads.end()) {
             return *it->second;
         }
         return *downloads.emplace(regionID,
-            std::make_unique<OfflineDownload>(regionID, offlineDatabase.getRegionDefinition(regionID), offlineDatabase, onlineFileSource)).first->second;
+            std::make_unique<OfflineDownload>(regionID, offlineDatabase.getRegionDefinition(regionID), offlineDatabase, onlineFileSource, &downloadScheduler)).first->second;
     }
 
     OfflineDatabase offlineDatabase;
     OnlineFileSource onlineFileSource;
     std::unordered_map<AsyncRequest*, std::unique_ptr<AsyncRequest>> tasks;
+    std::unordered_map<std::string, std::unique_ptr<SharedRequest>> sharedRequests;
+    std::unordered_map<AsyncRequest*, std::string> subscriptions;
+    OfflineDownloadScheduler downloadScheduler;
     std::unordered_map<int64_t, std::unique_ptr<OfflineDownload>> downloads;
 };
 
@@ -192,10 +330,23 @@ void DefaultFileSource::createOfflineRegion(const OfflineRegionDefinition& defin
     thread->invoke(&Impl::createRegion, definition, metadata, callback);
 }
 
+void DefaultFileSource::estimateOfflineRegion(const OfflineRegionDefinition& definition,
+                                              std::function<void (std::exception_ptr, optional<OfflineRegionEstimate>)> callback) {
+    thread->invoke(&Impl::estimateRegion, definition, callback);
+}
+
 void DefaultFileSource::deleteOfflineRegion(OfflineRegion&& region, std::function<void (std::exception_ptr)> callback) {
     thread->invoke(&Impl::deleteRegion, std::move(region), callback);
 }
 
+void DefaultFileSource::exportOfflineRegion(OfflineRegion& region, const std::string& path, std::function<void (std::exception_ptr)> callback) {
+    thread->invoke(&Impl::exportRegion, region.getID(), path, callback);
+}
+
+void DefaultFileSource::importOfflineRegions(const std::string& path, std::function<void (std::exception_ptr, optional<std::vector<OfflineRegion>>)> callback) {
+    thread->invoke(&Impl::importRegions, path, callback);
+}
+
 void DefaultFileSource::setOfflineRegionObserver(OfflineRegion& region, std::unique_ptr<OfflineRegionObserver> observer) {
     thread->invoke(&Impl::setRegionObserver, region.getID(), std::move(observer));
 }
@@ -204,14 +355,38 @@ void DefaultFileSource::setOfflineRegionDownloadState(OfflineRegion& region, Off
     thread->invoke(&Impl::setRegionDownloadState, region.getID(), state);
 }
 
+void DefaultFileSource::refreshOfflineRegion(OfflineRegion& region) {
+    thread->invoke(&Impl::refreshRegion, region.getID());
+}
+
 void DefaultFileSource::getOfflineRegionStatus(OfflineRegion& region, std::function<void (std::exception_ptr, optional<OfflineRegionStatus>)> callback) const {
     thread->invoke(&Impl::getRegionStatus, region.getID(), callback);
 }
 
+void DefaultFileSource::setMaximumAmbientCacheSize(uint64_t size) {
+    thread->invoke(&Impl::setMaximumAmbientCacheSize, size);
+}
+
+void DefaultFileSource::setAmbientCacheEvictionPolicy(OfflineCacheEvictionPolicy policy) {
+    thread->invoke(&Impl::setAmbientCacheEvictionPolicy, policy);
+}
+
+void DefaultFileSource::getAmbientCacheStatistics(std::function<void (std::exception_ptr, optional<AmbientCacheStatistics>)> callback) const {
+    thread->invoke(&Impl::getAmbientCacheStatistics, callback);
+}
+
 void DefaultFileSource::setOfflineMapboxTileCountLimit(uint64_t limit) const {
     thread->invokeSync(&Impl::setOfflineMapboxTileCountLimit, limit);
 }
 
+void DefaultFileSource::setOfflineDownloadPolicy(const OfflineDownloadPolicy& policy) {
+    thread->invoke(&Impl::setOfflineDownloadPolicy, policy);
+}
+
+void DefaultFileSource::setOfflineDownloadsPaused(bool paused) {
+    thread->invoke(&Impl::setOfflineDownloadsPaused, paused);
+}
+
 // For testing only:
 
 void DefaultFileSource::put(const Resource& resource, const Response& response) {
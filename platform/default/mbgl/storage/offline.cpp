@@ -1,4 +1,5 @@
 #include <mbgl/storage/offline.hpp>
+#include <mbgl/util/constants.hpp>
 #include <mbgl/util/tile_cover.hpp>
 #include <mbgl/util/tileset.hpp>
 
@@ -10,6 +11,30 @@
 
 namespace mbgl {
 
+LatLngBounds OfflineRegionShape::bounds() const {
+    LatLngBounds result = LatLngBounds::empty();
+    for (const auto& latLng : coordinates) {
+        result.extend(latLng);
+    }
+
+    if (type == Type::Corridor && radius > 0 && !result.isEmpty()) {
+        // Widen by the radius, in degrees at the latitude closest to a pole.
+        const double latitudeDelta = radius / util::EARTH_RADIUS_M * util::RAD2DEG;
+        const double latitude = std::min(util::LATITUDE_MAX, std::max(std::abs(result.south()), std::abs(result.north())));
+        const double longitudeDelta = latitudeDelta / std::cos(latitude * util::DEG2RAD);
+        result = LatLngBounds::hull(
+            { std::max(-90.0, result.south() - latitudeDelta), result.west() - longitudeDelta },
+            { std::min(90.0, result.north() + latitudeDelta), result.east() + longitudeDelta });
+    }
+
+    return result;
+}
+
+static bool isValidDefinition(double minZoom, double maxZoom, float pixelRatio) {
+    return !(minZoom < 0 || maxZoom < 0 || maxZoom < minZoom || pixelRatio < 0 ||
+             !std::isfinite(minZoom) || std::isnan(maxZoom) || !std::isfinite(pixelRatio));
+}
+
 OfflineTilePyramidRegionDefinition::OfflineTilePyramidRegionDefinition(
     std::string styleURL_, LatLngBounds bounds_, double minZoom_, double maxZoom_, float pixelRatio_)
     : styleURL(std::move(styleURL_)),
@@ -17,10 +42,26 @@ OfflineTilePyramidRegionDefinition::OfflineTilePyramidRegionDefinition(
       minZoom(minZoom_),
       maxZoom(maxZoom_),
       pixelRatio(pixelRatio_) {
-    if (minZoom < 0 || maxZoom < 0 || maxZoom < minZoom || pixelRatio < 0 ||
-        !std::isfinite(minZoom) || std::isnan(maxZoom) || !std::isfinite(pixelRatio)) {
+    if (!isValidDefinition(minZoom, maxZoom, pixelRatio)) {
+        throw std::invalid_argument("Invalid offline region definition");
+    }
+}
+
+OfflineTilePyramidRegionDefinition::OfflineTilePyramidRegionDefinition(
+    std::string styleURL_, OfflineRegionShape shape_, double minZoom_, double maxZoom_, float pixelRatio_)
+    : styleURL(std::move(styleURL_)),
+      bounds(shape_.bounds()),
+      minZoom(minZoom_),
+      maxZoom(maxZoom_),
+      pixelRatio(pixelRatio_),
+      shape(std::move(shape_)) {
+    if (!isValidDefinition(minZoom, maxZoom, pixelRatio)) {
         throw std::invalid_argument("Invalid offline region definition");
     }
+    const std::size_t minCoordinates = shape->type == OfflineRegionShape::Type::Polygon ? 3 : 1;
+    if (shape->coordinates.size() < minCoordinates || shape->radius < 0 || !std::isfinite(shape->radius)) {
+        throw std::invalid_argument("Invalid offline region shape");
+    }
 }
 
 std::vector<CanonicalTileID> OfflineTilePyramidRegionDefinition::tileCover(SourceType type, uint16_t tileSize, const Range<uint8_t>& zoomRange) const {
@@ -35,7 +76,7 @@ std::vector<CanonicalTileID> OfflineTilePyramidRegionDefinition::tileCover(Sourc
     std::vector<CanonicalTileID> result;
 
     for (uint8_t z = minZ; z <= maxZ; z++) {
-        for (const auto& tile : util::tileCover(bounds, z)) {
+        for (const auto& tile : tileCover(z)) {
             result.emplace_back(tile.canonical);
         }
     }
@@ -43,6 +84,45 @@ std::vector<CanonicalTileID> OfflineTilePyramidRegionDefinition::tileCover(Sourc
     return result;
 }
 
+std::vector<uint64_t> OfflineTilePyramidRegionDefinition::tileCounts(SourceType type, uint16_t tileSize, const Range<uint8_t>& zoomRange) const {
+    double minZ = std::max<double>(util::coveringZoomLevel(minZoom, type, tileSize), zoomRange.min);
+    double maxZ = std::min<double>(util::coveringZoomLevel(maxZoom, type, tileSize), zoomRange.max);
+
+    assert(minZ >= 0);
+    assert(maxZ >= 0);
+    assert(minZ < std::numeric_limits<uint8_t>::max());
+    assert(maxZ < std::numeric_limits<uint8_t>::max());
+
+    std::vector<uint64_t> result;
+
+    for (uint8_t z = minZ; z <= maxZ; z++) {
+        result.resize(z + 1);
+        result[z] = tileCount(z);
+    }
+
+    return result;
+}
+
+std::vector<UnwrappedTileID> OfflineTilePyramidRegionDefinition::tileCover(int32_t z) const {
+    if (!shape) {
+        return util::tileCover(bounds, z);
+    } else if (shape->type == OfflineRegionShape::Type::Polygon) {
+        return util::polygonTileCover(shape->coordinates, z);
+    } else {
+        return util::corridorTileCover(shape->coordinates, shape->radius, z);
+    }
+}
+
+uint64_t OfflineTilePyramidRegionDefinition::tileCount(int32_t z) const {
+    if (!shape) {
+        return util::tileCount(bounds, z);
+    } else if (shape->type == OfflineRegionShape::Type::Polygon) {
+        return util::polygonTileCount(shape->coordinates, z);
+    } else {
+        return util::corridorTileCount(shape->coordinates, shape->radius, z);
+    }
+}
+
 OfflineRegionDefinition decodeOfflineRegionDefinition(const std::string& region) {
     rapidjson::GenericDocument<rapidjson::UTF8<>, rapidjson::CrtAllocator> doc;
     doc.Parse<0>(region.c_str());
@@ -66,7 +146,39 @@ OfflineRegionDefinition decodeOfflineRegionDefinition(const std::string& region)
     double maxZoom = doc.HasMember("max_zoom") ? doc["max_zoom"].GetDouble() : INFINITY;
     float pixelRatio = doc["pixel_ratio"].GetDouble();
 
-    return { styleURL, bounds, minZoom, maxZoom, pixelRatio };
+    if (!doc.HasMember("shape")) {
+        return { styleURL, bounds, minZoom, maxZoom, pixelRatio };
+    }
+
+    const auto& jsonShape = doc["shape"];
+    if (!jsonShape.IsObject() ||
+        !jsonShape.HasMember("type") || !jsonShape["type"].IsString() ||
+        !jsonShape.HasMember("coordinates") || !jsonShape["coordinates"].IsArray() ||
+        (jsonShape.HasMember("radius") && !jsonShape["radius"].IsDouble())) {
+        throw std::runtime_error("Malformed offline region definition");
+    }
+
+    OfflineRegionShape shape;
+    const std::string type { jsonShape["type"].GetString(), jsonShape["type"].GetStringLength() };
+    if (type == "polygon") {
+        shape.type = OfflineRegionShape::Type::Polygon;
+    } else if (type == "corridor") {
+        shape.type = OfflineRegionShape::Type::Corridor;
+    } else {
+        throw std::runtime_error("Malformed offline region definition");
+    }
+
+    const auto& coordinates = jsonShape["coordinates"];
+    for (rapidjson::SizeType i = 0; i < coordinates.Size(); ++i) {
+        if (!coordinates[i].IsArray() || coordinates[i].Size() != 2 ||
+            !coordinates[i][0].IsDouble() || !coordinates[i][1].IsDouble()) {
+            throw std::runtime_error("Malformed offline region definition");
+        }
+        shape.coordinates.emplace_back(coordinates[i][0].GetDouble(), coordinates[i][1].GetDouble());
+    }
+    shape.radius = jsonShape.HasMember("radius") ? jsonShape["radius"].GetDouble() : 0;
+
+    return { styleURL, std::move(shape), minZoom, maxZoom, pixelRatio };
 }
 
 std::string encodeOfflineRegionDefinition(const OfflineRegionDefinition& region) {
@@ -89,6 +201,26 @@ std::string encodeOfflineRegionDefinition(const OfflineRegionDefinition& region)
 
     doc.AddMember("pixel_ratio", region.pixelRatio, doc.GetAllocator());
 
+    if (region.shape) {
+        // Coordinates are stored latitude first, like the bounds.
+        rapidjson::GenericValue<rapidjson::UTF8<>, rapidjson::CrtAllocator> shape(rapidjson::kObjectType);
+        shape.AddMember("type", rapidjson::StringRef(region.shape->type == OfflineRegionShape::Type::Polygon ? "polygon" : "corridor"), doc.GetAllocator());
+
+        rapidjson::GenericValue<rapidjson::UTF8<>, rapidjson::CrtAllocator> coordinates(rapidjson::kArrayType);
+        for (const auto& latLng : region.shape->coordinates) {
+            rapidjson::GenericValue<rapidjson::UTF8<>, rapidjson::CrtAllocator> coordinate(rapidjson::kArrayType);
+            coordinate.PushBack(latLng.latitude, doc.GetAllocator());
+            coordinate.PushBack(latLng.longitude, doc.GetAllocator());
+            coordinates.PushBack(coordinate, doc.GetAllocator());
+        }
+        shape.AddMember("coordinates", coordinates, doc.GetAllocator());
+
+        if (region.shape->type == OfflineRegionShape::Type::Corridor) {
+            shape.AddMember("radius", region.shape->radius, doc.GetAllocator());
+        }
+        doc.AddMember("shape", shape, doc.GetAllocator());
+    }
+
     rapidjson::StringBuffer buffer;
     rapidjson::Writer<rapidjson::StringBuffer> writer(buffer);
     doc.Accept(writer);
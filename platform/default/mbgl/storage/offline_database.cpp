@@ -22,12 +22,20 @@ OfflineDatabase::OfflineDatabase(std::string path_, uint64_t maximumCacheSize_)
     : path(std::move(path_)),
       maximumCacheSize(maximumCacheSize_) {
     ensureSchema();
+
+    // In WAL mode readers do not block the writer and commits append to the log instead of
+    // rewriting pages in place. With NORMAL synchronous, the log is only synced at checkpoints,
+    // which keeps the database consistent and may only lose the latest commits on power loss.
+    // In-memory databases ignore the journal mode.
+    db->exec("PRAGMA journal_mode = WAL");
+    db->exec("PRAGMA synchronous = NORMAL");
 }
 
 OfflineDatabase::~OfflineDatabase() {
     // Deleting these SQLite objects may result in exceptions, but we're in a destructor, so we
     // can't throw anything.
     try {
+        commitBatch();
         statements.clear();
         db.reset();
     } catch (mapbox::sqlite::Exception& ex) {
@@ -50,7 +58,9 @@ void OfflineDatabase::ensureSchema() {
             case 0: break; // cache-only database; ok to delete
             case 1: break; // cache-only database; ok to delete
             case 2: migrateToVersion3(); // fall through
-            case 3: return;
+            case 3: migrateToVersion4(); // fall through
+            case 4: migrateToVersion5(); // fall through
+            case 5: return;
             default: throw std::runtime_error("unknown schema version");
             }
 
@@ -82,7 +92,7 @@ void OfflineDatabase::ensureSchema() {
         // If you change the schema you must write a migration from the previous version.
         db->exec("PRAGMA auto_vacuum = INCREMENTAL");
         db->exec(schema);
-        db->exec("PRAGMA user_version = 3");
+        db->exec("PRAGMA user_version = 5");
     } catch (...) {
         Log::Error(Event::Database, "Unexpected error creating database schema: %s", util::toString(std::current_exception()).c_str());
         throw;
@@ -105,6 +115,15 @@ void OfflineDatabase::removeExisting() {
     } catch (util::IOException& ex) {
         Log::Error(Event::Database, ex.code, ex.what());
     }
+
+    // A stale log would be replayed into the new database.
+    for (const char* suffix : { "-wal", "-shm" }) {
+        try {
+            util::deleteFile(path + suffix);
+        } catch (util::IOException&) {
+            // Not in WAL mode.
+        }
+    }
 }
 
 void OfflineDatabase::migrateToVersion3() {
@@ -113,6 +132,23 @@ void OfflineDatabase::migrateToVersion3() {
     db->exec("PRAGMA user_version = 3");
 }
 
+void OfflineDatabase::migrateToVersion4() {
+    Transaction transaction(*db, Transaction::Immediate);
+    db->exec("ALTER TABLE resources ADD COLUMN validated INTEGER");
+    db->exec("ALTER TABLE tiles ADD COLUMN validated INTEGER");
+    db->exec("ALTER TABLE regions ADD COLUMN refresh_started INTEGER");
+    db->exec("PRAGMA user_version = 4");
+    transaction.commit();
+}
+
+void OfflineDatabase::migrateToVersion5() {
+    Transaction transaction(*db, Transaction::Immediate);
+    db->exec("ALTER TABLE resources ADD COLUMN hits INTEGER NOT NULL DEFAULT 0");
+    db->exec("ALTER TABLE tiles ADD COLUMN hits INTEGER NOT NULL DEFAULT 0");
+    db->exec("PRAGMA user_version = 5");
+    transaction.commit();
+}
+
 OfflineDatabase::Statement OfflineDatabase::getStatement(const char * sql) {
     auto it = statements.find(sql);
 
@@ -124,16 +160,26 @@ OfflineDatabase::Statement OfflineDatabase::getStatement(const char * sql) {
 }
 
 optional<Response> OfflineDatabase::get(const Resource& resource) {
-    auto result = getInternal(resource);
+    auto result = getInternal(resource, true);
+    if (result) {
+        cacheHits++;
+    } else {
+        cacheMisses++;
+    }
+    return result ? result->first : optional<Response>();
+}
+
+optional<Response> OfflineDatabase::peek(const Resource& resource) {
+    auto result = getInternal(resource, false);
     return result ? result->first : optional<Response>();
 }
 
-optional<std::pair<Response, uint64_t>> OfflineDatabase::getInternal(const Resource& resource) {
+optional<std::pair<Response, uint64_t>> OfflineDatabase::getInternal(const Resource& resource, bool markAccessed) {
     if (resource.kind == Resource::Kind::Tile) {
         assert(resource.tileData);
-        return getTile(*resource.tileData);
+        return getTile(*resource.tileData, markAccessed);
     } else {
-        return getResource(resource);
+        return getResource(resource, markAccessed);
     }
 }
 
@@ -177,13 +223,15 @@ std::pair<bool, uint64_t> OfflineDatabase::putInternal(const Resource& resource,
     return { inserted, size };
 }
 
-optional<std::pair<Response, uint64_t>> OfflineDatabase::getResource(const Resource& resource) {
-    Statement accessedStmt = getStatement(
-        "UPDATE resources SET accessed = ?1 WHERE url = ?2");
+optional<std::pair<Response, uint64_t>> OfflineDatabase::getResource(const Resource& resource, bool markAccessed) {
+    if (markAccessed) {
+        Statement accessedStmt = getStatement(
+            "UPDATE resources SET accessed = ?1, hits = hits + 1 WHERE url = ?2");
 
-    accessedStmt->bind(1, util::now());
-    accessedStmt->bind(2, resource.url);
-    accessedStmt->run();
+        accessedStmt->bind(1, util::now());
+        accessedStmt->bind(2, resource.url);
+        accessedStmt->run();
+    }
 
     Statement stmt = getStatement(
         //        0      1        2       3        4
@@ -225,9 +273,10 @@ bool OfflineDatabase::putResource(const Resource& resource,
     if (response.notModified) {
         Statement update = getStatement(
             "UPDATE resources "
-            "SET accessed = ?1, "
-            "    expires  = ?2 "
-            "WHERE url    = ?3 ");
+            "SET accessed  = ?1, "
+            "    validated = ?1, "
+            "    expires   = ?2 "
+            "WHERE url     = ?3 ");
 
         update->bind(1, util::now());
         update->bind(2, response.expires);
@@ -240,7 +289,11 @@ bool OfflineDatabase::putResource(const Resource& resource,
 
     // Begin an immediate-mode transaction to ensure that two writers do not attempt
     // to INSERT a resource at the same moment.
-    Transaction transaction(*db, Transaction::Immediate);
+    // Within a batch, the writes already are part of an immediate-mode transaction.
+    optional<Transaction> transaction;
+    if (!batch) {
+        transaction.emplace(*db, Transaction::Immediate);
+    }
 
     Statement update = getStatement(
         "UPDATE resources "
@@ -249,6 +302,7 @@ bool OfflineDatabase::putResource(const Resource& resource,
         "    expires    = ?3, "
         "    modified   = ?4, "
         "    accessed   = ?5, "
+        "    validated  = ?5, "
         "    data       = ?6, "
         "    compressed = ?7 "
         "WHERE url      = ?8 ");
@@ -270,13 +324,15 @@ bool OfflineDatabase::putResource(const Resource& resource,
 
     update->run();
     if (db->changes() != 0) {
-        transaction.commit();
+        if (transaction) {
+            transaction->commit();
+        }
         return false;
     }
 
     Statement insert = getStatement(
-        "INSERT INTO resources (url, kind, etag, expires, modified, accessed, data, compressed) "
-        "VALUES                (?1,  ?2,   ?3,   ?4,      ?5,       ?6,       ?7,   ?8) ");
+        "INSERT INTO resources (url, kind, etag, expires, modified, accessed, validated, data, compressed) "
+        "VALUES                (?1,  ?2,   ?3,   ?4,      ?5,       ?6,       ?6,        ?7,   ?8) ");
 
     insert->bind(1, resource.url);
     insert->bind(2, int(resource.kind));
@@ -294,28 +350,33 @@ bool OfflineDatabase::putResource(const Resource& resource,
     }
 
     insert->run();
-    transaction.commit();
+    if (transaction) {
+        transaction->commit();
+    }
 
     return true;
 }
 
-optional<std::pair<Response, uint64_t>> OfflineDatabase::getTile(const Resource::TileData& tile) {
-    Statement accessedStmt = getStatement(
-        "UPDATE tiles "
-        "SET accessed       = ?1 "
-        "WHERE url_template = ?2 "
-        "  AND pixel_ratio  = ?3 "
-        "  AND x            = ?4 "
-        "  AND y            = ?5 "
-        "  AND z            = ?6 ");
-
-    accessedStmt->bind(1, util::now());
-    accessedStmt->bind(2, tile.urlTemplate);
-    accessedStmt->bind(3, tile.pixelRatio);
-    accessedStmt->bind(4, tile.x);
-    accessedStmt->bind(5, tile.y);
-    accessedStmt->bind(6, tile.z);
-    accessedStmt->run();
+optional<std::pair<Response, uint64_t>> OfflineDatabase::getTile(const Resource::TileData& tile, bool markAccessed) {
+    if (markAccessed) {
+        Statement accessedStmt = getStatement(
+            "UPDATE tiles "
+            "SET accessed       = ?1, "
+            "    hits           = hits + 1 "
+            "WHERE url_template = ?2 "
+            "  AND pixel_ratio  = ?3 "
+            "  AND x            = ?4 "
+            "  AND y            = ?5 "
+            "  AND z            = ?6 ");
+
+        accessedStmt->bind(1, util::now());
+        accessedStmt->bind(2, tile.urlTemplate);
+        accessedStmt->bind(3, tile.pixelRatio);
+        accessedStmt->bind(4, tile.x);
+        accessedStmt->bind(5, tile.y);
+        accessedStmt->bind(6, tile.z);
+        accessedStmt->run();
+    }
 
     Statement stmt = getStatement(
         //        0      1        2       3        4
@@ -366,6 +427,7 @@ bool OfflineDatabase::putTile(const Resource::TileData& tile,
         Statement update = getStatement(
             "UPDATE tiles "
             "SET accessed       = ?1, "
+            "    validated      = ?1, "
             "    expires        = ?2 "
             "WHERE url_template = ?3 "
             "  AND pixel_ratio  = ?4 "
@@ -388,7 +450,11 @@ bool OfflineDatabase::putTile(const Resource::TileData& tile,
 
     // Begin an immediate-mode transaction to ensure that two writers do not attempt
     // to INSERT a resource at the same moment.
-    Transaction transaction(*db, Transaction::Immediate);
+    // Within a batch, the writes already are part of an immediate-mode transaction.
+    optional<Transaction> transaction;
+    if (!batch) {
+        transaction.emplace(*db, Transaction::Immediate);
+    }
 
     Statement update = getStatement(
         "UPDATE tiles "
@@ -396,6 +462,7 @@ bool OfflineDatabase::putTile(const Resource::TileData& tile,
         "    etag           = ?2, "
         "    expires        = ?3, "
         "    accessed       = ?4, "
+        "    validated      = ?4, "
         "    data           = ?5, "
         "    compressed     = ?6 "
         "WHERE url_template = ?7 "
@@ -424,13 +491,15 @@ bool OfflineDatabase::putTile(const Resource::TileData& tile,
 
     update->run();
     if (db->changes() != 0) {
-        transaction.commit();
+        if (transaction) {
+            transaction->commit();
+        }
         return false;
     }
 
     Statement insert = getStatement(
-        "INSERT INTO tiles (url_template, pixel_ratio, x,  y,  z,  modified,  etag,  expires,  accessed,  data, compressed) "
-        "VALUES            (?1,           ?2,          ?3, ?4, ?5, ?6,        ?7,    ?8,       ?9,        ?10,  ?11) ");
+        "INSERT INTO tiles (url_template, pixel_ratio, x,  y,  z,  modified,  etag,  expires,  accessed,  validated, data, compressed) "
+        "VALUES            (?1,           ?2,          ?3, ?4, ?5, ?6,        ?7,    ?8,       ?9,        ?9,        ?10,  ?11) ");
 
     insert->bind(1, tile.urlTemplate);
     insert->bind(2, tile.pixelRatio);
@@ -451,7 +520,9 @@ bool OfflineDatabase::putTile(const Resource::TileData& tile,
     }
 
     insert->run();
-    transaction.commit();
+    if (transaction) {
+        transaction->commit();
+    }
 
     return true;
 }
@@ -486,6 +557,8 @@ OfflineRegion OfflineDatabase::createRegion(const OfflineRegionDefinition& defin
 }
 
 void OfflineDatabase::deleteRegion(OfflineRegion&& region) {
+    commitBatch();
+
     Statement stmt = getStatement(
         "DELETE FROM regions WHERE id = ?");
 
@@ -500,7 +573,7 @@ void OfflineDatabase::deleteRegion(OfflineRegion&& region) {
 }
 
 optional<std::pair<Response, uint64_t>> OfflineDatabase::getRegionResource(int64_t regionID, const Resource& resource) {
-    auto response = getInternal(resource);
+    auto response = getInternal(resource, true);
 
     if (response) {
         markUsed(regionID, resource);
@@ -510,6 +583,10 @@ optional<std::pair<Response, uint64_t>> OfflineDatabase::getRegionResource(int64
 }
 
 uint64_t OfflineDatabase::putRegionResource(int64_t regionID, const Resource& resource, const Response& response) {
+    if (batchSize > 1 && !batch) {
+        batch = std::make_unique<Transaction>(*db, Transaction::Immediate);
+    }
+
     uint64_t size = putInternal(resource, response, false).second;
     bool previouslyUnused = markUsed(regionID, resource);
 
@@ -520,9 +597,330 @@ uint64_t OfflineDatabase::putRegionResource(int64_t regionID, const Resource& re
         *offlineMapboxTileCount += 1;
     }
 
+    if (batch && ++batchCount >= batchSize) {
+        commitBatch();
+    }
+
     return size;
 }
 
+void OfflineDatabase::startRegionRefresh(int64_t regionID) {
+    Statement stmt = getStatement(
+        "UPDATE regions SET refresh_started = ?1 WHERE id = ?2 AND refresh_started IS NULL");
+
+    stmt->bind(1, util::now());
+    stmt->bind(2, regionID);
+    stmt->run();
+}
+
+optional<Timestamp> OfflineDatabase::getRegionRefreshStarted(int64_t regionID) {
+    Statement stmt = getStatement(
+        "SELECT refresh_started FROM regions WHERE id = ?1");
+
+    stmt->bind(1, regionID);
+    if (!stmt->run()) {
+        return {};
+    }
+
+    return stmt->get<optional<Timestamp>>(0);
+}
+
+void OfflineDatabase::finishRegionRefresh(int64_t regionID) {
+    Statement stmt = getStatement(
+        "UPDATE regions SET refresh_started = NULL WHERE id = ?1");
+
+    stmt->bind(1, regionID);
+    stmt->run();
+}
+
+bool OfflineDatabase::isValidatedSince(const Resource& resource, Timestamp since) {
+    optional<Timestamp> validated;
+
+    if (resource.kind == Resource::Kind::Tile) {
+        Statement stmt = getStatement(
+            "SELECT validated "
+            "FROM tiles "
+            "WHERE url_template = ?1 "
+            "  AND pixel_ratio  = ?2 "
+            "  AND x            = ?3 "
+            "  AND y            = ?4 "
+            "  AND z            = ?5 ");
+
+        const Resource::TileData& tile = *resource.tileData;
+        stmt->bind(1, tile.urlTemplate);
+        stmt->bind(2, tile.pixelRatio);
+        stmt->bind(3, tile.x);
+        stmt->bind(4, tile.y);
+        stmt->bind(5, tile.z);
+        if (stmt->run()) {
+            validated = stmt->get<optional<Timestamp>>(0);
+        }
+    } else {
+        Statement stmt = getStatement(
+            "SELECT validated FROM resources WHERE url = ?1");
+
+        stmt->bind(1, resource.url);
+        if (stmt->run()) {
+            validated = stmt->get<optional<Timestamp>>(0);
+        }
+    }
+
+    // Timestamps have second precision, resources validated in the second the refresh
+    // started may predate it and are revalidated again.
+    return validated && *validated > since;
+}
+
+optional<uint64_t> OfflineDatabase::getAverageTileSize(const std::string& urlTemplate, uint8_t pixelRatio) {
+    Statement stmt = getStatement(
+        "SELECT COUNT(*), SUM(size) "
+        "FROM (SELECT LENGTH(data) AS size "
+        "      FROM tiles "
+        "      WHERE url_template = ?1 "
+        "        AND pixel_ratio  = ?2 "
+        "        AND data IS NOT NULL "
+        "      LIMIT 1000) ");
+
+    stmt->bind(1, urlTemplate);
+    stmt->bind(2, pixelRatio);
+    stmt->run();
+
+    const int64_t count = stmt->get<int64_t>(0);
+    if (count == 0) {
+        return {};
+    }
+
+    return uint64_t(stmt->get<int64_t>(1) / count);
+}
+
+optional<uint64_t> OfflineDatabase::getAverageResourceSize(Resource::Kind kind) {
+    Statement stmt = getStatement(
+        "SELECT COUNT(*), SUM(size) "
+        "FROM (SELECT LENGTH(data) AS size "
+        "      FROM resources "
+        "      WHERE kind = ?1 "
+        "        AND data IS NOT NULL "
+        "      LIMIT 1000) ");
+
+    stmt->bind(1, int(kind));
+    stmt->run();
+
+    const int64_t count = stmt->get<int64_t>(0);
+    if (count == 0) {
+        return {};
+    }
+
+    return uint64_t(stmt->get<int64_t>(1) / count);
+}
+
+void OfflineDatabase::attachArchive(const std::string& archivePath) {
+    // Statements that refer to the archive are prepared without the statement cache; they must
+    // be finalized before the archive can be detached.
+    auto stmt = db->prepare("ATTACH DATABASE ?1 AS archive");
+    stmt.bind(1, archivePath);
+    stmt.run();
+
+    // Tile blobs are copied in one pass, memory map the archive where SQLite supports it.
+    db->exec("PRAGMA archive.mmap_size = 268435456");
+}
+
+void OfflineDatabase::detachArchive() {
+    db->exec("DETACH DATABASE archive");
+}
+
+void OfflineDatabase::exportRegion(int64_t regionID, const std::string& archivePath) {
+    try {
+        util::deleteFile(archivePath);
+    } catch (util::IOException&) {
+        // No previous archive to replace.
+    }
+
+    // Databases can't be attached within a transaction.
+    commitBatch();
+
+    {
+        #include "offline_schema.cpp.include"
+
+        Database archive(archivePath.c_str(), ReadWrite | Create);
+        archive.exec(schema);
+        archive.exec("PRAGMA user_version = 5");
+    }
+
+    attachArchive(archivePath);
+
+    try {
+        Transaction transaction(*db, Transaction::Immediate);
+
+        {
+            auto region = db->prepare(
+                "INSERT INTO archive.regions (id, definition, description) "
+                "SELECT id, definition, description FROM main.regions WHERE id = ?1");
+            region.bind(1, regionID);
+            region.run();
+
+            if (db->changes() == 0) {
+                throw std::runtime_error("offline region not found");
+            }
+
+            auto resources = db->prepare(
+                "INSERT INTO archive.resources (id, url, kind, expires, modified, etag, data, compressed, accessed, validated) "
+                "SELECT r.id, r.url, r.kind, r.expires, r.modified, r.etag, r.data, r.compressed, r.accessed, r.validated "
+                "FROM main.resources r, main.region_resources rr "
+                "WHERE rr.resource_id = r.id "
+                "  AND rr.region_id   = ?1 ");
+            resources.bind(1, regionID);
+            resources.run();
+
+            auto regionResources = db->prepare(
+                "INSERT INTO archive.region_resources (region_id, resource_id) "
+                "SELECT region_id, resource_id FROM main.region_resources WHERE region_id = ?1");
+            regionResources.bind(1, regionID);
+            regionResources.run();
+
+            auto tiles = db->prepare(
+                "INSERT INTO archive.tiles (id, url_template, pixel_ratio, z, x, y, expires, modified, etag, data, compressed, accessed, validated) "
+                "SELECT t.id, t.url_template, t.pixel_ratio, t.z, t.x, t.y, t.expires, t.modified, t.etag, t.data, t.compressed, t.accessed, t.validated "
+                "FROM main.tiles t, main.region_tiles rt "
+                "WHERE rt.tile_id   = t.id "
+                "  AND rt.region_id = ?1 ");
+            tiles.bind(1, regionID);
+            tiles.run();
+
+            auto regionTiles = db->prepare(
+                "INSERT INTO archive.region_tiles (region_id, tile_id) "
+                "SELECT region_id, tile_id FROM main.region_tiles WHERE region_id = ?1");
+            regionTiles.bind(1, regionID);
+            regionTiles.run();
+        }
+
+        transaction.commit();
+    } catch (...) {
+        detachArchive();
+        try {
+            util::deleteFile(archivePath);
+        } catch (util::IOException& ex) {
+            Log::Error(Event::Database, ex.code, ex.what());
+        }
+        throw;
+    }
+
+    detachArchive();
+}
+
+std::vector<OfflineRegion> OfflineDatabase::importRegions(const std::string& archivePath) {
+    {
+        // Opening read-only fails on missing files, which ATTACH would create instead.
+        Database archive(archivePath.c_str(), ReadOnly);
+        auto stmt = archive.prepare("PRAGMA user_version");
+        stmt.run();
+        // Version 4 archives only lack the hit counts, which are not imported.
+        const int version = stmt.get<int>(0);
+        if (version != 4 && version != 5) {
+            throw std::runtime_error("unsupported offline archive version");
+        }
+    }
+
+    commitBatch();
+
+    attachArchive(archivePath);
+
+    std::vector<OfflineRegion> result;
+
+    try {
+        Transaction transaction(*db, Transaction::Immediate);
+
+        const uint64_t mapboxTileCount = getOfflineMapboxTileCount();
+
+        {
+            auto resources = db->prepare(
+                "INSERT OR IGNORE INTO main.resources (url, kind, expires, modified, etag, data, compressed, accessed, validated) "
+                "SELECT url, kind, expires, modified, etag, data, compressed, ?1, validated "
+                "FROM archive.resources ");
+            resources.bind(1, util::now());
+            resources.run();
+
+            auto tiles = db->prepare(
+                "INSERT OR IGNORE INTO main.tiles (url_template, pixel_ratio, z, x, y, expires, modified, etag, data, compressed, accessed, validated) "
+                "SELECT url_template, pixel_ratio, z, x, y, expires, modified, etag, data, compressed, ?1, validated "
+                "FROM archive.tiles ");
+            tiles.bind(1, util::now());
+            tiles.run();
+
+            auto insertRegion = db->prepare(
+                "INSERT INTO main.regions (definition, description) "
+                "VALUES                   (?1,         ?2) ");
+
+            auto regionResources = db->prepare(
+                "INSERT OR IGNORE INTO main.region_resources (region_id, resource_id) "
+                "SELECT ?1, m.id "
+                "FROM archive.region_resources rr, archive.resources a, main.resources m "
+                "WHERE rr.region_id   = ?2 "
+                "  AND rr.resource_id = a.id "
+                "  AND m.url          = a.url ");
+
+            auto regionTiles = db->prepare(
+                "INSERT OR IGNORE INTO main.region_tiles (region_id, tile_id) "
+                "SELECT ?1, m.id "
+                "FROM archive.region_tiles rt, archive.tiles a, main.tiles m "
+                "WHERE rt.region_id    = ?2 "
+                "  AND rt.tile_id      = a.id "
+                "  AND m.url_template  = a.url_template "
+                "  AND m.pixel_ratio   = a.pixel_ratio "
+                "  AND m.z             = a.z "
+                "  AND m.x             = a.x "
+                "  AND m.y             = a.y ");
+
+            auto regions = db->prepare(
+                "SELECT id, definition, description FROM archive.regions");
+
+            while (regions.run()) {
+                const int64_t archiveID = regions.get<int64_t>(0);
+                const std::string definition = regions.get<std::string>(1);
+                const OfflineRegionMetadata metadata = regions.get<std::vector<uint8_t>>(2);
+
+                insertRegion.bind(1, definition);
+                insertRegion.bindBlob(2, metadata);
+                insertRegion.run();
+                insertRegion.reset();
+                const int64_t regionID = db->lastInsertRowid();
+
+                regionResources.bind(1, regionID);
+                regionResources.bind(2, archiveID);
+                regionResources.run();
+                regionResources.reset();
+
+                regionTiles.bind(1, regionID);
+                regionTiles.bind(2, archiveID);
+                regionTiles.run();
+                regionTiles.reset();
+
+                result.push_back(OfflineRegion(regionID, decodeOfflineRegionDefinition(definition), metadata));
+            }
+        }
+
+        // Imported tiles count towards the limit like downloaded ones, only tiles not stored
+        // for another region add to the count.
+        offlineMapboxTileCount = {};
+        const uint64_t importedMapboxTileCount = getOfflineMapboxTileCount();
+        if (importedMapboxTileCount > mapboxTileCount && importedMapboxTileCount > offlineMapboxTileCountLimit) {
+            throw std::runtime_error("Mapbox tile limit exceeded");
+        }
+
+        transaction.commit();
+    } catch (...) {
+        // The count may include rolled back tiles.
+        offlineMapboxTileCount = {};
+        detachArchive();
+        throw;
+    }
+
+    detachArchive();
+
+    // Ensure that the cached offlineTileCount value is recalculated.
+    offlineMapboxTileCount = {};
+
+    return result;
+}
+
 bool OfflineDatabase::markUsed(int64_t regionID, const Resource& resource) {
     if (resource.kind == Resource::Kind::Tile) {
         Statement insert = getStatement(
@@ -647,16 +1045,15 @@ T OfflineDatabase::getPragma(const char * sql) {
     return stmt->get<T>(0);
 }
 
-// Remove least-recently used resources and tiles until the used database size,
-// as calculated by multiplying the number of in-use pages by the page size, is
-// less than the maximum cache size. Returns false if this condition cannot be
-// satisfied.
+// Remove ambient resources and tiles, in the order of the eviction policy, until the used
+// database size, as calculated by multiplying the number of in-use pages by the page size, is
+// less than the maximum cache size. Returns false if this condition cannot be satisfied.
 //
 // SQLite database never shrinks in size unless we call VACCUM. We here
 // are monitoring the soft limit (i.e. number of free pages in the file)
 // and as it approaches to the hard limit (i.e. the actual file size) we
-// delete an arbitrary number of old cache entries. The free pages approach saves
-// us from calling VACCUM or keeping a running total, which can be costly.
+// delete old cache entries. The free pages approach saves us from calling
+// VACCUM or keeping a running total, which can be costly.
 bool OfflineDatabase::evict(uint64_t neededFreeSize) {
     uint64_t pageSize = getPragma<int64_t>("PRAGMA page_size");
     uint64_t pageCount = getPragma<int64_t>("PRAGMA page_count");
@@ -667,44 +1064,143 @@ bool OfflineDatabase::evict(uint64_t neededFreeSize) {
 
     // The addition of pageSize is a fudge factor to account for non `data` column
     // size, and because pages can get fragmented on the database.
-    while (usedSize() + neededFreeSize + pageSize > maximumCacheSize) {
-        Statement stmt1 = getStatement(
-            "DELETE FROM resources "
-            "WHERE id IN ( "
-            "  SELECT id FROM resources "
-            "  LEFT JOIN region_resources "
-            "  ON resource_id = resources.id "
-            "  WHERE resource_id IS NULL "
-            "  ORDER BY accessed ASC LIMIT ?1 "
-            ") ");
-        stmt1->bind(1, 50);
-        stmt1->run();
-        uint64_t changes1 = db->changes();
-
-        Statement stmt2 = getStatement(
-            "DELETE FROM tiles "
-            "WHERE id IN ( "
-            "  SELECT id FROM tiles "
-            "  LEFT JOIN region_tiles "
-            "  ON tile_id = tiles.id "
-            "  WHERE tile_id IS NULL "
-            "  ORDER BY accessed ASC LIMIT ?1 "
-            ") ");
-        stmt2->bind(1, 50);
-        stmt2->run();
-        uint64_t changes2 = db->changes();
-
-        // The cached value of offlineTileCount does not need to be updated
-        // here because only non-offline tiles can be removed by eviction.
+    uint64_t used = usedSize();
+    while (used + neededFreeSize + pageSize > maximumCacheSize) {
+        // Free a slice of the cache beyond what is needed, so the following puts don't each
+        // have to evict again. The candidates are ranked once per pass and deleted by id,
+        // instead of ranking the whole cache again for every few entries.
+        const uint64_t excess = used + neededFreeSize + pageSize - maximumCacheSize;
+        const uint64_t target = excess + maximumCacheSize / util::OFFLINE_EVICTION_SLICE;
+
+        std::vector<int64_t> resourceIDs;
+        std::vector<int64_t> tileIDs;
+        uint64_t selected = 0;
+
+        {
+            Statement candidates = evictionPolicy == OfflineCacheEvictionPolicy::LeastRecentlyUsed
+                ? getStatement(
+                    //     0   1         2
+                    "SELECT 0, id, LENGTH(data), accessed FROM resources "
+                    "LEFT JOIN region_resources ON resource_id = resources.id "
+                    "WHERE resource_id IS NULL "
+                    "UNION ALL "
+                    "SELECT 1, id, LENGTH(data), accessed FROM tiles "
+                    "LEFT JOIN region_tiles ON tile_id = tiles.id "
+                    "WHERE tile_id IS NULL "
+                    "ORDER BY 4 ASC, 2 ASC LIMIT ?1 ")
+                : getStatement(
+                    //     0   1         2
+                    "SELECT 0, id, LENGTH(data), (hits + 1.0) / (IFNULL(LENGTH(data), 0) + 1), accessed FROM resources "
+                    "LEFT JOIN region_resources ON resource_id = resources.id "
+                    "WHERE resource_id IS NULL "
+                    "UNION ALL "
+                    "SELECT 1, id, LENGTH(data), (hits + 1.0) / (IFNULL(LENGTH(data), 0) + 1), accessed FROM tiles "
+                    "LEFT JOIN region_tiles ON tile_id = tiles.id "
+                    "WHERE tile_id IS NULL "
+                    "ORDER BY 4 ASC, 5 ASC, 2 ASC LIMIT ?1 ");
+
+            candidates->bind(1, util::OFFLINE_EVICTION_CANDIDATES);
+            while (selected < target && candidates->run()) {
+                (candidates->get<int>(0) ? tileIDs : resourceIDs).push_back(candidates->get<int64_t>(1));
+                selected += candidates->get<int64_t>(2) + 1;
+            }
+        }
 
-        if (changes1 == 0 && changes2 == 0) {
+        if (resourceIDs.empty() && tileIDs.empty()) {
             return false;
         }
+
+        // A batch of region writes may be open, in which case the deletes join it.
+        optional<Transaction> transaction;
+        if (!batch) {
+            transaction.emplace(*db, Transaction::Immediate);
+        }
+
+        Statement deleteResource = getStatement("DELETE FROM resources WHERE id = ?1");
+        for (int64_t id : resourceIDs) {
+            deleteResource->bind(1, id);
+            deleteResource->run();
+            deleteResource->reset();
+        }
+
+        Statement deleteTile = getStatement("DELETE FROM tiles WHERE id = ?1");
+        for (int64_t id : tileIDs) {
+            deleteTile->bind(1, id);
+            deleteTile->run();
+            deleteTile->reset();
+        }
+
+        if (transaction) {
+            transaction->commit();
+        }
+
+        // The cached value of offlineTileCount does not need to be updated
+        // here because only non-offline tiles can be removed by eviction.
+        evictedCount += resourceIDs.size() + tileIDs.size();
+        used = usedSize();
     }
 
     return true;
 }
 
+void OfflineDatabase::setMaximumAmbientCacheSize(uint64_t size) {
+    maximumCacheSize = size;
+    evict(0);
+}
+
+void OfflineDatabase::setAmbientCacheEvictionPolicy(OfflineCacheEvictionPolicy policy) {
+    evictionPolicy = policy;
+}
+
+AmbientCacheStatistics OfflineDatabase::getAmbientCacheStatistics() {
+    AmbientCacheStatistics result;
+    result.maximumSize = maximumCacheSize;
+    result.databaseSize = getPragma<int64_t>("PRAGMA page_size") * getPragma<int64_t>("PRAGMA page_count");
+    result.hits = cacheHits;
+    result.misses = cacheMisses;
+    result.evictedCount = evictedCount;
+
+    Statement resources = getStatement(
+        "SELECT COUNT(*), IFNULL(SUM(LENGTH(data)), 0) FROM resources "
+        "LEFT JOIN region_resources ON resource_id = resources.id "
+        "WHERE resource_id IS NULL ");
+    resources->run();
+    result.resourceCount = resources->get<int64_t>(0);
+    result.size = resources->get<int64_t>(1);
+
+    Statement tiles = getStatement(
+        "SELECT COUNT(*), IFNULL(SUM(LENGTH(data)), 0) FROM tiles "
+        "LEFT JOIN region_tiles ON tile_id = tiles.id "
+        "WHERE tile_id IS NULL ");
+    tiles->run();
+    result.tileCount = tiles->get<int64_t>(0);
+    result.size += tiles->get<int64_t>(1);
+
+    return result;
+}
+
+void OfflineDatabase::setBatchSize(uint32_t size) {
+    batchSize = size > 0 ? size : 1;
+    if (batchCount >= batchSize) {
+        commitBatch();
+    }
+}
+
+void OfflineDatabase::commitBatch() {
+    if (!batch) {
+        return;
+    }
+
+    // Reset first, a failed commit rolls the batch back.
+    batchCount = 0;
+    std::unique_ptr<Transaction> committing = std::move(batch);
+    committing->commit();
+}
+
+bool OfflineDatabase::hasUncommittedBatch() const {
+    return bool(batch);
+}
+
 void OfflineDatabase::setOfflineMapboxTileCountLimit(uint64_t limit) {
     offlineMapboxTileCountLimit = limit;
 }
@@ -15,6 +15,7 @@ namespace mapbox {
 namespace sqlite {
 class Database;
 class Statement;
+class Transaction;
 } // namespace sqlite
 } // namespace mapbox
 
@@ -32,6 +33,10 @@ public:
 
     optional<Response> get(const Resource&);
 
+    // Like get, but does not count as an access: the last access time, the hit count and the
+    // cache statistics used to rank entries for eviction are left as they are.
+    optional<Response> peek(const Resource&);
+
     // Return value is (inserted, stored size)
     std::pair<bool, uint64_t> put(const Resource&, const Response&);
 
@@ -49,6 +54,41 @@ public:
     OfflineRegionDefinition getRegionDefinition(int64_t regionID);
     OfflineRegionStatus getRegionCompletedStatus(int64_t regionID);
 
+    // A refresh revalidates every resource of a region that was not validated with the server
+    // since the refresh started. The start time is stored so an interrupted refresh resumes
+    // where it stopped; starting a refresh that is already in progress keeps its start time.
+    void startRegionRefresh(int64_t regionID);
+    optional<Timestamp> getRegionRefreshStarted(int64_t regionID);
+    void finishRegionRefresh(int64_t regionID);
+    bool isValidatedSince(const Resource&, Timestamp);
+
+    // Average stored size of the tiles of a tile source, or of the resources of a kind, sampled
+    // from up to 1000 stored entries. Used to estimate the size of regions before downloading.
+    optional<uint64_t> getAverageTileSize(const std::string& urlTemplate, uint8_t pixelRatio);
+    optional<uint64_t> getAverageResourceSize(Resource::Kind);
+
+    // Regions are exchanged as standalone databases with the offline schema that hold only the
+    // exported region and its resources. Existing files are replaced on export. Import adds all
+    // regions of an archive in one transaction; resources already stored are kept as they are.
+    // Imports that would exceed the Mapbox tile count limit are rolled back.
+    void exportRegion(int64_t regionID, const std::string& archivePath);
+    std::vector<OfflineRegion> importRegions(const std::string& archivePath);
+
+    // Region resources are written in batches of up to `batchSize` resources that share one
+    // transaction, so a region download syncs the database once per batch instead of once per
+    // resource. A batch that is not full yet is committed by `commitBatch`; until then its writes
+    // are only visible on this connection and are lost if the process dies. The default size of 1
+    // commits every resource right away.
+    void setBatchSize(uint32_t);
+    void commitBatch();
+    bool hasUncommittedBatch() const;
+
+    // The maximum size applies to the whole database, but only ambient entries are evicted to
+    // stay below it. Lowering the size evicts right away. Hit and miss counts cover get() only.
+    void setMaximumAmbientCacheSize(uint64_t);
+    void setAmbientCacheEvictionPolicy(OfflineCacheEvictionPolicy);
+    AmbientCacheStatistics getAmbientCacheStatistics();
+
     void setOfflineMapboxTileCountLimit(uint64_t);
     uint64_t getOfflineMapboxTileCountLimit();
     bool offlineMapboxTileCountLimitExceeded();
@@ -60,6 +100,10 @@ private:
     void ensureSchema();
     void removeExisting();
     void migrateToVersion3();
+    void migrateToVersion4();
+    void migrateToVersion5();
+    void attachArchive(const std::string& archivePath);
+    void detachArchive();
 
     class Statement {
     public:
@@ -76,15 +120,15 @@ private:
 
     Statement getStatement(const char *);
 
-    optional<std::pair<Response, uint64_t>> getTile(const Resource::TileData&);
+    optional<std::pair<Response, uint64_t>> getTile(const Resource::TileData&, bool markAccessed);
     bool putTile(const Resource::TileData&, const Response&,
                  const std::string&, bool compressed);
 
-    optional<std::pair<Response, uint64_t>> getResource(const Resource&);
+    optional<std::pair<Response, uint64_t>> getResource(const Resource&, bool markAccessed);
     bool putResource(const Resource&, const Response&,
                      const std::string&, bool compressed);
 
-    optional<std::pair<Response, uint64_t>> getInternal(const Resource&);
+    optional<std::pair<Response, uint64_t>> getInternal(const Resource&, bool markAccessed);
     std::pair<bool, uint64_t> putInternal(const Resource&, const Response&, bool evict);
 
     // Return value is true iff the resource was previously unused by any other regions.
@@ -97,10 +141,18 @@ private:
     std::unique_ptr<::mapbox::sqlite::Database> db;
     std::unordered_map<const char *, std::unique_ptr<::mapbox::sqlite::Statement>> statements;
 
+    std::unique_ptr<::mapbox::sqlite::Transaction> batch;
+    uint32_t batchSize = 1;
+    uint32_t batchCount = 0;
+
     template <class T>
     T getPragma(const char *);
 
     uint64_t maximumCacheSize;
+    OfflineCacheEvictionPolicy evictionPolicy = OfflineCacheEvictionPolicy::LeastRecentlyUsed;
+    uint64_t cacheHits = 0;
+    uint64_t cacheMisses = 0;
+    uint64_t evictedCount = 0;
 
     uint64_t offlineMapboxTileCountLimit = util::mapbox::DEFAULT_OFFLINE_TILE_COUNT_LIMIT;
     optional<uint64_t> offlineMapboxTileCount;
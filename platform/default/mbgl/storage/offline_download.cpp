@@ -8,26 +8,115 @@
 #include <mbgl/style/sources/geojson_source.hpp>
 #include <mbgl/text/glyph.hpp>
 #include <mbgl/util/tile_cover.hpp>
+#include <mbgl/util/constants.hpp>
 #include <mbgl/util/mapbox.hpp>
 #include <mbgl/util/run_loop.hpp>
 #include <mbgl/util/tileset.hpp>
 
+#include <algorithm>
 #include <set>
 
 namespace mbgl {
 
+using namespace std::chrono_literals;
+
+void OfflineDownloadScheduler::setPolicy(const OfflineDownloadPolicy& policy_) {
+    policy = policy_;
+    availableBytes = policy.maximumBytesPerSecond;
+    lastRefill = Clock::now();
+    timer.stop();
+    wakeUp();
+}
+
+void OfflineDownloadScheduler::setPaused(bool paused_) {
+    paused = paused_;
+    if (!paused) {
+        wakeUp();
+    }
+}
+
+bool OfflineDownloadScheduler::acquire(OfflineDownload& download) {
+    if (paused || (policy.maximumRequests && activeRequests >= policy.maximumRequests) || !hasBandwidth()) {
+        if (std::find(waiting.begin(), waiting.end(), &download) == waiting.end()) {
+            waiting.push_back(&download);
+        }
+        return false;
+    }
+
+    activeRequests++;
+    return true;
+}
+
+void OfflineDownloadScheduler::release(uint64_t bytes, uint32_t count) {
+    activeRequests -= std::min(count, activeRequests);
+
+    if (policy.maximumBytesPerSecond) {
+        refill();
+        availableBytes -= bytes;
+    }
+
+    wakeUp();
+}
+
+void OfflineDownloadScheduler::remove(OfflineDownload& download) {
+    waiting.remove(&download);
+}
+
+bool OfflineDownloadScheduler::hasBandwidth() {
+    if (!policy.maximumBytesPerSecond) {
+        return true;
+    }
+
+    refill();
+    if (availableBytes >= 0) {
+        return true;
+    }
+
+    // Wake up once the bucket has refilled enough to start another request
+    const auto delay = std::chrono::duration<double>(-availableBytes / policy.maximumBytesPerSecond);
+    timer.start(std::chrono::duration_cast<Duration>(delay) + 1ms, Duration::zero(), [this] {
+        wakeUp();
+    });
+    return false;
+}
+
+void OfflineDownloadScheduler::refill() {
+    const TimePoint now = Clock::now();
+    const double elapsed = std::chrono::duration<double>(now - lastRefill).count();
+    availableBytes = std::min<double>(policy.maximumBytesPerSecond,
+                                      availableBytes + elapsed * policy.maximumBytesPerSecond);
+    lastRefill = now;
+}
+
+void OfflineDownloadScheduler::wakeUp() {
+    // Downloads that still cannot start requests queue themselves again
+    std::list<OfflineDownload*> downloads;
+    downloads.swap(waiting);
+    for (auto download : downloads) {
+        download->scheduleRequests();
+    }
+}
+
 OfflineDownload::OfflineDownload(int64_t id_,
                                  OfflineRegionDefinition&& definition_,
                                  OfflineDatabase& offlineDatabase_,
-                                 FileSource& onlineFileSource_)
+                                 FileSource& onlineFileSource_,
+                                 OfflineDownloadScheduler* scheduler_)
     : id(id_),
       definition(definition_),
       offlineDatabase(offlineDatabase_),
-      onlineFileSource(onlineFileSource_) {
+      onlineFileSource(onlineFileSource_),
+      ownScheduler(scheduler_ ? nullptr : std::make_unique<OfflineDownloadScheduler>()),
+      scheduler(scheduler_ ? *scheduler_ : *ownScheduler) {
     setObserver(nullptr);
 }
 
-OfflineDownload::~OfflineDownload() = default;
+OfflineDownload::~OfflineDownload() {
+    scheduler.remove(*this);
+    if (status.activeRequestCount) {
+        scheduler.release(0, status.activeRequestCount);
+    }
+}
 
 void OfflineDownload::setObserver(std::unique_ptr<OfflineRegionObserver> observer_) {
     observer = observer_ ? std::move(observer_) : std::make_unique<OfflineRegionObserver>();
@@ -49,6 +138,20 @@ void OfflineDownload::setState(OfflineRegionDownloadState state) {
     observer->statusChanged(status);
 }
 
+void OfflineDownload::refresh() {
+    offlineDatabase.startRegionRefresh(id);
+
+    if (status.downloadState != OfflineRegionDownloadState::Active) {
+        setState(OfflineRegionDownloadState::Active);
+        return;
+    }
+
+    // Restart an active download so resources it already found in the database are revalidated
+    deactivateDownload();
+    activateDownload();
+    observer->statusChanged(status);
+}
+
 std::vector<Resource> OfflineDownload::spriteResources(const style::Parser& parser) const {
     std::vector<Resource> result;
 
@@ -92,7 +195,7 @@ OfflineRegionStatus OfflineDownload::getStatus() const {
     OfflineRegionStatus result = offlineDatabase.getRegionCompletedStatus(id);
 
     result.requiredResourceCount++;
-    optional<Response> styleResponse = offlineDatabase.get(Resource::style(definition.styleURL));
+    optional<Response> styleResponse = offlineDatabase.peek(Resource::style(definition.styleURL));
     if (!styleResponse) {
         return result;
     }
@@ -111,7 +214,7 @@ OfflineRegionStatus OfflineDownload::getStatus() const {
                 result.requiredResourceCount += tileResources(source->type, tileSource->getTileSize(), *tileSource->getTileset()).size();
             } else {
                 result.requiredResourceCount += 1;
-                optional<Response> sourceResponse = offlineDatabase.get(Resource::source(tileSource->getURL()));
+                optional<Response> sourceResponse = offlineDatabase.peek(Resource::source(tileSource->getURL()));
                 if (sourceResponse) {
                     result.requiredResourceCount += tileResources(source->type, tileSource->getTileSize(),
                         *style::parseTileJSON(*sourceResponse->data, tileSource->getURL(), source->type, tileSource->getTileSize())).size();
@@ -142,9 +245,120 @@ OfflineRegionStatus OfflineDownload::getStatus() const {
     return result;
 }
 
+OfflineRegionEstimate OfflineDownload::estimate() const {
+    OfflineRegionEstimate result;
+    uint64_t size = 0;
+    bool sizeAvailable = true;
+
+    auto addResources = [&] (Resource::Kind kind, uint64_t count) {
+        result.resourceCount += count;
+        // Only tiles make the size unavailable, the other resources are small in comparison.
+        if (optional<uint64_t> averageSize = offlineDatabase.getAverageResourceSize(kind)) {
+            size += *averageSize * count;
+        }
+    };
+
+    auto addTiles = [&] (SourceType type, uint16_t tileSize, const Tileset& tileset) {
+        const std::vector<uint64_t> counts = definition.tileCounts(type, tileSize, tileset.zoomRange);
+        if (result.tileCounts.size() < counts.size()) {
+            result.tileCounts.resize(counts.size());
+        }
+
+        uint64_t count = 0;
+        for (std::size_t z = 0; z < counts.size(); z++) {
+            result.tileCounts[z] += counts[z];
+            count += counts[z];
+        }
+
+        result.tileCount += count;
+        result.resourceCount += count;
+        if (util::mapbox::isMapboxURL(tileset.tiles[0])) {
+            result.mapboxTileCount += count;
+        }
+
+        const uint8_t pixelRatio = Resource::tile(tileset.tiles[0], definition.pixelRatio, 0, 0, 0).tileData->pixelRatio;
+        if (optional<uint64_t> averageSize = offlineDatabase.getAverageTileSize(tileset.tiles[0], pixelRatio)) {
+            size += *averageSize * count;
+        } else {
+            sizeAvailable = false;
+        }
+    };
+
+    addResources(Resource::Kind::Style, 1);
+    optional<Response> styleResponse = offlineDatabase.peek(Resource::style(definition.styleURL));
+    if (!styleResponse) {
+        // Without the style, count a single source of 512 pixel tiles up to the maximum zoom level.
+        const std::vector<uint64_t> counts = definition.tileCounts(SourceType::Vector, util::tileSize,
+            { 0, static_cast<uint8_t>(util::MAX_ZOOM) });
+        for (uint64_t count : counts) {
+            result.tileCount += count;
+        }
+        result.tileCounts = counts;
+        result.resourceCount += result.tileCount;
+        if (util::mapbox::isMapboxURL(definition.styleURL)) {
+            result.mapboxTileCount = result.tileCount;
+        }
+        return result;
+    }
+
+    style::Parser parser;
+    parser.parse(*styleResponse->data);
+
+    result.precise = true;
+
+    for (const auto& source : parser.sources) {
+        switch (source->type) {
+        case SourceType::Vector:
+        case SourceType::Raster: {
+            style::TileSource* tileSource = static_cast<style::TileSource*>(source.get());
+            if (tileSource->getTileset()) {
+                addTiles(source->type, tileSource->getTileSize(), *tileSource->getTileset());
+            } else {
+                addResources(Resource::Kind::Source, 1);
+                optional<Response> sourceResponse = offlineDatabase.peek(Resource::source(tileSource->getURL()));
+                if (sourceResponse) {
+                    addTiles(source->type, tileSource->getTileSize(),
+                        *style::parseTileJSON(*sourceResponse->data, tileSource->getURL(), source->type, tileSource->getTileSize()));
+                } else {
+                    result.precise = false;
+                    sizeAvailable = false;
+                }
+            }
+            break;
+        }
+
+        case SourceType::GeoJSON: {
+            style::GeoJSONSource* geojsonSource = static_cast<style::GeoJSONSource*>(source.get());
+            if (!geojsonSource->getURL().empty()) {
+                addResources(Resource::Kind::Source, 1);
+            }
+            break;
+        }
+
+        case SourceType::Video:
+        case SourceType::Annotations:
+            break;
+        }
+    }
+
+    if (!parser.spriteURL.empty()) {
+        addResources(Resource::Kind::SpriteImage, 1);
+        addResources(Resource::Kind::SpriteJSON, 1);
+    }
+    addResources(Resource::Kind::Glyphs, glyphResources(parser).size());
+
+    if (sizeAvailable) {
+        result.size = size;
+    }
+
+    return result;
+}
+
 void OfflineDownload::activateDownload() {
     status = OfflineRegionStatus();
     status.downloadState = OfflineRegionDownloadState::Active;
+    activatedAt = Clock::now();
+    refreshStarted = offlineDatabase.getRegionRefreshStarted(id);
 
     requiredSourceURLs.clear();
 
@@ -207,6 +421,22 @@ void OfflineDownload::activateDownload() {
 
 void OfflineDownload::deactivateDownload() {
     requests.clear();
+    pendingRequests.clear();
+
+    batchTimer.stop();
+    offlineDatabase.commitBatch();
+
+    if (refreshStarted && status.complete()) {
+        offlineDatabase.finishRegionRefresh(id);
+        refreshStarted = {};
+    }
+
+    scheduler.remove(*this);
+    if (status.activeRequestCount) {
+        const uint32_t cancelled = status.activeRequestCount;
+        status.activeRequestCount = 0;
+        scheduler.release(0, cancelled);
+    }
 }
 
 void OfflineDownload::ensureTiles(SourceType type, uint16_t tileSize, const Tileset& info) {
@@ -223,6 +453,17 @@ void OfflineDownload::ensureResource(const Resource& resource, std::function<voi
         requests.erase(workRequestsIt);
 
         optional<std::pair<Response, uint64_t>> offlineResponse = offlineDatabase.getRegionResource(id, resource);
+        if (offlineResponse && refreshStarted && !offlineDatabase.isValidatedSince(resource, *refreshStarted)) {
+            // Ask the server whether the stored copy is still current, it only sends the
+            // resource again if it changed.
+            Resource revalidation = resource;
+            revalidation.priorEtag = offlineResponse->first.etag;
+            revalidation.priorModified = offlineResponse->first.modified;
+            queueRequest(revalidation, callback, offlineResponse->second);
+            scheduleRequests();
+            return;
+        }
+
         if (offlineResponse) {
             if (callback) {
                 callback(offlineResponse->first);
@@ -247,39 +488,103 @@ void OfflineDownload::ensureResource(const Resource& resource, std::function<voi
             return;
         }
 
-        auto fileRequestsIt = requests.insert(requests.begin(), nullptr);
-        *fileRequestsIt = onlineFileSource.request(resource, [=] (Response onlineResponse) {
-            if (onlineResponse.error) {
-                observer->responseError(*onlineResponse.error);
-                return;
-            }
+        queueRequest(resource, callback);
+        scheduleRequests();
+    });
+}
 
-            requests.erase(fileRequestsIt);
+void OfflineDownload::queueRequest(const Resource& resource, std::function<void (Response)> callback, uint64_t storedSize) {
+    int32_t rank = 0;
+    if (scheduler.getPolicy().zoomLevelFirst) {
+        rank = resource.kind == Resource::Kind::Tile && resource.tileData ? resource.tileData->z : -1;
+    }
 
-            if (callback) {
+    pendingRequests.emplace(std::make_pair(rank, pendingRequestSequence++),
+                            PendingRequest { resource, callback, storedSize });
+}
+
+void OfflineDownload::scheduleRequests() {
+    while (!pendingRequests.empty() && status.downloadState == OfflineRegionDownloadState::Active) {
+        const uint32_t regionLimit = scheduler.getPolicy().maximumRegionRequests;
+        if (regionLimit && status.activeRequestCount >= regionLimit) {
+            return;
+        }
+
+        if (!scheduler.acquire(*this)) {
+            return;
+        }
+
+        auto it = pendingRequests.begin();
+        PendingRequest pending = std::move(it->second);
+        pendingRequests.erase(it);
+
+        startRequest(pending.resource, pending.callback, pending.storedSize);
+    }
+}
+
+void OfflineDownload::startRequest(const Resource& resource, std::function<void (Response)> callback, uint64_t storedSize) {
+    status.activeRequestCount++;
+
+    auto fileRequestsIt = requests.insert(requests.begin(), nullptr);
+    *fileRequestsIt = onlineFileSource.request(resource, [=] (Response onlineResponse) {
+        if (onlineResponse.error) {
+            observer->responseError(*onlineResponse.error);
+            return;
+        }
+
+        requests.erase(fileRequestsIt);
+
+        const uint64_t downloadedSize = onlineResponse.data ? onlineResponse.data->size() : 0;
+        status.activeRequestCount--;
+        status.downloadedSize += downloadedSize;
+        scheduler.release(downloadedSize);
+
+        if (callback) {
+            if (!onlineResponse.notModified) {
                 callback(onlineResponse);
+            } else if (optional<Response> storedResponse = offlineDatabase.get(resource)) {
+                callback(*storedResponse);
             }
+        }
 
-            status.completedResourceCount++;
-            uint64_t resourceSize = offlineDatabase.putRegionResource(id, resource, onlineResponse);
-            status.completedResourceSize += resourceSize;
-            if (resource.kind == Resource::Kind::Tile) {
-                status.completedTileSize += resourceSize;
-            }
+        status.completedResourceCount++;
+        uint64_t resourceSize = offlineDatabase.putRegionResource(id, resource, onlineResponse);
+        if (onlineResponse.notModified) {
+            resourceSize = storedSize;
+            status.unchangedResourceCount++;
+            status.unchangedResourceSize += storedSize;
+        }
+        status.completedResourceSize += resourceSize;
+        if (resource.kind == Resource::Kind::Tile) {
+            status.completedTileSize += resourceSize;
+        }
 
-            observer->statusChanged(status);
-            
-            if (checkTileCountLimit(resource)) {
-                return;
-            }
-            
-            if (status.complete()) {
-                setState(OfflineRegionDownloadState::Inactive);
-            }
-        });
+        if (offlineDatabase.hasUncommittedBatch()) {
+            batchTimer.start(util::OFFLINE_BATCH_COMMIT_DELAY, Duration::zero(), [this] {
+                offlineDatabase.commitBatch();
+            });
+        }
+
+        updateDownloadRate();
+        observer->statusChanged(status);
+
+        if (checkTileCountLimit(resource)) {
+            return;
+        }
+
+        if (status.complete()) {
+            setState(OfflineRegionDownloadState::Inactive);
+        } else {
+            scheduleRequests();
+        }
     });
 }
 
+void OfflineDownload::updateDownloadRate() {
+    const double elapsed = std::chrono::duration<double>(Clock::now() - activatedAt).count();
+    status.downloadRate = elapsed > 0 ? status.downloadedSize / elapsed : 0;
+}
+
 bool OfflineDownload::checkTileCountLimit(const Resource& resource) {
     if (resource.kind == Resource::Kind::Tile
         && util::mapbox::isMapboxURL(resource.url)
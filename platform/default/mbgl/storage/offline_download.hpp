@@ -1,8 +1,11 @@
 #pragma once
 
 #include <mbgl/storage/offline.hpp>
+#include <mbgl/util/chrono.hpp>
+#include <mbgl/util/timer.hpp>
 
 #include <list>
+#include <map>
 #include <set>
 #include <memory>
 
@@ -19,6 +22,45 @@ namespace style {
 class Parser;
 } // namespace style
 
+class OfflineDownload;
+
+/**
+ * Applies an OfflineDownloadPolicy to the downloads of all regions of a file source: it
+ * hands out request slots up to the global limit and throttles bandwidth with a token
+ * bucket holding one second worth of bytes. Downloads that are refused a slot are woken
+ * up once one becomes available.
+
+ * @private
+ */
+class OfflineDownloadScheduler {
+public:
+    void setPolicy(const OfflineDownloadPolicy&);
+    const OfflineDownloadPolicy& getPolicy() const { return policy; }
+
+    void setPaused(bool);
+
+    /*
+     * Returns true if the download may start another request. Otherwise the download is
+     * queued and its `scheduleRequests` is called once requests may be started again.
+     */
+    bool acquire(OfflineDownload&);
+    void release(uint64_t bytes, uint32_t count = 1);
+    void remove(OfflineDownload&);
+
+private:
+    bool hasBandwidth();
+    void refill();
+    void wakeUp();
+
+    OfflineDownloadPolicy policy;
+    bool paused = false;
+    uint32_t activeRequests = 0;
+    double availableBytes = 0;
+    TimePoint lastRefill;
+    std::list<OfflineDownload*> waiting;
+    util::Timer timer;
+};
+
 /**
  * Coordinates the request and storage of all resources for an offline region.
 
@@ -26,14 +68,33 @@ class Parser;
  */
 class OfflineDownload {
 public:
-    OfflineDownload(int64_t id, OfflineRegionDefinition&&, OfflineDatabase& offline, FileSource& online);
+    /*
+     * Downloads that are not given a scheduler use their own, without any limits.
+     */
+    OfflineDownload(int64_t id, OfflineRegionDefinition&&, OfflineDatabase& offline, FileSource& online,
+                    OfflineDownloadScheduler* = nullptr);
     ~OfflineDownload();
 
     void setObserver(std::unique_ptr<OfflineRegionObserver>);
     void setState(OfflineRegionDownloadState);
 
+    /*
+     * Activate the download in refresh mode, see `DefaultFileSource::refreshOfflineRegion`.
+     */
+    void refresh();
+
     OfflineRegionStatus getStatus() const;
 
+    /*
+     * Estimate the resources of the region from the database, without network requests.
+     */
+    OfflineRegionEstimate estimate() const;
+
+    /*
+     * Start queued network requests, as far as the scheduler permits.
+     */
+    void scheduleRequests();
+
 private:
     void activateDownload();
     void deactivateDownload();
@@ -50,15 +111,39 @@ private:
     void ensureResource(const Resource&, std::function<void (Response)> = {});
     void ensureTiles(SourceType, uint16_t, const Tileset&);
     bool checkTileCountLimit(const Resource& resource);
-    
+
+    /*
+     * Resources missing from the database are queued, ordered by rank and then by the
+     * order they were queued in, until the scheduler lets them be requested.
+     */
+    void queueRequest(const Resource&, std::function<void (Response)>, uint64_t storedSize = 0);
+    void startRequest(const Resource&, std::function<void (Response)>, uint64_t storedSize);
+    void updateDownloadRate();
+
+    struct PendingRequest {
+        Resource resource;
+        std::function<void (Response)> callback;
+        // The size of the stored copy of a resource that is revalidated, 0 otherwise.
+        uint64_t storedSize;
+    };
+
     int64_t id;
     OfflineRegionDefinition definition;
     OfflineDatabase& offlineDatabase;
     FileSource& onlineFileSource;
+    std::unique_ptr<OfflineDownloadScheduler> ownScheduler;
+    OfflineDownloadScheduler& scheduler;
     OfflineRegionStatus status;
     std::unique_ptr<OfflineRegionObserver> observer;
     std::list<std::unique_ptr<AsyncRequest>> requests;
+    std::map<std::pair<int32_t, uint64_t>, PendingRequest> pendingRequests;
+    uint64_t pendingRequestSequence = 0;
+    TimePoint activatedAt;
+    optional<Timestamp> refreshStarted;
     std::set<std::string> requiredSourceURLs;
+
+    // Commits a partial batch of stored resources once responses stop arriving.
+    util::Timer batchTimer;
 };
 
 } // namespace mbgl
@@ -8,6 +8,8 @@ CREATE TABLE resources (                   -- Generic table for style, source, s
   data BLOB,
   compressed INTEGER NOT NULL DEFAULT 0,
   accessed INTEGER NOT NULL,
+  validated INTEGER,                       -- Last time the server confirmed or replaced the data.
+  hits INTEGER NOT NULL DEFAULT 0,         -- Number of times the data was read, for LFU eviction.
   UNIQUE (url)
 );
 
@@ -24,6 +26,8 @@ CREATE TABLE tiles (
   data BLOB,
   compressed INTEGER NOT NULL DEFAULT 0,
   accessed INTEGER NOT NULL,
+  validated INTEGER,
+  hits INTEGER NOT NULL DEFAULT 0,
   UNIQUE (url_template, pixel_ratio, z, x, y)
 );
 
@@ -32,7 +36,8 @@ CREATE TABLE regions (
   definition TEXT NOT NULL,   -- JSON formatted definition of region. Regions may be of variant types:
                               -- e.g. bbox and zoom range, route path, flyTo parameters, etc. Note that
                               -- the set of tiles required for a region may span multiple sources.
-  description BLOB            -- User provided data in user-defined format
+  description BLOB,           -- User provided data in user-defined format
+  refresh_started INTEGER     -- Start of a refresh in progress; resources validated before it are revalidated
 );
 
 CREATE TABLE region_resources (
@@ -15,6 +15,7 @@
 #include <mbgl/util/timer.hpp>
 
 #include <algorithm>
+#include <array>
 #include <cassert>
 #include <list>
 #include <unordered_set>
@@ -71,7 +72,7 @@ public:
         } else {
             auto it = pendingRequestsMap.find(request);
             if (it != pendingRequestsMap.end()) {
-                pendingRequestsList.erase(it->second);
+                pendingRequestsLists[it->second.first].erase(it->second.second);
                 pendingRequestsMap.erase(it);
             }
         }
@@ -90,8 +91,27 @@ public:
     }
 
     void queueRequest(OnlineFileRequest* request) {
-        auto it = pendingRequestsList.insert(pendingRequestsList.end(), request);
-        pendingRequestsMap.emplace(request, std::move(it));
+        const std::size_t priority = priorityOf(request->resource);
+        auto& list = pendingRequestsLists[priority];
+
+        // Tiles are served newest first: after a camera move the most recently requested tiles
+        // are the ones on screen, older ones belong to viewports that were already left.
+        // Low priority requests keep the order their requester chose.
+        auto it = priority == resourcePriority || priority == lowPriority
+            ? list.insert(list.end(), request)
+            : list.insert(list.begin(), request);
+        pendingRequestsMap.emplace(request, std::make_pair(priority, std::move(it)));
+    }
+
+    void setPriority(OnlineFileRequest* request, Resource::Priority priority) {
+        request->resource.priority = priority;
+
+        auto it = pendingRequestsMap.find(request);
+        if (it != pendingRequestsMap.end() && it->second.first != priorityOf(request->resource)) {
+            pendingRequestsLists[it->second.first].erase(it->second.second);
+            pendingRequestsMap.erase(it);
+            queueRequest(request);
+        }
     }
 
     void activateRequest(OnlineFileRequest* request) {
@@ -105,19 +125,42 @@ public:
     }
 
     void activatePendingRequest() {
-        if (pendingRequestsList.empty()) {
-            return;
-        }
+        for (auto& list : pendingRequestsLists) {
+            if (list.empty()) {
+                continue;
+            }
 
-        OnlineFileRequest* request = pendingRequestsList.front();
-        pendingRequestsList.pop_front();
+            OnlineFileRequest* request = list.front();
+            list.pop_front();
 
-        pendingRequestsMap.erase(request);
+            pendingRequestsMap.erase(request);
 
-        activateRequest(request);
+            activateRequest(request);
+            return;
+        }
     }
 
 private:
+    // Pending requests are activated by priority: style, source, sprite and glyph requests block
+    // rendering altogether, required tiles are on screen and optional tiles are only used as
+    // placeholders while better tiles load. Low priority requests are not needed by any
+    // rendered frame yet.
+    static const std::size_t resourcePriority = 0;
+    static const std::size_t tilePriority = 1;
+    static const std::size_t optionalTilePriority = 2;
+    static const std::size_t lowPriority = 3;
+    static const std::size_t priorityCount = 4;
+
+    static std::size_t priorityOf(const Resource& resource) {
+        if (resource.priority == Resource::Low) {
+            return lowPriority;
+        }
+        if (resource.kind != Resource::Kind::Tile) {
+            return resourcePriority;
+        }
+        return resource.necessity == Resource::Required ? tilePriority : optionalTilePriority;
+    }
+
     void networkIsReachableAgain() {
         for (auto& request : allRequests) {
             request->networkIsReachableAgain();
@@ -133,11 +176,12 @@ private:
      * 4. Back to #1
      *
      * Requests in any state are in `allRequests`. Requests in the pending state are in
-     * `pendingRequests`. Requests in the active state are in `activeRequests`.
+     * `pendingRequestsLists`, one list per priority. Requests in the active state are in
+     * `activeRequests`.
      */
     std::unordered_set<OnlineFileRequest*> allRequests;
-    std::list<OnlineFileRequest*> pendingRequestsList;
-    std::unordered_map<OnlineFileRequest*, std::list<OnlineFileRequest*>::iterator> pendingRequestsMap;
+    std::array<std::list<OnlineFileRequest*>, priorityCount> pendingRequestsLists;
+    std::unordered_map<OnlineFileRequest*, std::pair<std::size_t, std::list<OnlineFileRequest*>::iterator>> pendingRequestsMap;
     std::unordered_set<OnlineFileRequest*> activeRequests;
 
     HTTPFileSource httpFileSource;
@@ -182,6 +226,10 @@ std::unique_ptr<AsyncRequest> OnlineFileSource::request(const Resource& resource
     return std::make_unique<OnlineFileRequest>(res, callback, *impl);
 }
 
+void OnlineFileSource::setPriority(AsyncRequest& request, Resource::Priority priority) {
+    impl->setPriority(static_cast<OnlineFileRequest*>(&request), priority);
+}
+
 OnlineFileRequest::OnlineFileRequest(Resource resource_, Callback callback_, OnlineFileSource::Impl& impl_)
     : impl(impl_),
       resource(std::move(resource_)),
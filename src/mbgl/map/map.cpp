@@ -3,8 +3,10 @@
 #include <mbgl/map/view.hpp>
 #include <mbgl/map/transform.hpp>
 #include <mbgl/map/transform_state.hpp>
+#include <mbgl/map/prefetcher.hpp>
 #include <mbgl/annotation/annotation_manager.hpp>
 #include <mbgl/style/style.hpp>
+#include <mbgl/style/tile_source.hpp>
 #include <mbgl/style/layer.hpp>
 #include <mbgl/style/observer.hpp>
 #include <mbgl/style/transition_options.hpp>
@@ -14,6 +16,8 @@
 #include <mbgl/storage/file_source.hpp>
 #include <mbgl/storage/resource.hpp>
 #include <mbgl/storage/response.hpp>
+#include <mbgl/text/glyph.hpp>
+#include <mbgl/text/glyph_store.hpp>
 #include <mbgl/gl/object_store.hpp>
 #include <mbgl/gl/texture_pool.hpp>
 #include <mbgl/util/projection.hpp>
@@ -22,6 +26,8 @@
 #include <mbgl/util/async_task.hpp>
 #include <mbgl/util/mapbox.hpp>
 #include <mbgl/util/tile_coordinate.hpp>
+#include <mbgl/util/tile_cover.hpp>
+#include <mbgl/util/tileset.hpp>
 
 namespace mbgl {
 
@@ -45,8 +51,15 @@ public:
 
     void loadStyleJSON(const std::string&);
 
+    // Resources to prefetch. Tiles are added for every enabled tile source, with `cover`
+    // returning the tiles of a data zoom level.
+    std::vector<Resource> prefetchGlyphResources() const;
+    void addPrefetchTileResources(std::vector<Resource>&, double zoom,
+                                  const std::function<std::vector<UnwrappedTileID> (int32_t)>& cover) const;
+
     View& view;
     FileSource& fileSource;
+    Prefetcher prefetcher;
 
     RenderState renderState = RenderState::Never;
     Transform transform;
@@ -64,6 +77,7 @@ public:
     std::unique_ptr<AnnotationManager> annotationManager;
     std::unique_ptr<gl::TexturePool> texturePool;
     std::unique_ptr<Painter> painter;
+    FrameStatistics frameStatistics;
     std::unique_ptr<Style> style;
 
     std::string styleURL;
@@ -72,7 +86,7 @@ public:
     std::unique_ptr<AsyncRequest> styleRequest;
 
     Map::StillImageCallback callback;
-    size_t sourceCacheSize;
+    size_t sourceCacheSize = 0;
     TimePoint timePoint;
     bool loading = false;
 };
@@ -91,6 +105,7 @@ Map::Impl::Impl(View& view_,
                 ViewportMode viewportMode_)
     : view(view_),
       fileSource(fileSource_),
+      prefetcher(fileSource_),
       transform([this](MapChange change) { view.notifyMapChange(change); },
                 constrainMode_,
                 viewportMode_),
@@ -253,6 +268,8 @@ void Map::Impl::render() {
         painter = std::make_unique<Painter>(transform.getState(), store);
     }
 
+    const TimePoint renderStart = Clock::now();
+
     FrameData frameData { view.getFramebufferSize(),
                           timePoint,
                           pixelRatio,
@@ -264,6 +281,12 @@ void Map::Impl::render() {
                     frameData,
                     annotationManager->getSpriteAtlas());
 
+    frameStatistics = FrameStatistics();
+    frameStatistics.renderTime = Clock::now() - renderStart;
+    frameStatistics.uploadTime = painter->getUploadTime();
+    frameStatistics.symbolTime = painter->getSymbolTime();
+    style->getTileCounts(frameStatistics.renderedTiles, frameStatistics.pendingTiles);
+
     if (mode == MapMode::Still) {
         callback(nullptr, view.readStillImage());
         callback = nullptr;
@@ -332,6 +355,9 @@ void Map::setStyleJSON(const std::string& json) {
 void Map::Impl::loadStyleJSON(const std::string& json) {
     style->setJSON(json);
     style->setObserver(this);
+    if (sourceCacheSize) {
+        style->setSourceTileCacheSize(sourceCacheSize);
+    }
     styleJSON = json;
 
     // force style cascade, causing all pending transitions to complete.
@@ -672,6 +698,12 @@ LatLng Map::latLngForPixel(const ScreenCoordinate& pixel) const {
     return impl->transform.screenCoordinateToLatLng(pixel);
 }
 
+std::array<double, 16> Map::getProjectionMatrix() const {
+    mat4 matrix;
+    impl->transform.getState().getProjMatrix(matrix);
+    return matrix;
+}
+
 #pragma mark - Annotations
 
 void Map::addAnnotationIcon(const std::string& name, std::shared_ptr<const SpriteImage> sprite) {
@@ -760,6 +792,105 @@ void Map::removeLayer(const std::string& id) {
     impl->view.deactivate();
 }
 
+#pragma mark - Prefetching
+
+void Map::prefetch(const std::vector<CameraOptions>& cameras, uint64_t byteBudget) {
+    if (!impl->style) return;
+
+    const TransformState& state = impl->transform.getState();
+    std::vector<Resource> resources = impl->prefetchGlyphResources();
+
+    for (const auto& camera : cameras) {
+        // Options the camera leaves out keep their current values, as with jumpTo().
+        Transform transform(nullptr, state.getConstrainMode(), state.getViewportMode());
+        transform.resize({{ state.getWidth(), state.getHeight() }});
+        transform.setMinZoom(state.getMinZoom());
+        transform.setMaxZoom(state.getMaxZoom());
+        transform.jumpTo(impl->transform.getCameraOptions({}));
+        transform.jumpTo(camera);
+
+        const TransformState& target = transform.getState();
+        impl->addPrefetchTileResources(resources, target.getZoom(), [&] (int32_t z) {
+            return util::tileCover(target, z);
+        });
+    }
+
+    impl->prefetcher.prefetch(std::move(resources), byteBudget);
+}
+
+void Map::prefetchAlong(const std::vector<LatLng>& line, const Range<uint8_t>& zoomRange, uint64_t byteBudget) {
+    if (!impl->style || line.empty()) return;
+
+    // The viewport may follow the line in any orientation, so the corridor is as wide as its diagonal.
+    const TransformState& state = impl->transform.getState();
+    const double radius = std::hypot(state.getWidth(), state.getHeight()) / 2;
+
+    std::vector<Resource> resources = impl->prefetchGlyphResources();
+
+    // Walk the line segment by segment, so the start of the line is fetched first when the
+    // budget runs out.
+    for (std::size_t i = 0; i < line.size(); i++) {
+        const std::vector<LatLng> segment { line[i], line[std::min(i + 1, line.size() - 1)] };
+        const double latitude = std::max(std::abs(segment[0].latitude), std::abs(segment[1].latitude));
+
+        for (int32_t zoom = zoomRange.min; zoom <= zoomRange.max; zoom++) {
+            const double meters = radius * Projection::getMetersPerPixelAtLatitude(latitude, zoom);
+            impl->addPrefetchTileResources(resources, zoom, [&] (int32_t z) {
+                return util::corridorTileCover(segment, meters, z);
+            });
+        }
+    }
+
+    impl->prefetcher.prefetch(std::move(resources), byteBudget);
+}
+
+void Map::cancelPrefetch() {
+    impl->prefetcher.cancel();
+}
+
+std::vector<Resource> Map::Impl::prefetchGlyphResources() const {
+    std::vector<Resource> resources;
+
+    const std::string glyphURL = style->glyphStore->getURL();
+    if (glyphURL.empty()) {
+        return resources;
+    }
+
+    // Only the first range is known to be needed, further ranges depend on the labels of the tiles.
+    for (const auto& fontStack : style->getFontStacks()) {
+        resources.push_back(Resource::glyphs(glyphURL, fontStack, getGlyphRange(0)));
+    }
+
+    return resources;
+}
+
+void Map::Impl::addPrefetchTileResources(std::vector<Resource>& resources, double zoom,
+                                         const std::function<std::vector<UnwrappedTileID> (int32_t)>& cover) const {
+    for (const auto& source : style->getSources()) {
+        if (!source->enabled || (source->type != SourceType::Vector && source->type != SourceType::Raster)) {
+            continue;
+        }
+
+        const TileSource* tileSource = static_cast<const TileSource*>(source.get());
+        const Tileset* tileset = tileSource->getTileset();
+        if (!tileset || tileset->tiles.empty()) {
+            continue;
+        }
+
+        // Same ideal tiles as Source::update() picks for this zoom level.
+        const int32_t overscaledZoom = util::coveringZoomLevel(zoom, source->type, tileSource->getTileSize());
+        if (overscaledZoom < tileset->zoomRange.min) {
+            continue;
+        }
+
+        const int32_t idealZoom = std::min<int32_t>(tileset->zoomRange.max, overscaledZoom);
+        for (const auto& tile : cover(idealZoom)) {
+            resources.push_back(Resource::tile(tileset->tiles[0], pixelRatio,
+                                               tile.canonical.x, tile.canonical.y, tile.canonical.z));
+        }
+    }
+}
+
 #pragma mark - Toggles
 
 void Map::setDebug(MapDebugOptions debugOptions) {
@@ -833,6 +964,22 @@ void Map::setSourceTileCacheSize(size_t size) {
     }
 }
 
+size_t Map::getSourceTileCacheSize() const {
+    return impl->sourceCacheSize;
+}
+
+Map::TileCacheStatistics Map::getSourceTileCacheStatistics() const {
+    TileCacheStatistics statistics;
+    if (impl->style) {
+        impl->style->getSourceTileCacheStatistics(statistics.hits, statistics.misses);
+    }
+    return statistics;
+}
+
+Map::FrameStatistics Map::getFrameStatistics() const {
+    return impl->frameStatistics;
+}
+
 void Map::onLowMemory() {
     impl->store.performCleanup();
     if (!impl->style) return;
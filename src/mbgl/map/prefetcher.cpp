@@ -0,0 +1,108 @@
+#include <mbgl/map/prefetcher.hpp>
+#include <mbgl/storage/file_source.hpp>
+#include <mbgl/storage/response.hpp>
+#include <mbgl/util/async_request.hpp>
+#include <mbgl/util/constants.hpp>
+
+namespace mbgl {
+
+Prefetcher::Prefetcher(FileSource& fileSource_)
+    : fileSource(fileSource_) {
+}
+
+Prefetcher::~Prefetcher() = default;
+
+Prefetcher::Key Prefetcher::key(const Resource& resource) {
+    return resource.tileData
+        ? std::make_tuple(resource.url, resource.tileData->x, resource.tileData->y, resource.tileData->z)
+        : std::make_tuple(resource.url, 0, 0, int8_t(0));
+}
+
+void Prefetcher::prefetch(std::vector<Resource> resources, uint64_t byteBudget_) {
+    byteBudget = byteBudget_;
+    downloadedSize = 0;
+
+    // Leftovers belong to an earlier destination and must not hold back the new one
+    for (const auto& resource : queue) {
+        queued.erase(key(resource));
+    }
+    queue.clear();
+
+    for (auto& resource : resources) {
+        if (queued.insert(key(resource)).second) {
+            resource.priority = Resource::Low;
+            queue.push_back(std::move(resource));
+        }
+    }
+
+    scheduleRequests();
+}
+
+void Prefetcher::cancel() {
+    queue.clear();
+    queued.clear();
+    requests.clear();
+}
+
+void Prefetcher::scheduleRequests() {
+    // Resources left over once the budget is spent stay queued until the next call to prefetch()
+    while (requests.size() < util::PREFETCH_MAXIMUM_REQUESTS && !queue.empty() &&
+           (!byteBudget || downloadedSize < byteBudget)) {
+        Resource resource = std::move(queue.front());
+        queue.pop_front();
+
+        if (fileSource.supportsOptionalRequests()) {
+            loadOptional(std::move(resource));
+        } else {
+            loadRequired(std::move(resource));
+        }
+    }
+}
+
+void Prefetcher::loadOptional(Resource resource) {
+    resource.necessity = Resource::Optional;
+
+    auto it = requests.insert(requests.end(), nullptr);
+    *it = fileSource.request(resource, [this, it, resource] (Response res) {
+        // A stored copy that has not expired is what the map would be served, too.
+        if (!res.error && (!res.expires || *res.expires > util::now())) {
+            finish(it, key(resource));
+            return;
+        }
+
+        Resource required = resource;
+        if (res.error && res.error->reason == Response::Error::Reason::NotFound) {
+            // Let the file source know the database was checked already.
+            required.priorExpires = Timestamp{ Seconds::zero() };
+        } else if (!res.error) {
+            required.priorModified = res.modified;
+            required.priorExpires = res.expires;
+            required.priorEtag = res.etag;
+        }
+
+        requests.erase(it);
+        loadRequired(std::move(required));
+    });
+}
+
+void Prefetcher::loadRequired(Resource resource) {
+    resource.necessity = Resource::Required;
+
+    auto it = requests.insert(requests.end(), nullptr);
+    *it = fileSource.request(resource, [this, it, resourceKey = key(resource)] (Response res) {
+        // Errors are not retried, the map requests the resource again when it needs it.
+        if (res.data) {
+            downloadedSize += res.data->size();
+        }
+        finish(it, resourceKey);
+    });
+}
+
+void Prefetcher::finish(std::list<std::unique_ptr<AsyncRequest>>::iterator it, const Key& resourceKey) {
+    // The key may be owned by the request, so erase it first
+    queued.erase(resourceKey);
+    requests.erase(it);
+    scheduleRequests();
+}
+
+} // namespace mbgl
@@ -0,0 +1,70 @@
+#pragma once
+
+#include <mbgl/storage/resource.hpp>
+#include <mbgl/util/noncopyable.hpp>
+
+#include <deque>
+#include <list>
+#include <memory>
+#include <set>
+#include <string>
+#include <tuple>
+#include <vector>
+
+namespace mbgl {
+
+class FileSource;
+class AsyncRequest;
+class Response;
+
+/**
+ * Fetches resources the map is expected to need soon, such as the tiles at the end of a
+ * camera animation, so the file source stores them in its ambient cache before they are
+ * rendered. Responses are dropped, nothing is parsed.
+ *
+ * Resources are requested at low priority, in the order they were queued, with at most
+ * util::PREFETCH_MAXIMUM_REQUESTS requests in flight. Resources already stored are only
+ * fetched from the network when they expired.
+ *
+ * @private
+ */
+class Prefetcher : private util::noncopyable {
+public:
+    explicit Prefetcher(FileSource&);
+    ~Prefetcher();
+
+    /*
+     * Queue resources in place of the ones still waiting from a previous call, which are
+     * dropped. Resources already in flight are skipped. Queueing stops once `byteBudget`
+     * bytes were downloaded from the network after this call, 0 for unlimited.
+     */
+    void prefetch(std::vector<Resource>, uint64_t byteBudget);
+
+    /*
+     * Drop queued resources and cancel requests in flight.
+     */
+    void cancel();
+
+    std::size_t getQueuedCount() const { return queue.size(); }
+    std::size_t getActiveCount() const { return requests.size(); }
+    uint64_t getDownloadedSize() const { return downloadedSize; }
+
+private:
+    using Key = std::tuple<std::string, int32_t, int32_t, int8_t>;
+    static Key key(const Resource&);
+
+    void scheduleRequests();
+    void loadOptional(Resource);
+    void loadRequired(Resource);
+    void finish(std::list<std::unique_ptr<AsyncRequest>>::iterator, const Key&);
+
+    FileSource& fileSource;
+    std::deque<Resource> queue;
+    // Keys of the resources queued or in flight
+    std::set<Key> queued;
+    std::list<std::unique_ptr<AsyncRequest>> requests;
+    uint64_t byteBudget = 0;
+    uint64_t downloadedSize = 0;
+};
+
+} // namespace mbgl
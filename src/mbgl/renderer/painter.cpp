@@ -12,6 +12,7 @@
 #include <mbgl/style/layers/background_layer.hpp>
 #include <mbgl/style/layers/custom_layer.hpp>
 #include <mbgl/style/layers/custom_layer_impl.hpp>
+#include <mbgl/style/layers/symbol_layer.hpp>
 
 #include <mbgl/sprite/sprite_atlas.hpp>
 #include <mbgl/geometry/line_atlas.hpp>
@@ -112,10 +113,13 @@ void Painter::render(const Style& style, const FrameData& frame_, SpriteAtlas& a
     frameHistory.record(frame.timePoint, state.getZoom(),
         frame.mapMode == MapMode::Continuous ? util::DEFAULT_FADE_DURATION : Milliseconds(0));
 
+    symbolTime = Duration::zero();
+
     // - UPLOAD PASS -------------------------------------------------------------------------------
     // Uploads all required buffers and images before we do any actual rendering.
     {
         MBGL_DEBUG_GROUP("upload");
+        const TimePoint uploadStart = Clock::now();
 
         tileStencilBuffer.upload(store);
         tileBorderBuffer.upload(store);
@@ -130,6 +134,8 @@ void Painter::render(const Style& style, const FrameData& frame_, SpriteAtlas& a
                 item.bucket->upload(store);
             }
         }
+
+        uploadTime = Clock::now() - uploadStart;
     }
 
     // - CLEAR -------------------------------------------------------------------------------------
@@ -265,7 +271,13 @@ void Painter::renderPass(RenderPass pass_,
             if (item.bucket->needsClipping()) {
                 setClipping(item.tile->clip);
             }
-            item.bucket->render(*this, layer, item.tile->id, item.tile->matrix);
+            if (layer.is<SymbolLayer>()) {
+                const TimePoint symbolStart = Clock::now();
+                item.bucket->render(*this, layer, item.tile->id, item.tile->matrix);
+                symbolTime += Clock::now() - symbolStart;
+            } else {
+                item.bucket->render(*this, layer, item.tile->id, item.tile->matrix);
+            }
         }
     }
 
@@ -116,6 +116,10 @@ public:
 
     bool needsAnimation() const;
 
+    // CPU time spent issuing the upload pass and the symbol layers of the last frame.
+    Duration getUploadTime() const { return uploadTime; }
+    Duration getSymbolTime() const { return symbolTime; }
+
 private:
     mat4 translatedMatrix(const mat4& matrix,
                           const std::array<float, 2>& translation,
@@ -197,6 +201,9 @@ private:
 
     FrameHistory frameHistory;
 
+    Duration uploadTime = Duration::zero();
+    Duration symbolTime = Duration::zero();
+
     std::unique_ptr<PlainShader> plainShader;
     std::unique_ptr<OutlineShader> outlineShader;
     std::unique_ptr<OutlinePatternShader> outlinePatternShader;
@@ -639,6 +639,10 @@ Filter parseFilter(const JSValue& value) {
 }
 
 std::vector<FontStack> Parser::fontStacks() const {
+    return style::fontStacks(layers);
+}
+
+std::vector<FontStack> fontStacks(const std::vector<std::unique_ptr<Layer>>& layers) {
     std::set<FontStack> result;
 
     for (const auto& layer : layers) {
@@ -24,6 +24,9 @@ std::unique_ptr<Tileset> parseTileJSON(const JSValue&);
 
 Filter parseFilter(const JSValue&);
 
+// Statically evaluate layer properties to determine what font stacks are used.
+std::vector<FontStack> fontStacks(const std::vector<std::unique_ptr<Layer>>&);
+
 class Parser {
 public:
     ~Parser();
@@ -76,6 +76,12 @@ const std::map<UnwrappedTileID, RenderTile>& Source::getRenderTiles() const {
     return renderTiles;
 }
 
+std::size_t Source::getPendingTileCount() const {
+    return std::count_if(tiles.begin(), tiles.end(), [] (const auto& pair) {
+        return !pair.second->isComplete();
+    });
+}
+
 Tile* Source::getTile(const OverscaledTileID& overscaledTileID) const {
     auto it = tiles.find(overscaledTileID);
     if (it != tiles.end()) {
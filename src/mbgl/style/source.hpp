@@ -54,12 +54,16 @@ public:
 
     const std::map<UnwrappedTileID, RenderTile>& getRenderTiles() const;
 
+    // Number of tiles that are still waiting for some or all of their data.
+    std::size_t getPendingTileCount() const;
+
     Tile* getTile(const OverscaledTileID&) const;
 
     std::unordered_map<std::string, std::vector<Feature>>
     queryRenderedFeatures(const QueryParameters&) const;
 
     void setCacheSize(size_t);
+    const TileCache& getCache() const { return cache; }
     void onLowMemory();
 
     void setObserver(SourceObserver*);
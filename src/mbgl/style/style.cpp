@@ -120,6 +120,10 @@ std::vector<std::unique_ptr<Layer>> Style::getLayers() const {
     return result;
 }
 
+std::vector<FontStack> Style::getFontStacks() const {
+    return fontStacks(layers);
+}
+
 std::vector<std::unique_ptr<Layer>>::const_iterator Style::findLayer(const std::string& id) const {
     return std::find_if(layers.begin(), layers.end(), [&](const auto& layer) {
         return layer->baseImpl->id == id;
@@ -360,6 +364,22 @@ void Style::setSourceTileCacheSize(size_t size) {
     }
 }
 
+void Style::getSourceTileCacheStatistics(uint64_t& hits, uint64_t& misses) const {
+    for (const auto& source : sources) {
+        hits += source->getCache().getHits();
+        misses += source->getCache().getMisses();
+    }
+}
+
+void Style::getTileCounts(uint32_t& rendered, uint32_t& pending) const {
+    for (const auto& source : sources) {
+        if (source->enabled) {
+            rendered += source->getRenderTiles().size();
+            pending += source->getPendingTileCount();
+        }
+    }
+}
+
 void Style::onLowMemory() {
     for (const auto& source : sources) {
         source->onLowMemory();
@@ -13,6 +13,7 @@
 #include <mbgl/util/worker.hpp>
 #include <mbgl/util/optional.hpp>
 #include <mbgl/util/feature.hpp>
+#include <mbgl/util/font_stack.hpp>
 
 #include <cstdint>
 #include <string>
@@ -59,9 +60,11 @@ public:
     }
 
     Source* getSource(const std::string& id) const;
+    const std::vector<std::unique_ptr<Source>>& getSources() const { return sources; }
     void addSource(std::unique_ptr<Source>);
 
     std::vector<std::unique_ptr<Layer>> getLayers() const;
+    std::vector<FontStack> getFontStacks() const;
     Layer* getLayer(const std::string& id) const;
     void addLayer(std::unique_ptr<Layer>,
                   optional<std::string> beforeLayerID = {});
@@ -80,6 +83,8 @@ public:
     float getQueryRadius() const;
 
     void setSourceTileCacheSize(size_t);
+    void getSourceTileCacheStatistics(uint64_t& hits, uint64_t& misses) const;
+    void getTileCounts(uint32_t& rendered, uint32_t& pending) const;
     void onLowMemory();
 
     void dumpDebugLogs() const;
@@ -9,9 +9,7 @@ void TileCache::setSize(size_t size_) {
     size = size_;
 
     while (orderedKeys.size() > size) {
-        auto key = orderedKeys.front();
-        orderedKeys.pop_front();
-        tiles.erase(key);
+        evictOldest();
     }
 
     assert(orderedKeys.size() <= size);
@@ -33,7 +31,7 @@ void TileCache::add(const OverscaledTileID& key, std::unique_ptr<Tile> tile) {
 
     // purge oldest key/tile if necessary
     if (orderedKeys.size() > size) {
-        get(orderedKeys.front());
+        evictOldest();
     }
 
     assert(orderedKeys.size() <= size);
@@ -49,11 +47,20 @@ std::unique_ptr<Tile> TileCache::get(const OverscaledTileID& key) {
         tiles.erase(it);
         orderedKeys.remove(key);
         assert(tile->isRenderable());
+        hits++;
+    } else {
+        misses++;
     }
 
     return tile;
 }
 
+void TileCache::evictOldest() {
+    auto key = orderedKeys.front();
+    orderedKeys.pop_front();
+    tiles.erase(key);
+}
+
 bool TileCache::has(const OverscaledTileID& key) {
     return tiles.find(key) != tiles.end();
 }
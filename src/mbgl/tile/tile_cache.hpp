@@ -2,6 +2,7 @@
 
 #include <mbgl/tile/tile_id.hpp>
 
+#include <cstdint>
 #include <list>
 #include <memory>
 #include <map>
@@ -21,11 +22,18 @@ public:
     bool has(const OverscaledTileID& key);
     void clear();
 
+    uint64_t getHits() const { return hits; }
+    uint64_t getMisses() const { return misses; }
+
 private:
+    void evictOldest();
+
     std::map<OverscaledTileID, std::unique_ptr<Tile>> tiles;
     std::list<OverscaledTileID> orderedKeys;
 
     size_t size;
+    uint64_t hits = 0;
+    uint64_t misses = 0;
 };
 
 } // namespace mbgl
@@ -4,6 +4,8 @@
 #include <mbgl/map/transform_state.hpp>
 
 #include <functional>
+#include <limits>
+#include <map>
 
 namespace mbgl {
 
@@ -125,6 +127,201 @@ std::vector<UnwrappedTileID> tileCover(const Point<double>& tl,
     return result;
 }
 
+// Horizontal extent of a shape within a band of rows.
+struct Extent {
+    double min = std::numeric_limits<double>::infinity();
+    double max = -std::numeric_limits<double>::infinity();
+
+    bool empty() const { return min > max; }
+
+    void extend(double x) {
+        min = ::fmin(min, x);
+        max = ::fmax(max, x);
+    }
+};
+
+// Extends the extent by the part of a convex polygon that lies between y0 and y1. Its
+// extreme points are either vertices inside the band or crossings with the band edges.
+// A two point polygon is a segment.
+void extendConvex(Extent& extent, const std::vector<Point<double>>& polygon, double y0, double y1) {
+    for (std::size_t i = 0; i < polygon.size(); ++i) {
+        const Point<double>& p = polygon[i];
+        const Point<double>& q = polygon[(i + 1) % polygon.size()];
+        if (p.y >= y0 && p.y <= y1) {
+            extent.extend(p.x);
+        }
+        for (const double y : { y0, y1 }) {
+            if ((p.y - y) * (q.y - y) < 0) {
+                extent.extend(p.x + (y - p.y) * (q.x - p.x) / (q.y - p.y));
+            }
+        }
+    }
+}
+
+// Extends the extent by the part of a disk that lies between y0 and y1.
+void extendDisk(Extent& extent, const Point<double>& c, double r, double y0, double y1) {
+    const double t = ::fmax(0, ::fmax(y0 - c.y, c.y - y1));
+    if (t <= r) {
+        const double w = std::sqrt(r * r - t * t);
+        extent.extend(c.x - w);
+        extent.extend(c.x + w);
+    }
+}
+
+// Columns covered by a shape, as spans of [x0, x1] per row. Rows are clamped to the world,
+// columns are not, so shapes crossing the antimeridian yield wrapped tiles.
+class TileSpans {
+public:
+    TileSpans(int32_t z) : tiles(1 << z) {}
+
+    void add(int32_t y, double x0, double x1) {
+        if (y < 0 || y >= tiles) {
+            return;
+        }
+        const int32_t first = std::floor(x0);
+        const int32_t last = ::fmax(first, std::ceil(x1) - 1);
+        rows[y].emplace_back(first, last);
+    }
+
+    // Adds the tiles within r tile units of the segment ab.
+    void addSegment(const Point<double>& a, const Point<double>& b, double r) {
+        std::vector<Point<double>> polygon { a, b };
+        if (r > 0 && a != b) {
+            const double dx = b.x - a.x, dy = b.y - a.y;
+            const double scale = r / std::sqrt(dx * dx + dy * dy);
+            const Point<double> n { -dy * scale, dx * scale };
+            polygon = { a + n, b + n, b - n, a - n };
+        }
+
+        // Rows the segment only touches along their edge are left out, like in tileCount.
+        const int32_t y1 = std::ceil(::fmax(a.y, b.y) + r) - 1;
+        const int32_t y0 = ::fmin(y1, std::floor(::fmin(a.y, b.y) - r));
+        for (int32_t y = ::fmax(0, y0); y <= ::fmin(tiles - 1, y1); ++y) {
+            Extent extent;
+            extendConvex(extent, polygon, y, y + 1);
+            extendDisk(extent, a, r, y, y + 1);
+            extendDisk(extent, b, r, y, y + 1);
+            if (!extent.empty()) {
+                add(y, extent.min, extent.max);
+            }
+        }
+    }
+
+    // Merges overlapping and adjacent spans of each row.
+    void merge() {
+        for (auto& row : rows) {
+            auto& spans = row.second;
+            std::sort(spans.begin(), spans.end());
+            std::size_t last = 0;
+            for (std::size_t i = 1; i < spans.size(); ++i) {
+                if (spans[i].first <= spans[last].second + 1) {
+                    spans[last].second = std::max(spans[last].second, spans[i].second);
+                } else {
+                    spans[++last] = spans[i];
+                }
+            }
+            spans.resize(last + 1);
+        }
+    }
+
+    uint64_t count() const {
+        uint64_t result = 0;
+        for (const auto& row : rows) {
+            for (const auto& span : row.second) {
+                result += span.second - span.first + 1;
+            }
+        }
+        return result;
+    }
+
+    std::vector<UnwrappedTileID> cover(int32_t z) const {
+        std::vector<UnwrappedTileID> result;
+        for (const auto& row : rows) {
+            for (const auto& span : row.second) {
+                for (int32_t x = span.first; x <= span.second; ++x) {
+                    result.emplace_back(z, x, row.first);
+                }
+            }
+        }
+        return result;
+    }
+
+private:
+    const int32_t tiles;
+    std::map<int32_t, std::vector<std::pair<int32_t, int32_t>>> rows;
+};
+
+Point<double> project(const LatLng& latLng, int32_t z) {
+    const TransformState state;
+    const double latitude = ::fmax(-util::LATITUDE_MAX, ::fmin(util::LATITUDE_MAX, latLng.latitude));
+    return TileCoordinate::fromLatLng(state, z, { latitude, latLng.longitude }).p;
+}
+
+TileSpans polygonSpans(const std::vector<LatLng>& ring, int32_t z) {
+    TileSpans spans(z);
+    if (ring.size() < 3) {
+        return spans;
+    }
+
+    std::vector<Point<double>> points;
+    points.reserve(ring.size());
+    for (const auto& latLng : ring) {
+        points.push_back(project(latLng, z));
+    }
+
+    // The boundary, so tiles the polygon only clips are included.
+    double minY = points.front().y, maxY = points.front().y;
+    for (std::size_t i = 0; i < points.size(); ++i) {
+        spans.addSegment(points[i], points[(i + 1) % points.size()], 0);
+        minY = ::fmin(minY, points[i].y);
+        maxY = ::fmax(maxY, points[i].y);
+    }
+
+    // The interior, with the even-odd rule along the center of each row.
+    std::vector<double> crossings;
+    for (int32_t y = ::fmax(0, std::floor(minY)); y <= ::fmin((1 << z) - 1, std::floor(maxY)); ++y) {
+        const double center = y + 0.5;
+        crossings.clear();
+        for (std::size_t i = 0; i < points.size(); ++i) {
+            const Point<double>& p = points[i];
+            const Point<double>& q = points[(i + 1) % points.size()];
+            if ((p.y <= center) != (q.y <= center)) {
+                crossings.push_back(p.x + (center - p.y) * (q.x - p.x) / (q.y - p.y));
+            }
+        }
+        std::sort(crossings.begin(), crossings.end());
+        for (std::size_t i = 0; i + 1 < crossings.size(); i += 2) {
+            spans.add(y, crossings[i], crossings[i + 1]);
+        }
+    }
+
+    spans.merge();
+    return spans;
+}
+
+TileSpans corridorSpans(const std::vector<LatLng>& line, double radius, int32_t z) {
+    TileSpans spans(z);
+    if (line.empty()) {
+        return spans;
+    }
+
+    const double tilesPerMeter = (1 << z) / (util::M2PI * util::EARTH_RADIUS_M);
+    for (std::size_t i = 0; i < line.size(); ++i) {
+        const LatLng& a = line[i];
+        const LatLng& b = line[std::min(i + 1, line.size() - 1)];
+
+        // Mercator stretches distances by 1 / cos(latitude); use the stretch of the
+        // endpoint closest to a pole so the buffer is never too narrow.
+        const double latitude = ::fmin(util::LATITUDE_MAX, ::fmax(std::abs(a.latitude), std::abs(b.latitude)));
+        const double r = radius * tilesPerMeter / std::cos(latitude * util::DEG2RAD);
+
+        spans.addSegment(project(a, z), project(b, z), r);
+    }
+
+    spans.merge();
+    return spans;
+}
+
 } // namespace
 
 int32_t coveringZoomLevel(double zoom, SourceType type, uint16_t size) {
@@ -157,6 +354,44 @@ std::vector<UnwrappedTileID> tileCover(const LatLngBounds& bounds_, int32_t z) {
         z);
 }
 
+uint64_t tileCount(const LatLngBounds& bounds_, int32_t z) {
+    if (bounds_.isEmpty() ||
+        bounds_.south() >  util::LATITUDE_MAX ||
+        bounds_.north() < -util::LATITUDE_MAX) {
+        return 0;
+    }
+
+    LatLngBounds bounds = LatLngBounds::hull(
+        { std::max(bounds_.south(), -util::LATITUDE_MAX), bounds_.west() },
+        { std::min(bounds_.north(),  util::LATITUDE_MAX), bounds_.east() });
+
+    // The cover of an axis-aligned rectangle is the rectangle of the tiles it touches,
+    // clamped vertically to the world like the scan lines of tileCover.
+    const TransformState state;
+    const Point<double> nw = TileCoordinate::fromLatLng(state, z, bounds.northwest()).p;
+    const Point<double> se = TileCoordinate::fromLatLng(state, z, bounds.southeast()).p;
+    const double columns = std::ceil(se.x) - std::floor(nw.x);
+    const double rows = ::fmin(1 << z, std::ceil(se.y)) - ::fmax(0, std::floor(nw.y));
+
+    return columns > 0 && rows > 0 ? columns * rows : 0;
+}
+
+std::vector<UnwrappedTileID> polygonTileCover(const std::vector<LatLng>& ring, int32_t z) {
+    return polygonSpans(ring, z).cover(z);
+}
+
+uint64_t polygonTileCount(const std::vector<LatLng>& ring, int32_t z) {
+    return polygonSpans(ring, z).count();
+}
+
+std::vector<UnwrappedTileID> corridorTileCover(const std::vector<LatLng>& line, double radius, int32_t z) {
+    return corridorSpans(line, radius, z).cover(z);
+}
+
+uint64_t corridorTileCount(const std::vector<LatLng>& line, double radius, int32_t z) {
+    return corridorSpans(line, radius, z).count();
+}
+
 std::vector<UnwrappedTileID> tileCover(const TransformState& state, int32_t z) {
     const double w = state.getWidth();
     const double h = state.getHeight();
@@ -9,6 +9,7 @@
 namespace mbgl {
 
 class TransformState;
+class LatLng;
 class LatLngBounds;
 
 namespace util {
@@ -18,5 +19,15 @@ int32_t coveringZoomLevel(double z, SourceType type, uint16_t tileSize);
 std::vector<UnwrappedTileID> tileCover(const TransformState&, int32_t z);
 std::vector<UnwrappedTileID> tileCover(const LatLngBounds&, int32_t z);
 
+// Returns the number of tiles of tileCover(bounds, z) without enumerating them.
+uint64_t tileCount(const LatLngBounds&, int32_t z);
+
+// Covers of a polygon, given as its outer ring, and of a corridor, a line buffered by a
+// radius in meters. Tiles touching the boundary are part of the cover.
+std::vector<UnwrappedTileID> polygonTileCover(const std::vector<LatLng>& ring, int32_t z);
+uint64_t polygonTileCount(const std::vector<LatLng>& ring, int32_t z);
+std::vector<UnwrappedTileID> corridorTileCover(const std::vector<LatLng>& line, double radius, int32_t z);
+uint64_t corridorTileCount(const std::vector<LatLng>& line, double radius, int32_t z);
+
 } // namespace util
 } // namespace mbgl
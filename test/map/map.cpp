@@ -6,7 +6,9 @@
 #include <mbgl/platform/default/headless_display.hpp>
 #include <mbgl/storage/network_status.hpp>
 #include <mbgl/storage/default_file_source.hpp>
+#include <mbgl/util/constants.hpp>
 #include <mbgl/util/io.hpp>
+#include <mbgl/util/mat4.hpp>
 #include <mbgl/util/run_loop.hpp>
 #include <mbgl/style/layers/background_layer.hpp>
 
@@ -52,6 +54,54 @@ TEST(Map, Offline) {
     NetworkStatus::Set(NetworkStatus::Status::Online);
 }
 
+TEST(Map, FrameStatistics) {
+    MapTest test;
+    DefaultFileSource fileSource(":memory:", ".");
+
+    auto item = [] (const std::string& path) {
+        Response response;
+        response.data = std::make_shared<std::string>(util::read_file("test/fixtures/map/offline/"s + path));
+        return response;
+    };
+
+    const std::string prefix = "http://127.0.0.1:3000/";
+    fileSource.put(Resource::style(prefix + "style.json"), item("style.json"));
+    fileSource.put(Resource::source(prefix + "streets.json"), item("streets.json"));
+    fileSource.put(Resource::spriteJSON(prefix + "sprite", 1.0), item("sprite.json"));
+    fileSource.put(Resource::spriteImage(prefix + "sprite", 1.0), item("sprite.png"));
+    fileSource.put(Resource::tile(prefix + "{z}-{x}-{y}.vector.pbf", 1.0, 0, 0, 0), item("0-0-0.vector.pbf"));
+    fileSource.put(Resource::glyphs(prefix + "{fontstack}/{range}.pbf", {{"Helvetica"}}, {0, 255}), item("glyph.pbf"));
+    NetworkStatus::Set(NetworkStatus::Status::Offline);
+
+    Map map(test.view, fileSource, MapMode::Still);
+    EXPECT_EQ(0u, map.getFrameStatistics().renderedTiles);
+
+    map.setStyleURL(prefix + "style.json");
+    test::render(map);
+
+    const Map::FrameStatistics statistics = map.getFrameStatistics();
+    EXPECT_EQ(1u, statistics.renderedTiles);
+    EXPECT_EQ(0u, statistics.pendingTiles);
+    EXPECT_LT(Duration::zero(), statistics.renderTime);
+    EXPECT_LE(statistics.uploadTime + statistics.symbolTime, statistics.renderTime);
+
+    NetworkStatus::Set(NetworkStatus::Status::Online);
+}
+
+TEST(Map, ProjectionMatrix) {
+    MapTest test;
+
+    Map map(test.view, test.fileSource, MapMode::Still);
+    map.setLatLngZoom({ 0, 0 }, 2);
+
+    // The center of the world, four tiles wide at zoom 2, is at the center of the view.
+    const double center = util::tileSize * 2;
+    vec4 clip;
+    matrix::transformMat4(clip, {{ center, center, 0, 1 }}, map.getProjectionMatrix());
+    EXPECT_NEAR(0, clip[0] / clip[3], 1e-9);
+    EXPECT_NEAR(0, clip[1] / clip[3], 1e-9);
+}
+
 TEST(Map, DoubleStyleLoad) {
     MapTest test;
 
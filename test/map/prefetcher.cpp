@@ -0,0 +1,169 @@
+#include <mbgl/test/util.hpp>
+#include <mbgl/test/stub_file_source.hpp>
+
+#include <mbgl/map/prefetcher.hpp>
+#include <mbgl/util/constants.hpp>
+#include <mbgl/util/run_loop.hpp>
+#include <mbgl/util/timer.hpp>
+
+using namespace mbgl;
+
+namespace {
+
+std::vector<Resource> tileResources(int32_t count, int8_t z = 4) {
+    std::vector<Resource> result;
+    for (int32_t x = 0; x < count; x++) {
+        result.push_back(Resource::tile("http://127.0.0.1:3000/{z}-{x}-{y}.vector.pbf", 1.0, x, 0, z));
+    }
+    return result;
+}
+
+} // namespace
+
+TEST(Prefetcher, Prefetch) {
+    util::RunLoop loop;
+    StubFileSource fileSource;
+    Prefetcher prefetcher(fileSource);
+
+    uint32_t requests = 0;
+    fileSource.tileResponse = [&] (const Resource& resource) {
+        EXPECT_EQ(Resource::Low, resource.priority);
+        EXPECT_EQ(Resource::Required, resource.necessity);
+        EXPECT_GE(util::PREFETCH_MAXIMUM_REQUESTS, prefetcher.getActiveCount());
+
+        if (++requests == 10) {
+            loop.stop();
+        }
+
+        Response response;
+        response.data = std::make_shared<std::string>("tile");
+        return response;
+    };
+
+    prefetcher.prefetch(tileResources(10), 0);
+    EXPECT_EQ(util::PREFETCH_MAXIMUM_REQUESTS, prefetcher.getActiveCount());
+
+    // Resources in flight are not requested again
+    prefetcher.prefetch(tileResources(10), 0);
+    EXPECT_EQ(10u - util::PREFETCH_MAXIMUM_REQUESTS, prefetcher.getQueuedCount());
+
+    loop.run();
+
+    EXPECT_EQ(10u, requests);
+    EXPECT_EQ(0u, prefetcher.getQueuedCount());
+    EXPECT_EQ(0u, prefetcher.getActiveCount());
+    EXPECT_EQ(40u, prefetcher.getDownloadedSize());
+}
+
+TEST(Prefetcher, ByteBudget) {
+    util::RunLoop loop;
+    StubFileSource fileSource;
+    Prefetcher prefetcher(fileSource);
+
+    uint32_t requests = 0;
+    fileSource.tileResponse = [&] (const Resource&) {
+        if (++requests == util::PREFETCH_MAXIMUM_REQUESTS) {
+            loop.stop();
+        }
+
+        Response response;
+        response.data = std::make_shared<std::string>("tile");
+        return response;
+    };
+
+    // The budget is spent by the first response, requests in flight still complete
+    prefetcher.prefetch(tileResources(10), 4);
+    loop.run();
+
+    EXPECT_EQ(util::PREFETCH_MAXIMUM_REQUESTS, requests);
+    EXPECT_EQ(0u, prefetcher.getActiveCount());
+    EXPECT_EQ(10u - util::PREFETCH_MAXIMUM_REQUESTS, prefetcher.getQueuedCount());
+
+    // A new destination replaces the leftovers
+    prefetcher.prefetch({}, 0);
+    EXPECT_EQ(0u, prefetcher.getQueuedCount());
+    EXPECT_EQ(0u, prefetcher.getActiveCount());
+}
+
+TEST(Prefetcher, ReplaceLeftovers) {
+    util::RunLoop loop;
+    StubFileSource fileSource;
+    Prefetcher prefetcher(fileSource);
+
+    uint32_t requests = 0;
+    fileSource.tileResponse = [&] (const Resource& resource) {
+        if (++requests > util::PREFETCH_MAXIMUM_REQUESTS) {
+            EXPECT_EQ(5, resource.tileData->z);
+        }
+        if (requests == util::PREFETCH_MAXIMUM_REQUESTS || requests == util::PREFETCH_MAXIMUM_REQUESTS + 3) {
+            loop.stop();
+        }
+
+        Response response;
+        response.data = std::make_shared<std::string>("tile");
+        return response;
+    };
+
+    prefetcher.prefetch(tileResources(10), 4);
+    loop.run();
+    EXPECT_EQ(10u - util::PREFETCH_MAXIMUM_REQUESTS, prefetcher.getQueuedCount());
+
+    // The resources of the new destination are requested before any leftover
+    prefetcher.prefetch(tileResources(3, 5), 0);
+    EXPECT_EQ(3u, prefetcher.getActiveCount());
+    loop.run();
+
+    EXPECT_EQ(util::PREFETCH_MAXIMUM_REQUESTS + 3, requests);
+    EXPECT_EQ(0u, prefetcher.getQueuedCount());
+    EXPECT_EQ(0u, prefetcher.getActiveCount());
+}
+
+TEST(Prefetcher, PrefetchAgain) {
+    util::RunLoop loop;
+    StubFileSource fileSource;
+    Prefetcher prefetcher(fileSource);
+
+    uint32_t requests = 0;
+    fileSource.tileResponse = [&] (const Resource&) {
+        requests++;
+        loop.stop();
+
+        Response response;
+        response.data = std::make_shared<std::string>("tile");
+        return response;
+    };
+
+    prefetcher.prefetch(tileResources(1), 0);
+    loop.run();
+    EXPECT_EQ(0u, prefetcher.getActiveCount());
+
+    // Finished resources are forgotten, so prefetching them again requests them again
+    prefetcher.prefetch(tileResources(1), 0);
+    EXPECT_EQ(1u, prefetcher.getActiveCount());
+    loop.run();
+
+    EXPECT_EQ(2u, requests);
+}
+
+TEST(Prefetcher, Cancel) {
+    util::RunLoop loop;
+    StubFileSource fileSource;
+    Prefetcher prefetcher(fileSource);
+
+    fileSource.tileResponse = [&] (const Resource&) {
+        ADD_FAILURE() << "Cancelled requests should not be answered";
+        return optional<Response>();
+    };
+
+    prefetcher.prefetch(tileResources(10), 0);
+    prefetcher.cancel();
+
+    EXPECT_EQ(0u, prefetcher.getQueuedCount());
+    EXPECT_EQ(0u, prefetcher.getActiveCount());
+
+    util::Timer timer;
+    timer.start(Milliseconds(50), Duration::zero(), [&] {
+        loop.stop();
+    });
+    loop.run();
+}
@@ -1,6 +1,7 @@
 #include <mbgl/test/util.hpp>
 #include <mbgl/storage/default_file_source.hpp>
 #include <mbgl/util/run_loop.hpp>
+#include <mbgl/util/timer.hpp>
 
 using namespace mbgl;
 
@@ -460,3 +461,123 @@ TEST(DefaultFileSource, TEST_REQUIRES_SERVER(NoCacheRefreshModifiedModified)) {
 
     loop.run();
 }
+
+// Test that identical requests in flight at the same time share one request to the server
+TEST(DefaultFileSource, TEST_REQUIRES_SERVER(CoalesceIdenticalRequests)) {
+    util::RunLoop loop;
+    DefaultFileSource fs(":memory:", ".");
+
+    const Resource resource { Resource::Unknown, "http://127.0.0.1:3000/coalesced" };
+    std::unique_ptr<AsyncRequest> req1;
+    std::unique_ptr<AsyncRequest> req2;
+    int responses = 0;
+
+    auto callback = [&](std::unique_ptr<AsyncRequest>& req) {
+        return [&](Response res) {
+            req.reset();
+            EXPECT_EQ(nullptr, res.error);
+            ASSERT_TRUE(res.data.get());
+            // The server counts requests, a second request would have received "Response 2"
+            EXPECT_EQ("Response 1", *res.data);
+            if (++responses == 2) {
+                loop.stop();
+            }
+        };
+    };
+
+    req1 = fs.request(resource, callback(req1));
+    req2 = fs.request(resource, callback(req2));
+
+    loop.run();
+}
+
+// Test that cancelling one of the coalesced requests still delivers the response to the other
+TEST(DefaultFileSource, TEST_REQUIRES_SERVER(CoalescedRequestCancel)) {
+    util::RunLoop loop;
+    DefaultFileSource fs(":memory:", ".");
+
+    const Resource resource { Resource::Unknown, "http://127.0.0.1:3000/delayed" };
+    std::unique_ptr<AsyncRequest> req1;
+    std::unique_ptr<AsyncRequest> req2;
+
+    req1 = fs.request(resource, [&](Response) {
+        FAIL() << "Should never be called";
+    });
+    req2 = fs.request(resource, [&](Response res) {
+        req2.reset();
+        EXPECT_EQ(nullptr, res.error);
+        ASSERT_TRUE(res.data.get());
+        EXPECT_EQ("Response", *res.data);
+        loop.stop();
+    });
+    req1.reset();
+
+    loop.run();
+}
+
+// Test that cancelling one of several coalesced requests while the shared request is in flight
+// still delivers the response to the others
+TEST(DefaultFileSource, TEST_REQUIRES_SERVER(CoalescedRequestCancelInFlight)) {
+    util::RunLoop loop;
+    DefaultFileSource fs(":memory:", ".");
+
+    const Resource resource { Resource::Unknown, "http://127.0.0.1:3000/delayed" };
+    std::unique_ptr<AsyncRequest> req1;
+    std::unique_ptr<AsyncRequest> req2;
+    std::unique_ptr<AsyncRequest> req3;
+    int responses = 0;
+
+    auto callback = [&](std::unique_ptr<AsyncRequest>& req) {
+        return [&](Response res) {
+            req.reset();
+            EXPECT_EQ(nullptr, res.error);
+            ASSERT_TRUE(res.data.get());
+            EXPECT_EQ("Response", *res.data);
+            if (++responses == 2) {
+                loop.stop();
+            }
+        };
+    };
+
+    req1 = fs.request(resource, callback(req1));
+    req2 = fs.request(resource, [&](Response) {
+        FAIL() << "Should never be called";
+    });
+    req3 = fs.request(resource, callback(req3));
+
+    // The server answers after 200ms, cancel once the request was sent
+    util::Timer timer;
+    timer.start(Milliseconds(50), Duration::zero(), [&] {
+        req2.reset();
+    });
+
+    loop.run();
+}
+
+// Test that a request joining a shared request that already answered receives that answer, even
+// when no further response will ever come
+TEST(DefaultFileSource, TEST_REQUIRES_SERVER(CoalescedRequestJoinAfterResponse)) {
+    util::RunLoop loop;
+    DefaultFileSource fs(":memory:", ".");
+
+    // Errors are neither cached nor refreshed
+    const Resource resource { Resource::Unknown, "http://127.0.0.1:3000/not-found" };
+    std::unique_ptr<AsyncRequest> req1;
+    std::unique_ptr<AsyncRequest> req2;
+
+    req1 = fs.request(resource, [&](Response res1) {
+        ASSERT_NE(nullptr, res1.error);
+        EXPECT_EQ(Response::Error::Reason::NotFound, res1.error->reason);
+
+        // req1 stays alive, so the shared request is still registered
+        req2 = fs.request(resource, [&](Response res2) {
+            req1.reset();
+            req2.reset();
+            ASSERT_NE(nullptr, res2.error);
+            EXPECT_EQ(Response::Error::Reason::NotFound, res2.error->reason);
+            loop.stop();
+        });
+    });
+
+    loop.run();
+}
@@ -1,8 +1,12 @@
 #include <mbgl/storage/offline.hpp>
 #include <mbgl/tile/tile_id.hpp>
+#include <mbgl/util/constants.hpp>
 
 #include <gtest/gtest.h>
 
+#include <algorithm>
+#include <numeric>
+
 using namespace mbgl;
 
 static const LatLngBounds sanFrancisco =
@@ -52,3 +56,65 @@ TEST(OfflineTilePyramidRegionDefinition, TileCoverWrapped) {
     EXPECT_EQ((std::vector<CanonicalTileID>{ { 0, 0, 0 } }),
               region.tileCover(SourceType::Vector, 512, { 0, 22 }));
 }
+
+TEST(OfflineTilePyramidRegionDefinition, TileCoverPolygon) {
+    OfflineRegionShape shape { OfflineRegionShape::Type::Polygon, {
+        sanFrancisco.southwest(), sanFrancisco.southeast(), sanFrancisco.northeast(), sanFrancisco.northwest()
+    } };
+    OfflineTilePyramidRegionDefinition region("", shape, 0, 14, 1.0);
+    OfflineTilePyramidRegionDefinition rectangle("", sanFrancisco, 0, 14, 1.0);
+
+    EXPECT_EQ(sanFrancisco, region.bounds);
+
+    auto polygonCover = region.tileCover(SourceType::Vector, 512, { 0, 22 });
+    auto rectangleCover = rectangle.tileCover(SourceType::Vector, 512, { 0, 22 });
+    std::sort(polygonCover.begin(), polygonCover.end());
+    std::sort(rectangleCover.begin(), rectangleCover.end());
+    EXPECT_EQ(rectangleCover, polygonCover);
+    EXPECT_EQ(rectangle.tileCounts(SourceType::Vector, 512, { 0, 22 }),
+              region.tileCounts(SourceType::Vector, 512, { 0, 22 }));
+}
+
+TEST(OfflineTilePyramidRegionDefinition, TileCoverCorridor) {
+    OfflineRegionShape shape { OfflineRegionShape::Type::Corridor, {
+        sanFrancisco.southwest(), sanFrancisco.northeast()
+    }, 500 };
+    OfflineTilePyramidRegionDefinition region("", shape, 0, 14, 1.0);
+    OfflineTilePyramidRegionDefinition rectangle("", sanFrancisco, 0, 14, 1.0);
+
+    EXPECT_TRUE(region.bounds.contains(sanFrancisco.southwest()));
+    EXPECT_TRUE(region.bounds.contains(sanFrancisco.northeast()));
+    EXPECT_NEAR(sanFrancisco.north() + 500 / util::EARTH_RADIUS_M * util::RAD2DEG, region.bounds.north(), 1e-9);
+
+    const auto counts = region.tileCounts(SourceType::Vector, 512, { 0, 22 });
+    ASSERT_EQ(15u, counts.size());
+    EXPECT_EQ(region.tileCover(SourceType::Vector, 512, { 0, 22 }).size(),
+              std::accumulate(counts.begin(), counts.end(), uint64_t(0)));
+    EXPECT_LT(counts[14], rectangle.tileCounts(SourceType::Vector, 512, { 0, 22 })[14]);
+}
+
+TEST(OfflineTilePyramidRegionDefinition, InvalidShape) {
+    EXPECT_THROW(OfflineTilePyramidRegionDefinition("", OfflineRegionShape { OfflineRegionShape::Type::Polygon,
+        { sanFrancisco.southwest(), sanFrancisco.northeast() } }, 0, 14, 1.0), std::invalid_argument);
+    EXPECT_THROW(OfflineTilePyramidRegionDefinition("", OfflineRegionShape { OfflineRegionShape::Type::Corridor,
+        { sanFrancisco.southwest() }, -1 }, 0, 14, 1.0), std::invalid_argument);
+}
+
+TEST(OfflineTilePyramidRegionDefinition, EncodeDecodeShape) {
+    OfflineRegionShape shape { OfflineRegionShape::Type::Corridor, {
+        sanFrancisco.southwest(), sanFrancisco.northeast()
+    }, 500 };
+    OfflineRegionDefinition region("mapbox://style", shape, 0, 14, 2.0);
+    OfflineRegionDefinition decoded = decodeOfflineRegionDefinition(encodeOfflineRegionDefinition(region));
+
+    EXPECT_EQ(region.styleURL, decoded.styleURL);
+    EXPECT_EQ(region.bounds, decoded.bounds);
+    ASSERT_TRUE(bool(decoded.shape));
+    EXPECT_EQ(OfflineRegionShape::Type::Corridor, decoded.shape->type);
+    EXPECT_EQ(shape.coordinates, decoded.shape->coordinates);
+    EXPECT_EQ(500, decoded.shape->radius);
+
+    // Definitions stored before shapes were supported still decode.
+    OfflineRegionDefinition rectangle("mapbox://style", sanFrancisco, 0, 14, 2.0);
+    EXPECT_FALSE(bool(decodeOfflineRegionDefinition(encodeOfflineRegionDefinition(rectangle)).shape));
+}
@@ -449,6 +449,99 @@ TEST(OfflineDatabase, PutFailsWhenEvictionInsuffices) {
     EXPECT_FALSE(bool(db.get(Resource::style("http://example.com/big"))));
 }
 
+TEST(OfflineDatabase, PutEvictsLeastFrequentlyUsedResources) {
+    using namespace mbgl;
+
+    OfflineDatabase db(":memory:", 1024 * 100);
+    db.setAmbientCacheEvictionPolicy(OfflineCacheEvictionPolicy::LeastFrequentlyUsed);
+
+    Response response;
+    response.data = randomString(1024);
+
+    const Resource popular = Resource::style("http://example.com/popular");
+    db.put(popular, response);
+    for (uint32_t i = 0; i < 10; i++) {
+        EXPECT_TRUE(bool(db.get(popular)));
+    }
+
+    for (uint32_t i = 1; i <= 200; i++) {
+        db.put(Resource::style("http://example.com/"s + util::toString(i)), response);
+    }
+
+    // Least recently used, but read most often.
+    EXPECT_TRUE(bool(db.get(popular)));
+    EXPECT_FALSE(bool(db.get(Resource::style("http://example.com/1"))));
+}
+
+TEST(OfflineDatabase, PeekDoesNotCountAsAccess) {
+    using namespace mbgl;
+
+    OfflineDatabase db(":memory:", 1024 * 100);
+    db.setAmbientCacheEvictionPolicy(OfflineCacheEvictionPolicy::LeastFrequentlyUsed);
+
+    Response response;
+    response.data = randomString(1024);
+
+    const Resource peeked = Resource::style("http://example.com/peeked");
+    db.put(peeked, response);
+    for (uint32_t i = 0; i < 10; i++) {
+        auto result = db.peek(peeked);
+        ASSERT_TRUE(bool(result));
+        EXPECT_EQ(*response.data, *result->data);
+    }
+    EXPECT_FALSE(bool(db.peek(Resource::style("http://example.com/missing"))));
+
+    AmbientCacheStatistics statistics = db.getAmbientCacheStatistics();
+    EXPECT_EQ(0u, statistics.hits);
+    EXPECT_EQ(0u, statistics.misses);
+
+    for (uint32_t i = 1; i <= 200; i++) {
+        db.put(Resource::style("http://example.com/"s + util::toString(i)), response);
+    }
+
+    // Never read, so it is the first to go.
+    EXPECT_FALSE(bool(db.peek(peeked)));
+}
+
+TEST(OfflineDatabase, AmbientCacheStatistics) {
+    using namespace mbgl;
+
+    OfflineDatabase db(":memory:", 1024 * 100);
+    OfflineRegionDefinition definition { "", LatLngBounds::world(), 0, INFINITY, 1.0 };
+    OfflineRegion region = db.createRegion(definition, OfflineRegionMetadata());
+
+    Response response;
+    response.data = randomString(1024);
+
+    db.putRegionResource(region.getID(), Resource::style("http://example.com/region"), response);
+    for (uint32_t i = 1; i <= 10; i++) {
+        db.put(Resource::style("http://example.com/"s + util::toString(i)), response);
+    }
+
+    EXPECT_TRUE(bool(db.get(Resource::style("http://example.com/1"))));
+    EXPECT_TRUE(bool(db.get(Resource::style("http://example.com/2"))));
+    EXPECT_TRUE(bool(db.get(Resource::style("http://example.com/3"))));
+    EXPECT_FALSE(bool(db.get(Resource::style("http://example.com/missing"))));
+
+    AmbientCacheStatistics statistics = db.getAmbientCacheStatistics();
+    EXPECT_EQ(1024u * 100, statistics.maximumSize);
+    EXPECT_EQ(10u, statistics.resourceCount);
+    EXPECT_EQ(0u, statistics.tileCount);
+    EXPECT_EQ(10u * 1024, statistics.size);
+    EXPECT_LT(statistics.size, statistics.databaseSize);
+    EXPECT_EQ(3u, statistics.hits);
+    EXPECT_EQ(1u, statistics.misses);
+    EXPECT_DOUBLE_EQ(0.75, statistics.hitRatio());
+    EXPECT_EQ(0u, statistics.evictedCount);
+
+    // Lowering the size evicts ambient entries only.
+    db.setMaximumAmbientCacheSize(0);
+    statistics = db.getAmbientCacheStatistics();
+    EXPECT_EQ(0u, statistics.resourceCount);
+    EXPECT_EQ(10u, statistics.evictedCount);
+    EXPECT_TRUE(bool(db.get(Resource::style("http://example.com/region"))));
+}
+
 TEST(OfflineDatabase, GetRegionCompletedStatus) {
     using namespace mbgl;
 
@@ -483,6 +576,172 @@ TEST(OfflineDatabase, GetRegionCompletedStatus) {
     EXPECT_EQ(tileSize, status3.completedTileSize);
 }
 
+TEST(OfflineDatabase, RegionRefresh) {
+    using namespace mbgl;
+    using namespace std::chrono_literals;
+
+    OfflineDatabase db(":memory:");
+    OfflineRegionDefinition definition { "http://example.com/style", LatLngBounds::hull({1, 2}, {3, 4}), 5, 6, 2.0 };
+    OfflineRegionMetadata metadata;
+    OfflineRegion region = db.createRegion(definition, metadata);
+
+    Response response;
+    response.data = std::make_shared<std::string>("data");
+
+    Resource tile = Resource::tile("http://example.com/", 1.0, 0, 0, 0);
+    db.putRegionResource(region.getID(), tile, response);
+
+    EXPECT_FALSE(bool(db.getRegionRefreshStarted(region.getID())));
+
+    db.startRegionRefresh(region.getID());
+    optional<Timestamp> started = db.getRegionRefreshStarted(region.getID());
+    ASSERT_TRUE(bool(started));
+    EXPECT_TRUE(db.isValidatedSince(tile, *started - 1h));
+    EXPECT_FALSE(db.isValidatedSince(tile, *started + 1h));
+
+    // Starting again keeps the original start time so an interrupted refresh resumes
+    db.startRegionRefresh(region.getID());
+    EXPECT_EQ(*started, *db.getRegionRefreshStarted(region.getID()));
+
+    db.finishRegionRefresh(region.getID());
+    EXPECT_FALSE(bool(db.getRegionRefreshStarted(region.getID())));
+
+    EXPECT_FALSE(db.isValidatedSince(Resource::style("http://example.com/missing"), *started - 1h));
+}
+
+TEST(OfflineDatabase, BatchedRegionResources) {
+    using namespace mbgl;
+
+    OfflineDatabase db(":memory:");
+    OfflineRegionDefinition definition { "http://example.com/style", LatLngBounds::hull({1, 2}, {3, 4}), 5, 6, 2.0 };
+    OfflineRegion region = db.createRegion(definition, {});
+
+    Response response;
+    response.data = std::make_shared<std::string>("data");
+
+    db.setBatchSize(3);
+    db.putRegionResource(region.getID(), Resource::tile("http://example.com/", 1.0, 0, 0, 0), response);
+    EXPECT_TRUE(db.hasUncommittedBatch());
+    db.putRegionResource(region.getID(), Resource::tile("http://example.com/", 1.0, 1, 0, 1), response);
+    EXPECT_TRUE(db.hasUncommittedBatch());
+
+    // Writes of the batch are visible on the same connection before they are committed
+    EXPECT_TRUE(bool(db.get(Resource::tile("http://example.com/", 1.0, 0, 0, 0))));
+    EXPECT_EQ(2u, db.getRegionCompletedStatus(region.getID()).completedTileCount);
+
+    // Ambient resources join the batch
+    db.put(Resource::style("http://example.com/ambient"), response);
+    EXPECT_TRUE(db.hasUncommittedBatch());
+
+    db.putRegionResource(region.getID(), Resource::style("http://example.com/style"), response);
+    EXPECT_FALSE(db.hasUncommittedBatch());
+
+    db.putRegionResource(region.getID(), Resource::tile("http://example.com/", 1.0, 0, 1, 1), response);
+    EXPECT_TRUE(db.hasUncommittedBatch());
+    db.commitBatch();
+    EXPECT_FALSE(db.hasUncommittedBatch());
+    EXPECT_EQ(4u, db.getRegionCompletedStatus(region.getID()).completedResourceCount);
+
+    // Regions can be deleted while a batch is open
+    db.putRegionResource(region.getID(), Resource::tile("http://example.com/", 1.0, 1, 1, 1), response);
+    db.deleteRegion(std::move(region));
+    EXPECT_FALSE(db.hasUncommittedBatch());
+    EXPECT_EQ(0u, db.listRegions().size());
+}
+
+TEST(OfflineDatabase, TEST_REQUIRES_WRITE(ExportImportRegion)) {
+    using namespace mbgl;
+
+    createDir("test/fixtures/offline_database");
+    deleteFile("test/fixtures/offline_database/export.db");
+
+    OfflineDatabase source(":memory:");
+    OfflineRegionDefinition definition { "http://example.com/style", LatLngBounds::hull({1, 2}, {3, 4}), 5, 6, 2.0 };
+    OfflineRegionMetadata metadata {{ 1, 2, 3 }};
+    OfflineRegion region = source.createRegion(definition, metadata);
+    OfflineRegion other = source.createRegion(definition, {});
+
+    Response response;
+    response.data = std::make_shared<std::string>("data");
+    response.etag = { "etag" };
+
+    Resource style = Resource::style("http://example.com/style");
+    Resource tile = Resource::tile("http://example.com/{z}/{x}/{y}.pbf", 1.0, 0, 0, 0);
+    Resource otherTile = Resource::tile("http://example.com/{z}/{x}/{y}.pbf", 1.0, 1, 1, 1);
+    source.putRegionResource(region.getID(), style, response);
+    source.putRegionResource(region.getID(), tile, response);
+    source.putRegionResource(other.getID(), otherTile, response);
+    source.put(Resource::style("http://example.com/ambient"), response);
+
+    source.exportRegion(region.getID(), "test/fixtures/offline_database/export.db");
+
+    OfflineDatabase target(":memory:");
+    target.createRegion(definition, {});
+
+    std::vector<OfflineRegion> imported = target.importRegions("test/fixtures/offline_database/export.db");
+    ASSERT_EQ(1u, imported.size());
+    EXPECT_EQ(metadata, imported[0].getMetadata());
+    EXPECT_EQ(definition.styleURL, imported[0].getDefinition().styleURL);
+    EXPECT_EQ(2u, target.listRegions().size());
+
+    OfflineRegionStatus status = target.getRegionCompletedStatus(imported[0].getID());
+    EXPECT_EQ(2u, status.completedResourceCount);
+    EXPECT_EQ(1u, status.completedTileCount);
+
+    auto importedTile = target.get(tile);
+    ASSERT_TRUE(bool(importedTile));
+    EXPECT_EQ("data", *importedTile->data);
+    EXPECT_EQ("etag", *importedTile->etag);
+    EXPECT_FALSE(bool(target.get(otherTile)));
+    EXPECT_FALSE(bool(target.get(Resource::style("http://example.com/ambient"))));
+
+    // Importing again adds another region sharing the stored resources
+    imported = target.importRegions("test/fixtures/offline_database/export.db");
+    ASSERT_EQ(1u, imported.size());
+    EXPECT_EQ(2u, target.getRegionCompletedStatus(imported[0].getID()).completedResourceCount);
+
+    EXPECT_THROW(source.exportRegion(-1, "test/fixtures/offline_database/export.db"), std::runtime_error);
+    EXPECT_THROW(target.importRegions("test/fixtures/offline_database/missing.db"), std::exception);
+}
+
+TEST(OfflineDatabase, TEST_REQUIRES_WRITE(ImportRegionMapboxTileCountLimit)) {
+    using namespace mbgl;
+
+    createDir("test/fixtures/offline_database");
+    deleteFile("test/fixtures/offline_database/export.db");
+
+    OfflineDatabase source(":memory:");
+    OfflineRegionDefinition definition { "http://example.com/style", LatLngBounds::hull({1, 2}, {3, 4}), 5, 6, 2.0 };
+    OfflineRegion region = source.createRegion(definition, {});
+
+    Response response;
+    response.data = std::make_shared<std::string>("data");
+
+    Resource mapboxTile1 = Resource::tile("mapbox://tiles/1", 1.0, 0, 0, 0);
+    Resource mapboxTile2 = Resource::tile("mapbox://tiles/2", 1.0, 0, 0, 1);
+    source.putRegionResource(region.getID(), mapboxTile1, response);
+    source.putRegionResource(region.getID(), mapboxTile2, response);
+    source.exportRegion(region.getID(), "test/fixtures/offline_database/export.db");
+
+    OfflineDatabase target(":memory:");
+    OfflineRegion existing = target.createRegion(definition, {});
+    target.putRegionResource(existing.getID(), mapboxTile1, response);
+    EXPECT_EQ(1u, target.getOfflineMapboxTileCount());
+
+    // One of the imported tiles is new, which would exceed the limit
+    target.setOfflineMapboxTileCountLimit(1);
+    EXPECT_THROW(target.importRegions("test/fixtures/offline_database/export.db"), std::runtime_error);
+    EXPECT_EQ(1u, target.listRegions().size());
+    EXPECT_EQ(1u, target.getOfflineMapboxTileCount());
+    EXPECT_FALSE(bool(target.get(mapboxTile2)));
+
+    // Reaching the limit is allowed
+    target.setOfflineMapboxTileCountLimit(2);
+    ASSERT_EQ(1u, target.importRegions("test/fixtures/offline_database/export.db").size());
+    EXPECT_EQ(2u, target.listRegions().size());
+    EXPECT_EQ(2u, target.getOfflineMapboxTileCount());
+}
+
 TEST(OfflineDatabase, OfflineMapboxTileCount) {
     using namespace mbgl;
 
@@ -540,15 +799,16 @@ TEST(OfflineDatabase, OfflineMapboxTileCount) {
     EXPECT_EQ(0u, db.getOfflineMapboxTileCount());
 }
 
+// Databases in WAL mode can't be opened read-only without their shared memory file.
 static int databasePageCount(const std::string& path) {
-    mapbox::sqlite::Database db(path, mapbox::sqlite::ReadOnly);
+    mapbox::sqlite::Database db(path, mapbox::sqlite::ReadWrite);
     mapbox::sqlite::Statement stmt = db.prepare("pragma page_count");
     stmt.run();
     return stmt.get<int>(0);
 }
 
 static int databaseUserVersion(const std::string& path) {
-    mapbox::sqlite::Database db(path, mapbox::sqlite::ReadOnly);
+    mapbox::sqlite::Database db(path, mapbox::sqlite::ReadWrite);
     mapbox::sqlite::Statement stmt = db.prepare("pragma user_version");
     stmt.run();
     return stmt.get<int>(0);
@@ -570,7 +830,7 @@ TEST(OfflineDatabase, MigrateFromV2Schema) {
         }
     }
 
-    EXPECT_EQ(3, databaseUserVersion("test/fixtures/offline_database/v3.db"));
+    EXPECT_EQ(5, databaseUserVersion("test/fixtures/offline_database/v3.db"));
     EXPECT_LT(databasePageCount("test/fixtures/offline_database/v3.db"),
               databasePageCount("test/fixtures/offline_database/v2.db"));
 }
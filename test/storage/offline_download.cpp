@@ -4,6 +4,7 @@
 #include <mbgl/storage/offline_database.hpp>
 #include <mbgl/storage/offline_download.hpp>
 #include <mbgl/util/run_loop.hpp>
+#include <mbgl/util/timer.hpp>
 #include <mbgl/util/io.hpp>
 #include <mbgl/util/compression.hpp>
 #include <mbgl/util/string.hpp>
@@ -589,3 +590,272 @@ TEST(OfflineDownload, Deactivate) {
 
     test.loop.run();
 }
+
+TEST(OfflineDownloadScheduler, RequestLimit) {
+    OfflineTest test;
+    OfflineRegion region = test.createRegion();
+    OfflineDownload download(
+        region.getID(),
+        OfflineTilePyramidRegionDefinition("http://127.0.0.1:3000/style.json", LatLngBounds::world(), 0.0, 0.0, 1.0),
+        test.db, test.fileSource);
+
+    OfflineDownloadPolicy policy;
+    policy.maximumRequests = 2;
+
+    OfflineDownloadScheduler scheduler;
+    scheduler.setPolicy(policy);
+
+    EXPECT_TRUE(scheduler.acquire(download));
+    EXPECT_TRUE(scheduler.acquire(download));
+    EXPECT_FALSE(scheduler.acquire(download));
+
+    scheduler.release(0);
+    EXPECT_TRUE(scheduler.acquire(download));
+}
+
+TEST(OfflineDownloadScheduler, BandwidthLimit) {
+    OfflineTest test;
+    OfflineRegion region = test.createRegion();
+    OfflineDownload download(
+        region.getID(),
+        OfflineTilePyramidRegionDefinition("http://127.0.0.1:3000/style.json", LatLngBounds::world(), 0.0, 0.0, 1.0),
+        test.db, test.fileSource);
+
+    OfflineDownloadPolicy policy;
+    policy.maximumBytesPerSecond = 1000;
+
+    OfflineDownloadScheduler scheduler;
+    scheduler.setPolicy(policy);
+
+    EXPECT_TRUE(scheduler.acquire(download));
+    scheduler.release(100000);
+
+    // The bucket needs about 99 seconds to refill
+    EXPECT_FALSE(scheduler.acquire(download));
+
+    scheduler.setPolicy(OfflineDownloadPolicy());
+    EXPECT_TRUE(scheduler.acquire(download));
+}
+
+TEST(OfflineDownload, PausedScheduler) {
+    using namespace std::chrono_literals;
+
+    OfflineTest test;
+    OfflineRegion region = test.createRegion();
+
+    OfflineDownloadScheduler scheduler;
+    scheduler.setPaused(true);
+
+    OfflineDownload download(
+        region.getID(),
+        OfflineTilePyramidRegionDefinition("http://127.0.0.1:3000/style.json", LatLngBounds::world(), 0.0, 0.0, 1.0),
+        test.db, test.fileSource, &scheduler);
+
+    bool resumed = false;
+    test.fileSource.styleResponse = [&] (const Resource&) {
+        EXPECT_TRUE(resumed);
+        return test.response("inline_source.style.json");
+    };
+
+    test.fileSource.tileResponse = [&] (const Resource&) {
+        return test.response("0-0-0.vector.pbf");
+    };
+
+    auto observer = std::make_unique<MockObserver>();
+
+    observer->statusChangedFn = [&] (OfflineRegionStatus status) {
+        if (status.complete()) {
+            EXPECT_EQ(2u, status.completedResourceCount);
+            EXPECT_EQ(0u, status.activeRequestCount);
+            EXPECT_LT(0u, status.downloadedSize);
+            EXPECT_LE(0, status.downloadRate);
+            test.loop.stop();
+        }
+    };
+
+    download.setObserver(std::move(observer));
+    download.setState(OfflineRegionDownloadState::Active);
+
+    util::Timer timer;
+    timer.start(50ms, Duration::zero(), [&] {
+        resumed = true;
+        scheduler.setPaused(false);
+    });
+
+    test.loop.run();
+}
+
+TEST(OfflineDownload, RegionRequestLimit) {
+    OfflineTest test;
+    OfflineRegion region = test.createRegion();
+
+    OfflineDownloadPolicy policy;
+    policy.maximumRegionRequests = 1;
+    policy.zoomLevelFirst = true;
+
+    OfflineDownloadScheduler scheduler;
+    scheduler.setPolicy(policy);
+
+    OfflineDownload download(
+        region.getID(),
+        OfflineTilePyramidRegionDefinition("http://127.0.0.1:3000/style.json", LatLngBounds::world(), 0.0, 0.0, 1.0),
+        test.db, test.fileSource, &scheduler);
+
+    test.fileSource.styleResponse = [&] (const Resource&) {
+        return test.response("geojson_source.style.json");
+    };
+
+    test.fileSource.sourceResponse = [&] (const Resource&) {
+        return test.response("geojson.json");
+    };
+
+    auto observer = std::make_unique<MockObserver>();
+
+    observer->statusChangedFn = [&] (OfflineRegionStatus status) {
+        EXPECT_GE(1u, status.activeRequestCount);
+        if (status.complete()) {
+            EXPECT_EQ(2u, status.completedResourceCount);
+            test.loop.stop();
+        }
+    };
+
+    download.setObserver(std::move(observer));
+    download.setState(OfflineRegionDownloadState::Active);
+
+    test.loop.run();
+}
+
+TEST(OfflineDownload, Refresh) {
+    OfflineTest test;
+    OfflineRegion region = test.createRegion();
+    OfflineDownload download(
+        region.getID(),
+        OfflineTilePyramidRegionDefinition("http://127.0.0.1:3000/style.json", LatLngBounds::world(), 0.0, 0.0, 1.0),
+        test.db, test.fileSource);
+
+    Response style = test.response("inline_source.style.json");
+    style.etag = "style-etag";
+    uint64_t styleSize = test.db.putRegionResource(region.getID(), Resource::style("http://127.0.0.1:3000/style.json"), style);
+
+    Response tile = test.response("0-0-0.vector.pbf");
+    tile.etag = "tile-etag";
+    test.db.putRegionResource(region.getID(),
+        Resource::tile("http://127.0.0.1:3000/{z}-{x}-{y}.vector.pbf", 1, 0, 0, 0), tile);
+
+    // The style is unchanged, the tile changed
+    test.fileSource.styleResponse = [&] (const Resource& resource) {
+        EXPECT_EQ("style-etag", *resource.priorEtag);
+        Response response;
+        response.notModified = true;
+        return response;
+    };
+
+    test.fileSource.tileResponse = [&] (const Resource& resource) {
+        EXPECT_EQ("tile-etag", *resource.priorEtag);
+        return test.response("0-0-0.vector.pbf");
+    };
+
+    auto observer = std::make_unique<MockObserver>();
+
+    observer->statusChangedFn = [&] (OfflineRegionStatus status) {
+        if (status.complete()) {
+            EXPECT_EQ(2u, status.completedResourceCount);
+            EXPECT_EQ(1u, status.unchangedResourceCount);
+            EXPECT_EQ(styleSize, status.unchangedResourceSize);
+            EXPECT_LT(0u, status.downloadedSize);
+            test.loop.stop();
+        }
+    };
+
+    download.setObserver(std::move(observer));
+    download.refresh();
+
+    test.loop.run();
+
+    EXPECT_FALSE(bool(test.db.getRegionRefreshStarted(region.getID())));
+}
+
+TEST(OfflineDownload, BatchCommittedWhenComplete) {
+    OfflineTest test;
+    OfflineRegion region = test.createRegion();
+    OfflineDownload download(
+        region.getID(),
+        OfflineTilePyramidRegionDefinition("http://127.0.0.1:3000/style.json", LatLngBounds::world(), 0.0, 0.0, 1.0),
+        test.db, test.fileSource);
+
+    test.db.setBatchSize(64);
+
+    test.fileSource.styleResponse = [&] (const Resource&) {
+        return test.response("inline_source.style.json");
+    };
+
+    test.fileSource.tileResponse = [&] (const Resource&) {
+        return test.response("0-0-0.vector.pbf");
+    };
+
+    auto observer = std::make_unique<MockObserver>();
+
+    observer->statusChangedFn = [&] (OfflineRegionStatus status) {
+        if (status.complete()) {
+            // The last resource is still part of the open batch
+            EXPECT_TRUE(test.db.hasUncommittedBatch());
+            test.loop.stop();
+        }
+    };
+
+    download.setObserver(std::move(observer));
+    download.setState(OfflineRegionDownloadState::Active);
+
+    test.loop.run();
+
+    EXPECT_FALSE(test.db.hasUncommittedBatch());
+    EXPECT_EQ(2u, test.db.getRegionCompletedStatus(region.getID()).completedResourceCount);
+}
+
+TEST(OfflineDownload, EstimateWithoutStyle) {
+    OfflineTest test;
+    OfflineDownload download(
+        0,
+        OfflineTilePyramidRegionDefinition("mapbox://styles/mapbox/streets-v9", LatLngBounds::world(), 0.0, 2.0, 1.0),
+        test.db, test.fileSource);
+
+    OfflineRegionEstimate estimate = download.estimate();
+    EXPECT_FALSE(estimate.precise);
+    EXPECT_EQ((std::vector<uint64_t>{ 1, 4, 16 }), estimate.tileCounts);
+    EXPECT_EQ(21u, estimate.tileCount);
+    EXPECT_EQ(21u, estimate.mapboxTileCount);
+    EXPECT_EQ(22u, estimate.resourceCount);
+    EXPECT_FALSE(bool(estimate.size));
+}
+
+TEST(OfflineDownload, EstimateFromStoredStyle) {
+    OfflineTest test;
+    OfflineDownload download(
+        0,
+        OfflineTilePyramidRegionDefinition("http://127.0.0.1:3000/style.json", LatLngBounds::world(), 0.0, 1.0, 1.0),
+        test.db, test.fileSource);
+
+    test.fileSource.styleResponse = [&] (const Resource&) -> Response {
+        ADD_FAILURE() << "Estimates must not make requests";
+        return {};
+    };
+
+    test.db.put(Resource::style("http://127.0.0.1:3000/style.json"), test.response("inline_source.style.json"));
+
+    OfflineRegionEstimate estimate = download.estimate();
+    EXPECT_TRUE(estimate.precise);
+    EXPECT_EQ((std::vector<uint64_t>{ 1, 4 }), estimate.tileCounts);
+    EXPECT_EQ(5u, estimate.tileCount);
+    EXPECT_EQ(0u, estimate.mapboxTileCount);
+    EXPECT_EQ(6u, estimate.resourceCount);
+    EXPECT_FALSE(bool(estimate.size));
+
+    // The size is extrapolated from the stored tiles of the source
+    Response tile;
+    tile.data = std::make_shared<std::string>(100, '\0');
+    uint64_t tileSize = test.db.put(Resource::tile("http://127.0.0.1:3000/{z}-{x}-{y}.vector.pbf", 1.0, 0, 0, 0), tile).second;
+
+    estimate = download.estimate();
+    ASSERT_TRUE(bool(estimate.size));
+    EXPECT_LE(5 * tileSize, *estimate.size);
+}
@@ -1,5 +1,6 @@
 #include <mbgl/test/util.hpp>
 #include <mbgl/storage/online_file_source.hpp>
+#include <mbgl/storage/http_file_source.hpp>
 #include <mbgl/storage/network_status.hpp>
 #include <mbgl/util/chrono.hpp>
 #include <mbgl/util/run_loop.hpp>
@@ -257,6 +258,156 @@ TEST(OnlineFileSource, TEST_REQUIRES_SERVER(Load)) {
     loop.run();
 }
 
+namespace {
+
+// Requests to /stale never complete, so they take up active connections until cancelled.
+std::vector<std::unique_ptr<AsyncRequest>> saturate(OnlineFileSource& fs) {
+    std::vector<std::unique_ptr<AsyncRequest>> requests;
+    for (uint32_t i = 0; i < HTTPFileSource::maximumConcurrentRequests(); i++) {
+        requests.push_back(fs.request({ Resource::Unknown, "http://127.0.0.1:3000/stale/" + std::to_string(i) }, [](Response) {
+            ADD_FAILURE() << "Callback should not be called";
+        }));
+    }
+    return requests;
+}
+
+} // namespace
+
+TEST(OnlineFileSource, TEST_REQUIRES_SERVER(PendingRequestPriority)) {
+    util::RunLoop loop;
+    OnlineFileSource fs;
+
+    auto active = saturate(fs);
+    std::vector<std::string> order;
+    std::unique_ptr<AsyncRequest> reqs[3];
+
+    // Every response frees one connection by cancelling a request that never completes, so
+    // pending requests are activated one at a time.
+    auto request = [&](int i, Resource resource, std::string name) {
+        reqs[i] = fs.request(resource, [&, i, name](Response res) {
+            reqs[i].reset();
+            EXPECT_EQ(nullptr, res.error);
+            order.push_back(name);
+            active.pop_back();
+            if (order.size() == 3) {
+                loop.stop();
+            }
+        });
+    };
+
+    request(0, Resource::tile("http://127.0.0.1:3000/load/{x}", 1.0, 1, 0, 0, Resource::Optional), "optional");
+    request(1, Resource::tile("http://127.0.0.1:3000/load/{x}", 1.0, 2, 0, 0), "tile");
+    request(2, Resource::style("http://127.0.0.1:3000/load/3"), "style");
+
+    util::Timer timer;
+    timer.start(Milliseconds(50), Duration::zero(), [&] {
+        active.pop_back();
+    });
+
+    loop.run();
+
+    // Styles and sources block rendering, optional tiles are only placeholders
+    EXPECT_EQ((std::vector<std::string>{ "style", "tile", "optional" }), order);
+}
+
+TEST(OnlineFileSource, TEST_REQUIRES_SERVER(PendingLowPriorityRequest)) {
+    util::RunLoop loop;
+    OnlineFileSource fs;
+
+    auto active = saturate(fs);
+    std::vector<std::string> order;
+
+    Resource low { Resource::Unknown, "http://127.0.0.1:3000/load/1" };
+    low.priority = Resource::Low;
+    std::unique_ptr<AsyncRequest> req1 = fs.request(low, [&](Response res) {
+        req1.reset();
+        EXPECT_EQ(nullptr, res.error);
+        order.push_back("low");
+        loop.stop();
+    });
+    std::unique_ptr<AsyncRequest> req2 = fs.request(Resource::tile("http://127.0.0.1:3000/load/{x}", 1.0, 2, 0, 0, Resource::Optional), [&](Response res) {
+        req2.reset();
+        EXPECT_EQ(nullptr, res.error);
+        order.push_back("optional");
+        active.pop_back();
+    });
+
+    util::Timer timer;
+    timer.start(Milliseconds(50), Duration::zero(), [&] {
+        active.pop_back();
+    });
+
+    loop.run();
+
+    // Prefetches wait for everything else, even placeholders
+    EXPECT_EQ((std::vector<std::string>{ "optional", "low" }), order);
+}
+
+TEST(OnlineFileSource, TEST_REQUIRES_SERVER(PendingRequestPriorityChange)) {
+    util::RunLoop loop;
+    OnlineFileSource fs;
+
+    auto active = saturate(fs);
+    std::vector<std::string> order;
+
+    Resource prefetch { Resource::Unknown, "http://127.0.0.1:3000/load/1" };
+    prefetch.priority = Resource::Low;
+    std::unique_ptr<AsyncRequest> req1 = fs.request(prefetch, [&](Response res) {
+        req1.reset();
+        EXPECT_EQ(nullptr, res.error);
+        order.push_back("prefetch");
+        active.pop_back();
+    });
+    std::unique_ptr<AsyncRequest> req2 = fs.request(Resource::tile("http://127.0.0.1:3000/load/{x}", 1.0, 2, 0, 0), [&](Response res) {
+        req2.reset();
+        EXPECT_EQ(nullptr, res.error);
+        order.push_back("tile");
+        loop.stop();
+    });
+
+    util::Timer timer;
+    timer.start(Milliseconds(50), Duration::zero(), [&] {
+        // The prefetch is pending behind the tile until its priority is raised
+        fs.setPriority(*req1, Resource::Regular);
+        active.pop_back();
+    });
+
+    loop.run();
+
+    EXPECT_EQ((std::vector<std::string>{ "prefetch", "tile" }), order);
+}
+
+TEST(OnlineFileSource, TEST_REQUIRES_SERVER(PendingTilesNewestFirst)) {
+    util::RunLoop loop;
+    OnlineFileSource fs;
+
+    auto active = saturate(fs);
+    std::vector<int32_t> order;
+    std::unique_ptr<AsyncRequest> reqs[3];
+
+    for (int32_t x = 0; x < 3; x++) {
+        reqs[x] = fs.request(Resource::tile("http://127.0.0.1:3000/load/{x}", 1.0, x, 0, 0), [&, x](Response res) {
+            reqs[x].reset();
+            EXPECT_EQ(nullptr, res.error);
+            order.push_back(x);
+            active.pop_back();
+            if (order.size() == 3) {
+                loop.stop();
+            }
+        });
+    }
+
+    util::Timer timer;
+    timer.start(Milliseconds(50), Duration::zero(), [&] {
+        active.pop_back();
+    });
+
+    loop.run();
+
+    // The most recently requested tiles belong to the current viewport
+    EXPECT_EQ((std::vector<int32_t>{ 2, 1, 0 }), order);
+}
+
 // Test for https://github.com/mapbox/mapbox-gl-native/issues/2123
 //
 // A request is made. While the request is in progress, the network status changes. This should
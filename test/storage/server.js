@@ -116,6 +116,15 @@ app.get('/temporary-error', function(req, res) {
     temporaryErrorCounter++;
 });
 
+var coalescedCounter = 0;
+app.get('/coalesced', function(req, res) {
+    var counter = ++coalescedCounter;
+    setTimeout(function() {
+        res.setHeader('Cache-Control', 'max-age=30');
+        res.status(200).send('Response ' + counter);
+    }, 200);
+});
+
 app.get('/delayed', function(req, res) {
     setTimeout(function() {
         res.status(200).send('Response');
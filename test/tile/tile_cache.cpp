@@ -0,0 +1,61 @@
+#include <mbgl/test/util.hpp>
+
+#include <mbgl/tile/tile_cache.hpp>
+#include <mbgl/tile/tile.hpp>
+
+using namespace mbgl;
+
+namespace {
+
+class FakeTile : public Tile {
+public:
+    FakeTile(OverscaledTileID id_) : Tile(id_) {
+        availableData = DataAvailability::All;
+    }
+
+    void setNecessity(Necessity) override {}
+    void cancel() override {}
+    Bucket* getBucket(const style::Layer&) override { return nullptr; }
+};
+
+} // namespace
+
+TEST(TileCache, HitsAndMisses) {
+    TileCache cache(2);
+    const OverscaledTileID a { 1, 0, 0 };
+    const OverscaledTileID b { 1, 1, 0 };
+
+    cache.add(a, std::make_unique<FakeTile>(a));
+    EXPECT_TRUE(bool(cache.get(a)));
+    EXPECT_FALSE(bool(cache.get(b)));
+    EXPECT_EQ(1u, cache.getHits());
+    EXPECT_EQ(1u, cache.getMisses());
+}
+
+TEST(TileCache, EvictionIsNotCountedAsHit) {
+    TileCache cache(1);
+    const OverscaledTileID a { 1, 0, 0 };
+    const OverscaledTileID b { 1, 1, 0 };
+
+    cache.add(a, std::make_unique<FakeTile>(a));
+    cache.add(b, std::make_unique<FakeTile>(b));
+    EXPECT_FALSE(cache.has(a));
+    EXPECT_TRUE(cache.has(b));
+    EXPECT_EQ(0u, cache.getHits());
+    EXPECT_EQ(0u, cache.getMisses());
+}
+
+TEST(TileCache, ShrinkEvictsOldest) {
+    TileCache cache(3);
+    const OverscaledTileID a { 1, 0, 0 };
+    const OverscaledTileID b { 1, 1, 0 };
+    const OverscaledTileID c { 1, 0, 1 };
+
+    cache.add(a, std::make_unique<FakeTile>(a));
+    cache.add(b, std::make_unique<FakeTile>(b));
+    cache.add(c, std::make_unique<FakeTile>(c));
+    cache.setSize(1);
+    EXPECT_FALSE(cache.has(a));
+    EXPECT_FALSE(cache.has(b));
+    EXPECT_TRUE(cache.has(c));
+}
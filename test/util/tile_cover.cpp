@@ -81,3 +81,70 @@ TEST(TileCover, SanFranciscoZ0Wrapped) {
     EXPECT_EQ((std::vector<UnwrappedTileID>{ { 0, 1, 0 } }),
               util::tileCover(sanFranciscoWrapped, 0));
 }
+
+TEST(TileCover, TileCount) {
+    const std::vector<LatLngBounds> bounds = {
+        LatLngBounds::world(),
+        LatLngBounds::hull({ 37.6609, -122.5744 }, { 37.8271, -122.3204 }),
+        LatLngBounds::hull({ -45, 170 }, { -30, 179.9 }),
+        LatLngBounds::hull({ 80, -10 }, { 90, 10 }),
+    };
+
+    for (const auto& bound : bounds) {
+        for (int32_t z = 0; z <= 12; z++) {
+            EXPECT_EQ(util::tileCover(bound, z).size(), util::tileCount(bound, z));
+        }
+    }
+
+    EXPECT_EQ(0u, util::tileCount(LatLngBounds::empty(), 0));
+    EXPECT_EQ(0u, util::tileCount(LatLngBounds::hull({ 86, -180 }, { 90, 180 }), 0));
+}
+
+TEST(TileCover, PolygonRectangle) {
+    const std::vector<LatLng> ring = {
+        { 37.6609, -122.5744 }, { 37.6609, -122.3204 }, { 37.8271, -122.3204 }, { 37.8271, -122.5744 },
+    };
+
+    for (int32_t z = 0; z <= 14; z++) {
+        EXPECT_EQ(util::tileCount(sanFrancisco, z), util::polygonTileCount(ring, z));
+        EXPECT_EQ(util::polygonTileCount(ring, z), util::polygonTileCover(ring, z).size());
+    }
+}
+
+TEST(TileCover, PolygonTriangle) {
+    const std::vector<LatLng> ring = { { 0, 0 }, { 0, 40 }, { 40, 0 } };
+    const LatLngBounds bounds = LatLngBounds::hull({ 0, 0 }, { 40, 40 });
+
+    EXPECT_EQ((std::vector<UnwrappedTileID>{ { 3, 4, 3 } }), util::polygonTileCover(ring, 3));
+
+    // Tiles beyond the hypotenuse are left out.
+    for (int32_t z = 4; z <= 10; z++) {
+        EXPECT_LT(util::polygonTileCount(ring, z), util::tileCount(bounds, z));
+        EXPECT_GT(util::polygonTileCount(ring, z), util::tileCount(bounds, z) / 2);
+    }
+
+    EXPECT_EQ(0u, util::polygonTileCount({ { 0, 0 }, { 10, 10 } }, 10));
+}
+
+TEST(TileCover, Corridor) {
+    const std::vector<LatLng> line = { { 0.1, 0.1 }, { 0.1, 10 }, { 10, 10 } };
+
+    // Without a buffer, only the tiles the line goes through.
+    EXPECT_EQ((std::vector<UnwrappedTileID>{ { 4, 8, 7 } }), util::corridorTileCover(line, 0, 4));
+    EXPECT_EQ(util::corridorTileCover(line, 0, 10).size(), util::corridorTileCount(line, 0, 10));
+
+    // A wider buffer covers more tiles, but far fewer than the bounds.
+    const LatLngBounds bounds = LatLngBounds::hull({ 0.1, 0.1 }, { 10, 10 });
+    for (int32_t z = 10; z <= 12; z++) {
+        const uint64_t narrow = util::corridorTileCount(line, 1000, z);
+        const uint64_t wide = util::corridorTileCount(line, 20000, z);
+        EXPECT_LE(util::corridorTileCount(line, 0, z), narrow);
+        EXPECT_LT(narrow, wide);
+        EXPECT_LT(wide, util::tileCount(bounds, z));
+        EXPECT_EQ(wide, util::corridorTileCover(line, 20000, z).size());
+    }
+
+    // A single point is a disk.
+    EXPECT_EQ(4u, util::corridorTileCount({ { 0, 0 } }, 1000, 10));
+    EXPECT_EQ(0u, util::corridorTileCount({}, 1000, 10));
+}